@@ -0,0 +1,126 @@
+package org.ocr.com.sdk;
+
+import org.ocr.com.sdk.config.ReviewMode;
+import org.ocr.com.sdk.exception.ConfigException;
+import org.ocr.com.sdk.exception.ErrorCode;
+
+/**
+ * 命令行参数
+ * 
+ * <pre>
+ * --staged        评审暂存区变更（适用于 pre-commit 钩子）
+ * --working-tree  评审工作区中已跟踪文件的全部变更
+ * --patch FILE    评审补丁文件（"-" 表示标准输入），不打开 Git 仓库
+ * --watch         守护模式：常驻监听本地仓库，每次提交后立即评审
+ * --help          显示帮助信息
+ * </pre>
+ * 
+ * @author SDK Team
+ * @since 1.0
+ */
+final class CommandLineArgs {
+    
+    static final String USAGE = String.join(System.lineSeparator(),
+            "用法: java -jar openai-code-review-sdk.jar [选项]",
+            "  --staged        评审暂存区与 HEAD 的差异（适用于 pre-commit 钩子）",
+            "  --working-tree  评审工作区已跟踪文件与 HEAD 的差异",
+            "  --patch FILE    评审统一 diff 补丁文件（git format-patch 输出或 .diff 文件），- 表示标准输入；不需要 Git 仓库",
+            "  --watch         守护模式：常驻监听本地仓库，每次提交后立即评审（Ctrl+C 退出）",
+            "  --help          显示帮助信息",
+            "未指定模式时评审最近一次提交（或 CODE_REVIEW_BASE_REF 指定的区间）");
+    
+    private ReviewMode reviewMode;
+    private String patchFile;
+    private boolean watch;
+    private boolean help;
+    
+    private CommandLineArgs() {
+    }
+    
+    /**
+     * 解析命令行参数
+     * 
+     * @param args 命令行参数
+     * @return 解析结果
+     * @throws ConfigException 参数无法识别或冲突时抛出
+     */
+    static CommandLineArgs parse(String[] args) {
+        CommandLineArgs result = new CommandLineArgs();
+        if (args == null) {
+            return result;
+        }
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.startsWith("--patch=")) {
+                result.setPatchFile(arg.substring("--patch=".length()));
+                continue;
+            }
+            switch (arg) {
+                case "--staged":
+                    result.setReviewMode(ReviewMode.STAGED);
+                    break;
+                case "--working-tree":
+                    result.setReviewMode(ReviewMode.WORKING_TREE);
+                    break;
+                case "--patch":
+                    if (i + 1 >= args.length) {
+                        throw new ConfigException(ErrorCode.PARAMETER_INVALID, "--patch 需要指定补丁文件路径");
+                    }
+                    result.setPatchFile(args[++i]);
+                    break;
+                case "--watch":
+                    result.watch = true;
+                    break;
+                case "-h":
+                case "--help":
+                    result.help = true;
+                    break;
+                default:
+                    throw new ConfigException(ErrorCode.PARAMETER_INVALID, "未知参数: " + arg);
+            }
+        }
+        if (result.patchFile != null && result.reviewMode != null) {
+            throw new ConfigException(ErrorCode.PARAMETER_INVALID, "--patch 不能与 --staged / --working-tree 同时使用");
+        }
+        if (result.watch && (result.patchFile != null || result.reviewMode != null)) {
+            throw new ConfigException(ErrorCode.PARAMETER_INVALID, "--watch 评审新提交，不能与 --patch / --staged / --working-tree 同时使用");
+        }
+        return result;
+    }
+    
+    private void setPatchFile(String patchFile) {
+        if (patchFile.trim().isEmpty()) {
+            throw new ConfigException(ErrorCode.PARAMETER_INVALID, "--patch 需要指定补丁文件路径");
+        }
+        this.patchFile = patchFile;
+    }
+    
+    private void setReviewMode(ReviewMode mode) {
+        if (reviewMode != null && reviewMode != mode) {
+            throw new ConfigException(ErrorCode.PARAMETER_INVALID, "--staged 与 --working-tree 不能同时使用");
+        }
+        this.reviewMode = mode;
+    }
+    
+    /**
+     * 命令行指定的评审模式，未指定时为 null（沿用配置）
+     */
+    ReviewMode getReviewMode() {
+        return reviewMode;
+    }
+    
+    /**
+     * 命令行指定的补丁文件（"-" 表示标准输入），未指定时为 null（评审 Git 仓库）
+     */
+    String getPatchFile() {
+        return patchFile;
+    }
+    
+    boolean isWatch() {
+        return watch;
+    }
+    
+    boolean isHelp() {
+        return help;
+    }
+}
@@ -1,8 +1,11 @@
 package org.ocr.com.sdk;
 
 import org.ocr.com.sdk.api.CodeReviewClient;
+import org.ocr.com.sdk.api.CodeReviewWatcher;
+import org.ocr.com.sdk.config.CodeReviewConfig;
 import org.ocr.com.sdk.domain.model.ReviewResult;
 import org.ocr.com.sdk.exception.CodeReviewException;
+import org.ocr.com.sdk.infrastructure.diff.PatchFileSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -17,6 +20,15 @@ import org.slf4j.LoggerFactory;
  * // 命令行方式（推荐用于CI/CD）
  * java -jar openai-code-review-sdk-1.0-SNAPSHOT.jar
  * 
+ * // 本地 pre-commit 钩子：评审暂存区变更，不推送评审报告
+ * java -jar openai-code-review-sdk-1.0-SNAPSHOT.jar --staged
+ * 
+ * // 评审已有的补丁（无需 Git 仓库）
+ * git diff origin/main...HEAD | java -jar openai-code-review-sdk-1.0-SNAPSHOT.jar --patch -
+ * 
+ * // 本地守护模式：每次提交后立即评审
+ * java -jar openai-code-review-sdk-1.0-SNAPSHOT.jar --watch
+ * 
  * // 编程式调用（推荐用于其他项目集成）
  * CodeReviewClient client = CodeReviewClient.create();
  * ReviewResult result = client.review();
@@ -32,18 +44,49 @@ public class OpenAiCodeReview {
     /**
      * 主入口方法
      * 
-     * @param args 命令行参数（当前未使用，保留用于未来扩展）
+     * @param args 命令行参数，见 {@link CommandLineArgs}
      */
     public static void main(String[] args) {
+        CommandLineArgs commandLineArgs;
+        try {
+            commandLineArgs = CommandLineArgs.parse(args);
+        } catch (CodeReviewException e) {
+            System.err.println(e.getMessage());
+            System.err.println(CommandLineArgs.USAGE);
+            System.exit(2);
+            return;
+        }
+        if (commandLineArgs.isHelp()) {
+            System.out.println(CommandLineArgs.USAGE);
+            return;
+        }
+        
         System.out.println("========================================");
         System.out.println("OpenAI Code Review SDK");
         System.out.println("========================================");
         System.out.println("开始初始化代码评审客户端...");
         
         try {
+            if (commandLineArgs.isWatch()) {
+                CodeReviewWatcher watcher = new CodeReviewWatcher(CodeReviewConfig.fromEnvironment());
+                Runtime.getRuntime().addShutdownHook(new Thread(watcher::close, "code-review-watcher-shutdown"));
+                System.out.println("✓ 代码评审客户端初始化成功（评审模式: 守护）");
+                watcher.run();
+                return;
+            }
+            
             // 使用 CodeReviewClient 执行评审
-            CodeReviewClient client = CodeReviewClient.create();
-            System.out.println("✓ 代码评审客户端初始化成功");
+            CodeReviewClient client;
+            if (commandLineArgs.getPatchFile() != null) {
+                CodeReviewConfig config = CodeReviewConfig.fromEnvironment();
+                client = new CodeReviewClient(config, new PatchFileSource(commandLineArgs.getPatchFile(), config));
+            } else if (commandLineArgs.getReviewMode() != null) {
+                client = new CodeReviewClient(CodeReviewConfig.builder().reviewMode(commandLineArgs.getReviewMode()).build());
+            } else {
+                client = CodeReviewClient.create();
+            }
+            System.out.println("✓ 代码评审客户端初始化成功（评审模式: " + (commandLineArgs.getPatchFile() != null
+                    ? "补丁文件" : client.getConfig().getReviewMode().getDescription()) + "）");
             System.out.println();
             
             ReviewResult result = client.review();
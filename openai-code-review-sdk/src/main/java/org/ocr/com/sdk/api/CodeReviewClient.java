@@ -7,10 +7,14 @@ import org.ocr.com.sdk.domain.port.CodeChangeSource;
 import org.ocr.com.sdk.domain.port.CodeReviewApi;
 import org.ocr.com.sdk.domain.port.ReviewReportRepository;
 import org.ocr.com.sdk.domain.service.NotificationService;
+import org.ocr.com.sdk.domain.service.TokenCounter;
+import org.ocr.com.sdk.infrastructure.diff.DiffProcessorFactory;
+import org.ocr.com.sdk.infrastructure.diff.HunkGrouperFactory;
 import org.ocr.com.sdk.infrastructure.git.GitRepository;
 import org.ocr.com.sdk.infrastructure.http.HttpClient;
 import org.ocr.com.sdk.infrastructure.notification.NotificationServiceFactory;
 import org.ocr.com.sdk.infrastructure.storage.ReportStorage;
+import org.ocr.com.sdk.infrastructure.token.TokenCounterFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,31 +39,57 @@ public class CodeReviewClient {
     }
 
     public CodeReviewClient(CodeReviewConfig config) {
+        this(config, null);
+    }
+
+    /**
+     * @param config 配置
+     * @param codeChangeSource 代码变更来源（如补丁文件），为 null 时使用配置中的 Git 仓库
+     */
+    public CodeReviewClient(CodeReviewConfig config, CodeChangeSource codeChangeSource) {
         this.config = config;
-        this.codeReviewService = createCodeReviewService(config);
+        this.codeReviewService = createCodeReviewService(config, codeChangeSource);
     }
 
     /**
      * 组装根：创建端口实现并组装代码评审服务（DDD 分层）。
      * 基础设施层直接接受 CodeReviewConfig，简化配置管理。
      */
-    private static DefaultCodeReviewService createCodeReviewService(CodeReviewConfig config) {
+    private static DefaultCodeReviewService createCodeReviewService(CodeReviewConfig config,
+                                                                    CodeChangeSource codeChangeSource) {
         System.out.println("  正在初始化基础设施组件...");
-        System.out.println("  - Git仓库适配器");
-        CodeChangeSource codeChangeSource = new GitRepository(config);
+        if (codeChangeSource == null) {
+            System.out.println("  - Git仓库适配器");
+            codeChangeSource = new GitRepository(config);
+        } else {
+            System.out.println("  - 代码变更来源适配器（" + codeChangeSource.getClass().getSimpleName() + "）");
+        }
         System.out.println("  - AI接口适配器");
         CodeReviewApi codeReviewApi = new HttpClient(config);
-        System.out.println("  - 报告存储适配器");
-        ReviewReportRepository reviewReportRepository = new ReportStorage(config);
+        ReviewReportRepository reviewReportRepository;
+        if (config.getReviewMode().isLocal()) {
+            // 本地模式评审的是未提交的变更，不推送评审报告
+            System.out.println("  - 报告存储适配器（" + config.getReviewMode().getDescription() + "模式，跳过）");
+            reviewReportRepository = (codeInfo, reviewContent) -> null;
+        } else {
+            System.out.println("  - 报告存储适配器");
+            reviewReportRepository = new ReportStorage(config);
+        }
         System.out.println("  - 通知服务适配器");
         List<NotificationService> notificationServices = NotificationServiceFactory.createServices(config);
         System.out.println("  ✓ 基础设施组件初始化完成");
 
+        TokenCounter tokenCounter = TokenCounterFactory.createTokenCounter(config);
+
         return new DefaultCodeReviewService(
                 codeChangeSource,
                 codeReviewApi,
                 reviewReportRepository,
-                notificationServices
+                notificationServices,
+                config,
+                DiffProcessorFactory.createProcessors(config, codeChangeSource, tokenCounter),
+                tokenCounter,
+                HunkGrouperFactory.createGrouper(config, codeChangeSource)
         );
     }
 
@@ -0,0 +1,81 @@
+package org.ocr.com.sdk.api;
+
+import org.ocr.com.sdk.config.CodeReviewConfig;
+import org.ocr.com.sdk.exception.ConfigException;
+import org.ocr.com.sdk.exception.ErrorCode;
+import org.ocr.com.sdk.infrastructure.git.GitRefWatcher;
+import org.ocr.com.sdk.infrastructure.git.GitRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+
+/**
+ * 本地守护模式代码评审（门面）
+ * 常驻监听本地仓库的引用变化，每次提交后立即在同一个 JVM 中执行评审：
+ * 类已加载、HTTP 连接池与仓库保持打开，提交后数秒即可看到评审结果，无需等待 CI。
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class CodeReviewWatcher implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CodeReviewWatcher.class);
+
+    private final CodeReviewConfig config;
+    private final CodeReviewClient client;
+    private final GitRefWatcher refWatcher;
+
+    public CodeReviewWatcher() {
+        this(CodeReviewConfig.fromEnvironment());
+    }
+
+    public CodeReviewWatcher(CodeReviewConfig config) {
+        if (config.getReviewMode().isLocal()) {
+            throw new ConfigException(ErrorCode.PARAMETER_INVALID,
+                    "守护模式评审新提交，不支持" + config.getReviewMode().getDescription() + "模式");
+        }
+        this.config = config;
+        GitRepository gitRepository = new GitRepository(config);
+        this.client = new CodeReviewClient(config, gitRepository);
+        this.refWatcher = gitRepository.watchRefs();
+    }
+
+    /**
+     * 持续监听并评审新提交，直到 {@link #close()} 被调用或线程被中断；单次评审失败不会退出
+     */
+    public void run() {
+        System.out.println("CodeReviewWatcher: 正在监听新提交（Ctrl+C 退出）...");
+        logger.info("守护模式已启动");
+        try {
+            String commit;
+            while ((commit = refWatcher.awaitNewCommit()) != null) {
+                System.out.println();
+                System.out.println("CodeReviewWatcher: 检测到新提交 " + commit.substring(0, 7) + "，开始评审");
+                logger.info("检测到新提交: {}", commit);
+                try {
+                    client.review();
+                } catch (Exception e) {
+                    // 失败详情已由评审服务输出，继续监听下一次提交
+                    logger.warn("提交 {} 评审失败: {}", commit, e.getMessage());
+                }
+                System.out.println("CodeReviewWatcher: 正在监听新提交（Ctrl+C 退出）...");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("守护模式已退出");
+    }
+
+    public CodeReviewConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * 停止监听，正在等待的 {@link #run()} 随即返回
+     */
+    @Override
+    public void close() {
+        refWatcher.close();
+    }
+}
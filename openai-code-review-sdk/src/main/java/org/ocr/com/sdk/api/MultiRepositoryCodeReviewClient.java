@@ -0,0 +1,198 @@
+package org.ocr.com.sdk.api;
+
+import org.ocr.com.sdk.application.DefaultCodeReviewService;
+import org.ocr.com.sdk.config.CodeReviewConfig;
+import org.ocr.com.sdk.domain.model.RepositoryReviewResult;
+import org.ocr.com.sdk.domain.port.ReviewReportRepository;
+import org.ocr.com.sdk.domain.service.NotificationService;
+import org.ocr.com.sdk.domain.service.TokenCounter;
+import org.ocr.com.sdk.exception.ConfigException;
+import org.ocr.com.sdk.exception.ErrorCode;
+import org.ocr.com.sdk.infrastructure.diff.DiffProcessorFactory;
+import org.ocr.com.sdk.infrastructure.diff.HunkGrouperFactory;
+import org.ocr.com.sdk.infrastructure.git.GitRepository;
+import org.ocr.com.sdk.infrastructure.http.HttpClient;
+import org.ocr.com.sdk.infrastructure.notification.NotificationServiceFactory;
+import org.ocr.com.sdk.infrastructure.notification.WeChatNotificationService;
+import org.ocr.com.sdk.infrastructure.storage.ReportStorage;
+import org.ocr.com.sdk.infrastructure.token.TokenCounterFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 多仓库代码评审客户端（门面 + 组装根）
+ * 在同一进程内并发评审多个仓库：各仓库只有 Git 适配器不同，AI 接口（HTTP 连接池）、报告存储与通知服务全部共享，
+ * 同时评审的仓库数由 {@link CodeReviewConfig#getReviewParallelism()} 限制。
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class MultiRepositoryCodeReviewClient implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MultiRepositoryCodeReviewClient.class);
+
+    private final CodeReviewConfig config;
+    private final List<String> repositoryPaths;
+    private final HttpClient codeReviewApi;
+    private final ReviewReportRepository reviewReportRepository;
+    private final List<NotificationService> notificationServices;
+    private final TokenCounter tokenCounter;
+
+    public MultiRepositoryCodeReviewClient(List<String> repositoryPaths) {
+        this(CodeReviewConfig.fromEnvironment(), repositoryPaths);
+    }
+
+    public MultiRepositoryCodeReviewClient(CodeReviewConfig config, List<String> repositoryPaths) {
+        if (repositoryPaths == null || repositoryPaths.isEmpty()) {
+            throw new ConfigException(ErrorCode.PARAMETER_INVALID, "仓库路径列表不能为空");
+        }
+        this.config = config;
+        this.repositoryPaths = Collections.unmodifiableList(new ArrayList<>(repositoryPaths));
+
+        System.out.println("  正在初始化共享基础设施组件...");
+        System.out.println("  - AI接口适配器（连接池上限 " + config.getReviewParallelism() * config.getChunkParallelism() + "）");
+        this.codeReviewApi = new HttpClient(config);
+        if (config.getReviewMode().isLocal()) {
+            // 本地模式评审的是未提交的变更，不推送评审报告
+            System.out.println("  - 报告存储适配器（" + config.getReviewMode().getDescription() + "模式，跳过）");
+            this.reviewReportRepository = (codeInfo, reviewContent) -> null;
+        } else {
+            System.out.println("  - 报告存储适配器");
+            this.reviewReportRepository = new ReportStorage(config);
+        }
+        System.out.println("  - 通知服务适配器");
+        this.notificationServices = NotificationServiceFactory.createServices(config);
+        System.out.println("  - Token 计数器");
+        this.tokenCounter = TokenCounterFactory.createTokenCounter(config);
+        System.out.println("  ✓ 共享基础设施组件初始化完成");
+    }
+
+    public static MultiRepositoryCodeReviewClient create(List<String> repositoryPaths) {
+        return new MultiRepositoryCodeReviewClient(CodeReviewConfig.fromEnvironment(), repositoryPaths);
+    }
+
+    public static MultiRepositoryCodeReviewClient createFromProperties(List<String> repositoryPaths) {
+        return new MultiRepositoryCodeReviewClient(CodeReviewConfig.fromProperties(), repositoryPaths);
+    }
+
+    /**
+     * 组装单个仓库的代码评审服务：只新建 Git 适配器，其余端口实现共享
+     */
+    private DefaultCodeReviewService createCodeReviewService(String repositoryPath) {
+        GitRepository gitRepository = new GitRepository(config, repositoryPath);
+        return new DefaultCodeReviewService(
+                gitRepository,
+                codeReviewApi,
+                reviewReportRepository,
+                notificationServices,
+                config,
+                DiffProcessorFactory.createProcessors(config, gitRepository, tokenCounter),
+                tokenCounter,
+                HunkGrouperFactory.createGrouper(config, gitRepository)
+        );
+    }
+
+    /**
+     * 并发评审所有仓库，单个仓库失败不影响其他仓库
+     *
+     * @return 各仓库的评审结果，顺序与仓库路径列表一致
+     */
+    public List<RepositoryReviewResult> review() {
+        int parallelism = Math.min(config.getReviewParallelism(), repositoryPaths.size());
+        System.out.println("MultiRepositoryCodeReviewClient: 开始评审 " + repositoryPaths.size()
+                + " 个仓库（并行度 " + parallelism + "）");
+        logger.info("多仓库评审: {} 个仓库，并行度 {}", repositoryPaths.size(), parallelism);
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "code-review-worker-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<RepositoryReviewResult>> futures = new ArrayList<>(repositoryPaths.size());
+            for (String repositoryPath : repositoryPaths) {
+                futures.add(executor.submit(() -> RepositoryReviewResult.success(repositoryPath,
+                        createCodeReviewService(repositoryPath).execute())));
+            }
+
+            List<RepositoryReviewResult> results = new ArrayList<>(repositoryPaths.size());
+            for (int i = 0; i < futures.size(); i++) {
+                results.add(await(repositoryPaths.get(i), futures.get(i), futures));
+            }
+            printSummary(results);
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private RepositoryReviewResult await(String repositoryPath, Future<RepositoryReviewResult> future,
+                                         List<Future<RepositoryReviewResult>> futures) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            logger.error("仓库评审失败: {}", repositoryPath, e.getCause());
+            return RepositoryReviewResult.failure(repositoryPath, e.getCause());
+        } catch (CancellationException e) {
+            return RepositoryReviewResult.failure(repositoryPath, e);
+        } catch (InterruptedException e) {
+            // 调用线程被中断：取消尚未完成的评审
+            Thread.currentThread().interrupt();
+            for (Future<RepositoryReviewResult> pending : futures) {
+                pending.cancel(true);
+            }
+            return RepositoryReviewResult.failure(repositoryPath, e);
+        }
+    }
+
+    private void printSummary(List<RepositoryReviewResult> results) {
+        int skipped = 0;
+        int failed = 0;
+        for (RepositoryReviewResult result : results) {
+            if (!result.isSuccess()) {
+                failed++;
+                System.err.println("  ✗ " + result.getRepositoryPath() + ": " + result.getError().getMessage());
+            } else if (result.isSkipped()) {
+                skipped++;
+            }
+        }
+        int reviewed = results.size() - skipped - failed;
+        System.out.println("========================================");
+        System.out.println("=== 多仓库评审完成: 评审 " + reviewed + "，跳过 " + skipped + "，失败 " + failed + " ===");
+        System.out.println("========================================");
+        logger.info("多仓库评审完成: 评审 {}，跳过 {}，失败 {}", reviewed, skipped, failed);
+    }
+
+    public CodeReviewConfig getConfig() {
+        return config;
+    }
+
+    public List<String> getRepositoryPaths() {
+        return repositoryPaths;
+    }
+
+    /**
+     * 释放共享资源（HTTP 连接池与通知线程）
+     */
+    @Override
+    public void close() {
+        codeReviewApi.close();
+        for (NotificationService service : notificationServices) {
+            if (service instanceof WeChatNotificationService) {
+                ((WeChatNotificationService) service).shutdown();
+            }
+        }
+    }
+}
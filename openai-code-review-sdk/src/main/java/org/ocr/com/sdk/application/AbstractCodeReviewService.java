@@ -34,6 +34,14 @@ public abstract class AbstractCodeReviewService {
             // 1. 获取代码变更
             System.out.println("[步骤 1/5] 正在获取代码变更...");
             CodeInfo codeInfo = getCodeChanges();
+            if (codeInfo.isSkipped()) {
+                System.out.println("✓ 无需评审: " + codeInfo.getSkipReason());
+                System.out.println("========================================");
+                logger.info("跳过代码评审: {}", codeInfo.getSkipReason());
+                ReviewResult skipped = ReviewResult.skipped(codeInfo);
+                onReviewCompleted(skipped);
+                return skipped;
+            }
             codeInfo.validate();
             System.out.println("✓ 代码变更获取成功");
             System.out.println("  - 提交信息: " + codeInfo.getCommitMessage());
@@ -42,7 +50,8 @@ public abstract class AbstractCodeReviewService {
             
             // 2. 评审代码
             System.out.println("[步骤 2/5] 正在调用AI进行代码评审...");
-            String reviewContent = reviewCode(codeInfo);
+            // 评审前处理差异只影响发送给 AI 的内容，报告与水位线仍使用原始变更
+            String reviewContent = reviewCode(preprocess(codeInfo));
             System.out.println("✓ AI评审完成");
             System.out.println("  - 评审内容长度: " + reviewContent.length() + " 字符");
             
@@ -67,6 +76,8 @@ public abstract class AbstractCodeReviewService {
             sendNotification(result);
             System.out.println("✓ 通知发送完成");
             
+            onReviewCompleted(result);
+            
             System.out.println("========================================");
             System.out.println("=== 代码评审完成 ===");
             System.out.println("========================================");
@@ -90,6 +101,16 @@ public abstract class AbstractCodeReviewService {
      * @return 代码信息
      */
     protected abstract CodeInfo getCodeChanges();
+    
+    /**
+     * 评审前处理代码变更（钩子方法，默认原样返回）
+     * 
+     * @param codeInfo 代码信息
+     * @return 用于评审的代码信息
+     */
+    protected CodeInfo preprocess(CodeInfo codeInfo) {
+        return codeInfo;
+    }
 
     /**
      * 评审代码（抽象方法）
@@ -114,4 +135,12 @@ public abstract class AbstractCodeReviewService {
      * @param result 评审结果
      */
     protected abstract void sendNotification(ReviewResult result);
+
+    /**
+     * 评审完成或跳过后的回调（钩子方法，默认不处理）
+     * 
+     * @param result 评审结果
+     */
+    protected void onReviewCompleted(ReviewResult result) {
+    }
 }
@@ -1,19 +1,34 @@
 package org.ocr.com.sdk.application;
 
+import org.ocr.com.sdk.config.CodeReviewConfig;
 import org.ocr.com.sdk.domain.model.CodeInfo;
 import org.ocr.com.sdk.domain.model.NotificationMessage;
 import org.ocr.com.sdk.domain.model.ReviewResult;
+import org.ocr.com.sdk.domain.model.valueobject.FileDiff;
+import org.ocr.com.sdk.domain.model.valueobject.ReviewPrompt;
 import org.ocr.com.sdk.domain.port.CodeChangeSource;
 import org.ocr.com.sdk.domain.port.CodeReviewApi;
 import org.ocr.com.sdk.domain.port.ReviewReportRepository;
+import org.ocr.com.sdk.domain.service.DiffProcessor;
+import org.ocr.com.sdk.domain.service.HeuristicTokenCounter;
+import org.ocr.com.sdk.domain.service.HunkGrouper;
 import org.ocr.com.sdk.domain.service.NotificationService;
+import org.ocr.com.sdk.domain.service.TokenCounter;
 import org.ocr.com.sdk.exception.CodeReviewException;
 import org.ocr.com.sdk.exception.ErrorCode;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * 默认代码评审服务实现
@@ -26,19 +41,7 @@ public class DefaultCodeReviewService extends AbstractCodeReviewService {
 
     private static final int NOTIFICATION_TIMEOUT_SECONDS = 5;
     
-    private static final String PROMPT_TEMPLATE = 
-        "你是资深技术专家，请对以下代码进行评审，发现问题并提供改进建议。\n" +
-        "\n" +
-        "代码变更：\n" +
-        "%s\n" +
-        "\n" +
-        "评审维度（按高/中/低分级）：\n" +
-        "1. 正确性：逻辑错误、边界条件、异常处理\n" +
-        "2. 安全性：漏洞、资源管理、敏感信息\n" +
-        "3. 性能：瓶颈、可扩展性\n" +
-        "4. 可维护性：命名、结构、注释、规范\n" +
-        "5. 可测试性：依赖、Mock难度\n" +
-        "\n" +
+    private static final String OUTPUT_FORMAT =
         "输出格式：\n" +
         "## 代码评审报告\n" +
         "### 一、总结\n" +
@@ -56,39 +59,192 @@ public class DefaultCodeReviewService extends AbstractCodeReviewService {
         "2. 建议优化：中等级问题\n" +
         "3. 可考虑：低等级问题";
 
+    // 评审指令作为 system 消息，不含任何随变更变化的内容，保证各次请求逐字节相同以命中服务端前缀缓存
+    private static final String SYSTEM_PROMPT =
+        "你是资深技术专家，请对用户提供的代码变更进行评审，发现问题并提供改进建议。\n" +
+        "\n" +
+        "评审维度（按高/中/低分级）：\n" +
+        "1. 正确性：逻辑错误、边界条件、异常处理\n" +
+        "2. 安全性：漏洞、资源管理、敏感信息\n" +
+        "3. 性能：瓶颈、可扩展性\n" +
+        "4. 可维护性：命名、结构、注释、规范\n" +
+        "5. 可测试性：依赖、Mock难度\n" +
+        "\n" +
+        "差异中以“…”开头的行是预处理说明（已省略的内容、相同变更的其他位置等），不是代码；" +
+        "同一变更出现在多个位置时，问题的位置需列出全部受影响的文件。\n" +
+        "\n" + OUTPUT_FORMAT;
+
+    // user 消息中代码变更前的标题
+    private static final String DIFF_HEADING = "代码变更：\n";
+
+    // 合并各部分评审报告（reduce）的 system 消息，同样保持固定
+    private static final String MERGE_SYSTEM_PROMPT =
+        "你是资深技术专家。同一次代码变更因篇幅较大按文件/差异块拆分为多个部分分别评审（较大的文件可能分布在多个部分中），用户会提供各部分的评审报告，请合并为一份完整的评审报告。\n" +
+        "\n" +
+        "合并要求：\n" +
+        "1. 保留各部分发现的全部问题，合并重复问题，按高/中/低等级排序\n" +
+        "2. 问题统计为合并后的总数，合并重复问题后可能少于各部分合计\n" +
+        "3. 整体评价、优点与后续步骤需综合所有部分\n" +
+        "4. 报告中不要出现“第 N 部分”等拆分痕迹\n" +
+        "\n" + OUTPUT_FORMAT;
+
+    // 合并请求的 user 消息，参数依次为部分数、各部分合计的高/中/低问题数、各部分报告
+    private static final String MERGE_USER_TEMPLATE =
+        "共 %d 部分，各部分问题统计合计：高（%d） 中（%d） 低（%d）\n" +
+        "\n" +
+        "各部分评审报告：\n" +
+        "%s";
+
+    // 多批评审时附加在代码变更前的说明
+    private static final String PART_NOTE = "（本次变更较大，已按文件/差异块拆分为 %d 部分分别评审，当前为第 %d 部分，仅评审以下差异；"
+            + "文件头后注明只包含部分差异块的文件并非完整变更，其余差异块在其他部分评审）\n";
+
+    // 评审报告中的问题统计行：高（x） 中（y） 低（z）
+    private static final Pattern ISSUE_COUNTS =
+            Pattern.compile("高\\s*[（(]\\s*(\\d+)\\s*[）)]\\s*中\\s*[（(]\\s*(\\d+)\\s*[）)]\\s*低\\s*[（(]\\s*(\\d+)\\s*[）)]");
+
     private final CodeChangeSource codeChangeSource;
     private final CodeReviewApi codeReviewApi;
     private final ReviewReportRepository reviewReportRepository;
     private final List<NotificationService> notificationServices;
+    private final TokenCounter tokenCounter;
+    private final PromptPlanner promptPlanner;
+    private final DiffProcessingPipeline diffProcessingPipeline;
+    // 单次请求提示词的 token 上限（上下文窗口扣除最大输出）
+    private final int promptBudgetTokens;
+    // 系统指令与代码变更标题的 token 数
+    private final int templateTokens;
+    private final int chunkParallelism;
 
     public DefaultCodeReviewService(
             CodeChangeSource codeChangeSource,
             CodeReviewApi codeReviewApi,
             ReviewReportRepository reviewReportRepository,
             List<NotificationService> notificationServices) {
+        this(codeChangeSource, codeReviewApi, reviewReportRepository, notificationServices,
+                CodeReviewConfig.DEFAULT_CONTEXT_WINDOW_TOKENS, CodeReviewConfig.DEFAULT_MAX_TOKENS,
+                CodeReviewConfig.DEFAULT_CHUNK_PARALLELISM, Collections.<DiffProcessor>emptyList(),
+                new HeuristicTokenCounter(), null);
+    }
+
+    /**
+     * 按配置的模型上下文窗口规划提示词：窗口扣除最大输出 token 与提示词模板后即为单批差异预算；
+     * 拆分后的各批按配置的并行度并发评审，再合并为一份报告。
+     * 生成提示词之前依次执行差异处理阶段；提示词与各阶段的 token 数由给定的计数器统计；
+     * 给定差异块分组器时，超出预算的文件按代码结构拆分
+     */
+    public DefaultCodeReviewService(
+            CodeChangeSource codeChangeSource,
+            CodeReviewApi codeReviewApi,
+            ReviewReportRepository reviewReportRepository,
+            List<NotificationService> notificationServices,
+            CodeReviewConfig config,
+            List<DiffProcessor> diffProcessors,
+            TokenCounter tokenCounter,
+            HunkGrouper hunkGrouper) {
+        this(codeChangeSource, codeReviewApi, reviewReportRepository, notificationServices,
+                config.getContextWindowTokens(), config.getMaxTokens(), config.getChunkParallelism(), diffProcessors,
+                tokenCounter, hunkGrouper);
+    }
+
+    private DefaultCodeReviewService(
+            CodeChangeSource codeChangeSource,
+            CodeReviewApi codeReviewApi,
+            ReviewReportRepository reviewReportRepository,
+            List<NotificationService> notificationServices,
+            int contextWindowTokens,
+            int maxTokens,
+            int chunkParallelism,
+            List<DiffProcessor> diffProcessors,
+            TokenCounter tokenCounter,
+            HunkGrouper hunkGrouper) {
         this.codeChangeSource = codeChangeSource;
         this.codeReviewApi = codeReviewApi;
         this.reviewReportRepository = reviewReportRepository;
         this.notificationServices = notificationServices != null ? notificationServices : new ArrayList<>();
+        this.tokenCounter = tokenCounter;
+        this.templateTokens = tokenCounter.count(SYSTEM_PROMPT) + tokenCounter.count(DIFF_HEADING);
+        int budgetTokens = contextWindowTokens - maxTokens - templateTokens
+                - tokenCounter.count(String.format(PART_NOTE, 99, 99));
+        if (budgetTokens <= 0) {
+            throw new IllegalArgumentException("模型上下文窗口（" + contextWindowTokens
+                    + "）不足以容纳提示词模板与最大输出 token 数（" + maxTokens + "）");
+        }
+        this.promptPlanner = new PromptPlanner(tokenCounter, budgetTokens, hunkGrouper);
+        this.promptBudgetTokens = contextWindowTokens - maxTokens;
+        this.chunkParallelism = chunkParallelism;
+        this.diffProcessingPipeline = new DiffProcessingPipeline(diffProcessors, tokenCounter);
     }
 
     @Override
     protected CodeInfo getCodeChanges() {
-        System.out.println("  正在从Git仓库获取最新代码变更...");
+        System.out.println("  正在获取最新代码变更...");
         CodeInfo codeInfo = codeChangeSource.getLatestDiff();
         return codeInfo;
     }
 
+    @Override
+    protected CodeInfo preprocess(CodeInfo codeInfo) {
+        return diffProcessingPipeline.process(codeInfo);
+    }
+
     @Override
     protected String reviewCode(CodeInfo codeInfo) {
-        // 生成提示词
-        System.out.println("  正在生成AI评审提示词...");
-        String prompt = generatePrompt(codeInfo.getDiffContent());
-        System.out.println("  提示词生成完成，长度: " + prompt.length() + " 字符");
-        logger.debug("生成提示词，长度: {}", prompt.length());
+        String reviewContent = reviewDiffs(codeInfo);
+        // 差异处理阶段的附录（如重复变更的全部位置）不经过 AI，直接追加到报告末尾
+        String appendix = codeInfo.getReviewAppendix();
+        return appendix != null ? reviewContent + "\n\n" + appendix : reviewContent;
+    }
+
+    private String reviewDiffs(CodeInfo codeInfo) {
+        if (!codeInfo.getDiffContentValue().hasFileDiffs()) {
+            String diffContent = codeInfo.getDiffContent();
+            return reviewSingle(generatePrompt(diffContent), templateTokens + tokenCounter.count(diffContent));
+        }
+
+        System.out.println("  正在按上下文预算规划评审批次...");
+        List<PromptChunk> chunks = promptPlanner.plan(codeInfo.getFileDiffs());
+        if (chunks.isEmpty()) {
+            // 没有可装箱的文件差异时按完整文本评审
+            String diffContent = codeInfo.getDiffContent();
+            return reviewSingle(generatePrompt(diffContent), templateTokens + tokenCounter.count(diffContent));
+        }
+        if (chunks.size() == 1) {
+            // 单批时分片即全部文件（过大的差异块已替换为占位说明）
+            PromptChunk chunk = chunks.get(0);
+            return reviewSingle(generatePrompt(null, chunk.getFileDiffs()), templateTokens + chunk.getEstimatedTokens());
+        }
+
+        // 变更超出单次请求的上下文预算：各批并发评审（map），再合并为一份报告（reduce）
+        System.out.println("  变更较大，拆分为 " + chunks.size() + " 批并发评审");
+        long startTime = System.currentTimeMillis();
+        List<String> partials = reviewChunks(chunks);
+        System.out.println("  ✓ " + chunks.size() + " 批评审完成，耗时 " + (System.currentTimeMillis() - startTime) + "ms");
+        return mergeReviews(chunks, partials);
+    }
+
+    /**
+     * 单次请求评审一段代码变更
+     */
+    private String reviewSingle(ReviewPrompt prompt, int promptTokens) {
+        // 提示词不拼接为完整文本，发送请求时流式写出
+        System.out.println("  提示词生成完成，长度: " + prompt.length() + " 字符，约 " + promptTokens + " tokens");
+        logger.debug("生成提示词，长度: {} 字符，约 {} tokens", prompt.length(), promptTokens);
+        if (promptTokens > promptBudgetTokens) {
+            // 来源只提供完整文本时无法按文件拆分
+            System.out.println("  ⚠ 提示词超出上下文预算（" + promptBudgetTokens + " tokens），请求可能被拒绝或截断");
+            logger.warn("提示词约 {} tokens，超出预算 {}", promptTokens, promptBudgetTokens);
+        }
         
         // 调用AI进行评审
         System.out.println("  正在调用AI接口进行评审（可能需要一些时间）...");
+        return requestReview(prompt);
+    }
+
+    /**
+     * 调用AI接口，返回非空的评审内容
+     */
+    private String requestReview(ReviewPrompt prompt) {
         String reviewContent = codeReviewApi.reviewByPrompt(prompt);
         if (reviewContent == null || reviewContent.trim().isEmpty()) {
             System.err.println("  ✗ AI返回的评审内容为空");
@@ -99,6 +255,150 @@ public class DefaultCodeReviewService extends AbstractCodeReviewService {
         return reviewContent;
     }
 
+    /**
+     * 以有限并行度并发评审各批差异，任一批失败时取消其余请求并抛出
+     *
+     * @return 各批评审内容，顺序与分片一致
+     */
+    private List<String> reviewChunks(List<PromptChunk> chunks) {
+        int parallelism = Math.min(chunkParallelism, chunks.size());
+        logger.info("分批评审: {} 批，并行度 {}", chunks.size(), parallelism);
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "code-review-chunk-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<String>> futures = new ArrayList<>(chunks.size());
+            for (int i = 0; i < chunks.size(); i++) {
+                PromptChunk chunk = chunks.get(i);
+                String part = (i + 1) + "/" + chunks.size();
+                ReviewPrompt prompt = generatePrompt(String.format(PART_NOTE, chunks.size(), i + 1),
+                        chunk.getFileDiffs());
+                System.out.println("  [" + part + "] 约 " + chunk.getEstimatedTokens()
+                        + " tokens，文件: " + describePaths(chunk, ", "));
+                futures.add(executor.submit(() -> {
+                    long partStartTime = System.currentTimeMillis();
+                    String content = requestReview(prompt);
+                    System.out.println("  ✓ [" + part + "] 评审完成，耗时 "
+                            + (System.currentTimeMillis() - partStartTime) + "ms");
+                    return content;
+                }));
+            }
+
+            List<String> partials = new ArrayList<>(chunks.size());
+            for (Future<String> future : futures) {
+                partials.add(await(future, futures));
+            }
+            return partials;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private String await(Future<String> future, List<Future<String>> futures) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            for (Future<String> pending : futures) {
+                pending.cancel(true);
+            }
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new CodeReviewException(ErrorCode.AI_API_CALL_FAILED.getCode(),
+                    "分批评审失败: " + cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (Future<String> pending : futures) {
+                pending.cancel(true);
+            }
+            throw new CodeReviewException(ErrorCode.AI_API_CALL_FAILED.getCode(), "分批评审被中断", e);
+        }
+    }
+
+    /**
+     * 合并各批评审内容：再调用一次AI按统一格式合并；合并提示词超出上下文窗口或合并失败时，
+     * 退化为按部分拼接并附上各部分合计的问题统计
+     */
+    private String mergeReviews(List<PromptChunk> chunks, List<String> partials) {
+        int[] issueCounts = sumIssueCounts(partials);
+        StringBuilder parts = new StringBuilder();
+        for (int i = 0; i < partials.size(); i++) {
+            parts.append("### 第 ").append(i + 1).append(" 部分（涉及文件：")
+                    .append(describePaths(chunks.get(i), "、")).append("）\n\n")
+                    .append(partials.get(i).trim()).append("\n\n");
+        }
+        String userContent = String.format(MERGE_USER_TEMPLATE, partials.size(),
+                issueCounts[0], issueCounts[1], issueCounts[2], parts.toString().trim());
+        int promptTokens = tokenCounter.count(MERGE_SYSTEM_PROMPT) + tokenCounter.count(userContent);
+        if (promptTokens > promptBudgetTokens) {
+            System.out.println("  ⚠ 各部分报告合计约 " + promptTokens + " tokens，超出上下文窗口，按部分拼接报告");
+            logger.warn("合并提示词约 {} tokens，超出预算 {}，按部分拼接报告", promptTokens, promptBudgetTokens);
+            return concatReviews(chunks, partials, issueCounts);
+        }
+
+        System.out.println("  正在合并 " + partials.size() + " 部分评审报告...");
+        try {
+            return requestReview(ReviewPrompt.builder().system(MERGE_SYSTEM_PROMPT).append(userContent).build());
+        } catch (CodeReviewException e) {
+            System.out.println("  ⚠ 合并评审报告失败，按部分拼接报告: " + e.getMessage());
+            logger.warn("合并评审报告失败，按部分拼接报告: {}", e.getMessage());
+            return concatReviews(chunks, partials, issueCounts);
+        }
+    }
+
+    private String concatReviews(List<PromptChunk> chunks, List<String> partials, int[] issueCounts) {
+        StringBuilder reviewContent = new StringBuilder();
+        reviewContent.append("## 代码评审报告\n\n")
+                .append("> 本次变更较大，已按文件/差异块拆分为 ").append(partials.size()).append(" 部分分别评审，")
+                .append("标注“部分差异块”的文件分布在多个部分中。")
+                .append("问题统计（各部分合计）：高（").append(issueCounts[0]).append("） 中（")
+                .append(issueCounts[1]).append("） 低（").append(issueCounts[2]).append("）\n");
+        for (int i = 0; i < partials.size(); i++) {
+            reviewContent.append("\n---\n\n")
+                    .append("# 第 ").append(i + 1).append("/").append(partials.size()).append(" 部分\n\n")
+                    .append("涉及文件：").append(describePaths(chunks.get(i), "、")).append("\n\n")
+                    .append(partials.get(i).trim()).append("\n");
+        }
+        return reviewContent.toString();
+    }
+
+    /**
+     * 分片涉及的文件，只包含部分差异块的文件附加标注
+     */
+    private static String describePaths(PromptChunk chunk, String separator) {
+        StringBuilder sb = new StringBuilder();
+        for (String path : chunk.getPaths()) {
+            if (sb.length() > 0) {
+                sb.append(separator);
+            }
+            sb.append(path);
+            if (chunk.getPartialPaths().contains(path)) {
+                sb.append("（部分差异块）");
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 累加各部分报告中的问题统计（高、中、低），未找到统计行的部分不计入
+     */
+    private static int[] sumIssueCounts(List<String> partials) {
+        int[] counts = new int[3];
+        for (String partial : partials) {
+            Matcher matcher = ISSUE_COUNTS.matcher(partial);
+            if (matcher.find()) {
+                for (int level = 0; level < counts.length; level++) {
+                    counts[level] += Integer.parseInt(matcher.group(level + 1));
+                }
+            }
+        }
+        return counts;
+    }
+
     @Override
     protected String saveReport(CodeInfo codeInfo, String reviewContent) {
         System.out.println("  正在保存评审报告到GitHub仓库...");
@@ -163,13 +463,46 @@ public class DefaultCodeReviewService extends AbstractCodeReviewService {
         }
     }
 
+    @Override
+    protected void onReviewCompleted(ReviewResult result) {
+        try {
+            codeChangeSource.markReviewed(result.getCodeInfo());
+        } catch (CodeReviewException e) {
+            // 记录失败只影响下次是否重复评审，不影响本次结果
+            System.out.println("  ⚠ 记录评审水位线失败: " + e.getMessage());
+            logger.warn("记录评审水位线失败: {}", e.getMessage());
+        }
+    }
+
     /**
      * 生成提示词
      */
-    private String generatePrompt(String diffContent) {
+    private ReviewPrompt generatePrompt(String diffContent) {
         if (diffContent == null || diffContent.trim().isEmpty()) {
             throw new IllegalArgumentException("代码差异内容不能为空");
         }
-        return PROMPT_TEMPLATE.replace("%s", diffContent);
+        return ReviewPrompt.builder()
+                .system(SYSTEM_PROMPT)
+                .append(DIFF_HEADING)
+                .append(diffContent)
+                .build();
+    }
+
+    /**
+     * 由文件差异生成提示词，差异不拼接为完整文本，发送请求时逐个文件写出
+     *
+     * @param note      附加在代码变更前的说明，可为 null
+     * @param fileDiffs 文件差异
+     */
+    private ReviewPrompt generatePrompt(String note, List<FileDiff> fileDiffs) {
+        if (fileDiffs.isEmpty()) {
+            throw new IllegalArgumentException("代码差异内容不能为空");
+        }
+        return ReviewPrompt.builder()
+                .system(SYSTEM_PROMPT)
+                .append(DIFF_HEADING)
+                .append(note)
+                .appendAll(fileDiffs)
+                .build();
     }
 }
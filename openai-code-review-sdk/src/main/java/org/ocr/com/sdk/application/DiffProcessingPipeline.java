@@ -0,0 +1,132 @@
+package org.ocr.com.sdk.application;
+
+import org.ocr.com.sdk.domain.model.CodeInfo;
+import org.ocr.com.sdk.domain.model.valueobject.FileDiff;
+import org.ocr.com.sdk.domain.service.DiffProcessor;
+import org.ocr.com.sdk.domain.service.TokenCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 差异处理流水线
+ * 在生成提示词之前按顺序执行各处理阶段，并统计每个阶段节省（或增加）的字节数与估算 token 数
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class DiffProcessingPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiffProcessingPipeline.class);
+
+    private final List<DiffProcessor> processors;
+    private final TokenCounter tokenCounter;
+
+    public DiffProcessingPipeline(List<DiffProcessor> processors, TokenCounter tokenCounter) {
+        this.processors = processors != null
+                ? Collections.unmodifiableList(new ArrayList<>(processors))
+                : Collections.<DiffProcessor>emptyList();
+        this.tokenCounter = tokenCounter;
+    }
+
+    /**
+     * 处理代码信息中的文件差异；来源只提供完整文本时各阶段只处理文本（{@link DiffProcessor#processText}），
+     * 未配置处理阶段时原样返回
+     */
+    public CodeInfo process(CodeInfo codeInfo) {
+        if (processors.isEmpty() || codeInfo.isEmpty()) {
+            return codeInfo;
+        }
+        if (!codeInfo.getDiffContentValue().hasFileDiffs()) {
+            String diffContent = codeInfo.getDiffContent();
+            String processed = diffContent;
+            for (DiffProcessor processor : processors) {
+                processed = processor.processText(processed);
+            }
+            return processed.equals(diffContent) ? codeInfo : codeInfo.withDiffContent(processed);
+        }
+        System.out.println("  正在处理代码差异...");
+        List<FileDiff> fileDiffs = codeInfo.getFileDiffs();
+        Size initial = measure(fileDiffs);
+        Size before = initial;
+        long startTime = System.currentTimeMillis();
+        StringBuilder appendix = new StringBuilder();
+        for (DiffProcessor processor : processors) {
+            long stageStartTime = System.currentTimeMillis();
+            DiffProcessor.Result result = processor.process(fileDiffs);
+            Size after = result.getFileDiffs() == fileDiffs ? before : measure(result.getFileDiffs());
+            report(processor.getName(), result.getDetail(), before, after,
+                    System.currentTimeMillis() - stageStartTime);
+            fileDiffs = result.getFileDiffs();
+            before = after;
+            if (appendix.length() > 0) {
+                // 附录同样会写入报告，经过后续阶段处理（如脱敏）
+                String processed = processor.processText(appendix.toString());
+                appendix.setLength(0);
+                appendix.append(processed);
+            }
+            if (result.getReportAppendix() != null) {
+                appendix.append(appendix.length() > 0 ? "\n\n" : "").append(result.getReportAppendix());
+            }
+        }
+        if (processors.size() > 1) {
+            report("合计", null, initial, before, System.currentTimeMillis() - startTime);
+        }
+        return codeInfo.withFileDiffs(fileDiffs, appendix.length() > 0 ? appendix.toString() : null);
+    }
+
+    private void report(String name, String detail, Size before, Size after, long elapsedMillis) {
+        long savedBytes = before.bytes - after.bytes;
+        long savedTokens = before.tokens - after.tokens;
+        String percent = before.bytes > 0 ? String.format("%.1f%%", savedBytes * 100.0 / before.bytes) : "0%";
+        String change = savedBytes >= 0
+                ? "节省 " + savedBytes + " 字节（" + percent + "），约 " + savedTokens + " tokens"
+                : "增加 " + (-savedBytes) + " 字节，约 " + (-savedTokens) + " tokens";
+        System.out.println("  - " + name + ": " + change + "，耗时 " + elapsedMillis + "ms"
+                + (detail != null ? "（" + detail + "）" : ""));
+        logger.info("差异处理 {}: {} -> {} 字节，{} -> {} tokens，{}ms，{}", name,
+                before.bytes, after.bytes, before.tokens, after.tokens, elapsedMillis,
+                detail != null ? detail : "无变化");
+    }
+
+    /**
+     * 统计渲染后的 UTF-8 字节数与估算 token 数（逐个文件渲染，不构建完整文本）
+     */
+    private Size measure(List<FileDiff> fileDiffs) {
+        Size size = new Size();
+        StringBuilder sb = new StringBuilder();
+        for (FileDiff fileDiff : fileDiffs) {
+            sb.setLength(0);
+            fileDiff.appendTo(sb);
+            size.bytes += utf8Length(sb);
+            size.tokens += tokenCounter.count(sb);
+        }
+        return size;
+    }
+
+    private static long utf8Length(CharSequence text) {
+        long length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static final class Size {
+        private long bytes;
+        private long tokens;
+    }
+}
@@ -0,0 +1,76 @@
+package org.ocr.com.sdk.application;
+
+import org.ocr.com.sdk.domain.model.valueobject.FileDiff;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 一次评审请求的差异分片
+ * 由若干完整文件或同一文件的连续差异块组成，估算的 token 数不超过规划时的预算
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class PromptChunk {
+
+    private final List<FileDiff> fileDiffs;
+    private final int estimatedTokens;
+    private final Set<String> partialPaths;
+
+    PromptChunk(List<FileDiff> fileDiffs, int estimatedTokens, Set<String> partialPaths) {
+        this.fileDiffs = Collections.unmodifiableList(new ArrayList<>(fileDiffs));
+        this.estimatedTokens = estimatedTokens;
+        this.partialPaths = Collections.unmodifiableSet(new LinkedHashSet<>(partialPaths));
+    }
+
+    /**
+     * 分片内的文件差异（超大文件被拆分时只包含部分差异块）
+     */
+    public List<FileDiff> getFileDiffs() {
+        return fileDiffs;
+    }
+
+    /**
+     * 分片差异文本的估算 token 数
+     */
+    public int getEstimatedTokens() {
+        return estimatedTokens;
+    }
+
+    /**
+     * 分片涉及的文件路径（去重，保持顺序）
+     */
+    public List<String> getPaths() {
+        Set<String> paths = new LinkedHashSet<>();
+        for (FileDiff fileDiff : fileDiffs) {
+            paths.add(fileDiff.getPath());
+        }
+        return new ArrayList<>(paths);
+    }
+
+    /**
+     * 分片中只包含部分差异块的文件路径（被拆分到多个分片的文件）
+     */
+    public Set<String> getPartialPaths() {
+        return partialPaths;
+    }
+
+    /**
+     * 渲染为统一 diff 文本
+     */
+    public String render() {
+        int length = 0;
+        for (FileDiff fileDiff : fileDiffs) {
+            length += fileDiff.getTextLength();
+        }
+        StringBuilder sb = new StringBuilder(length);
+        for (FileDiff fileDiff : fileDiffs) {
+            fileDiff.appendTo(sb);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,364 @@
+package org.ocr.com.sdk.application;
+
+import org.ocr.com.sdk.domain.model.valueobject.DiffHunk;
+import org.ocr.com.sdk.domain.model.valueobject.FileDiff;
+import org.ocr.com.sdk.domain.service.HunkGrouper;
+import org.ocr.com.sdk.domain.service.TokenCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 评审提示词规划器
+ * 按文件与差异块估算 token 数，将差异装入不超过预算的分片，每个分片对应一次评审请求。
+ * 只在文件或差异块边界拆分：能整体放下的文件不拆分；超过预算的文件优先按代码结构（类型、方法）分组后拆成多段，
+ * 同一组的差异块放在同一段中，无法分组或单组超出预算时按差异块拆分，每段重复文件头并注明只包含部分差异块；
+ * 单个差异块本身超过预算时以占位说明代替，不截断差异块内容；没有差异块的文件即使文件头超出预算也保留一行说明，不会被丢弃。
+ * 文件较多时，各文件的 token 估算与结构分组在本次规划专用的 fork-join 线程池中并行完成（结构分组需要读取文件内容，
+ * 不占用 JVM 公共线程池），装箱仍按原顺序进行，结果与串行一致；整次规划共用一个批量分组器读取文件内容。
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class PromptPlanner {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromptPlanner.class);
+
+    // 单个并行任务处理的文件数，文件数不超过该值时在调用线程中完成
+    private static final int FILES_PER_TASK = 8;
+
+    // 拆分后每段文件头之后的说明，避免模型把片段当作完整文件评审
+    static final String PART_HEADER_NOTE = "（该文件差异较大，此处只包含部分差异块，其余差异块在其他部分评审）";
+
+    private final TokenCounter tokenCounter;
+    private final int budgetTokens;
+    private final HunkGrouper hunkGrouper;
+
+    /**
+     * @param tokenCounter token 计数器
+     * @param budgetTokens 单个分片差异文本的 token 预算
+     */
+    public PromptPlanner(TokenCounter tokenCounter, int budgetTokens) {
+        this(tokenCounter, budgetTokens, null);
+    }
+
+    /**
+     * @param tokenCounter token 计数器
+     * @param budgetTokens 单个分片差异文本的 token 预算
+     * @param hunkGrouper  拆分超出预算的文件时使用的差异块分组器，为 null 时只按差异块拆分
+     */
+    public PromptPlanner(TokenCounter tokenCounter, int budgetTokens, HunkGrouper hunkGrouper) {
+        if (budgetTokens <= 0) {
+            throw new IllegalArgumentException("分片 token 预算必须大于 0: " + budgetTokens);
+        }
+        this.tokenCounter = tokenCounter;
+        this.budgetTokens = budgetTokens;
+        this.hunkGrouper = hunkGrouper;
+    }
+
+    /**
+     * 规划分片
+     *
+     * @param fileDiffs 文件差异（按原顺序装入分片）
+     * @return 分片列表，输入为空时返回空列表
+     */
+    public List<PromptChunk> plan(List<FileDiff> fileDiffs) {
+        if (fileDiffs == null || fileDiffs.isEmpty()) {
+            return Collections.emptyList();
+        }
+        FilePlan[] plans = new FilePlan[fileDiffs.size()];
+        try (GrouperScope grouperScope = new GrouperScope()) {
+            PrepareTask task = new PrepareTask(fileDiffs, plans, 0, plans.length, grouperScope);
+            if (plans.length > FILES_PER_TASK) {
+                ForkJoinPool pool = newPool(plans.length);
+                try {
+                    pool.invoke(task);
+                } finally {
+                    pool.shutdown();
+                }
+            } else {
+                task.compute();
+            }
+        }
+
+        Packer packer = new Packer();
+        int totalTokens = 0;
+        for (int i = 0; i < plans.length; i++) {
+            FileDiff fileDiff = fileDiffs.get(i);
+            FilePlan plan = plans[i];
+            totalTokens += plan.tokens;
+            if (plan.tokens <= budgetTokens) {
+                packer.add(fileDiff, plan.tokens);
+            } else if (plan.groups != null) {
+                splitByGroups(fileDiff, plan.groups, packer);
+            } else {
+                splitByHunks(fileDiff, fileDiff.getHunks(), packer);
+            }
+        }
+        List<PromptChunk> chunks = packer.finish();
+        logger.info("提示词规划: {} 个文件，约 {} tokens，分为 {} 批（单批预算 {} tokens）",
+                fileDiffs.size(), totalTokens, chunks.size(), budgetTokens);
+        return chunks;
+    }
+
+    /**
+     * 超过预算的文件按代码结构分组拆分：组不跨段，单组超出预算时该组按差异块拆分
+     */
+    private void splitByGroups(FileDiff fileDiff, List<List<DiffHunk>> groups, Packer packer) {
+        FileDiff partTemplate = asPart(fileDiff);
+        int headerTokens = estimateHeader(partTemplate);
+        List<DiffHunk> part = new ArrayList<>();
+        int partTokens = headerTokens;
+        for (List<DiffHunk> group : groups) {
+            int groupTokens = 0;
+            for (DiffHunk hunk : group) {
+                groupTokens += estimate(hunk);
+            }
+            if (partTokens + groupTokens > budgetTokens && !part.isEmpty()) {
+                packer.addPart(partTemplate.toBuilder().hunks(part).build(), partTokens);
+                part = new ArrayList<>();
+                partTokens = headerTokens;
+            }
+            if (headerTokens + groupTokens > budgetTokens) {
+                splitByHunks(fileDiff, group, packer);
+                continue;
+            }
+            part.addAll(group);
+            partTokens += groupTokens;
+        }
+        if (!part.isEmpty()) {
+            packer.addPart(partTemplate.toBuilder().hunks(part).build(), partTokens);
+        }
+    }
+
+    /**
+     * 超过预算的文件（或代码单元）按差异块拆分，每段带上完整文件头
+     */
+    private void splitByHunks(FileDiff fileDiff, List<DiffHunk> hunks, Packer packer) {
+        if (hunks.isEmpty()) {
+            addHeaderOnly(fileDiff, estimateHeader(fileDiff), packer);
+            return;
+        }
+        FileDiff partTemplate = asPart(fileDiff);
+        int headerTokens = estimateHeader(partTemplate);
+        List<DiffHunk> part = new ArrayList<>();
+        int partTokens = headerTokens;
+        for (DiffHunk hunk : hunks) {
+            int hunkTokens = estimate(hunk);
+            if (headerTokens + hunkTokens > budgetTokens) {
+                if (!part.isEmpty()) {
+                    packer.addPart(partTemplate.toBuilder().hunks(part).build(), partTokens);
+                    part = new ArrayList<>();
+                    partTokens = headerTokens;
+                }
+                FileDiff omitted = fileDiff.toBuilder()
+                        .header(fileDiff.getHeader() + "\n差异块 " + hunk.getHeader() + " 过大（约 " + hunkTokens
+                                + " tokens，超过单次评审预算 " + budgetTokens + "），已省略")
+                        .hunks(Collections.<DiffHunk>emptyList())
+                        .build();
+                logger.warn("文件 {} 的差异块 {} 约 {} tokens，超过单次评审预算，已省略",
+                        fileDiff.getPath(), hunk.getHeader(), hunkTokens);
+                packer.addPart(omitted, estimate(omitted));
+                continue;
+            }
+            if (partTokens + hunkTokens > budgetTokens) {
+                packer.addPart(partTemplate.toBuilder().hunks(part).build(), partTokens);
+                part = new ArrayList<>();
+                partTokens = headerTokens;
+            }
+            part.add(hunk);
+            partTokens += hunkTokens;
+        }
+        if (!part.isEmpty()) {
+            packer.addPart(partTemplate.toBuilder().hunks(part).build(), partTokens);
+        }
+    }
+
+    /**
+     * 拆分后各段使用的文件差异：文件头后附加片段说明
+     */
+    private static FileDiff asPart(FileDiff fileDiff) {
+        String header = fileDiff.getHeader();
+        return fileDiff.toBuilder()
+                .header(header.isEmpty() ? PART_HEADER_NOTE : header + "\n" + PART_HEADER_NOTE)
+                .build();
+    }
+
+    /**
+     * 没有差异块的文件（重命名、二进制文件等只有文件头的差异）超过预算时，文件头本身过大：
+     * 放得下时原样保留，否则只保留文件头首行并附占位说明，不丢弃该文件
+     */
+    private void addHeaderOnly(FileDiff fileDiff, int headerTokens, Packer packer) {
+        if (headerTokens <= budgetTokens) {
+            packer.add(fileDiff, headerTokens);
+            return;
+        }
+        String header = fileDiff.getHeader();
+        int lineEnd = header.indexOf('\n');
+        FileDiff omitted = fileDiff.toBuilder()
+                .header((lineEnd >= 0 ? header.substring(0, lineEnd) : header) + "\n文件头过大（约 " + headerTokens
+                        + " tokens，超过单次评审预算 " + budgetTokens + "），已省略")
+                .build();
+        logger.warn("文件 {} 的文件头约 {} tokens，超过单次评审预算，已省略", fileDiff.getPath(), headerTokens);
+        packer.add(omitted, estimate(omitted));
+    }
+
+    /**
+     * 本次规划专用的线程池，并行度不超过 CPU 数与任务数
+     */
+    private static ForkJoinPool newPool(int files) {
+        int tasks = (files + FILES_PER_TASK - 1) / FILES_PER_TASK;
+        int parallelism = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), tasks));
+        return new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("code-review-planner-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    private int estimate(FileDiff fileDiff) {
+        StringBuilder sb = new StringBuilder(fileDiff.getTextLength());
+        fileDiff.appendTo(sb);
+        return tokenCounter.count(sb);
+    }
+
+    private int estimateHeader(FileDiff fileDiff) {
+        return fileDiff.getHeader().isEmpty() ? 0 : tokenCounter.count(fileDiff.getHeader()) + 1;
+    }
+
+    private int estimate(DiffHunk hunk) {
+        StringBuilder sb = new StringBuilder(hunk.getTextLength());
+        hunk.appendTo(sb);
+        return tokenCounter.count(sb);
+    }
+
+    /**
+     * 单个文件的规划输入：估算的 token 数，超出预算时附带代码结构分组
+     */
+    private static final class FilePlan {
+        private final int tokens;
+        private final List<List<DiffHunk>> groups;
+
+        private FilePlan(int tokens, List<List<DiffHunk>> groups) {
+            this.tokens = tokens;
+            this.groups = groups;
+        }
+    }
+
+    /**
+     * 一次规划内的批量分组器：首次需要结构分组时才打开，规划结束时关闭
+     */
+    private final class GrouperScope implements AutoCloseable {
+        private HunkGrouper.Batch batch;
+
+        synchronized HunkGrouper get() {
+            if (batch == null) {
+                batch = hunkGrouper.openBatch();
+            }
+            return batch;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (batch != null) {
+                batch.close();
+                batch = null;
+            }
+        }
+    }
+
+    /**
+     * 并行估算各文件的 token 数，并对超出预算的文件做结构分组（读取与解析文件内容）
+     */
+    private final class PrepareTask extends RecursiveAction {
+        private final List<FileDiff> fileDiffs;
+        private final FilePlan[] plans;
+        private final int from;
+        private final int to;
+        private final GrouperScope grouperScope;
+
+        private PrepareTask(List<FileDiff> fileDiffs, FilePlan[] plans, int from, int to, GrouperScope grouperScope) {
+            this.fileDiffs = fileDiffs;
+            this.plans = plans;
+            this.from = from;
+            this.to = to;
+            this.grouperScope = grouperScope;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > FILES_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new PrepareTask(fileDiffs, plans, from, middle, grouperScope),
+                        new PrepareTask(fileDiffs, plans, middle, to, grouperScope));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                FileDiff fileDiff = fileDiffs.get(i);
+                int tokens = estimate(fileDiff);
+                List<List<DiffHunk>> groups = null;
+                if (tokens > budgetTokens && hunkGrouper != null) {
+                    try {
+                        groups = grouperScope.get().group(fileDiff);
+                    } catch (RuntimeException e) {
+                        // 结构分组只是优化，失败时按差异块拆分
+                        logger.debug("文件 {} 结构分组失败: {}", fileDiff.getPath(), e.getMessage());
+                    }
+                    if (groups != null) {
+                        logger.debug("文件 {} 按代码结构分为 {} 组", fileDiff.getPath(), groups.size());
+                    }
+                }
+                plans[i] = new FilePlan(tokens, groups);
+            }
+        }
+    }
+
+    /**
+     * 按顺序装箱：当前分片放不下时开启新分片
+     */
+    private final class Packer {
+        private final List<PromptChunk> chunks = new ArrayList<>();
+        private List<FileDiff> current = new ArrayList<>();
+        private Set<String> currentPartialPaths = new LinkedHashSet<>();
+        private int currentTokens;
+
+        void add(FileDiff fileDiff, int tokens) {
+            if (!current.isEmpty() && currentTokens + tokens > budgetTokens) {
+                flush();
+            }
+            current.add(fileDiff);
+            currentTokens += tokens;
+        }
+
+        /**
+         * 装入被拆分文件的一段
+         */
+        void addPart(FileDiff fileDiff, int tokens) {
+            add(fileDiff, tokens);
+            currentPartialPaths.add(fileDiff.getPath());
+        }
+
+        private void flush() {
+            chunks.add(new PromptChunk(current, currentTokens, currentPartialPaths));
+            current = new ArrayList<>();
+            currentPartialPaths = new LinkedHashSet<>();
+            currentTokens = 0;
+        }
+
+        List<PromptChunk> finish() {
+            if (!current.isEmpty()) {
+                flush();
+            }
+            return chunks;
+        }
+    }
+}
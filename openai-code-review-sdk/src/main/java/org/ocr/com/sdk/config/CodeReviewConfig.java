@@ -6,6 +6,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Properties;
 
 /**
@@ -24,12 +27,29 @@ public class CodeReviewConfig {
     private static final String DEFAULT_MODEL = "qwen-flash";
     private static final String DEFAULT_API_KEY_ENV = "OPENAI_API_KEY";
     private static final double DEFAULT_TEMPERATURE = 0.7;
-    private static final int DEFAULT_MAX_TOKENS = 4000;
+    public static final int DEFAULT_MAX_TOKENS = 4000;
+    public static final int DEFAULT_CONTEXT_WINDOW_TOKENS = 32000;
     private static final String DEFAULT_REPORT_BASE_DIR = "代码评审记录";
     private static final String DEFAULT_GITHUB_REPO_URL = "https://github.com/1026zxl/code-review-repository.git";
     private static final String DEFAULT_GITHUB_TOKEN_ENV = "CODE_TOKEN";
     private static final String DEFAULT_WECHAT_APP_ID_ENV = "WECHAT_APP_ID";
     private static final String DEFAULT_WECHAT_APP_SECRET_ENV = "WECHAT_APP_SECRET";
+    public static final long DEFAULT_MAX_FILE_SIZE_BYTES = 1024 * 1024L;
+    public static final int DEFAULT_RENAME_LIMIT = 400;
+    public static final int DEFAULT_RENAME_SCORE = 60;
+    private static final long DEFAULT_REPOSITORY_CACHE_IDLE_SECONDS = 300;
+    public static final int DEFAULT_CONTEXT_LINES = 3;
+    public static final int DEFAULT_FUNCTION_CONTEXT_MAX_LINES = 200;
+    public static final int DEFAULT_COMPACTION_CONTEXT_MAX_LINES = 12;
+    public static final int DEFAULT_ENRICHMENT_MAX_TOKENS = 4000;
+    public static final long DEFAULT_SOURCE_CACHE_MAX_BYTES = 64L * 1024 * 1024;
+    public static final int DEFAULT_REVIEW_PARALLELISM = 4;
+    public static final int DEFAULT_CHUNK_PARALLELISM = 4;
+    public static final long DEFAULT_DIFF_TIMEOUT_MILLIS = 2000;
+    public static final int DEFAULT_DIFF_MAX_LINES = 50000;
+    // 默认排除锁文件、压缩产物、构建输出与生成代码
+    private static final String DEFAULT_EXCLUDE_PATHS = "package-lock.json,yarn.lock,pnpm-lock.yaml,*.min.js,*.min.css,*.map,"
+            + "**/target/**,**/node_modules/**,*.pb.go,*_pb2.py";
     
     // 配置属性
     private String apiKey;
@@ -38,8 +58,45 @@ public class CodeReviewConfig {
     private String apiKeyEnv = DEFAULT_API_KEY_ENV;
     private double temperature = DEFAULT_TEMPERATURE;
     private int maxTokens = DEFAULT_MAX_TOKENS;
+    private int contextWindowTokens = DEFAULT_CONTEXT_WINDOW_TOKENS;
+    private String tokenizerVocab;
+    private int reviewParallelism = DEFAULT_REVIEW_PARALLELISM;
+    private int chunkParallelism = DEFAULT_CHUNK_PARALLELISM;
+    private boolean semanticChunking = true;
     private String reportBaseDir = DEFAULT_REPORT_BASE_DIR;
     private String gitRepositoryPath;
+    private String gitBaseRef;
+    private ReviewMode reviewMode;
+    private List<String> includePaths = Collections.emptyList();
+    private List<String> excludePaths = parseList(DEFAULT_EXCLUDE_PATHS);
+    private long maxFileSizeBytes = DEFAULT_MAX_FILE_SIZE_BYTES;
+    private boolean renameDetection = true;
+    private int renameLimit = DEFAULT_RENAME_LIMIT;
+    private int renameScore = DEFAULT_RENAME_SCORE;
+    private long repositoryCacheIdleSeconds = DEFAULT_REPOSITORY_CACHE_IDLE_SECONDS;
+    private DiffEngineType diffEngine = DiffEngineType.JGIT;
+    private DiffAlgorithmType diffAlgorithm = DiffAlgorithmType.HISTOGRAM;
+    private long diffTimeoutMillis = DEFAULT_DIFF_TIMEOUT_MILLIS;
+    private int diffMaxLines = DEFAULT_DIFF_MAX_LINES;
+    private MergeDiffMode mergeDiffMode = MergeDiffMode.FIRST_PARENT;
+    private boolean skipCleanMerges = true;
+    private boolean watermarkEnabled = true;
+    private String watermarkFile;
+    private int contextLines = DEFAULT_CONTEXT_LINES;
+    private List<String> contextLineRules = Collections.emptyList();
+    private boolean functionContext = false;
+    private int functionContextMaxLines = DEFAULT_FUNCTION_CONTEXT_MAX_LINES;
+    private boolean compactionEnabled = true;
+    private int compactionContextMaxLines = DEFAULT_COMPACTION_CONTEXT_MAX_LINES;
+    private boolean dedupeEnabled = true;
+    private boolean redactionEnabled = true;
+    private boolean enrichmentEnabled = false;
+    private int enrichmentMaxTokens = DEFAULT_ENRICHMENT_MAX_TOKENS;
+    private long sourceCacheMaxBytes = DEFAULT_SOURCE_CACHE_MAX_BYTES;
+    // JGit 窗口缓存（进程级），为 null 时沿用 JGit 默认值
+    private Long packedGitLimit;
+    private Boolean packedGitMmap;
+    private Long deltaBaseCacheLimit;
     private String githubRepoUrl = DEFAULT_GITHUB_REPO_URL;
     private String githubToken;
     private String githubTokenEnv = DEFAULT_GITHUB_TOKEN_ENV;
@@ -85,8 +142,50 @@ public class CodeReviewConfig {
                 config.apiKeyEnv = props.getProperty("code.review.api.key.env", DEFAULT_API_KEY_ENV);
                 config.temperature = Double.parseDouble(props.getProperty("code.review.temperature", String.valueOf(DEFAULT_TEMPERATURE)));
                 config.maxTokens = Integer.parseInt(props.getProperty("code.review.max.tokens", String.valueOf(DEFAULT_MAX_TOKENS)));
+                config.contextWindowTokens = Integer.parseInt(props.getProperty("code.review.context.window.tokens", String.valueOf(DEFAULT_CONTEXT_WINDOW_TOKENS)));
+                String tokenizerVocab = props.getProperty("code.review.tokenizer.vocab");
+                config.tokenizerVocab = tokenizerVocab != null && !tokenizerVocab.trim().isEmpty() ? tokenizerVocab.trim() : null;
+                config.reviewParallelism = Integer.parseInt(props.getProperty("code.review.parallelism", String.valueOf(DEFAULT_REVIEW_PARALLELISM)));
+                config.chunkParallelism = Integer.parseInt(props.getProperty("code.review.chunk.parallelism", String.valueOf(DEFAULT_CHUNK_PARALLELISM)));
+                config.semanticChunking = Boolean.parseBoolean(props.getProperty("code.review.chunk.semantic", "true"));
                 config.reportBaseDir = props.getProperty("code.review.report.base.dir", DEFAULT_REPORT_BASE_DIR);
                 config.gitRepositoryPath = props.getProperty("code.review.git.repository.path");
+                config.gitBaseRef = props.getProperty("code.review.git.base.ref");
+                config.reviewMode = ReviewMode.parse(props.getProperty("code.review.mode"));
+                config.includePaths = parseList(props.getProperty("code.review.git.include.paths", ""));
+                config.excludePaths = parseList(props.getProperty("code.review.git.exclude.paths", DEFAULT_EXCLUDE_PATHS));
+                config.maxFileSizeBytes = Long.parseLong(props.getProperty("code.review.git.max.file.size", String.valueOf(DEFAULT_MAX_FILE_SIZE_BYTES)));
+                config.renameDetection = Boolean.parseBoolean(props.getProperty("code.review.git.rename.detection", "true"));
+                config.renameLimit = Integer.parseInt(props.getProperty("code.review.git.rename.limit", String.valueOf(DEFAULT_RENAME_LIMIT)));
+                config.renameScore = Integer.parseInt(props.getProperty("code.review.git.rename.score", String.valueOf(DEFAULT_RENAME_SCORE)));
+                config.contextLines = Integer.parseInt(props.getProperty("code.review.git.context.lines", String.valueOf(DEFAULT_CONTEXT_LINES)));
+                config.contextLineRules = parseList(props.getProperty("code.review.git.context.lines.rules", ""));
+                config.functionContext = Boolean.parseBoolean(props.getProperty("code.review.git.function.context", "false"));
+                config.functionContextMaxLines = Integer.parseInt(props.getProperty("code.review.git.function.context.max.lines", String.valueOf(DEFAULT_FUNCTION_CONTEXT_MAX_LINES)));
+                config.compactionEnabled = Boolean.parseBoolean(props.getProperty("code.review.compaction.enabled", "true"));
+                config.compactionContextMaxLines = Integer.parseInt(props.getProperty("code.review.compaction.context.max.lines", String.valueOf(DEFAULT_COMPACTION_CONTEXT_MAX_LINES)));
+                config.redactionEnabled = Boolean.parseBoolean(props.getProperty("code.review.redaction.enabled", "true"));
+                config.dedupeEnabled = Boolean.parseBoolean(props.getProperty("code.review.dedupe.enabled", "true"));
+                config.enrichmentEnabled = Boolean.parseBoolean(props.getProperty("code.review.enrichment.enabled", "false"));
+                config.enrichmentMaxTokens = Integer.parseInt(props.getProperty("code.review.enrichment.max.tokens", String.valueOf(DEFAULT_ENRICHMENT_MAX_TOKENS)));
+                config.sourceCacheMaxBytes = Long.parseLong(props.getProperty("code.review.enrichment.cache.max.bytes", String.valueOf(DEFAULT_SOURCE_CACHE_MAX_BYTES)));
+                DiffEngineType diffEngine = DiffEngineType.parse(props.getProperty("code.review.git.diff.engine"));
+                config.diffEngine = diffEngine != null ? diffEngine : DiffEngineType.JGIT;
+                DiffAlgorithmType diffAlgorithm = DiffAlgorithmType.parse(props.getProperty("code.review.git.diff.algorithm"));
+                config.diffAlgorithm = diffAlgorithm != null ? diffAlgorithm : DiffAlgorithmType.HISTOGRAM;
+                config.diffTimeoutMillis = Long.parseLong(props.getProperty("code.review.git.diff.timeout.ms", String.valueOf(DEFAULT_DIFF_TIMEOUT_MILLIS)));
+                config.diffMaxLines = Integer.parseInt(props.getProperty("code.review.git.diff.max.lines", String.valueOf(DEFAULT_DIFF_MAX_LINES)));
+                MergeDiffMode mergeDiffMode = MergeDiffMode.parse(props.getProperty("code.review.git.merge.diff"));
+                config.mergeDiffMode = mergeDiffMode != null ? mergeDiffMode : MergeDiffMode.FIRST_PARENT;
+                config.skipCleanMerges = Boolean.parseBoolean(props.getProperty("code.review.git.merge.skip.clean", "true"));
+                config.watermarkEnabled = Boolean.parseBoolean(props.getProperty("code.review.watermark.enabled", "true"));
+                config.watermarkFile = props.getProperty("code.review.watermark.file");
+                config.repositoryCacheIdleSeconds = Long.parseLong(props.getProperty("code.review.git.repository.cache.idle.seconds", String.valueOf(DEFAULT_REPOSITORY_CACHE_IDLE_SECONDS)));
+                config.packedGitLimit = parseNullableLong(props.getProperty("code.review.git.packed.git.limit"));
+                String packedGitMmapStr = props.getProperty("code.review.git.packed.git.mmap");
+                config.packedGitMmap = packedGitMmapStr != null && !packedGitMmapStr.trim().isEmpty()
+                        ? Boolean.valueOf(packedGitMmapStr.trim()) : null;
+                config.deltaBaseCacheLimit = parseNullableLong(props.getProperty("code.review.git.delta.base.cache.limit"));
                 config.githubRepoUrl = props.getProperty("code.review.github.repo.url", DEFAULT_GITHUB_REPO_URL);
                 config.githubToken = props.getProperty("code.review.github.token");
                 config.githubTokenEnv = props.getProperty("code.review.github.token.env", DEFAULT_GITHUB_TOKEN_ENV);
@@ -160,6 +259,36 @@ public class CodeReviewConfig {
             this.reportBaseDir = envReportDir;
         }
         
+        String envBaseRef = System.getenv("CODE_REVIEW_BASE_REF");
+        if (envBaseRef != null && !envBaseRef.isEmpty()) {
+            this.gitBaseRef = envBaseRef;
+        }
+        
+        // 评审模式通常由命令行参数指定，已设置时不被环境变量覆盖
+        if (reviewMode == null) {
+            this.reviewMode = ReviewMode.parse(System.getenv("CODE_REVIEW_MODE"));
+        }
+        
+        DiffEngineType envDiffEngine = DiffEngineType.parse(System.getenv("CODE_REVIEW_DIFF_ENGINE"));
+        if (envDiffEngine != null) {
+            this.diffEngine = envDiffEngine;
+        }
+        
+        String envWatermarkFile = System.getenv("CODE_REVIEW_WATERMARK_FILE");
+        if (envWatermarkFile != null && !envWatermarkFile.isEmpty()) {
+            this.watermarkFile = envWatermarkFile;
+        }
+        
+        String envIncludePaths = System.getenv("CODE_REVIEW_INCLUDE_PATHS");
+        if (envIncludePaths != null && !envIncludePaths.isEmpty()) {
+            this.includePaths = parseList(envIncludePaths);
+        }
+        
+        String envExcludePaths = System.getenv("CODE_REVIEW_EXCLUDE_PATHS");
+        if (envExcludePaths != null) {
+            this.excludePaths = parseList(envExcludePaths);
+        }
+        
         String envGithubRepoUrl = System.getenv("CODE_REVIEW_GITHUB_REPO_URL");
         if (envGithubRepoUrl != null && !envGithubRepoUrl.isEmpty()) {
             this.githubRepoUrl = envGithubRepoUrl;
@@ -208,6 +337,26 @@ public class CodeReviewConfig {
         }
     }
     
+    /**
+     * 解析逗号分隔的列表配置，忽略空白项
+     */
+    private static List<String> parseList(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> items = new ArrayList<>();
+        for (String item : value.split(",")) {
+            if (!item.trim().isEmpty()) {
+                items.add(item.trim());
+            }
+        }
+        return Collections.unmodifiableList(items);
+    }
+    
+    private static Long parseNullableLong(String value) {
+        return value == null || value.trim().isEmpty() ? null : Long.valueOf(value.trim());
+    }
+    
     /**
      * 验证配置
      */
@@ -223,6 +372,47 @@ public class CodeReviewConfig {
         if (model == null || model.isEmpty()) {
             throw new ConfigException(ErrorCode.CONFIG_MODEL_INVALID);
         }
+        
+        if (contextWindowTokens <= maxTokens) {
+            throw new ConfigException(ErrorCode.PARAMETER_INVALID,
+                    "模型上下文窗口（" + contextWindowTokens + "）必须大于最大输出 token 数（" + maxTokens + "）");
+        }
+        
+        if (contextLines < 0) {
+            throw new ConfigException(ErrorCode.PARAMETER_INVALID, "上下文行数不能为负数: " + contextLines);
+        }
+        
+        if (renameScore < 0 || renameScore > 100) {
+            throw new ConfigException(ErrorCode.PARAMETER_INVALID, "重命名相似度必须在 0-100 之间: " + renameScore);
+        }
+        
+        if (diffTimeoutMillis < 0) {
+            throw new ConfigException(ErrorCode.PARAMETER_INVALID, "单文件差异计算时间上限不能为负数: " + diffTimeoutMillis);
+        }
+        
+        if (diffMaxLines < 0) {
+            throw new ConfigException(ErrorCode.PARAMETER_INVALID, "单文件差异计算行数上限不能为负数: " + diffMaxLines);
+        }
+        
+        if (reviewParallelism < 1) {
+            throw new ConfigException(ErrorCode.PARAMETER_INVALID, "评审并行度必须大于 0: " + reviewParallelism);
+        }
+        
+        if (compactionContextMaxLines < 0) {
+            throw new ConfigException(ErrorCode.PARAMETER_INVALID, "差异压缩上下文保留行数不能为负数: " + compactionContextMaxLines);
+        }
+        
+        if (enrichmentMaxTokens < 0) {
+            throw new ConfigException(ErrorCode.PARAMETER_INVALID, "上下文补充 token 上限不能为负数: " + enrichmentMaxTokens);
+        }
+        
+        if (sourceCacheMaxBytes < 0) {
+            throw new ConfigException(ErrorCode.PARAMETER_INVALID, "源文件缓存容量不能为负数: " + sourceCacheMaxBytes);
+        }
+        
+        if (chunkParallelism < 1) {
+            throw new ConfigException(ErrorCode.PARAMETER_INVALID, "分批评审并行度必须大于 0: " + chunkParallelism);
+        }
     }
     
     // Getters
@@ -250,6 +440,42 @@ public class CodeReviewConfig {
         return maxTokens;
     }
     
+    /**
+     * 模型上下文窗口（token），扣除最大输出 token 数后为单次评审请求的提示词预算，超出时按文件/差异块分批评审
+     */
+    public int getContextWindowTokens() {
+        return contextWindowTokens;
+    }
+    
+    /**
+     * tiktoken 格式的 BPE 词表路径（{@code classpath:} 前缀表示类路径资源），为 null 时使用类路径下的
+     * {@code tokenizer/qwen.tiktoken} 或 SDK 内置的 cl100k_base 词表
+     */
+    public String getTokenizerVocab() {
+        return tokenizerVocab;
+    }
+    
+    /**
+     * 多仓库评审时同时评审的仓库数，与分批评审并行度的乘积为共享 HTTP 连接池的单路由连接上限
+     */
+    public int getReviewParallelism() {
+        return reviewParallelism;
+    }
+    
+    /**
+     * 大变更拆分为多批评审时，单次评审同时发出的 AI 请求数
+     */
+    public int getChunkParallelism() {
+        return chunkParallelism;
+    }
+    
+    /**
+     * 拆分超出预算的文件时是否按代码结构（类型、方法）分组，目前支持 Java 文件
+     */
+    public boolean isSemanticChunking() {
+        return semanticChunking;
+    }
+    
     public String getReportBaseDir() {
         return reportBaseDir;
     }
@@ -258,6 +484,225 @@ public class CodeReviewConfig {
         return gitRepositoryPath;
     }
     
+    /**
+     * 区间评审的基线引用（如 origin/main），为空时仅评审最近一次提交
+     */
+    public String getGitBaseRef() {
+        return gitBaseRef;
+    }
+    
+    /**
+     * 参与评审的路径通配符，为空表示全部路径
+     */
+    public List<String> getIncludePaths() {
+        return includePaths;
+    }
+    
+    /**
+     * 排除评审的路径通配符（锁文件、构建产物、生成代码等）
+     */
+    public List<String> getExcludePaths() {
+        return excludePaths;
+    }
+    
+    /**
+     * 评审模式，未配置时为提交模式
+     */
+    public ReviewMode getReviewMode() {
+        return reviewMode != null ? reviewMode : ReviewMode.COMMIT;
+    }
+    
+    /**
+     * 单个文件参与评审的大小上限（字节），超过后以一行占位说明代替
+     */
+    public long getMaxFileSizeBytes() {
+        return maxFileSizeBytes;
+    }
+    
+    /**
+     * 是否启用重命名/复制检测
+     */
+    public boolean isRenameDetection() {
+        return renameDetection;
+    }
+    
+    /**
+     * 重命名检测的文件数上限，0 表示不限制
+     * 默认的 JGit 引擎在新增数与删除数中的较大者超过该值时跳过相似度计算，只保留内容完全相同的重命名；
+     * 原生 git 引擎将其作为 {@code -l} 参数传给 git，按 git 的规则以新增数 × 删除数与该值的平方比较
+     */
+    public int getRenameLimit() {
+        return renameLimit;
+    }
+    
+    /**
+     * 判定为重命名的最低相似度（0-100）
+     */
+    public int getRenameScore() {
+        return renameScore;
+    }
+    
+    /**
+     * 差异块默认上下文行数
+     */
+    public int getContextLines() {
+        return contextLines;
+    }
+    
+    /**
+     * 按路径覆盖上下文行数的规则，格式为 {@code 通配符=行数}，按顺序首个匹配生效
+     */
+    public List<String> getContextLineRules() {
+        return contextLineRules;
+    }
+    
+    /**
+     * 是否将差异块扩展到所在函数的完整范围
+     */
+    public boolean isFunctionContext() {
+        return functionContext;
+    }
+    
+    /**
+     * 函数上下文模式下整体展开的函数最大行数，超过后回退为固定上下文
+     */
+    public int getFunctionContextMaxLines() {
+        return functionContextMaxLines;
+    }
+    
+    /**
+     * 评审前是否压缩噪声差异块（空白、import 顺序、注释换行、许可证头）
+     */
+    public boolean isCompactionEnabled() {
+        return compactionEnabled;
+    }
+    
+    /**
+     * 差异压缩时差异块内连续未变更上下文的保留行数，超过后折叠中间部分，0 表示不折叠
+     */
+    public int getCompactionContextMaxLines() {
+        return compactionContextMaxLines;
+    }
+    
+    /**
+     * 发送给 AI 之前是否脱敏差异中的凭据（密钥、令牌、数据库密码、私钥等）
+     */
+    public boolean isRedactionEnabled() {
+        return redactionEnabled;
+    }
+    
+    /**
+     * 评审前是否合并多个文件中变更行相同的差异块（只评审一次，报告附录列出全部位置）
+     */
+    public boolean isDedupeEnabled() {
+        return dedupeEnabled;
+    }
+    
+    /**
+     * 评审前是否把差异块扩展到所在函数的完整签名与函数体（从变更后的文件中读取）
+     */
+    public boolean isEnrichmentEnabled() {
+        return enrichmentEnabled;
+    }
+    
+    /**
+     * 每次评审补充上下文的 token 上限，超出后其余差异块不再扩展
+     */
+    public int getEnrichmentMaxTokens() {
+        return enrichmentMaxTokens;
+    }
+    
+    /**
+     * 源文件缓存容量（字节，进程级，按对象 ID 缓存已读取的文件），0 表示不缓存
+     */
+    public long getSourceCacheMaxBytes() {
+        return sourceCacheMaxBytes;
+    }
+    
+    /**
+     * 差异引擎，默认 JGit
+     */
+    public DiffEngineType getDiffEngine() {
+        return diffEngine;
+    }
+    
+    /**
+     * 差异算法，默认 Histogram
+     */
+    public DiffAlgorithmType getDiffAlgorithm() {
+        return diffAlgorithm;
+    }
+    
+    /**
+     * 单个文件差异计算的时间上限（毫秒），超过后按整体重写输出摘要；0 表示不限制
+     */
+    public long getDiffTimeoutMillis() {
+        return diffTimeoutMillis;
+    }
+    
+    /**
+     * 单个文件参与差异计算的行数上限（新旧两侧之和），超过后不计算差异、直接按整体重写输出摘要；0 表示不限制
+     */
+    public int getDiffMaxLines() {
+        return diffMaxLines;
+    }
+    
+    /**
+     * 合并提交的差异模式，默认与第一父提交比较
+     */
+    public MergeDiffMode getMergeDiffMode() {
+        return mergeDiffMode;
+    }
+    
+    /**
+     * 是否跳过干净合并（合并结果与自动合并完全一致，没有解决冲突的改动）
+     */
+    public boolean isSkipCleanMerges() {
+        return skipCleanMerges;
+    }
+    
+    /**
+     * 是否启用评审水位线（只评审上次评审之后的提交，已评审的提交直接跳过）
+     */
+    public boolean isWatermarkEnabled() {
+        return watermarkEnabled;
+    }
+    
+    /**
+     * 水位线文件路径，为空时保存在仓库的 .git 目录下
+     */
+    public String getWatermarkFile() {
+        return watermarkFile;
+    }
+    
+    /**
+     * 仓库句柄空闲多久后关闭（秒），0 表示每次评审结束立即关闭
+     */
+    public long getRepositoryCacheIdleSeconds() {
+        return repositoryCacheIdleSeconds;
+    }
+    
+    /**
+     * JGit 窗口缓存可使用的 pack 文件内存上限（字节），未配置时为 null
+     */
+    public Long getPackedGitLimit() {
+        return packedGitLimit;
+    }
+    
+    /**
+     * 是否使用 mmap 读取 pack 文件，未配置时为 null
+     */
+    public Boolean getPackedGitMmap() {
+        return packedGitMmap;
+    }
+    
+    /**
+     * JGit delta 基对象缓存上限（字节），未配置时为 null
+     */
+    public Long getDeltaBaseCacheLimit() {
+        return deltaBaseCacheLimit;
+    }
+    
     public String getGithubRepoUrl() {
         return githubRepoUrl;
     }
@@ -326,6 +771,31 @@ public class CodeReviewConfig {
             return this;
         }
         
+        public Builder contextWindowTokens(int contextWindowTokens) {
+            config.contextWindowTokens = contextWindowTokens;
+            return this;
+        }
+        
+        public Builder tokenizerVocab(String tokenizerVocab) {
+            config.tokenizerVocab = tokenizerVocab != null && !tokenizerVocab.trim().isEmpty() ? tokenizerVocab.trim() : null;
+            return this;
+        }
+        
+        public Builder reviewParallelism(int reviewParallelism) {
+            config.reviewParallelism = reviewParallelism;
+            return this;
+        }
+        
+        public Builder chunkParallelism(int chunkParallelism) {
+            config.chunkParallelism = chunkParallelism;
+            return this;
+        }
+        
+        public Builder semanticChunking(boolean semanticChunking) {
+            config.semanticChunking = semanticChunking;
+            return this;
+        }
+        
         public Builder reportBaseDir(String reportBaseDir) {
             config.reportBaseDir = reportBaseDir;
             return this;
@@ -336,6 +806,164 @@ public class CodeReviewConfig {
             return this;
         }
         
+        public Builder gitBaseRef(String gitBaseRef) {
+            config.gitBaseRef = gitBaseRef;
+            return this;
+        }
+        
+        public Builder includePaths(List<String> includePaths) {
+            config.includePaths = includePaths != null
+                    ? Collections.unmodifiableList(new ArrayList<>(includePaths)) : Collections.<String>emptyList();
+            return this;
+        }
+        
+        public Builder excludePaths(List<String> excludePaths) {
+            config.excludePaths = excludePaths != null
+                    ? Collections.unmodifiableList(new ArrayList<>(excludePaths)) : Collections.<String>emptyList();
+            return this;
+        }
+        
+        public Builder reviewMode(ReviewMode reviewMode) {
+            config.reviewMode = reviewMode;
+            return this;
+        }
+        
+        public Builder maxFileSizeBytes(long maxFileSizeBytes) {
+            config.maxFileSizeBytes = maxFileSizeBytes;
+            return this;
+        }
+        
+        public Builder renameDetection(boolean renameDetection) {
+            config.renameDetection = renameDetection;
+            return this;
+        }
+        
+        public Builder renameLimit(int renameLimit) {
+            config.renameLimit = renameLimit;
+            return this;
+        }
+        
+        public Builder renameScore(int renameScore) {
+            config.renameScore = renameScore;
+            return this;
+        }
+        
+        public Builder contextLines(int contextLines) {
+            config.contextLines = contextLines;
+            return this;
+        }
+        
+        public Builder contextLineRules(List<String> contextLineRules) {
+            config.contextLineRules = contextLineRules != null
+                    ? Collections.unmodifiableList(new ArrayList<>(contextLineRules)) : Collections.<String>emptyList();
+            return this;
+        }
+        
+        public Builder functionContext(boolean functionContext) {
+            config.functionContext = functionContext;
+            return this;
+        }
+        
+        public Builder functionContextMaxLines(int functionContextMaxLines) {
+            config.functionContextMaxLines = functionContextMaxLines;
+            return this;
+        }
+        
+        public Builder compactionEnabled(boolean compactionEnabled) {
+            config.compactionEnabled = compactionEnabled;
+            return this;
+        }
+        
+        public Builder compactionContextMaxLines(int compactionContextMaxLines) {
+            config.compactionContextMaxLines = compactionContextMaxLines;
+            return this;
+        }
+        
+        public Builder redactionEnabled(boolean redactionEnabled) {
+            config.redactionEnabled = redactionEnabled;
+            return this;
+        }
+        
+        public Builder dedupeEnabled(boolean dedupeEnabled) {
+            config.dedupeEnabled = dedupeEnabled;
+            return this;
+        }
+        
+        public Builder enrichmentEnabled(boolean enrichmentEnabled) {
+            config.enrichmentEnabled = enrichmentEnabled;
+            return this;
+        }
+        
+        public Builder enrichmentMaxTokens(int enrichmentMaxTokens) {
+            config.enrichmentMaxTokens = enrichmentMaxTokens;
+            return this;
+        }
+        
+        public Builder sourceCacheMaxBytes(long sourceCacheMaxBytes) {
+            config.sourceCacheMaxBytes = sourceCacheMaxBytes;
+            return this;
+        }
+        
+        public Builder diffEngine(DiffEngineType diffEngine) {
+            config.diffEngine = diffEngine != null ? diffEngine : DiffEngineType.JGIT;
+            return this;
+        }
+        
+        public Builder diffAlgorithm(DiffAlgorithmType diffAlgorithm) {
+            config.diffAlgorithm = diffAlgorithm != null ? diffAlgorithm : DiffAlgorithmType.HISTOGRAM;
+            return this;
+        }
+        
+        public Builder diffTimeoutMillis(long diffTimeoutMillis) {
+            config.diffTimeoutMillis = diffTimeoutMillis;
+            return this;
+        }
+        
+        public Builder diffMaxLines(int diffMaxLines) {
+            config.diffMaxLines = diffMaxLines;
+            return this;
+        }
+        
+        public Builder mergeDiffMode(MergeDiffMode mergeDiffMode) {
+            config.mergeDiffMode = mergeDiffMode != null ? mergeDiffMode : MergeDiffMode.FIRST_PARENT;
+            return this;
+        }
+        
+        public Builder skipCleanMerges(boolean skipCleanMerges) {
+            config.skipCleanMerges = skipCleanMerges;
+            return this;
+        }
+        
+        public Builder watermarkEnabled(boolean watermarkEnabled) {
+            config.watermarkEnabled = watermarkEnabled;
+            return this;
+        }
+        
+        public Builder watermarkFile(String watermarkFile) {
+            config.watermarkFile = watermarkFile;
+            return this;
+        }
+        
+        public Builder repositoryCacheIdleSeconds(long repositoryCacheIdleSeconds) {
+            config.repositoryCacheIdleSeconds = repositoryCacheIdleSeconds;
+            return this;
+        }
+        
+        public Builder packedGitLimit(long packedGitLimit) {
+            config.packedGitLimit = packedGitLimit;
+            return this;
+        }
+        
+        public Builder packedGitMmap(boolean packedGitMmap) {
+            config.packedGitMmap = packedGitMmap;
+            return this;
+        }
+        
+        public Builder deltaBaseCacheLimit(long deltaBaseCacheLimit) {
+            config.deltaBaseCacheLimit = deltaBaseCacheLimit;
+            return this;
+        }
+        
         public Builder githubRepoUrl(String githubRepoUrl) {
             config.githubRepoUrl = githubRepoUrl;
             return this;
@@ -0,0 +1,49 @@
+package org.ocr.com.sdk.config;
+
+/**
+ * 差异算法类型枚举
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public enum DiffAlgorithmType {
+
+    /**
+     * Histogram：以低频行为锚点，差异块更贴近代码结构（默认，与 JGit 默认一致）
+     */
+    HISTOGRAM("Histogram"),
+
+    /**
+     * Myers：经典最短编辑脚本算法，与 git 的默认输出一致
+     */
+    MYERS("Myers");
+
+    private final String description;
+
+    DiffAlgorithmType(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * 解析配置值，支持 histogram / myers（大小写不敏感）
+     *
+     * @param value 配置值
+     * @return 算法类型，无法识别时返回 null
+     */
+    public static DiffAlgorithmType parse(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        String normalized = value.trim().toUpperCase();
+        for (DiffAlgorithmType type : values()) {
+            if (type.name().equals(normalized)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,50 @@
+package org.ocr.com.sdk.config;
+
+/**
+ * 差异引擎类型枚举
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public enum DiffEngineType {
+
+    /**
+     * JGit：进程内计算差异，无外部依赖（默认）
+     */
+    JGIT("JGit"),
+
+    /**
+     * 原生 git：调用 git 子进程流式输出差异，大仓库下可利用 commit-graph 与多线程读取 pack；
+     * 找不到 git 可执行文件时自动回退为 JGit
+     */
+    NATIVE("原生 git");
+
+    private final String description;
+
+    DiffEngineType(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * 解析配置值，支持 jgit / native（大小写不敏感）
+     *
+     * @param value 配置值
+     * @return 引擎类型，无法识别时返回 null
+     */
+    public static DiffEngineType parse(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        String normalized = value.trim().toUpperCase().replace('-', '_');
+        for (DiffEngineType type : values()) {
+            if (type.name().equals(normalized)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,49 @@
+package org.ocr.com.sdk.config;
+
+/**
+ * 合并提交的差异模式枚举
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public enum MergeDiffMode {
+
+    /**
+     * 第一父提交模式：与第一父提交（合并前所在分支）比较，即合并引入的全部变更
+     */
+    FIRST_PARENT("第一父提交"),
+
+    /**
+     * 合并差异模式：只保留与所有父提交都不同的差异块，即解决冲突时手工修改的部分
+     */
+    COMBINED("合并差异");
+
+    private final String description;
+
+    MergeDiffMode(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * 解析配置值，支持 first-parent / combined（大小写与 -/_ 不敏感）
+     *
+     * @param value 配置值
+     * @return 差异模式，无法识别时返回 null
+     */
+    public static MergeDiffMode parse(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        String normalized = value.trim().toUpperCase().replace('-', '_');
+        for (MergeDiffMode mode : values()) {
+            if (mode.name().equals(normalized)) {
+                return mode;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,61 @@
+package org.ocr.com.sdk.config;
+
+/**
+ * 评审模式枚举
+ * 
+ * @author SDK Team
+ * @since 1.0
+ */
+public enum ReviewMode {
+    
+    /**
+     * 提交模式：比较最近两次提交（或配置的基线区间），适用于 CI
+     */
+    COMMIT("提交"),
+    
+    /**
+     * 暂存区模式：比较暂存区（index）与 HEAD，适用于 pre-commit 钩子
+     */
+    STAGED("暂存区"),
+    
+    /**
+     * 工作区模式：比较工作区已跟踪文件与 HEAD，包含未暂存的修改
+     */
+    WORKING_TREE("工作区");
+    
+    private final String description;
+    
+    ReviewMode(String description) {
+        this.description = description;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    /**
+     * 是否为本地模式（评审尚未提交的变更，不推送评审报告）
+     */
+    public boolean isLocal() {
+        return this != COMMIT;
+    }
+    
+    /**
+     * 解析配置值，支持 commit / staged / working-tree（大小写与 -/_ 不敏感）
+     * 
+     * @param value 配置值
+     * @return 评审模式，无法识别时返回 null
+     */
+    public static ReviewMode parse(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        String normalized = value.trim().toUpperCase().replace('-', '_');
+        for (ReviewMode mode : values()) {
+            if (mode.name().equals(normalized)) {
+                return mode;
+            }
+        }
+        return null;
+    }
+}
@@ -1,7 +1,9 @@
 package org.ocr.com.sdk.domain.model;
 
 import org.ocr.com.sdk.domain.model.valueobject.DiffContent;
+import org.ocr.com.sdk.domain.model.valueobject.FileDiff;
 
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -18,17 +20,37 @@ public class CodeInfo {
     private final String commitTime;
     private final String commitHash;
     private final DiffContent diffContent;
+    private final String skipReason;
+    private final String reviewAppendix;
     
     /**
      * 构造函数
      */
     public CodeInfo(String commitMessage, String authorName, String commitTime, 
                    String commitHash, String diffContent) {
+        this(commitMessage, authorName, commitTime, commitHash,
+                diffContent != null ? DiffContent.of(diffContent) : DiffContent.empty());
+    }
+    
+    private CodeInfo(String commitMessage, String authorName, String commitTime,
+                     String commitHash, DiffContent diffContent) {
+        this(commitMessage, authorName, commitTime, commitHash, diffContent, null);
+    }
+    
+    private CodeInfo(String commitMessage, String authorName, String commitTime,
+                     String commitHash, DiffContent diffContent, String skipReason) {
+        this(commitMessage, authorName, commitTime, commitHash, diffContent, skipReason, null);
+    }
+    
+    private CodeInfo(String commitMessage, String authorName, String commitTime,
+                     String commitHash, DiffContent diffContent, String skipReason, String reviewAppendix) {
         this.commitMessage = Objects.requireNonNull(commitMessage, "提交消息不能为空");
         this.authorName = Objects.requireNonNull(authorName, "作者名称不能为空");
         this.commitTime = Objects.requireNonNull(commitTime, "提交时间不能为空");
         this.commitHash = commitHash; // 可为空
-        this.diffContent = diffContent != null ? DiffContent.of(diffContent) : DiffContent.empty();
+        this.diffContent = diffContent;
+        this.skipReason = skipReason;
+        this.reviewAppendix = reviewAppendix;
     }
     
     /**
@@ -38,6 +60,49 @@ public class CodeInfo {
         this(commitMessage, authorName, commitTime, null, diffContent);
     }
     
+    /**
+     * 由按文件拆分的差异创建代码信息（完整 diff 文本在首次使用时才渲染）
+     */
+    public static CodeInfo fromFileDiffs(String commitMessage, String authorName, String commitTime,
+                                         String commitHash, List<FileDiff> fileDiffs) {
+        return new CodeInfo(commitMessage, authorName, commitTime, commitHash, DiffContent.ofFiles(fileDiffs));
+    }
+    
+    /**
+     * 以处理后的文件差异创建副本，提交信息不变
+     */
+    public CodeInfo withFileDiffs(List<FileDiff> fileDiffs) {
+        return withFileDiffs(fileDiffs, reviewAppendix);
+    }
+    
+    /**
+     * 以处理后的完整 diff 文本创建副本（来源只提供完整文本时），提交信息不变
+     */
+    public CodeInfo withDiffContent(String diffContent) {
+        return new CodeInfo(commitMessage, authorName, commitTime, commitHash, DiffContent.of(diffContent),
+                skipReason, reviewAppendix);
+    }
+    
+    /**
+     * 以处理后的文件差异创建副本，并附带需要追加到评审报告末尾的说明
+     *
+     * @param fileDiffs      处理后的文件差异
+     * @param reviewAppendix 报告附录（Markdown），可为 null
+     */
+    public CodeInfo withFileDiffs(List<FileDiff> fileDiffs, String reviewAppendix) {
+        return new CodeInfo(commitMessage, authorName, commitTime, commitHash, DiffContent.ofFiles(fileDiffs),
+                skipReason, reviewAppendix);
+    }
+    
+    /**
+     * 创建无需评审的代码信息（如变更文件全部被排除、提交已评审过）
+     */
+    public static CodeInfo skipped(String commitMessage, String authorName, String commitTime,
+                                   String commitHash, String skipReason) {
+        return new CodeInfo(commitMessage, authorName, commitTime, commitHash, DiffContent.empty(),
+                Objects.requireNonNull(skipReason, "跳过原因不能为空"));
+    }
+    
     public String getCommitMessage() {
         return commitMessage;
     }
@@ -65,8 +130,36 @@ public class CodeInfo {
         return diffContent;
     }
     
+    /**
+     * 获取按文件拆分的差异（来源仅提供完整文本时为空列表）
+     */
+    public List<FileDiff> getFileDiffs() {
+        return diffContent.getFileDiffs();
+    }
+    
+    /**
+     * 无需评审的原因，需要评审时为 null
+     */
+    public String getSkipReason() {
+        return skipReason;
+    }
+    
+    /**
+     * 评审前处理差异时产生的报告附录（如重复变更的位置列表），没有时为 null
+     */
+    public String getReviewAppendix() {
+        return reviewAppendix;
+    }
+    
     // 领域行为
     
+    /**
+     * 是否无需评审
+     */
+    public boolean isSkipped() {
+        return skipReason != null;
+    }
+    
     /**
      * 是否为空（无变更）
      */
@@ -0,0 +1,75 @@
+package org.ocr.com.sdk.domain.model;
+
+import java.util.Objects;
+
+/**
+ * 单个仓库的评审结果（多仓库评审）
+ * 评审成功时持有评审结果，失败时持有异常，单个仓库失败不影响其他仓库
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class RepositoryReviewResult {
+
+    private final String repositoryPath;
+    private final ReviewResult reviewResult;
+    private final Throwable error;
+
+    private RepositoryReviewResult(String repositoryPath, ReviewResult reviewResult, Throwable error) {
+        this.repositoryPath = Objects.requireNonNull(repositoryPath, "仓库路径不能为空");
+        this.reviewResult = reviewResult;
+        this.error = error;
+    }
+
+    /**
+     * 创建评审成功的结果
+     */
+    public static RepositoryReviewResult success(String repositoryPath, ReviewResult reviewResult) {
+        return new RepositoryReviewResult(repositoryPath, Objects.requireNonNull(reviewResult, "评审结果不能为空"), null);
+    }
+
+    /**
+     * 创建评审失败的结果
+     */
+    public static RepositoryReviewResult failure(String repositoryPath, Throwable error) {
+        return new RepositoryReviewResult(repositoryPath, null, Objects.requireNonNull(error, "失败原因不能为空"));
+    }
+
+    public String getRepositoryPath() {
+        return repositoryPath;
+    }
+
+    /**
+     * 评审结果，失败时为 null
+     */
+    public ReviewResult getReviewResult() {
+        return reviewResult;
+    }
+
+    /**
+     * 失败原因，成功时为 null
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * 是否跳过了评审（如提交已评审过）
+     */
+    public boolean isSkipped() {
+        return reviewResult != null && reviewResult.isSkipped();
+    }
+
+    @Override
+    public String toString() {
+        if (!isSuccess()) {
+            return "RepositoryReviewResult{repositoryPath='" + repositoryPath + "', error=" + error.getMessage() + "}";
+        }
+        return "RepositoryReviewResult{repositoryPath='" + repositoryPath + "', skipped=" + isSkipped()
+                + ", reportPath='" + reviewResult.getReportPath() + "'}";
+    }
+}
@@ -28,6 +28,13 @@ public class ReviewResult {
         this.reportPath = reportPath; // 可为空
     }
     
+    /**
+     * 创建跳过评审的结果（未调用 AI，无评审内容与报告）
+     */
+    public static ReviewResult skipped(CodeInfo codeInfo) {
+        return new ReviewResult(codeInfo, "", LocalDateTime.now(), null);
+    }
+    
     public CodeInfo getCodeInfo() {
         return codeInfo;
     }
@@ -46,6 +53,13 @@ public class ReviewResult {
     
     // 领域行为
     
+    /**
+     * 是否跳过了评审
+     */
+    public boolean isSkipped() {
+        return codeInfo.isSkipped();
+    }
+    
     /**
      * 是否为空
      */
@@ -1,25 +1,38 @@
 package org.ocr.com.sdk.domain.model.valueobject;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 
 /**
  * 代码差异内容值对象（Value Object）
  * 封装代码差异内容，提供领域行为
- * 
+ *
+ * <p>可由完整 diff 文本创建，也可由按文件拆分的 {@link FileDiff} 列表创建；
+ * 后者仅在首次需要完整文本时渲染一次，统计行数时不会构建完整文本</p>
+ *
  * @author SDK Team
  * @since 1.0
  */
 public class DiffContent {
     
-    private final String content;
+    private final List<FileDiff> fileDiffs;
+    private volatile String content;
     
     private DiffContent(String content) {
+        this.fileDiffs = Collections.emptyList();
         this.content = content != null ? content : "";
     }
     
+    private DiffContent(List<FileDiff> fileDiffs) {
+        this.fileDiffs = Collections.unmodifiableList(new ArrayList<>(fileDiffs));
+        this.content = null;
+    }
+    
     /**
      * 创建差异内容值对象
-     * 
+     *
      * @param content 差异内容
      * @return DiffContent实例
      */
@@ -27,6 +40,16 @@ public class DiffContent {
         return new DiffContent(content);
     }
     
+    /**
+     * 由按文件拆分的差异创建值对象
+     *
+     * @param fileDiffs 文件差异列表
+     * @return DiffContent实例
+     */
+    public static DiffContent ofFiles(List<FileDiff> fileDiffs) {
+        return new DiffContent(fileDiffs != null ? fileDiffs : Collections.<FileDiff>emptyList());
+    }
+    
     /**
      * 创建空的差异内容
      */
@@ -38,14 +61,45 @@ public class DiffContent {
      * 获取原始内容
      */
     public String getContent() {
-        return content;
+        String rendered = content;
+        if (rendered == null) {
+            int length = 0;
+            for (FileDiff fileDiff : fileDiffs) {
+                length += fileDiff.getTextLength();
+            }
+            StringBuilder sb = new StringBuilder(length);
+            for (FileDiff fileDiff : fileDiffs) {
+                fileDiff.appendTo(sb);
+            }
+            rendered = sb.toString();
+            content = rendered;
+        }
+        return rendered;
+    }
+    
+    /**
+     * 获取按文件拆分的差异（由完整文本创建时为空列表）
+     */
+    public List<FileDiff> getFileDiffs() {
+        return fileDiffs;
+    }
+    
+    /**
+     * 是否由按文件拆分的差异创建
+     */
+    public boolean hasFileDiffs() {
+        return !fileDiffs.isEmpty();
     }
     
     /**
      * 是否为空
      */
     public boolean isEmpty() {
-        return content == null || content.trim().isEmpty();
+        if (hasFileDiffs()) {
+            return false;
+        }
+        String text = getContent();
+        return text == null || text.trim().isEmpty();
     }
     
     /**
@@ -55,7 +109,14 @@ public class DiffContent {
         if (isEmpty()) {
             return 0;
         }
-        return content.split("\n").length;
+        if (hasFileDiffs()) {
+            int count = 0;
+            for (FileDiff fileDiff : fileDiffs) {
+                count += fileDiff.getLineCount();
+            }
+            return count;
+        }
+        return countLines(content);
     }
     
     /**
@@ -65,14 +126,14 @@ public class DiffContent {
         if (isEmpty()) {
             return 0;
         }
-        int count = 0;
-        String[] lines = content.split("\n");
-        for (String line : lines) {
-            if (line.startsWith("+") && !line.startsWith("+++")) {
-                count++;
+        if (hasFileDiffs()) {
+            int count = 0;
+            for (FileDiff fileDiff : fileDiffs) {
+                count += fileDiff.getAddedLineCount();
             }
+            return count;
         }
-        return count;
+        return countChangedLines(content, '+');
     }
     
     /**
@@ -82,14 +143,14 @@ public class DiffContent {
         if (isEmpty()) {
             return 0;
         }
-        int count = 0;
-        String[] lines = content.split("\n");
-        for (String line : lines) {
-            if (line.startsWith("-") && !line.startsWith("---")) {
-                count++;
+        if (hasFileDiffs()) {
+            int count = 0;
+            for (FileDiff fileDiff : fileDiffs) {
+                count += fileDiff.getDeletedLineCount();
             }
+            return count;
         }
-        return count;
+        return countChangedLines(content, '-');
     }
     
     /**
@@ -106,16 +167,60 @@ public class DiffContent {
         if (isEmpty()) {
             return "";
         }
-        String[] lines = content.split("\n");
-        if (lines.length <= maxLines) {
-            return content;
+        String text = getContent();
+        int lineCount = countLines(text);
+        if (lineCount <= maxLines) {
+            return text;
         }
-        StringBuilder sb = new StringBuilder();
+        int end = 0;
         for (int i = 0; i < maxLines; i++) {
-            sb.append(lines[i]).append("\n");
+            end = text.indexOf('\n', end) + 1;
         }
-        sb.append("... (共 ").append(lines.length).append(" 行)");
-        return sb.toString();
+        return text.substring(0, end) + "... (共 " + lineCount + " 行)";
+    }
+    
+    /**
+     * 统计文本行数（与 {@code split("\n").length} 语义一致，但不创建中间数组）
+     */
+    static int countLines(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int end = text.length();
+        // split 会丢弃末尾的空行
+        while (end > 0 && text.charAt(end - 1) == '\n') {
+            end--;
+        }
+        if (end == 0) {
+            return 0;
+        }
+        int count = 1;
+        for (int i = 0; i < end; i++) {
+            if (text.charAt(i) == '\n') {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * 统计以指定符号开头的变更行（排除 +++/--- 文件头）
+     */
+    private static int countChangedLines(String text, char prefix) {
+        int count = 0;
+        int length = text.length();
+        int lineStart = 0;
+        while (lineStart < length) {
+            if (text.charAt(lineStart) == prefix && !text.startsWith(prefix == '+' ? "+++" : "---", lineStart)) {
+                count++;
+            }
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                break;
+            }
+            lineStart = lineEnd + 1;
+        }
+        return count;
     }
     
     @Override
@@ -123,18 +228,22 @@ public class DiffContent {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         DiffContent that = (DiffContent) o;
+        // 按文件拆分时比较文件列表，避免为比较而渲染完整文本
+        if (hasFileDiffs() || that.hasFileDiffs()) {
+            return fileDiffs.equals(that.fileDiffs);
+        }
         return Objects.equals(content, that.content);
     }
     
     @Override
     public int hashCode() {
-        return Objects.hash(content);
+        return hasFileDiffs() ? fileDiffs.hashCode() : Objects.hash(content);
     }
     
     @Override
     public String toString() {
-        return isEmpty() ? "DiffContent(empty)" : 
-            String.format("DiffContent(lines=%d, +%d/-%d)", 
+        return isEmpty() ? "DiffContent(empty)" :
+            String.format("DiffContent(lines=%d, +%d/-%d)",
                 getLineCount(), getAddedLineCount(), getDeletedLineCount());
     }
 }
@@ -0,0 +1,139 @@
+package org.ocr.com.sdk.domain.model.valueobject;
+
+import java.util.Objects;
+
+/**
+ * 差异块值对象（Value Object）
+ * 对应统一 diff 格式中以 {@code @@ -a,b +c,d @@} 开头的一段变更
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class DiffHunk {
+
+    private final String header;
+    private final int oldStart;
+    private final int oldCount;
+    private final int newStart;
+    private final int newCount;
+    private final String body;
+
+    /**
+     * 构造函数
+     *
+     * @param header   块头（{@code @@ ... @@} 整行）
+     * @param oldStart 旧文件起始行
+     * @param oldCount 旧文件行数
+     * @param newStart 新文件起始行
+     * @param newCount 新文件行数
+     * @param body     块内容（以空格、+、-、\ 开头的行，以换行分隔，不含末尾换行）
+     */
+    public DiffHunk(String header, int oldStart, int oldCount, int newStart, int newCount, String body) {
+        this.header = Objects.requireNonNull(header, "块头不能为空");
+        this.oldStart = oldStart;
+        this.oldCount = oldCount;
+        this.newStart = newStart;
+        this.newCount = newCount;
+        this.body = body != null ? body : "";
+    }
+
+    public String getHeader() {
+        return header;
+    }
+
+    public int getOldStart() {
+        return oldStart;
+    }
+
+    public int getOldCount() {
+        return oldCount;
+    }
+
+    public int getNewStart() {
+        return newStart;
+    }
+
+    public int getNewCount() {
+        return newCount;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    /**
+     * 获取添加的行数
+     */
+    public int getAddedLineCount() {
+        return countLinesStartingWith('+');
+    }
+
+    /**
+     * 获取删除的行数
+     */
+    public int getDeletedLineCount() {
+        return countLinesStartingWith('-');
+    }
+
+    /**
+     * 获取块的总行数（含块头）
+     */
+    public int getLineCount() {
+        return 1 + DiffContent.countLines(body);
+    }
+
+    /**
+     * 渲染后的文本长度（含块头与换行）
+     */
+    public int getTextLength() {
+        return header.length() + 1 + (body.isEmpty() ? 0 : body.length() + 1);
+    }
+
+    /**
+     * 追加为统一 diff 文本
+     */
+    public void appendTo(StringBuilder sb) {
+        sb.append(header).append('\n');
+        if (!body.isEmpty()) {
+            sb.append(body).append('\n');
+        }
+    }
+
+    private int countLinesStartingWith(char prefix) {
+        int count = 0;
+        int length = body.length();
+        int lineStart = 0;
+        while (lineStart < length) {
+            if (body.charAt(lineStart) == prefix) {
+                count++;
+            }
+            int lineEnd = body.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                break;
+            }
+            lineStart = lineEnd + 1;
+        }
+        return count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DiffHunk that = (DiffHunk) o;
+        return Objects.equals(header, that.header) &&
+               Objects.equals(body, that.body);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(header, body);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(getTextLength());
+        appendTo(sb);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,262 @@
+package org.ocr.com.sdk.domain.model.valueobject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 单文件差异值对象（Value Object）
+ * 封装一个文件的路径、变更类型、文件头与差异块，支持按文件流式处理
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class FileDiff {
+
+    /**
+     * 变更类型枚举
+     */
+    public enum ChangeType {
+        ADD("新增"),
+        MODIFY("修改"),
+        DELETE("删除"),
+        RENAME("重命名"),
+        COPY("复制");
+
+        private final String description;
+
+        ChangeType(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    private final String oldPath;
+    private final String newPath;
+    private final ChangeType changeType;
+    private final String oldObjectId;
+    private final String newObjectId;
+    private final String header;
+    private final List<DiffHunk> hunks;
+
+    private FileDiff(Builder builder) {
+        this.oldPath = builder.oldPath;
+        this.newPath = builder.newPath;
+        this.changeType = builder.changeType != null ? builder.changeType : ChangeType.MODIFY;
+        this.oldObjectId = builder.oldObjectId;
+        this.newObjectId = builder.newObjectId;
+        this.header = builder.header != null ? builder.header : "";
+        this.hunks = Collections.unmodifiableList(new ArrayList<>(builder.hunks));
+    }
+
+    /**
+     * 获取文件路径（删除的文件返回旧路径，其余返回新路径）
+     */
+    public String getPath() {
+        return changeType == ChangeType.DELETE || newPath == null ? oldPath : newPath;
+    }
+
+    public String getOldPath() {
+        return oldPath;
+    }
+
+    public String getNewPath() {
+        return newPath;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    /**
+     * 旧版本对象ID（可为空，如新增文件或来源无法提供时）
+     */
+    public String getOldObjectId() {
+        return oldObjectId;
+    }
+
+    /**
+     * 新版本对象ID（可为空，如删除文件或来源无法提供时）
+     */
+    public String getNewObjectId() {
+        return newObjectId;
+    }
+
+    /**
+     * 文件头（diff --git、index、---/+++ 等行，不含末尾换行）
+     */
+    public String getHeader() {
+        return header;
+    }
+
+    public List<DiffHunk> getHunks() {
+        return hunks;
+    }
+
+    // 领域行为
+
+    /**
+     * 获取添加的行数
+     */
+    public int getAddedLineCount() {
+        int count = 0;
+        for (DiffHunk hunk : hunks) {
+            count += hunk.getAddedLineCount();
+        }
+        return count;
+    }
+
+    /**
+     * 获取删除的行数
+     */
+    public int getDeletedLineCount() {
+        int count = 0;
+        for (DiffHunk hunk : hunks) {
+            count += hunk.getDeletedLineCount();
+        }
+        return count;
+    }
+
+    /**
+     * 获取渲染后的总行数
+     */
+    public int getLineCount() {
+        int count = header.isEmpty() ? 0 : DiffContent.countLines(header);
+        for (DiffHunk hunk : hunks) {
+            count += hunk.getLineCount();
+        }
+        return count;
+    }
+
+    /**
+     * 渲染后的文本长度
+     */
+    public int getTextLength() {
+        int length = header.isEmpty() ? 0 : header.length() + 1;
+        for (DiffHunk hunk : hunks) {
+            length += hunk.getTextLength();
+        }
+        return length;
+    }
+
+    /**
+     * 追加为统一 diff 文本
+     */
+    public void appendTo(StringBuilder sb) {
+        if (!header.isEmpty()) {
+            sb.append(header).append('\n');
+        }
+        for (DiffHunk hunk : hunks) {
+            hunk.appendTo(sb);
+        }
+    }
+
+    /**
+     * 基于当前对象创建 Builder（用于替换差异块等变换）
+     */
+    public Builder toBuilder() {
+        return new Builder()
+                .oldPath(oldPath)
+                .newPath(newPath)
+                .changeType(changeType)
+                .oldObjectId(oldObjectId)
+                .newObjectId(newObjectId)
+                .header(header)
+                .hunks(hunks);
+    }
+
+    /**
+     * 创建Builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder类
+     */
+    public static class Builder {
+        private String oldPath;
+        private String newPath;
+        private ChangeType changeType;
+        private String oldObjectId;
+        private String newObjectId;
+        private String header;
+        private final List<DiffHunk> hunks = new ArrayList<>();
+
+        public Builder oldPath(String oldPath) {
+            this.oldPath = oldPath;
+            return this;
+        }
+
+        public Builder newPath(String newPath) {
+            this.newPath = newPath;
+            return this;
+        }
+
+        public Builder changeType(ChangeType changeType) {
+            this.changeType = changeType;
+            return this;
+        }
+
+        public Builder oldObjectId(String oldObjectId) {
+            this.oldObjectId = oldObjectId;
+            return this;
+        }
+
+        public Builder newObjectId(String newObjectId) {
+            this.newObjectId = newObjectId;
+            return this;
+        }
+
+        public Builder header(String header) {
+            this.header = header;
+            return this;
+        }
+
+        public Builder addHunk(DiffHunk hunk) {
+            this.hunks.add(hunk);
+            return this;
+        }
+
+        public Builder hunks(List<DiffHunk> hunks) {
+            this.hunks.clear();
+            this.hunks.addAll(hunks);
+            return this;
+        }
+
+        public FileDiff build() {
+            if (oldPath == null && newPath == null) {
+                throw new IllegalArgumentException("文件路径不能为空");
+            }
+            return new FileDiff(this);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        FileDiff that = (FileDiff) o;
+        return Objects.equals(oldPath, that.oldPath) &&
+               Objects.equals(newPath, that.newPath) &&
+               changeType == that.changeType &&
+               Objects.equals(header, that.header) &&
+               Objects.equals(hunks, that.hunks);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(oldPath, newPath, changeType, header, hunks);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("FileDiff(%s %s, hunks=%d, +%d/-%d)",
+                changeType.getDescription(), getPath(), hunks.size(), getAddedLineCount(), getDeletedLineCount());
+    }
+}
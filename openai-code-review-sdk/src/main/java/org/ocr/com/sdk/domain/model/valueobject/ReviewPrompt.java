@@ -0,0 +1,205 @@
+package org.ocr.com.sdk.domain.model.valueobject;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 评审提示词值对象（Value Object）
+ * 分为固定的系统指令与可变的用户内容：系统指令在各次请求中逐字节相同，置于请求最前面以命中服务端的前缀缓存；
+ * 用户内容由文本与文件差异按顺序拼接而成，不预先构建完整文本：
+ * 通过 {@link #openReader()} 逐段读取时，文件差异在读到时才渲染，内存中只保留当前文件，
+ * 便于将多 MB 的差异直接流式写入请求体
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class ReviewPrompt {
+
+    private final String systemPrompt;
+    private final List<Part> parts;
+    private final int length;
+
+    private ReviewPrompt(String systemPrompt, List<Part> parts) {
+        this.systemPrompt = systemPrompt;
+        this.parts = Collections.unmodifiableList(new ArrayList<>(parts));
+        int total = 0;
+        for (Part part : parts) {
+            total += part.length();
+        }
+        this.length = total;
+    }
+
+    /**
+     * 由完整文本创建提示词（无系统指令）
+     */
+    public static ReviewPrompt of(String text) {
+        return builder().append(text).build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 系统指令，可为 null
+     */
+    public String getSystemPrompt() {
+        return systemPrompt;
+    }
+
+    /**
+     * 用户内容字符数
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * 打开一个按顺序读取用户内容的 Reader，可多次打开（如请求重试）
+     */
+    public Reader openReader() {
+        return new PromptReader();
+    }
+
+    /**
+     * 渲染完整文本，系统指令在前（仅用于不支持流式写出与分角色消息的场景）
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(length + (systemPrompt != null ? systemPrompt.length() + 2 : 0));
+        if (systemPrompt != null) {
+            sb.append(systemPrompt).append("\n\n");
+        }
+        for (Part part : parts) {
+            sb.append(part.render());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 提示词片段：模板文本或一个文件的差异
+     */
+    private interface Part {
+        int length();
+
+        CharSequence render();
+    }
+
+    private static final class TextPart implements Part {
+        private final CharSequence text;
+
+        private TextPart(CharSequence text) {
+            this.text = text;
+        }
+
+        @Override
+        public int length() {
+            return text.length();
+        }
+
+        @Override
+        public CharSequence render() {
+            return text;
+        }
+    }
+
+    private static final class FileDiffPart implements Part {
+        private final FileDiff fileDiff;
+
+        private FileDiffPart(FileDiff fileDiff) {
+            this.fileDiff = fileDiff;
+        }
+
+        @Override
+        public int length() {
+            return fileDiff.getTextLength();
+        }
+
+        @Override
+        public CharSequence render() {
+            StringBuilder sb = new StringBuilder(fileDiff.getTextLength());
+            fileDiff.appendTo(sb);
+            return sb;
+        }
+    }
+
+    /**
+     * 逐段读取，每次只渲染一个片段
+     */
+    private final class PromptReader extends Reader {
+        private int nextPart;
+        private CharSequence current;
+        private int position;
+
+        @Override
+        public int read(char[] buffer, int offset, int count) {
+            if (count == 0) {
+                return 0;
+            }
+            while (current == null || position >= current.length()) {
+                if (nextPart >= parts.size()) {
+                    current = null;
+                    return -1;
+                }
+                current = parts.get(nextPart++).render();
+                position = 0;
+            }
+            int n = Math.min(count, current.length() - position);
+            if (current instanceof String) {
+                ((String) current).getChars(position, position + n, buffer, offset);
+            } else if (current instanceof StringBuilder) {
+                ((StringBuilder) current).getChars(position, position + n, buffer, offset);
+            } else {
+                for (int i = 0; i < n; i++) {
+                    buffer[offset + i] = current.charAt(position + i);
+                }
+            }
+            position += n;
+            return n;
+        }
+
+        @Override
+        public void close() {
+            current = null;
+            nextPart = parts.size();
+        }
+    }
+
+    public static class Builder {
+        private final List<Part> parts = new ArrayList<>();
+        private String systemPrompt;
+
+        /**
+         * 设置系统指令，应为不随变更内容变化的固定文本
+         */
+        public Builder system(String systemPrompt) {
+            this.systemPrompt = systemPrompt;
+            return this;
+        }
+
+        public Builder append(CharSequence text) {
+            if (text != null && text.length() > 0) {
+                parts.add(new TextPart(text));
+            }
+            return this;
+        }
+
+        public Builder append(FileDiff fileDiff) {
+            parts.add(new FileDiffPart(fileDiff));
+            return this;
+        }
+
+        public Builder appendAll(List<FileDiff> fileDiffs) {
+            for (FileDiff fileDiff : fileDiffs) {
+                append(fileDiff);
+            }
+            return this;
+        }
+
+        public ReviewPrompt build() {
+            return new ReviewPrompt(systemPrompt, parts);
+        }
+    }
+}
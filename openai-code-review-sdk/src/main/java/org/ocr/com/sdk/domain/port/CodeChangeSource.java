@@ -1,6 +1,7 @@
 package org.ocr.com.sdk.domain.port;
 
 import org.ocr.com.sdk.domain.model.CodeInfo;
+import org.ocr.com.sdk.exception.ErrorCode;
 
 /**
  * 代码变更来源端口（DDD 端口）
@@ -17,4 +18,26 @@ public interface CodeChangeSource {
      * @return 代码信息，包含提交信息与 diff 内容
      */
     CodeInfo getLatestDiff();
+
+    /**
+     * 获取提交区间的聚合代码差异（base 与 head 的共同祖先 .. head）
+     * 适用于 PR/MR 场景：区间内的多个提交合并为一次评审（默认不支持）
+     *
+     * @param baseRef 基线引用（分支名、标签或提交哈希），如 {@code origin/main}
+     * @param headRef 目标引用，通常为 {@code HEAD}
+     * @return 代码信息，包含区间内提交的聚合信息与 diff 内容
+     * @throws org.ocr.com.sdk.exception.CodeReviewException 来源不支持提交区间评审时
+     */
+    default CodeInfo getRangeDiff(String baseRef, String headRef) {
+        throw ErrorCode.PARAMETER_INVALID.toException(
+                getClass().getSimpleName() + " 不支持提交区间评审: " + baseRef + ".." + headRef);
+    }
+
+    /**
+     * 评审成功后记录已评审的变更，之后不再重复评审（默认不记录）
+     *
+     * @param codeInfo 已评审的代码信息
+     */
+    default void markReviewed(CodeInfo codeInfo) {
+    }
 }
@@ -0,0 +1,50 @@
+package org.ocr.com.sdk.domain.port;
+
+import org.ocr.com.sdk.domain.model.valueobject.FileDiff;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * 代码变更流（按文件惰性产出差异）
+ * 每次 {@link #next()} 只计算一个文件的差异，调用方处理完后即可丢弃，
+ * 不需要在内存中构建完整的 diff 文本。使用完毕必须调用 {@link #close()} 释放底层资源。
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public interface CodeChangeStream extends Iterator<FileDiff>, Closeable {
+
+    /**
+     * 提交信息
+     */
+    String getCommitMessage();
+
+    /**
+     * 提交作者
+     */
+    String getAuthorName();
+
+    /**
+     * 提交时间
+     */
+    String getCommitTime();
+
+    /**
+     * 提交哈希（可为空）
+     */
+    String getCommitHash();
+
+    /**
+     * 无需评审的原因（如提交已评审过），需要评审时返回 null
+     */
+    default String getSkipReason() {
+        return null;
+    }
+
+    /**
+     * 关闭流并释放资源（不抛出受检异常）
+     */
+    @Override
+    void close();
+}
@@ -1,5 +1,7 @@
 package org.ocr.com.sdk.domain.port;
 
+import org.ocr.com.sdk.domain.model.valueobject.ReviewPrompt;
+
 /**
  * 代码评审 API 端口（DDD 端口）
  * 由领域定义，由基础设施实现（如 OpenAI/HTTP 适配器）
@@ -16,4 +18,15 @@ public interface CodeReviewApi {
      * @return 评审结果文本，不为 null 且非空
      */
     String reviewByPrompt(String prompt);
+
+    /**
+     * 调用 AI 进行代码评审（分段提示词）
+     * 默认渲染为完整文本后调用 {@link #reviewByPrompt(String)}，实现可覆盖为流式写出
+     *
+     * @param prompt 评审提示词
+     * @return 评审结果文本，不为 null 且非空
+     */
+    default String reviewByPrompt(ReviewPrompt prompt) {
+        return reviewByPrompt(prompt.toString());
+    }
 }
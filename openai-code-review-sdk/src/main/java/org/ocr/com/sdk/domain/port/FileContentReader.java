@@ -0,0 +1,52 @@
+package org.ocr.com.sdk.domain.port;
+
+import org.ocr.com.sdk.domain.model.valueobject.FileDiff;
+
+import java.io.Closeable;
+
+/**
+ * 文件内容读取端口（DDD 端口）
+ * 按文件差异中的对象ID读取变更后的完整文件内容，供规划评审批次时解析代码结构；
+ * 由基础设施实现（如 Git 仓库适配器），实现须支持多线程并发调用
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public interface FileContentReader {
+
+    /**
+     * 读取变更后（新版本）的完整文件内容
+     *
+     * @param fileDiff 文件差异
+     * @return 文件文本；删除的文件、对象不存在、二进制文件或超出大小限制时返回 null
+     */
+    String readNewContent(FileDiff fileDiff);
+
+    /**
+     * 打开一次批量读取：批量读取期间共用底层资源（如仓库句柄与对象读取器），不必每个文件重新获取，用完须关闭。
+     * 默认实现逐个调用 {@link #readNewContent}
+     *
+     * @return 批量读取器
+     */
+    default Batch openBatch() {
+        return new Batch() {
+            @Override
+            public String readNewContent(FileDiff fileDiff) {
+                return FileContentReader.this.readNewContent(fileDiff);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    /**
+     * 批量读取器，须支持多线程并发调用
+     */
+    interface Batch extends FileContentReader, Closeable {
+
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,27 @@
+package org.ocr.com.sdk.domain.port;
+
+/**
+ * 流式代码变更来源端口（DDD 端口）
+ * 在 {@link CodeChangeSource} 的基础上，按文件惰性产出差异，便于下游逐文件处理、过滤或丢弃
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public interface StreamingCodeChangeSource extends CodeChangeSource {
+
+    /**
+     * 打开最近一次提交的代码变更流
+     *
+     * @return 代码变更流，调用方负责关闭
+     */
+    CodeChangeStream openLatestDiff();
+
+    /**
+     * 打开提交区间（merge-base..head）的代码变更流
+     *
+     * @param baseRef 基线引用
+     * @param headRef 目标引用
+     * @return 代码变更流，调用方负责关闭
+     */
+    CodeChangeStream openRangeDiff(String baseRef, String headRef);
+}
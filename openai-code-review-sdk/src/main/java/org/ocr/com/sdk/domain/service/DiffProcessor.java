@@ -0,0 +1,94 @@
+package org.ocr.com.sdk.domain.service;
+
+import org.ocr.com.sdk.domain.model.valueobject.FileDiff;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 差异处理阶段（领域服务接口）
+ * 在生成评审提示词之前对文件差异做变换（如压缩噪声差异块），由基础设施层实现；
+ * 多个阶段按顺序组成处理流水线，只影响发送给 AI 的内容，不影响报告中的变更统计
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public interface DiffProcessor {
+
+    /**
+     * 阶段名称（用于输出处理统计）
+     */
+    String getName();
+
+    /**
+     * 处理文件差异
+     *
+     * @param fileDiffs 文件差异，不可修改
+     * @return 处理结果，不需要变换时可原样返回输入
+     */
+    Result process(List<FileDiff> fileDiffs);
+
+    /**
+     * 处理不按文件拆分的文本：来源只提供完整 diff 文本时的差异，以及前面阶段产生的报告附录
+     *
+     * @param text 文本
+     * @return 处理后的文本，默认原样返回
+     */
+    default String processText(String text) {
+        return text;
+    }
+
+    /**
+     * 处理结果
+     */
+    class Result {
+        private final List<FileDiff> fileDiffs;
+        private final String detail;
+        private final String reportAppendix;
+        private final Map<String, Integer> counts;
+
+        public Result(List<FileDiff> fileDiffs, String detail) {
+            this(fileDiffs, detail, null);
+        }
+
+        public Result(List<FileDiff> fileDiffs, String detail, String reportAppendix) {
+            this(fileDiffs, detail, reportAppendix, null);
+        }
+
+        public Result(List<FileDiff> fileDiffs, String detail, String reportAppendix, Map<String, Integer> counts) {
+            this.fileDiffs = fileDiffs;
+            this.detail = detail;
+            this.reportAppendix = reportAppendix;
+            this.counts = counts != null && !counts.isEmpty()
+                    ? Collections.unmodifiableMap(new LinkedHashMap<>(counts))
+                    : Collections.<String, Integer>emptyMap();
+        }
+
+        public List<FileDiff> getFileDiffs() {
+            return fileDiffs;
+        }
+
+        /**
+         * 处理说明（如各类被省略的差异块数量），可为 null
+         */
+        public String getDetail() {
+            return detail;
+        }
+
+        /**
+         * 需要追加到评审报告末尾的说明（Markdown），可为 null
+         */
+        public String getReportAppendix() {
+            return reportAppendix;
+        }
+
+        /**
+         * 本次处理的分类计数（如各脱敏规则的命中次数），只统计这一次调用，没有时为空映射
+         */
+        public Map<String, Integer> getCounts() {
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.ocr.com.sdk.domain.service;
+
+/**
+ * 基于字符类别的 token 估算（不依赖具体模型的分词器）
+ * 与常见 BPE 分词器的经验比例一致：连续的字母数字约 4 个字符一个 token，
+ * 标点与换行各一个 token，连续空白（缩进）合并为一个 token，中日韩等非 ASCII 字符每个字符一个 token。
+ * 对代码差异的估算通常略偏高，规划分批时留有余量。
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class HeuristicTokenCounter implements TokenCounter {
+
+    private static final int CHARS_PER_WORD_TOKEN = 4;
+
+    @Override
+    public int count(CharSequence text) {
+        if (text == null) {
+            return 0;
+        }
+        int tokens = 0;
+        int wordLength = 0;
+        boolean inSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if ((c < 0x80 && Character.isLetterOrDigit(c)) || c == '_') {
+                wordLength++;
+                inSpace = false;
+                continue;
+            }
+            tokens += (wordLength + CHARS_PER_WORD_TOKEN - 1) / CHARS_PER_WORD_TOKEN;
+            wordLength = 0;
+            if (c == ' ' || c == '\t') {
+                if (!inSpace) {
+                    tokens++;
+                    inSpace = true;
+                }
+                continue;
+            }
+            inSpace = false;
+            if (Character.isLowSurrogate(c)) {
+                // 代理对按一个字符计
+                continue;
+            }
+            tokens++;
+        }
+        return tokens + (wordLength + CHARS_PER_WORD_TOKEN - 1) / CHARS_PER_WORD_TOKEN;
+    }
+}
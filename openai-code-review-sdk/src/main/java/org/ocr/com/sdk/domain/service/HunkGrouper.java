@@ -0,0 +1,54 @@
+package org.ocr.com.sdk.domain.service;
+
+import org.ocr.com.sdk.domain.model.valueobject.DiffHunk;
+import org.ocr.com.sdk.domain.model.valueobject.FileDiff;
+
+import java.io.Closeable;
+import java.util.List;
+
+/**
+ * 差异块分组器（领域服务接口）
+ * 按代码结构（类型、方法等）对一个文件的差异块分组，拆分超出预算的文件时以组为单位，
+ * 使每批评审的代码都是完整的语义单元。实现须支持多线程并发调用
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public interface HunkGrouper {
+
+    /**
+     * 对文件的差异块分组
+     *
+     * @param fileDiff 文件差异
+     * @return 分组列表，按原顺序排列，每组为同一单元内相邻的差异块；不支持的文件类型或无法解析时返回 null
+     */
+    List<List<DiffHunk>> group(FileDiff fileDiff);
+
+    /**
+     * 开始一批分组（如一次评审规划）：批内共用读取文件内容所需的资源，用完须关闭。
+     * 默认实现逐个调用 {@link #group}
+     *
+     * @return 批量分组器
+     */
+    default Batch openBatch() {
+        return new Batch() {
+            @Override
+            public List<List<DiffHunk>> group(FileDiff fileDiff) {
+                return HunkGrouper.this.group(fileDiff);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    /**
+     * 批量分组器，须支持多线程并发调用
+     */
+    interface Batch extends HunkGrouper, Closeable {
+
+        @Override
+        void close();
+    }
+}
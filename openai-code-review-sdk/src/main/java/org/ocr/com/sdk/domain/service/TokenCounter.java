@@ -0,0 +1,19 @@
+package org.ocr.com.sdk.domain.service;
+
+/**
+ * Token 计数器（领域服务接口）
+ * 估算文本在模型分词器下的 token 数，用于按上下文窗口规划评审请求
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public interface TokenCounter {
+
+    /**
+     * 估算文本的 token 数
+     *
+     * @param text 文本
+     * @return token 数，空文本为 0
+     */
+    int count(CharSequence text);
+}
@@ -19,6 +19,7 @@ public enum ErrorCode {
     GIT_COMMIT_HISTORY_INSUFFICIENT("2002", "提交历史不足，无法进行代码对比"),
     GIT_DIFF_FAILED("2003", "获取代码差异失败"),
     GIT_OPERATION_FAILED("2004", "Git操作失败"),
+    GIT_REF_NOT_FOUND("2005", "无法解析Git引用"),
     
     // HTTP相关错误 (3000-3999)
     HTTP_REQUEST_FAILED("3001", "HTTP请求失败"),
@@ -36,6 +37,7 @@ public enum ErrorCode {
     FILE_WRITE_FAILED("5001", "文件写入失败"),
     FILE_CREATE_FAILED("5002", "文件创建失败"),
     FILE_PATH_INVALID("5003", "文件路径无效"),
+    FILE_READ_FAILED("5004", "文件读取失败"),
     
     // 微信公众号相关错误 (6000-6999)
     WECHAT_ACCESS_TOKEN_FAILED("6001", "获取微信公众号 access_token 失败"),
@@ -0,0 +1,299 @@
+package org.ocr.com.sdk.infrastructure.diff;
+
+import org.ocr.com.sdk.domain.model.valueobject.DiffHunk;
+import org.ocr.com.sdk.domain.model.valueobject.FileDiff;
+import org.ocr.com.sdk.domain.port.FileContentReader;
+import org.ocr.com.sdk.domain.service.DiffProcessor;
+import org.ocr.com.sdk.domain.service.TokenCounter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 上下文补充阶段（基础设施层）
+ * 从变更后的完整文件（经 {@link SourceCache} 缓存）中找出差异块所在的函数（{@link FunctionBoundaryDetector}），
+ * 以未变更的上下文行把差异块扩展到完整的函数签名与函数体，效果与 {@code git diff -W} 相同，
+ * 但不依赖差异引擎，也适用于提交历史、补丁等已生成的差异。
+ * <ul>
+ *     <li>扩展范围不越过相邻差异块，扩展后重叠的差异块合并为一个</li>
+ *     <li>已整块省略的差异块、超过最大行数的函数不扩展</li>
+ *     <li>差异块末尾的说明行（如重复变更的其余位置）保持在扩展后差异块的末尾</li>
+ *     <li>整次评审补充的上下文有 token 上限，超出后其余差异块保持原样</li>
+ * </ul>
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class ContextEnricher implements DiffProcessor {
+
+    private final FileContentReader contentReader;
+    private final TokenCounter tokenCounter;
+    private final int maxTokens;
+    private final int maxFunctionLines;
+
+    /**
+     * @param contentReader    变更后文件内容读取器
+     * @param tokenCounter     token 计数器，用于控制补充上下文的总量
+     * @param maxTokens        每次评审补充上下文的 token 上限
+     * @param maxFunctionLines 函数超过该行数时不扩展
+     */
+    public ContextEnricher(FileContentReader contentReader, TokenCounter tokenCounter,
+                           int maxTokens, int maxFunctionLines) {
+        this.contentReader = contentReader;
+        this.tokenCounter = tokenCounter;
+        this.maxTokens = maxTokens;
+        this.maxFunctionLines = maxFunctionLines;
+    }
+
+    @Override
+    public String getName() {
+        return "上下文补充";
+    }
+
+    @Override
+    public Result process(List<FileDiff> fileDiffs) {
+        Stats stats = new Stats(maxTokens);
+        boolean changed = false;
+        List<FileDiff> result = new ArrayList<>(fileDiffs.size());
+        // 整次评审共用一个批量读取器，不为每个文件重新打开仓库
+        try (FileContentReader.Batch contents = contentReader.openBatch()) {
+            for (FileDiff fileDiff : fileDiffs) {
+                FileDiff enriched = enrich(fileDiff, stats, contents);
+                changed |= enriched != fileDiff;
+                result.add(enriched);
+            }
+        }
+        if (stats.enrichedHunks == 0 && stats.skippedHunks == 0) {
+            return new Result(fileDiffs, null);
+        }
+        String detail = "补充 " + stats.enrichedHunks + " 个差异块";
+        if (stats.skippedHunks > 0) {
+            detail += "，超出 " + maxTokens + " tokens 上限未补充 " + stats.skippedHunks + " 个";
+        }
+        detail += "，源文件缓存" + SourceCache.getInstance().stats();
+        return new Result(changed ? result : fileDiffs, detail);
+    }
+
+    private FileDiff enrich(FileDiff fileDiff, Stats stats, FileContentReader contents) {
+        List<DiffHunk> hunks = fileDiff.getHunks();
+        FunctionBoundaryDetector detector = FunctionBoundaryDetector.forPath(fileDiff.getPath());
+        if (detector == null || hunks.isEmpty() || fileDiff.getChangeType() == FileDiff.ChangeType.DELETE) {
+            return fileDiff;
+        }
+        for (DiffHunk hunk : hunks) {
+            if (HunkLines.isCombined(hunk)) {
+                return fileDiff;
+            }
+        }
+        SourceFile sourceFile = SourceCache.getInstance().load(fileDiff, contents);
+        if (sourceFile == null) {
+            return fileDiff;
+        }
+        List<String> lines = sourceFile.getLines();
+        DiffHunk last = hunks.get(hunks.size() - 1);
+        if (firstLine(last.getNewStart(), last.getNewCount()) + last.getNewCount() - 1 > lines.size()) {
+            // 文件内容与差异不一致（如工作区在生成差异后又被修改）
+            return fileDiff;
+        }
+
+        List<DiffHunk> result = new ArrayList<>(hunks.size());
+        boolean changed = false;
+        Pending pending = null;
+        for (int i = 0; i < hunks.size(); i++) {
+            DiffHunk hunk = hunks.get(i);
+            int firstNew = firstLine(hunk.getNewStart(), hunk.getNewCount());
+            int lastNew = firstNew + hunk.getNewCount() - 1;
+            int nextFirstNew = i + 1 < hunks.size()
+                    ? firstLine(hunks.get(i + 1).getNewStart(), hunks.get(i + 1).getNewCount())
+                    : lines.size() + 1;
+            boolean omitted = HunkLines.isOmitted(hunk);
+            int from = firstNew;
+            int to = lastNew;
+            if (!omitted) {
+                int[] range = HunkLines.changedRange(hunk);
+                int[] head = enclosing(detector, lines, range[0]);
+                int[] tail = range[1] == range[0] ? head : enclosing(detector, lines, range[1]);
+                if (head != null) {
+                    from = Math.min(head[0], firstNew);
+                }
+                if (tail != null) {
+                    to = Math.min(Math.max(tail[1], lastNew), nextFirstNew - 1);
+                }
+            }
+            boolean merge = pending != null && pending.mergeable && !omitted && from <= pending.lastNew + 1
+                    && from < firstNew;
+            if (pending != null && !merge) {
+                from = Math.max(from, pending.lastNew + 1);
+            }
+            int leadFrom = merge ? pending.lastNew + 1 : from;
+            if (leadFrom < firstNew || to > lastNew) {
+                String lead = contextLines(lines, leadFrom, firstNew - 1);
+                String trail = contextLines(lines, lastNew + 1, to);
+                int tokens = tokenCounter.count(lead) + tokenCounter.count(trail);
+                if (tokens > stats.remainingTokens) {
+                    stats.skippedHunks++;
+                    merge = false;
+                    from = firstNew;
+                    to = lastNew;
+                } else {
+                    stats.remainingTokens -= tokens;
+                    stats.enrichedHunks++;
+                    if (!merge) {
+                        if (pending != null) {
+                            result.add(pending.build());
+                        }
+                        pending = new Pending(hunk, firstNew);
+                    }
+                    pending.append(lead, firstNew - leadFrom);
+                    pending.append(hunk);
+                    pending.append(trail, to - lastNew);
+                    pending.lastNew = to;
+                    changed = true;
+                    continue;
+                }
+            }
+            if (pending != null) {
+                result.add(pending.build());
+            }
+            pending = new Pending(hunk, firstNew);
+            pending.append(hunk);
+            pending.lastNew = lastNew;
+            pending.mergeable = !omitted;
+        }
+        result.add(pending.build());
+        return changed ? fileDiff.toBuilder().hunks(result).build() : fileDiff;
+    }
+
+    /**
+     * 包含指定行的函数范围
+     *
+     * @param line 行号（从 1 开始）
+     * @return {起始行, 结束行}，从 1 开始，均包含；找不到或函数过长时返回 null
+     */
+    private int[] enclosing(FunctionBoundaryDetector detector, List<String> lines, int line) {
+        if (lines.isEmpty()) {
+            return null;
+        }
+        int index = Math.max(0, Math.min(line, lines.size()) - 1);
+        int[] range = detector.findEnclosing(lines, index);
+        if (range == null || range[1] - range[0] > maxFunctionLines) {
+            return null;
+        }
+        return new int[]{range[0] + 1, range[1]};
+    }
+
+    /**
+     * 第 from 至 to 行（从 1 开始，均包含）渲染为上下文行，范围为空时返回空字符串
+     */
+    private static String contextLines(List<String> lines, int from, int to) {
+        if (from > to) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int line = from; line <= to; line++) {
+            if (sb.length() > 0) {
+                sb.append('\n');
+            }
+            sb.append(' ').append(lines.get(line - 1));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 统一 diff 中行数为 0 时起始行号指向前一行，换算为范围的第一行
+     */
+    private static int firstLine(int start, int count) {
+        return count == 0 ? start + 1 : start;
+    }
+
+    /**
+     * 输出中的差异块（可能由多个原始差异块合并而成）
+     */
+    private static final class Pending {
+        private final DiffHunk first;
+        private final StringBuilder body = new StringBuilder();
+        private final StringBuilder notes = new StringBuilder();
+        private final int oldDelta;
+        private int firstNew;
+        private int oldCount;
+        private int newCount;
+        private int lastNew;
+        private boolean mergeable = true;
+        private boolean modified;
+
+        Pending(DiffHunk first, int firstNew) {
+            this.first = first;
+            this.firstNew = firstNew;
+            this.oldDelta = firstLine(first.getOldStart(), first.getOldCount()) - firstNew;
+        }
+
+        /**
+         * 追加差异块；末尾的说明行暂存，构建时放回合并后差异块的末尾，不被其后补充的上下文隔开
+         */
+        void append(DiffHunk hunk) {
+            String hunkBody = hunk.getBody();
+            int noteStart = HunkLines.trailingNoteStart(hunkBody);
+            if (noteStart < hunkBody.length()) {
+                notes.append('\n').append(hunkBody, noteStart, hunkBody.length());
+                hunkBody = hunkBody.substring(0, noteStart - 1);
+            }
+            appendBody(hunkBody);
+            oldCount += hunk.getOldCount();
+            newCount += hunk.getNewCount();
+        }
+
+        /**
+         * 追加未变更的上下文行；位于第一个差异块之前时同时前移起始行
+         */
+        void append(String context, int lineCount) {
+            if (lineCount <= 0) {
+                return;
+            }
+            if (body.length() == 0) {
+                firstNew -= lineCount;
+            }
+            appendBody(context);
+            oldCount += lineCount;
+            newCount += lineCount;
+            modified = true;
+        }
+
+        private void appendBody(String text) {
+            if (text.isEmpty()) {
+                return;
+            }
+            if (body.length() > 0) {
+                body.append('\n');
+            }
+            body.append(text);
+        }
+
+        DiffHunk build() {
+            if (!modified) {
+                return first;
+            }
+            int firstOld = firstNew + oldDelta;
+            int oldStart = oldCount == 0 ? firstOld - 1 : firstOld;
+            int newStart = newCount == 0 ? firstNew - 1 : firstNew;
+            String header = first.getHeader();
+            int sectionStart = header.startsWith("@@") ? header.indexOf("@@", 2) : -1;
+            String section = sectionStart >= 0 ? header.substring(sectionStart + 2) : "";
+            return new DiffHunk("@@ -" + range(oldStart, oldCount) + " +" + range(newStart, newCount) + " @@" + section,
+                    oldStart, oldCount, newStart, newCount, body.toString() + notes);
+        }
+
+        private static String range(int start, int count) {
+            return count == 1 ? String.valueOf(start) : start + "," + count;
+        }
+    }
+
+    private static final class Stats {
+        private int remainingTokens;
+        private int enrichedHunks;
+        private int skippedHunks;
+
+        Stats(int remainingTokens) {
+            this.remainingTokens = remainingTokens;
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package org.ocr.com.sdk.infrastructure.diff;
+
+import org.ocr.com.sdk.domain.model.valueobject.DiffHunk;
+import org.ocr.com.sdk.domain.model.valueobject.FileDiff;
+import org.ocr.com.sdk.domain.service.DiffProcessor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 差异压缩阶段
+ * 省略不影响评审结论的噪声差异块，原位置保留块头与一行说明：
+ * <ul>
+ *   <li>仅空白字符变更（缩进、行尾空格、空行；缩进敏感的文件只忽略行尾空格与空行）</li>
+ *   <li>仅调整 import 顺序</li>
+ *   <li>文件头部的版权/许可证注释更新</li>
+ *   <li>仅注释换行调整（注释文字不变）</li>
+ * </ul>
+ * 保留的差异块中连续未变更的上下文超过上限时折叠中间部分
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class DiffCompactor implements DiffProcessor {
+
+    // 许可证头只在文件前若干行内识别
+    private static final int LICENSE_HEADER_MAX_LINE = 30;
+    private static final Pattern LICENSE_KEYWORD =
+            Pattern.compile("copyright|licen[cs]e|spdx-license-identifier", Pattern.CASE_INSENSITIVE);
+    private static final Pattern IMPORT_LINE =
+            Pattern.compile("^\\s*(import\\s|from\\s+\\S+\\s+import\\s|using\\s+[\\w.]+\\s*;|#include\\s)");
+    private static final Pattern COMMENT_LINE = Pattern.compile("^\\s*(//|/\\*|\\*|#|--|<!--)");
+    private static final Pattern COMMENT_PREFIX = Pattern.compile("^\\s*(//+!?|/\\*+!?|\\*+/?|#+|--|<!--)");
+    private static final Pattern COMMENT_SUFFIX = Pattern.compile("(\\*+/|-->)\\s*$");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    // 缩进有语义的文件类型
+    private static final Set<String> INDENT_SENSITIVE_EXTENSIONS =
+            new HashSet<>(Arrays.asList("py", "pyi", "yaml", "yml", "mk", "haml", "pug", "coffee"));
+
+    private static final String WHITESPACE_ONLY = "仅空白字符变更";
+    private static final String IMPORT_REORDER = "仅调整 import 顺序";
+    private static final String LICENSE_HEADER = "许可证头更新";
+    private static final String COMMENT_REFLOW = "仅注释换行调整";
+    private static final String FOLDED_CONTEXT_PREFIX = "… 未变更上下文 ";
+    private static final String FOLDED_CONTEXT_SUFFIX = " 行，已省略";
+
+    private final int maxContextLines;
+
+    /**
+     * @param maxContextLines 差异块内连续未变更上下文的保留上限，超过时折叠中间部分；0 表示不折叠
+     */
+    public DiffCompactor(int maxContextLines) {
+        this.maxContextLines = maxContextLines;
+    }
+
+    @Override
+    public String getName() {
+        return "差异压缩";
+    }
+
+    @Override
+    public Result process(List<FileDiff> fileDiffs) {
+        Map<String, Integer> omitted = new LinkedHashMap<>();
+        int[] collapsedLines = new int[1];
+        List<FileDiff> compacted = new ArrayList<>(fileDiffs.size());
+        for (FileDiff fileDiff : fileDiffs) {
+            compacted.add(compact(fileDiff, omitted, collapsedLines));
+        }
+
+        StringBuilder detail = new StringBuilder();
+        for (Map.Entry<String, Integer> entry : omitted.entrySet()) {
+            detail.append(detail.length() > 0 ? "，" : "").append(entry.getKey()).append(" ").append(entry.getValue());
+        }
+        if (detail.length() > 0) {
+            detail.insert(0, "省略差异块: ");
+        }
+        if (collapsedLines[0] > 0) {
+            detail.append(detail.length() > 0 ? "；" : "").append("折叠上下文 ").append(collapsedLines[0]).append(" 行");
+        }
+        return new Result(compacted, detail.length() > 0 ? detail.toString() : null);
+    }
+
+    private FileDiff compact(FileDiff fileDiff, Map<String, Integer> omitted, int[] collapsedLines) {
+        if (fileDiff.getHunks().isEmpty()) {
+            return fileDiff;
+        }
+        boolean indentSensitive = isIndentSensitive(fileDiff.getPath());
+        boolean changed = false;
+        List<DiffHunk> hunks = new ArrayList<>(fileDiff.getHunks().size());
+        for (DiffHunk hunk : fileDiff.getHunks()) {
+            String[] lines = hunk.getBody().split("\n", -1);
+            String reason = classify(lines, hunk, indentSensitive);
+            DiffHunk result;
+            if (reason != null) {
+                omitted.merge(reason, 1, Integer::sum);
+                result = new DiffHunk(hunk.getHeader(), hunk.getOldStart(), hunk.getOldCount(),
+                        hunk.getNewStart(), hunk.getNewCount(),
+                        "… " + reason + " (+" + hunk.getAddedLineCount() + "/-" + hunk.getDeletedLineCount()
+                                + " 行)，已省略");
+            } else {
+                result = collapseContext(hunk, lines, collapsedLines);
+            }
+            changed |= result != hunk;
+            hunks.add(result);
+        }
+        return changed ? fileDiff.toBuilder().hunks(hunks).build() : fileDiff;
+    }
+
+    /**
+     * 判断差异块是否为噪声，返回省略原因；需要评审时返回 null
+     */
+    private String classify(String[] lines, DiffHunk hunk, boolean indentSensitive) {
+        List<String> removed = new ArrayList<>();
+        List<String> added = new ArrayList<>();
+        for (String line : lines) {
+            if (line.startsWith("-")) {
+                removed.add(line.substring(1));
+            } else if (line.startsWith("+")) {
+                added.add(line.substring(1));
+            }
+        }
+        if (removed.isEmpty() && added.isEmpty()) {
+            return null;
+        }
+        if (normalizeWhitespace(removed, indentSensitive).equals(normalizeWhitespace(added, indentSensitive))) {
+            return WHITESPACE_ONLY;
+        }
+        if (isImportReorder(removed, added)) {
+            return IMPORT_REORDER;
+        }
+        if (!allComments(removed) || !allComments(added)) {
+            return null;
+        }
+        if (hunk.getOldStart() <= LICENSE_HEADER_MAX_LINE && mentionsLicense(removed, added)) {
+            return LICENSE_HEADER;
+        }
+        if (commentWords(removed).equals(commentWords(added))) {
+            return COMMENT_REFLOW;
+        }
+        return null;
+    }
+
+    /**
+     * 去掉空行；单词之间的空白合并为一个空格，其余空白去掉（{@code a+b} 与 {@code a + b} 相同，
+     * 字符串中的 {@code "a b"} 与 {@code "ab"} 不同）。缩进敏感的文件保留缩进
+     */
+    private static List<String> normalizeWhitespace(List<String> lines, boolean indentSensitive) {
+        List<String> normalized = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            if (indentSensitive) {
+                int end = line.length();
+                while (end > 0 && Character.isWhitespace(line.charAt(end - 1))) {
+                    end--;
+                }
+                normalized.add(line.substring(0, end));
+                continue;
+            }
+            StringBuilder sb = new StringBuilder(line.length());
+            int length = line.length();
+            int i = 0;
+            while (i < length) {
+                char c = line.charAt(i);
+                if (!Character.isWhitespace(c)) {
+                    sb.append(c);
+                    i++;
+                    continue;
+                }
+                int runEnd = i;
+                while (runEnd < length && Character.isWhitespace(line.charAt(runEnd))) {
+                    runEnd++;
+                }
+                if (sb.length() > 0 && runEnd < length
+                        && isWordChar(sb.charAt(sb.length() - 1)) && isWordChar(line.charAt(runEnd))) {
+                    sb.append(' ');
+                }
+                i = runEnd;
+            }
+            normalized.add(sb.toString());
+        }
+        return normalized;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
+    /**
+     * 增删的都是 import 语句且内容相同，只是顺序或分组空行不同
+     */
+    private static boolean isImportReorder(List<String> removed, List<String> added) {
+        List<String> removedImports = new ArrayList<>();
+        List<String> addedImports = new ArrayList<>();
+        if (!collectImports(removed, removedImports) || !collectImports(added, addedImports)
+                || removedImports.isEmpty()) {
+            return false;
+        }
+        Collections.sort(removedImports);
+        Collections.sort(addedImports);
+        return removedImports.equals(addedImports);
+    }
+
+    private static boolean collectImports(List<String> lines, List<String> imports) {
+        for (String line : lines) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (!IMPORT_LINE.matcher(trimmed).find()) {
+                return false;
+            }
+            imports.add(trimmed);
+        }
+        return true;
+    }
+
+    private static boolean allComments(List<String> lines) {
+        for (String line : lines) {
+            if (!line.trim().isEmpty() && !COMMENT_LINE.matcher(line).find()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean mentionsLicense(List<String> removed, List<String> added) {
+        for (String line : removed) {
+            if (LICENSE_KEYWORD.matcher(line).find()) {
+                return true;
+            }
+        }
+        for (String line : added) {
+            if (LICENSE_KEYWORD.matcher(line).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 注释文字按顺序拆成单词（去掉注释符号），用于判断是否只是重新换行
+     */
+    private static List<String> commentWords(List<String> lines) {
+        List<String> words = new ArrayList<>();
+        for (String line : lines) {
+            String text = COMMENT_PREFIX.matcher(line).replaceFirst("");
+            text = COMMENT_SUFFIX.matcher(text).replaceFirst("").trim();
+            if (!text.isEmpty()) {
+                words.addAll(Arrays.asList(WHITESPACE.split(text)));
+            }
+        }
+        return words;
+    }
+
+    /**
+     * 折叠上下文说明行中省略的行数，用于按行号定位折叠后的差异块
+     *
+     * @return 省略的行数，不是折叠说明行时返回 -1
+     */
+    static int foldedContextLines(String line) {
+        if (!line.startsWith(FOLDED_CONTEXT_PREFIX) || !line.endsWith(FOLDED_CONTEXT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(line.substring(FOLDED_CONTEXT_PREFIX.length(),
+                    line.length() - FOLDED_CONTEXT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 折叠差异块内过长的连续上下文，保留首尾各一部分
+     */
+    private DiffHunk collapseContext(DiffHunk hunk, String[] lines, int[] collapsedLines) {
+        if (maxContextLines <= 0 || lines.length <= maxContextLines) {
+            return hunk;
+        }
+        int keepHead = maxContextLines / 2;
+        int keepTail = maxContextLines - keepHead;
+        StringBuilder body = null;
+        int runStart = -1;
+        for (int i = 0; i <= lines.length; i++) {
+            boolean context = i < lines.length && (lines[i].startsWith(" ") || lines[i].isEmpty());
+            if (context) {
+                if (runStart < 0) {
+                    runStart = i;
+                }
+                continue;
+            }
+            if (runStart >= 0 && i - runStart > maxContextLines) {
+                if (body == null) {
+                    body = new StringBuilder(hunk.getBody().length());
+                    appendLines(body, lines, 0, runStart);
+                }
+                int omittedLines = i - runStart - keepHead - keepTail;
+                appendLines(body, lines, runStart, runStart + keepHead);
+                body.append(FOLDED_CONTEXT_PREFIX).append(omittedLines).append(FOLDED_CONTEXT_SUFFIX).append('\n');
+                appendLines(body, lines, i - keepTail, i);
+                collapsedLines[0] += omittedLines;
+            } else if (body != null && runStart >= 0) {
+                appendLines(body, lines, runStart, i);
+            }
+            runStart = -1;
+            if (body != null && i < lines.length) {
+                body.append(lines[i]).append('\n');
+            }
+        }
+        if (body == null) {
+            return hunk;
+        }
+        body.setLength(body.length() - 1);
+        return new DiffHunk(hunk.getHeader(), hunk.getOldStart(), hunk.getOldCount(),
+                hunk.getNewStart(), hunk.getNewCount(), body.toString());
+    }
+
+    private static void appendLines(StringBuilder sb, String[] lines, int from, int to) {
+        for (int i = from; i < to; i++) {
+            sb.append(lines[i]).append('\n');
+        }
+    }
+
+    private static boolean isIndentSensitive(String path) {
+        if (path == null) {
+            return false;
+        }
+        String name = path.substring(path.lastIndexOf('/') + 1).toLowerCase(Locale.ROOT);
+        if ("makefile".equals(name) || "gnumakefile".equals(name)) {
+            return true;
+        }
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 && INDENT_SENSITIVE_EXTENSIONS.contains(name.substring(dot + 1));
+    }
+}
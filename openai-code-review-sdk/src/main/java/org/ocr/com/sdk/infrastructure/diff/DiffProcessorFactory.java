@@ -0,0 +1,66 @@
+package org.ocr.com.sdk.infrastructure.diff;
+
+import org.ocr.com.sdk.config.CodeReviewConfig;
+import org.ocr.com.sdk.domain.port.CodeChangeSource;
+import org.ocr.com.sdk.domain.port.FileContentReader;
+import org.ocr.com.sdk.domain.service.DiffProcessor;
+import org.ocr.com.sdk.domain.service.TokenCounter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 差异处理阶段工厂（基础设施层）
+ * 根据配置创建评审前的差异处理流水线，按执行顺序返回。
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class DiffProcessorFactory {
+
+    /**
+     * 根据配置创建差异处理阶段列表（不含需要读取文件内容的阶段）
+     *
+     * @param config 代码评审配置
+     * @return 按执行顺序排列的处理阶段，未启用任何阶段时为空列表
+     */
+    public static List<DiffProcessor> createProcessors(CodeReviewConfig config) {
+        return createProcessors(config, null, null);
+    }
+
+    /**
+     * 根据配置与变更来源创建差异处理阶段列表
+     * 上下文补充需要读取变更后的完整文件，只有能提供文件内容的变更来源（如 Git 仓库）才启用；
+     * 启用函数上下文时差异已包含完整函数，不再补充
+     *
+     * @param config           代码评审配置
+     * @param codeChangeSource 代码变更来源，可为 null
+     * @param tokenCounter     token 计数器，用于控制补充上下文的总量，可为 null
+     * @return 按执行顺序排列的处理阶段，未启用任何阶段时为空列表
+     */
+    public static List<DiffProcessor> createProcessors(CodeReviewConfig config, CodeChangeSource codeChangeSource,
+                                                       TokenCounter tokenCounter) {
+        boolean enrichment = config.isEnrichmentEnabled() && !config.isFunctionContext()
+                && codeChangeSource instanceof FileContentReader && tokenCounter != null;
+        List<DiffProcessor> processors = new ArrayList<>();
+        if (config.isCompactionEnabled()) {
+            // 启用函数上下文或上下文补充时保留完整函数，不折叠上下文
+            int maxContextLines = config.isFunctionContext() || enrichment ? 0 : config.getCompactionContextMaxLines();
+            processors.add(new DiffCompactor(maxContextLines));
+        }
+        if (config.isDedupeEnabled()) {
+            // 先合并重复差异块，上下文补充只作用于保留的差异块
+            processors.add(new HunkDeduplicator());
+        }
+        if (enrichment) {
+            SourceCache.configure(config);
+            processors.add(new ContextEnricher((FileContentReader) codeChangeSource, tokenCounter,
+                    config.getEnrichmentMaxTokens(), config.getFunctionContextMaxLines()));
+        }
+        if (config.isRedactionEnabled()) {
+            // 脱敏放在最后，前面阶段补充的上下文与产生的报告附录同样经过脱敏
+            processors.add(new SecretRedactor());
+        }
+        return processors;
+    }
+}
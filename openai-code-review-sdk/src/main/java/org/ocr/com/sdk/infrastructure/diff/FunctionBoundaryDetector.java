@@ -0,0 +1,226 @@
+package org.ocr.com.sdk.infrastructure.diff;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * 函数边界检测器（基础设施层）
+ * 按文件类型识别包含指定行的函数或方法，用于把差异块扩展到完整的函数上下文
+ * <ul>
+ *     <li>花括号语言（Java、Kotlin、JS/TS、Go、C/C++、C#、Rust 等）：向上查找声明行，再通过括号匹配确定结束行</li>
+ *     <li>缩进语言（Python）：向上查找 def/class，缩进回退处即为结束</li>
+ * </ul>
+ * 检测基于文本启发式，找不到时返回 null，由调用方回退为固定行数的上下文
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public abstract class FunctionBoundaryDetector {
+
+    /**
+     * 向上查找声明行的最大行数，避免在超长文件中整段回溯
+     */
+    private static final int MAX_SCAN_LINES = 2000;
+
+    private static final FunctionBoundaryDetector BRACE = new BraceDetector();
+    private static final FunctionBoundaryDetector INDENT = new IndentDetector();
+
+    /**
+     * 根据文件路径选择检测器
+     *
+     * @param path 文件路径
+     * @return 检测器，不支持的文件类型返回 null
+     */
+    public static FunctionBoundaryDetector forPath(String path) {
+        if (path == null) {
+            return null;
+        }
+        int dot = path.lastIndexOf('.');
+        if (dot < 0 || dot < path.lastIndexOf('/')) {
+            return null;
+        }
+        switch (path.substring(dot + 1).toLowerCase(Locale.ROOT)) {
+            case "java":
+            case "kt":
+            case "kts":
+            case "scala":
+            case "groovy":
+            case "js":
+            case "jsx":
+            case "mjs":
+            case "cjs":
+            case "ts":
+            case "tsx":
+            case "go":
+            case "c":
+            case "h":
+            case "cc":
+            case "cpp":
+            case "cxx":
+            case "hpp":
+            case "cs":
+            case "rs":
+            case "swift":
+            case "php":
+            case "dart":
+                return BRACE;
+            case "py":
+            case "pyi":
+                return INDENT;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 查找包含指定行的函数范围
+     *
+     * @param lines 文件内容（按行）
+     * @param line  行号（从 0 开始）
+     * @return {起始行, 结束行（不含）}，找不到时返回 null
+     */
+    public abstract int[] findEnclosing(List<String> lines, int line);
+
+    /**
+     * 花括号语言检测器
+     */
+    private static final class BraceDetector extends FunctionBoundaryDetector {
+
+        private static final Pattern CONTROL_STATEMENT = Pattern.compile(
+                "^(?:\\}\\s*)?(?:if|else|for|foreach|while|do|switch|case|catch|try|finally|return|throw|new|synchronized|using|lock|match|select)\\b.*");
+        // 与 { 之间最多间隔的行数（如参数列表换行、throws 子句）
+        private static final int MAX_SIGNATURE_LINES = 4;
+
+        @Override
+        public int[] findEnclosing(List<String> lines, int line) {
+            int lowest = Math.max(0, line - MAX_SCAN_LINES);
+            for (int start = Math.min(line, lines.size() - 1); start >= lowest; start--) {
+                if (!isDeclaration(lines.get(start))) {
+                    continue;
+                }
+                int end = findBlockEnd(lines, start);
+                if (end >= line) {
+                    return new int[]{start, end + 1};
+                }
+            }
+            return null;
+        }
+
+        private boolean isDeclaration(String text) {
+            String trimmed = text.trim();
+            if (trimmed.isEmpty() || trimmed.indexOf('(') < 0 || trimmed.endsWith(";")
+                    || trimmed.startsWith("//") || trimmed.startsWith("*") || trimmed.startsWith("/*")
+                    || trimmed.startsWith("#") || trimmed.startsWith(".") || trimmed.startsWith("@")) {
+                return false;
+            }
+            return !CONTROL_STATEMENT.matcher(trimmed).matches();
+        }
+
+        /**
+         * 从声明行开始匹配花括号，返回块结束所在行；声明后未找到 { 或括号不闭合时返回 -1
+         */
+        private int findBlockEnd(List<String> lines, int start) {
+            int depth = 0;
+            boolean opened = false;
+            boolean blockComment = false;
+            for (int i = start; i < lines.size(); i++) {
+                String text = lines.get(i);
+                char quote = 0;
+                for (int j = 0; j < text.length(); j++) {
+                    char c = text.charAt(j);
+                    char next = j + 1 < text.length() ? text.charAt(j + 1) : 0;
+                    if (blockComment) {
+                        if (c == '*' && next == '/') {
+                            blockComment = false;
+                            j++;
+                        }
+                    } else if (quote != 0) {
+                        if (c == '\\') {
+                            j++;
+                        } else if (c == quote) {
+                            quote = 0;
+                        }
+                    } else if (c == '/' && next == '/') {
+                        break;
+                    } else if (c == '/' && next == '*') {
+                        blockComment = true;
+                        j++;
+                    } else if (c == '"' || c == '\'' || c == '`') {
+                        quote = c;
+                    } else if (c == '{') {
+                        depth++;
+                        opened = true;
+                    } else if (c == '}') {
+                        depth--;
+                        if (opened && depth == 0) {
+                            return i;
+                        }
+                    } else if (c == ';' && !opened) {
+                        // 声明以分号结束（抽象方法、调用语句），不是代码块
+                        return -1;
+                    }
+                }
+                if (!opened && i - start >= MAX_SIGNATURE_LINES) {
+                    return -1;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * 缩进语言检测器
+     */
+    private static final class IndentDetector extends FunctionBoundaryDetector {
+
+        private static final Pattern DEFINITION = Pattern.compile("^\\s*(?:async\\s+)?(?:def|class)\\s.*");
+
+        @Override
+        public int[] findEnclosing(List<String> lines, int line) {
+            int anchor = Math.min(line, lines.size() - 1);
+            int lineIndent = Integer.MAX_VALUE;
+            for (int i = anchor; i < lines.size() && lineIndent == Integer.MAX_VALUE; i++) {
+                if (!lines.get(i).trim().isEmpty()) {
+                    lineIndent = indentOf(lines.get(i));
+                }
+            }
+            int lowest = Math.max(0, line - MAX_SCAN_LINES);
+            for (int start = anchor; start >= lowest; start--) {
+                String text = lines.get(start);
+                if (!DEFINITION.matcher(text).matches()) {
+                    continue;
+                }
+                int indent = indentOf(text);
+                if (start != anchor && indent >= lineIndent) {
+                    continue;
+                }
+                int end = start + 1;
+                int lastCode = start;
+                while (end < lines.size()) {
+                    String body = lines.get(end);
+                    if (!body.trim().isEmpty()) {
+                        if (indentOf(body) <= indent) {
+                            break;
+                        }
+                        lastCode = end;
+                    }
+                    end++;
+                }
+                if (lastCode >= line || start == anchor) {
+                    return new int[]{start, lastCode + 1};
+                }
+                lineIndent = indent;
+            }
+            return null;
+        }
+
+        private int indentOf(String text) {
+            int indent = 0;
+            while (indent < text.length() && (text.charAt(indent) == ' ' || text.charAt(indent) == '\t')) {
+                indent++;
+            }
+            return indent;
+        }
+    }
+}
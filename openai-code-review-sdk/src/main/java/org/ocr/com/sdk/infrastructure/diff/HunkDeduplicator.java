@@ -0,0 +1,220 @@
+package org.ocr.com.sdk.infrastructure.diff;
+
+import org.ocr.com.sdk.domain.model.valueobject.DiffHunk;
+import org.ocr.com.sdk.domain.model.valueobject.FileDiff;
+import org.ocr.com.sdk.domain.service.DiffProcessor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 重复差异块合并阶段（基础设施层）
+ * 批量修改（如给所有 Controller 加同一个注解、各模块统一迁移同一个 API）会产生大量变更行完全相同的差异块。
+ * 以规范化后的变更行（去掉上下文行与首尾空白）为键分组，每组只保留首次出现的差异块，
+ * 并在其末尾列出其余位置；其余差异块从提示词中移除，差异块全部重复的文件整体移除。
+ * 完整的位置列表作为附录追加到评审报告末尾，评审意见据此适用于每个位置
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class HunkDeduplicator implements DiffProcessor {
+
+    /**
+     * 变更行的非空白字符少于该值时不合并（如只增删一个右花括号），避免把无关的修改归为一组
+     */
+    private static final int MIN_CHANGED_CHARS = 8;
+    /**
+     * 提示词中每组最多列出的位置数，完整列表见报告附录
+     */
+    private static final int MAX_PROMPT_LOCATIONS = 20;
+    private static final int MAX_SNIPPET_LENGTH = 80;
+    /**
+     * 差异块移除标记
+     */
+    private static final DiffHunk REMOVED = new DiffHunk("", 0, 0, 0, 0, "");
+
+    @Override
+    public String getName() {
+        return "重复差异块合并";
+    }
+
+    @Override
+    public Result process(List<FileDiff> fileDiffs) {
+        Map<String, Group> groups = new LinkedHashMap<>();
+        for (int fileIndex = 0; fileIndex < fileDiffs.size(); fileIndex++) {
+            FileDiff fileDiff = fileDiffs.get(fileIndex);
+            if (fileDiff.getHunks().isEmpty() || fileDiff.getHunks().stream().anyMatch(HunkLines::isCombined)) {
+                continue;
+            }
+            for (int hunkIndex = 0; hunkIndex < fileDiff.getHunks().size(); hunkIndex++) {
+                DiffHunk hunk = fileDiff.getHunks().get(hunkIndex);
+                if (HunkLines.isOmitted(hunk)) {
+                    continue;
+                }
+                String key = normalize(hunk.getBody());
+                if (key == null) {
+                    continue;
+                }
+                groups.computeIfAbsent(key, k -> new Group()).add(fileIndex, hunkIndex, fileDiff, hunk);
+            }
+        }
+
+        // 每个文件中各差异块的处理方式：null 保持原样，否则为替换后的差异块（首次出现）或移除标记
+        Map<Integer, DiffHunk[]> replacements = new LinkedHashMap<>();
+        int duplicateGroups = 0;
+        int removedHunks = 0;
+        for (Group group : groups.values()) {
+            if (group.locations.size() < 2) {
+                continue;
+            }
+            duplicateGroups++;
+            removedHunks += group.locations.size() - 1;
+            for (int i = 0; i < group.locations.size(); i++) {
+                Location location = group.locations.get(i);
+                DiffHunk[] hunks = replacements.computeIfAbsent(location.fileIndex,
+                        index -> new DiffHunk[fileDiffs.get(index).getHunks().size()]);
+                hunks[location.hunkIndex] = i == 0 ? annotate(location.hunk, group) : REMOVED;
+            }
+        }
+        if (duplicateGroups == 0) {
+            return new Result(fileDiffs, null);
+        }
+
+        List<FileDiff> result = new ArrayList<>(fileDiffs.size());
+        int removedFiles = 0;
+        for (int fileIndex = 0; fileIndex < fileDiffs.size(); fileIndex++) {
+            FileDiff fileDiff = fileDiffs.get(fileIndex);
+            DiffHunk[] hunks = replacements.get(fileIndex);
+            if (hunks == null) {
+                result.add(fileDiff);
+                continue;
+            }
+            List<DiffHunk> kept = new ArrayList<>(hunks.length);
+            for (int i = 0; i < hunks.length; i++) {
+                DiffHunk hunk = hunks[i] != null ? hunks[i] : fileDiff.getHunks().get(i);
+                if (hunk != REMOVED) {
+                    kept.add(hunk);
+                }
+            }
+            if (kept.isEmpty()) {
+                removedFiles++;
+            } else {
+                result.add(fileDiff.toBuilder().hunks(kept).build());
+            }
+        }
+        String detail = duplicateGroups + " 组相同变更，省略 " + removedHunks + " 个重复差异块"
+                + (removedFiles > 0 ? "、" + removedFiles + " 个文件" : "");
+        return new Result(result, detail, appendix(groups));
+    }
+
+    /**
+     * 规范化的变更行：去掉上下文行与说明行，每行去掉首尾空白并保留 +/- 前缀
+     *
+     * @return 规范化文本，变更内容过少时返回 null
+     */
+    private static String normalize(String body) {
+        StringBuilder key = new StringBuilder();
+        int changedChars = 0;
+        int lineStart = 0;
+        while (lineStart < body.length()) {
+            int lineEnd = body.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = body.length();
+            }
+            char prefix = lineEnd > lineStart ? body.charAt(lineStart) : ' ';
+            if (prefix == '+' || prefix == '-') {
+                String text = body.substring(lineStart + 1, lineEnd).trim();
+                key.append(prefix).append(text).append('\n');
+                for (int i = 0; i < text.length(); i++) {
+                    if (!Character.isWhitespace(text.charAt(i))) {
+                        changedChars++;
+                    }
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return changedChars >= MIN_CHANGED_CHARS ? key.toString() : null;
+    }
+
+    /**
+     * 在保留的差异块末尾列出其余位置
+     */
+    private static DiffHunk annotate(DiffHunk hunk, Group group) {
+        int others = group.locations.size() - 1;
+        StringBuilder note = new StringBuilder(hunk.getBody());
+        note.append("\n… 相同的变更还出现在以下 ").append(others).append(" 处（上下文可能不同，评审意见同样适用）：");
+        for (int i = 1; i < group.locations.size() && i <= MAX_PROMPT_LOCATIONS; i++) {
+            note.append(i > 1 ? "、" : "").append(group.locations.get(i).describe());
+        }
+        if (others > MAX_PROMPT_LOCATIONS) {
+            note.append(" 等");
+        }
+        return new DiffHunk(hunk.getHeader(), hunk.getOldStart(), hunk.getOldCount(), hunk.getNewStart(),
+                hunk.getNewCount(), note.toString());
+    }
+
+    /**
+     * 报告附录：每组相同变更的全部位置
+     */
+    private static String appendix(Map<String, Group> groups) {
+        StringBuilder sb = new StringBuilder("### 附：重复变更\n")
+                .append("以下变更在多处完全相同，只评审了首个位置，评审意见同样适用于其余位置。\n");
+        int number = 0;
+        for (Map.Entry<String, Group> entry : groups.entrySet()) {
+            Group group = entry.getValue();
+            if (group.locations.size() < 2) {
+                continue;
+            }
+            sb.append('\n').append(++number).append(". `").append(snippet(entry.getKey()))
+                    .append("`（共 ").append(group.locations.size()).append(" 处）\n");
+            for (Location location : group.locations) {
+                sb.append("   - `").append(location.describe()).append("`\n");
+            }
+        }
+        return sb.toString().trim();
+    }
+
+    /**
+     * 变更摘要：第一行变更行，过长时截断
+     */
+    private static String snippet(String key) {
+        int end = key.indexOf('\n');
+        String line = (end >= 0 ? key.substring(0, end) : key).replace('`', '\'');
+        int lines = key.split("\n").length;
+        if (line.length() > MAX_SNIPPET_LENGTH) {
+            line = line.substring(0, MAX_SNIPPET_LENGTH) + "…";
+        }
+        return lines > 1 ? line + " …（" + lines + " 行）" : line;
+    }
+
+    private static final class Group {
+        private final List<Location> locations = new ArrayList<>(2);
+
+        void add(int fileIndex, int hunkIndex, FileDiff fileDiff, DiffHunk hunk) {
+            locations.add(new Location(fileIndex, hunkIndex, fileDiff.getPath(), hunk));
+        }
+    }
+
+    private static final class Location {
+        private final int fileIndex;
+        private final int hunkIndex;
+        private final String path;
+        private final DiffHunk hunk;
+
+        Location(int fileIndex, int hunkIndex, String path, DiffHunk hunk) {
+            this.fileIndex = fileIndex;
+            this.hunkIndex = hunkIndex;
+            this.path = path;
+            this.hunk = hunk;
+        }
+
+        /**
+         * 位置描述：{@code 路径:新文件中首个变更行的行号}
+         */
+        String describe() {
+            return path + ":" + HunkLines.changedRange(hunk)[0];
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.ocr.com.sdk.infrastructure.diff;
+
+import org.ocr.com.sdk.config.CodeReviewConfig;
+import org.ocr.com.sdk.domain.port.CodeChangeSource;
+import org.ocr.com.sdk.domain.port.FileContentReader;
+import org.ocr.com.sdk.domain.service.HunkGrouper;
+
+/**
+ * 差异块分组器工厂（基础设施层）
+ * 按代码结构分组需要读取变更后的完整文件，只有能提供文件内容的变更来源（如 Git 仓库）才创建分组器。
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class HunkGrouperFactory {
+
+    /**
+     * 根据配置与变更来源创建差异块分组器
+     *
+     * @param config           代码评审配置
+     * @param codeChangeSource 代码变更来源
+     * @return 分组器，未启用或来源无法提供文件内容（如补丁文件）时返回 null
+     */
+    public static HunkGrouper createGrouper(CodeReviewConfig config, CodeChangeSource codeChangeSource) {
+        if (!config.isSemanticChunking() || !(codeChangeSource instanceof FileContentReader)) {
+            return null;
+        }
+        SourceCache.configure(config);
+        return new JavaHunkGrouper((FileContentReader) codeChangeSource);
+    }
+}
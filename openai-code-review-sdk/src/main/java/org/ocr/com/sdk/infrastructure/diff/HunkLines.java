@@ -0,0 +1,97 @@
+package org.ocr.com.sdk.infrastructure.diff;
+
+import org.ocr.com.sdk.domain.model.valueobject.DiffHunk;
+
+/**
+ * 差异块行号工具
+ * 在已压缩（上下文折叠、整块省略）的差异块上按新文件行号定位变更行
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+final class HunkLines {
+
+    private HunkLines() {
+    }
+
+    /**
+     * 差异块中变更行在新文件中的行范围；删除的行取其在新文件中的位置，没有变更行（已压缩为说明）时取整个块的范围
+     *
+     * @return {起始行, 结束行}，从 1 开始，均包含
+     */
+    static int[] changedRange(DiffHunk hunk) {
+        int newLine = hunk.getNewStart();
+        int from = Integer.MAX_VALUE;
+        int to = Integer.MIN_VALUE;
+        String body = hunk.getBody();
+        int lineStart = 0;
+        while (lineStart < body.length()) {
+            int lineEnd = body.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = body.length();
+            }
+            char prefix = lineEnd > lineStart ? body.charAt(lineStart) : ' ';
+            if (prefix == '+' || prefix == '-') {
+                from = Math.min(from, newLine);
+                to = Math.max(to, newLine);
+                if (prefix == '+') {
+                    newLine++;
+                }
+            } else if (prefix == ' ') {
+                newLine++;
+            } else if (prefix != '\\') {
+                int folded = DiffCompactor.foldedContextLines(body.substring(lineStart, lineEnd));
+                newLine += Math.max(folded, 0);
+            }
+            lineStart = lineEnd + 1;
+        }
+        if (from == Integer.MAX_VALUE) {
+            return new int[]{hunk.getNewStart(), hunk.getNewStart() + Math.max(hunk.getNewCount() - 1, 0)};
+        }
+        return new int[]{from, to};
+    }
+
+    /**
+     * 差异块是否已整块省略（正文只剩一行说明，不含任何差异行）
+     */
+    static boolean isOmitted(DiffHunk hunk) {
+        String body = hunk.getBody();
+        int lineStart = 0;
+        while (lineStart < body.length()) {
+            char prefix = body.charAt(lineStart);
+            if (prefix == '+' || prefix == '-' || prefix == ' ') {
+                return false;
+            }
+            int lineEnd = body.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                break;
+            }
+            lineStart = lineEnd + 1;
+        }
+        return true;
+    }
+
+    /**
+     * 正文末尾说明行（以“…”开头，如重复变更的其余位置）的起始位置，没有时返回正文长度；
+     * 第一行不计入，整块省略的差异块同样返回正文长度
+     */
+    static int trailingNoteStart(String body) {
+        int noteStart = body.length();
+        while (noteStart > 0) {
+            int lineEnd = noteStart == body.length() ? noteStart : noteStart - 1;
+            int lineStart = body.lastIndexOf('\n', lineEnd - 1) + 1;
+            if (lineStart == 0 || !body.startsWith("…", lineStart)) {
+                break;
+            }
+            noteStart = lineStart;
+        }
+        return noteStart;
+    }
+
+    /**
+     * 是否为合并提交的组合差异块（多列前缀，不按行号定位）
+     */
+    static boolean isCombined(DiffHunk hunk) {
+        return hunk.getHeader().startsWith("@@@");
+    }
+}
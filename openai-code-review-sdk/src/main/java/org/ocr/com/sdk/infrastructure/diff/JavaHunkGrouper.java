@@ -0,0 +1,103 @@
+package org.ocr.com.sdk.infrastructure.diff;
+
+import org.ocr.com.sdk.domain.model.valueobject.DiffHunk;
+import org.ocr.com.sdk.domain.model.valueobject.FileDiff;
+import org.ocr.com.sdk.domain.port.FileContentReader;
+import org.ocr.com.sdk.domain.service.HunkGrouper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Java 差异块分组器（基础设施层）
+ * 读取变更后的完整文件（经 {@link SourceCache} 缓存）并解析结构大纲（{@link JavaOutline}），按差异块中变更行所在的最内层类型或成员分组：
+ * 同一方法内相邻的差异块为一组，跨越多个成员的差异块归入共同的外层类型。
+ * 差异块头部补充所属单元的描述（与 git 在 {@code @@} 之后给出函数名的做法一致），拆分后的每批仍能看出上下文
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class JavaHunkGrouper implements HunkGrouper {
+
+    private final FileContentReader contentReader;
+
+    public JavaHunkGrouper(FileContentReader contentReader) {
+        this.contentReader = contentReader;
+    }
+
+    @Override
+    public List<List<DiffHunk>> group(FileDiff fileDiff) {
+        return group(fileDiff, contentReader);
+    }
+
+    /**
+     * 批内读取文件内容共用同一个批量读取器（如 Git 仓库句柄与对象读取器）
+     */
+    @Override
+    public HunkGrouper.Batch openBatch() {
+        FileContentReader.Batch contents = contentReader.openBatch();
+        return new HunkGrouper.Batch() {
+            @Override
+            public List<List<DiffHunk>> group(FileDiff fileDiff) {
+                return JavaHunkGrouper.this.group(fileDiff, contents);
+            }
+
+            @Override
+            public void close() {
+                contents.close();
+            }
+        };
+    }
+
+    private List<List<DiffHunk>> group(FileDiff fileDiff, FileContentReader reader) {
+        String path = fileDiff.getPath();
+        if (path == null || !path.toLowerCase(Locale.ROOT).endsWith(".java")
+                || fileDiff.getChangeType() == FileDiff.ChangeType.DELETE || fileDiff.getHunks().size() < 2) {
+            return null;
+        }
+        for (DiffHunk hunk : fileDiff.getHunks()) {
+            if (HunkLines.isCombined(hunk)) {
+                return null;
+            }
+        }
+        SourceFile sourceFile = SourceCache.getInstance().load(fileDiff, reader);
+        if (sourceFile == null) {
+            return null;
+        }
+        JavaOutline outline = sourceFile.getJavaOutline();
+        if (outline.getUnits().isEmpty()) {
+            return null;
+        }
+
+        List<List<DiffHunk>> groups = new ArrayList<>();
+        JavaOutline.Unit currentUnit = null;
+        for (DiffHunk hunk : fileDiff.getHunks()) {
+            int[] range = HunkLines.changedRange(hunk);
+            JavaOutline.Unit unit = outline.findInnermost(range[0], range[1]);
+            if (groups.isEmpty() || unit != currentUnit) {
+                groups.add(new ArrayList<>());
+                currentUnit = unit;
+            }
+            groups.get(groups.size() - 1).add(unit != null ? withSection(hunk, unit.getLabel()) : hunk);
+        }
+        return groups;
+    }
+
+    /**
+     * 将块头 {@code @@ ... @@} 之后的说明替换为所属单元的描述
+     */
+    private DiffHunk withSection(DiffHunk hunk, String label) {
+        String header = hunk.getHeader();
+        int end = header.indexOf("@@", 2);
+        if (!header.startsWith("@@") || end < 0) {
+            return hunk;
+        }
+        String section = header.substring(0, end + 2) + " " + label;
+        if (section.equals(header)) {
+            return hunk;
+        }
+        return new DiffHunk(section, hunk.getOldStart(), hunk.getOldCount(), hunk.getNewStart(),
+                hunk.getNewCount(), hunk.getBody());
+    }
+}
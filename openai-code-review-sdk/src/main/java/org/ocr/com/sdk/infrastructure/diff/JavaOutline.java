@@ -0,0 +1,293 @@
+package org.ocr.com.sdk.infrastructure.diff;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Java 源文件结构大纲（基础设施层）
+ * 以轻量的词法扫描识别类型声明（class、interface、enum、record、@interface）与带方法体的成员
+ * （方法、构造器、初始化块、带匿名类或 lambda 的字段），记录各自的行范围与层级。
+ * 跳过注释、字符串、文本块与字符字面量，只跟踪类型体内的声明，方法体内部（局部类、匿名类）不再细分；
+ * 成员的起始行包含其前面的 Javadoc 与注解。不做语法校验，源文件不完整时未闭合的单元延伸到文件末尾
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+final class JavaOutline {
+
+    private static final int TYPE = 1;
+    private static final int MEMBER = 2;
+    private static final int BLOCK = 3;
+    private static final int MAX_LABEL_LENGTH = 100;
+
+    private static final Pattern TYPE_DECLARATION =
+            Pattern.compile("(?:^|[\\s>])(class|interface|enum|record|@interface)\\s+([A-Za-z_$][\\w$]*)");
+    private static final Pattern ANNOTATION = Pattern.compile("@(?!interface\\b)[\\w.$]+(?:\\s*\\([^()]*\\))?\\s*");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final List<Unit> units;
+
+    private JavaOutline(List<Unit> units) {
+        this.units = Collections.unmodifiableList(units);
+    }
+
+    /**
+     * 代码单元：类型或成员
+     */
+    static final class Unit {
+        private final int startLine;
+        private int endLine;
+        private final boolean type;
+        private final String label;
+
+        private Unit(int startLine, boolean type, String label) {
+            this.startLine = startLine;
+            this.type = type;
+            this.label = label;
+        }
+
+        /**
+         * 起始行（从 1 开始，含 Javadoc 与注解）
+         */
+        int getStartLine() {
+            return startLine;
+        }
+
+        /**
+         * 结束行（从 1 开始，含右花括号所在行）
+         */
+        int getEndLine() {
+            return endLine;
+        }
+
+        boolean isType() {
+            return type;
+        }
+
+        /**
+         * 简短描述，如 {@code class Foo}、{@code public void bar(int x)}
+         */
+        String getLabel() {
+            return label;
+        }
+    }
+
+    List<Unit> getUnits() {
+        return units;
+    }
+
+    /**
+     * 查找同时包含 [fromLine, toLine] 的最内层单元
+     *
+     * @return 单元，不在任何单元内（如 package、import 部分）时返回 null
+     */
+    Unit findInnermost(int fromLine, int toLine) {
+        Unit innermost = null;
+        for (Unit unit : units) {
+            if (unit.startLine <= fromLine && unit.endLine >= toLine
+                    && (innermost == null || unit.endLine - unit.startLine < innermost.endLine - innermost.startLine)) {
+                innermost = unit;
+            }
+        }
+        return innermost;
+    }
+
+    /**
+     * 扫描源文件
+     */
+    static JavaOutline parse(CharSequence source) {
+        List<Unit> units = new ArrayList<>();
+        int[] kinds = new int[16];
+        Unit[] openUnits = new Unit[16];
+        int depth = 0;
+        // 当前所在层级（文件顶层或类型体）中，自上一个 ; { } 以来的声明文本
+        StringBuilder header = new StringBuilder();
+        int headerLine = -1;
+        // 声明中未闭合的圆括号数，括号内的花括号与分号属于参数（注解的数组参数、作为参数的匿名类）
+        int parens = 0;
+        int line = 1;
+        int length = source.length();
+        for (int i = 0; i < length; i++) {
+            char c = source.charAt(i);
+            char next = i + 1 < length ? source.charAt(i + 1) : 0;
+            boolean tracking = depth == 0 || kinds[depth - 1] == TYPE;
+            if (c == '\n') {
+                line++;
+                if (tracking) {
+                    appendSpace(header);
+                }
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                if (tracking) {
+                    appendSpace(header);
+                }
+                continue;
+            }
+            if (tracking && headerLine < 0) {
+                headerLine = line;
+            }
+            if (c == '/' && next == '/') {
+                while (i + 1 < length && source.charAt(i + 1) != '\n') {
+                    i++;
+                }
+                continue;
+            }
+            if (c == '/' && next == '*') {
+                i += 2;
+                while (i < length && !(source.charAt(i) == '*' && i + 1 < length && source.charAt(i + 1) == '/')) {
+                    if (source.charAt(i) == '\n') {
+                        line++;
+                    }
+                    i++;
+                }
+                i++;
+                continue;
+            }
+            if (c == '"' && next == '"' && i + 2 < length && source.charAt(i + 2) == '"') {
+                // 文本块，可跨行
+                for (i += 3; i < length && !isTextBlockEnd(source, i); i++) {
+                    if (source.charAt(i) == '\\' && i + 1 < length) {
+                        i++;
+                    }
+                    if (source.charAt(i) == '\n') {
+                        line++;
+                    }
+                }
+                i += 2;
+                if (tracking) {
+                    header.append("\"\"");
+                }
+                continue;
+            }
+            if (c == '"' || c == '\'') {
+                i = skipLiteral(source, i + 1, c);
+                if (tracking) {
+                    header.append(c).append(c);
+                }
+                continue;
+            }
+            if (tracking && (c == '(' || c == ')' || (parens > 0 && (c == '{' || c == '}' || c == ';')))) {
+                parens += c == '(' ? 1 : c == ')' ? -1 : 0;
+                header.append(c);
+                continue;
+            }
+            if (c == '{') {
+                if (depth == kinds.length) {
+                    kinds = Arrays.copyOf(kinds, depth * 2);
+                    openUnits = Arrays.copyOf(openUnits, depth * 2);
+                }
+                Unit unit = null;
+                int kind = BLOCK;
+                if (tracking) {
+                    String declaration = WHITESPACE.matcher(header).replaceAll(" ").trim();
+                    Matcher typeMatcher = TYPE_DECLARATION.matcher(declaration);
+                    if (typeMatcher.find()) {
+                        kind = TYPE;
+                        unit = new Unit(headerLine, true, typeMatcher.group(1) + " " + typeMatcher.group(2));
+                    } else if (depth > 0) {
+                        kind = MEMBER;
+                        unit = new Unit(headerLine, false, memberLabel(declaration));
+                    }
+                    if (unit != null) {
+                        units.add(unit);
+                    }
+                    header.setLength(0);
+                    headerLine = -1;
+                    parens = 0;
+                }
+                kinds[depth] = kind;
+                openUnits[depth] = unit;
+                depth++;
+            } else if (c == '}') {
+                if (depth > 0) {
+                    depth--;
+                    if (openUnits[depth] != null) {
+                        openUnits[depth].endLine = line;
+                        openUnits[depth] = null;
+                    }
+                }
+                if (depth == 0 || kinds[depth - 1] == TYPE) {
+                    header.setLength(0);
+                    headerLine = -1;
+                    parens = 0;
+                }
+            } else if (c == ';') {
+                if (tracking) {
+                    header.setLength(0);
+                    headerLine = -1;
+                    parens = 0;
+                }
+            } else if (tracking) {
+                header.append(c);
+            }
+        }
+        for (int i = 0; i < depth; i++) {
+            if (openUnits[i] != null) {
+                openUnits[i].endLine = line;
+            }
+        }
+        return new JavaOutline(units);
+    }
+
+    /**
+     * 成员描述：方法与构造器取到参数列表结束，字段取等号之前的部分
+     */
+    private static String memberLabel(String declaration) {
+        String text = declaration;
+        String stripped;
+        while (!(stripped = ANNOTATION.matcher(text).replaceFirst("")).equals(text)) {
+            text = stripped;
+        }
+        text = text.trim();
+        int equals = text.indexOf('=');
+        int paren = text.indexOf('(');
+        if (equals >= 0 && (paren < 0 || equals < paren)) {
+            text = text.substring(0, equals).trim();
+        } else if (paren >= 0) {
+            int close = text.lastIndexOf(')');
+            text = close > paren ? text.substring(0, close + 1) : text;
+        } else if (text.isEmpty()) {
+            text = "初始化块";
+        } else if (text.equals("static")) {
+            text = "静态初始化块";
+        }
+        return text.length() > MAX_LABEL_LENGTH ? text.substring(0, MAX_LABEL_LENGTH) + "…" : text;
+    }
+
+    private static void appendSpace(StringBuilder header) {
+        if (header.length() > 0 && header.charAt(header.length() - 1) != ' ') {
+            header.append(' ');
+        }
+    }
+
+    /**
+     * 跳过字符串或字符字面量，返回结束引号的位置（未闭合时停在行尾之前）
+     */
+    private static int skipLiteral(CharSequence source, int i, char quote) {
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == quote) {
+                return i;
+            }
+            if (c == '\n') {
+                return i - 1;
+            }
+            i++;
+        }
+        return source.length() - 1;
+    }
+
+    private static boolean isTextBlockEnd(CharSequence source, int i) {
+        return source.charAt(i) == '"' && i + 2 < source.length()
+                && source.charAt(i + 1) == '"' && source.charAt(i + 2) == '"';
+    }
+}
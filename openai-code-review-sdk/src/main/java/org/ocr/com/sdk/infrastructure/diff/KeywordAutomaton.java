@@ -0,0 +1,142 @@
+package org.ocr.com.sdk.infrastructure.diff;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 多关键字匹配自动机（Aho-Corasick）
+ * 一次扫描找出文本中所有关键字的出现位置，耗时与关键字数量无关。关键字限 ASCII，匹配不区分大小写；
+ * 失败转移预先展开为完整的状态转移表，扫描时每个字符只查一次表
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+final class KeywordAutomaton {
+
+    private static final int ALPHABET = 128;
+
+    /**
+     * 匹配回调
+     */
+    interface Listener {
+
+        /**
+         * @param keyword 关键字序号（构造时的顺序）
+         * @param start   关键字在文本中的起始位置
+         */
+        void onMatch(int keyword, int start);
+    }
+
+    private final int[] transitions;
+    private final int[][] outputs;
+    private final int[] keywordLengths;
+
+    /**
+     * @param keywords 关键字（ASCII），不区分大小写
+     */
+    KeywordAutomaton(List<String> keywords) {
+        keywordLengths = new int[keywords.size()];
+        List<int[]> gotoTable = new ArrayList<>();
+        List<int[]> stateOutputs = new ArrayList<>();
+        gotoTable.add(newRow());
+        stateOutputs.add(new int[0]);
+        for (int k = 0; k < keywords.size(); k++) {
+            String keyword = keywords.get(k);
+            keywordLengths[k] = keyword.length();
+            int state = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                int c = lower(keyword.charAt(i));
+                if (c < 0) {
+                    throw new IllegalArgumentException("关键字只能包含 ASCII 字符: " + keyword);
+                }
+                if (gotoTable.get(state)[c] < 0) {
+                    gotoTable.get(state)[c] = gotoTable.size();
+                    gotoTable.add(newRow());
+                    stateOutputs.add(new int[0]);
+                }
+                state = gotoTable.get(state)[c];
+            }
+            stateOutputs.set(state, append(stateOutputs.get(state), k));
+        }
+
+        // 广度优先计算失败转移，并展开为完整的转移表
+        int stateCount = gotoTable.size();
+        transitions = new int[stateCount * ALPHABET];
+        outputs = new int[stateCount][];
+        int[] failure = new int[stateCount];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET; c++) {
+            int next = gotoTable.get(0)[c];
+            transitions[c] = Math.max(next, 0);
+            if (next > 0) {
+                queue.add(next);
+            }
+        }
+        outputs[0] = stateOutputs.get(0);
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            outputs[state] = concat(stateOutputs.get(state), outputs[failure[state]]);
+            for (int c = 0; c < ALPHABET; c++) {
+                int next = gotoTable.get(state)[c];
+                if (next > 0) {
+                    failure[next] = transitions[failure[state] * ALPHABET + c];
+                    transitions[state * ALPHABET + c] = next;
+                    queue.add(next);
+                } else {
+                    transitions[state * ALPHABET + c] = transitions[failure[state] * ALPHABET + c];
+                }
+            }
+        }
+    }
+
+    /**
+     * 扫描文本，按关键字结束位置的顺序回调
+     */
+    void scan(CharSequence text, Listener listener) {
+        int state = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            int c = lower(text.charAt(i));
+            if (c < 0) {
+                state = 0;
+                continue;
+            }
+            state = transitions[state * ALPHABET + c];
+            int[] matched = outputs[state];
+            for (int keyword : matched) {
+                listener.onMatch(keyword, i - keywordLengths[keyword] + 1);
+            }
+        }
+    }
+
+    private static int lower(char c) {
+        if (c >= ALPHABET) {
+            return -1;
+        }
+        return c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+    }
+
+    private static int[] newRow() {
+        int[] row = new int[ALPHABET];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    private static int[] append(int[] array, int value) {
+        int[] result = Arrays.copyOf(array, array.length + 1);
+        result[array.length] = value;
+        return result;
+    }
+
+    private static int[] concat(int[] first, int[] second) {
+        if (second.length == 0) {
+            return first;
+        }
+        int[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+}
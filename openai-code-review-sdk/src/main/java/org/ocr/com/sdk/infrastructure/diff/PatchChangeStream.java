@@ -0,0 +1,271 @@
+package org.ocr.com.sdk.infrastructure.diff;
+
+import org.ocr.com.sdk.domain.model.valueobject.FileDiff;
+import org.ocr.com.sdk.domain.port.CodeChangeStream;
+import org.ocr.com.sdk.exception.CodeReviewException;
+import org.ocr.com.sdk.exception.ErrorCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 基于补丁文本的代码变更流
+ * 逐个文件解析统一 diff，内存中只保留当前文件；{@code git format-patch} 输出中的邮件头
+ * （From / Date / Subject 与提交说明）作为提交信息，多个补丁时取最后一个补丁的作者与时间
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+class PatchChangeStream implements CodeChangeStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(PatchChangeStream.class);
+
+    private static final String UNKNOWN_AUTHOR = "未知";
+    // format-patch 每个补丁的首行: From <提交哈希> Mon Sep 17 00:00:00 2001
+    private static final Pattern MBOX_FROM_LINE = Pattern.compile("^From ([0-9a-f]{40}) .*");
+    private static final Pattern SUBJECT_PREFIX = Pattern.compile("^\\[PATCH[^\\]]*\\]\\s*");
+    // RFC 2047 编码的邮件头（非 ASCII 的作者名与标题）
+    private static final Pattern ENCODED_WORD = Pattern.compile("=\\?([^?]+)\\?([bBqQ])\\?([^?]*)\\?=");
+
+    private final UnifiedDiffParser parser;
+    private final String sourceName;
+    private final List<PathGlob> includes;
+    private final List<PathGlob> excludes;
+    private final long startTime;
+    private FileDiff pending;
+    private boolean finished;
+    private int fileCount;
+
+    // 邮件头解析状态
+    private int patchCount;
+    private String commitHash;
+    private String authorName;
+    private String commitTime;
+    private String subject;
+    private StringBuilder body;
+    private String lastHeader;
+    private boolean inHeaders;
+    private boolean inBody;
+
+    PatchChangeStream(Reader reader, String sourceName, List<PathGlob> includes, List<PathGlob> excludes) {
+        this.startTime = System.currentTimeMillis();
+        this.parser = new UnifiedDiffParser(reader, this::onPreambleLine);
+        this.sourceName = sourceName;
+        this.includes = includes;
+        this.excludes = excludes;
+        // 预读第一个文件，使首个补丁的提交信息在迭代前即可获取
+        hasNext();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (pending == null && !finished) {
+            pending = fetch();
+        }
+        return pending != null;
+    }
+
+    @Override
+    public FileDiff next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        FileDiff fileDiff = pending;
+        pending = null;
+        fileCount++;
+        return fileDiff;
+    }
+
+    private FileDiff fetch() {
+        try {
+            FileDiff fileDiff;
+            while ((fileDiff = parser.next()) != null) {
+                if (accept(fileDiff.getPath())) {
+                    return fileDiff;
+                }
+            }
+        } catch (IOException e) {
+            throw new CodeReviewException(ErrorCode.FILE_READ_FAILED.getCode(),
+                    "读取补丁失败: " + sourceName + ": " + e.getMessage(), e);
+        }
+        finished = true;
+        return null;
+    }
+
+    private boolean accept(String path) {
+        if (PathGlob.matchesAny(excludes, path)) {
+            return false;
+        }
+        return includes.isEmpty() || PathGlob.matchesAny(includes, path);
+    }
+
+    /**
+     * 解析文件差异以外的行：From 行开始一个新补丁，随后是邮件头、空行、提交说明，至 "---" 结束
+     */
+    private void onPreambleLine(String line) {
+        Matcher from = MBOX_FROM_LINE.matcher(line);
+        if (from.matches()) {
+            patchCount++;
+            commitHash = from.group(1);
+            subject = null;
+            body = new StringBuilder();
+            lastHeader = null;
+            inHeaders = true;
+            inBody = false;
+            return;
+        }
+        if (inHeaders) {
+            if (line.isEmpty()) {
+                inHeaders = false;
+                inBody = true;
+            } else if ((line.startsWith(" ") || line.startsWith("\t")) && lastHeader != null) {
+                // 折行的邮件头，展开时保留一个空白（相邻编码词之间的空白在解码时忽略）
+                onHeader(lastHeader, line.trim(), true);
+            } else {
+                int colon = line.indexOf(':');
+                if (colon > 0) {
+                    lastHeader = line.substring(0, colon);
+                    onHeader(lastHeader, line.substring(colon + 1).trim(), false);
+                }
+            }
+        } else if (inBody) {
+            if ("---".equals(line)) {
+                inBody = false;
+            } else {
+                body.append(line).append('\n');
+            }
+        }
+    }
+
+    private void onHeader(String name, String value, boolean continuation) {
+        switch (name) {
+            case "From":
+                if (!continuation) {
+                    String author = decode(value);
+                    int email = author.indexOf('<');
+                    authorName = (email > 0 ? author.substring(0, email) : author).trim().replaceAll("^\"|\"$", "");
+                }
+                break;
+            case "Date":
+                if (!continuation) {
+                    commitTime = parseDate(value);
+                }
+                break;
+            case "Subject":
+                subject = continuation && subject != null ? subject + " " + value : value;
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 提交时间与 Git 仓库来源一致，为秒级时间戳；无法解析时保留原文
+     */
+    private String parseDate(String value) {
+        try {
+            return String.valueOf(ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond());
+        } catch (DateTimeParseException e) {
+            logger.debug("无法解析补丁日期: {}", value);
+            return value;
+        }
+    }
+
+    /**
+     * 解码 RFC 2047 编码词，相邻编码词之间的空白忽略
+     */
+    private static String decode(String value) {
+        if (value.indexOf("=?") < 0) {
+            return value;
+        }
+        StringBuilder decoded = new StringBuilder();
+        Matcher matcher = ENCODED_WORD.matcher(value);
+        int position = 0;
+        while (matcher.find()) {
+            String between = value.substring(position, matcher.start());
+            if (position == 0 || !between.trim().isEmpty()) {
+                decoded.append(between);
+            }
+            try {
+                Charset charset = Charset.forName(matcher.group(1));
+                byte[] bytes = "B".equalsIgnoreCase(matcher.group(2))
+                        ? Base64.getDecoder().decode(matcher.group(3))
+                        : decodeQ(matcher.group(3));
+                decoded.append(new String(bytes, charset));
+            } catch (IllegalArgumentException e) {
+                decoded.append(matcher.group());
+            }
+            position = matcher.end();
+        }
+        return decoded.append(value.substring(position)).toString();
+    }
+
+    private static byte[] decodeQ(String text) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '_') {
+                out.write(' ');
+            } else if (c == '=' && i + 2 < text.length()) {
+                out.write(Integer.parseInt(text.substring(i + 1, i + 3), 16));
+                i += 2;
+            } else {
+                out.write(c);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 提交信息：单个补丁为标题与说明；多个补丁为最后一个补丁的标题与补丁数；无邮件头时为补丁来源
+     */
+    @Override
+    public String getCommitMessage() {
+        if (subject == null) {
+            return "补丁: " + sourceName;
+        }
+        String title = SUBJECT_PREFIX.matcher(decode(subject)).replaceFirst("");
+        if (patchCount > 1) {
+            return title + "（共 " + patchCount + " 个补丁）";
+        }
+        String description = body.toString().trim();
+        return description.isEmpty() ? title : title + "\n\n" + description;
+    }
+
+    @Override
+    public String getAuthorName() {
+        return authorName != null && !authorName.isEmpty() ? authorName : UNKNOWN_AUTHOR;
+    }
+
+    @Override
+    public String getCommitTime() {
+        return commitTime != null ? commitTime : String.valueOf(startTime / 1000);
+    }
+
+    @Override
+    public String getCommitHash() {
+        return commitHash;
+    }
+
+    @Override
+    public void close() {
+        try {
+            parser.close();
+        } catch (IOException e) {
+            logger.debug("关闭补丁输入失败: {}", e.getMessage());
+        }
+        logger.debug("补丁变更流已关闭，共 {} 个文件，耗时 {}ms", fileCount, System.currentTimeMillis() - startTime);
+    }
+}
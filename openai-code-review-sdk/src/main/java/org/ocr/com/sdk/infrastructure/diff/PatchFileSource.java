@@ -0,0 +1,129 @@
+package org.ocr.com.sdk.infrastructure.diff;
+
+import org.ocr.com.sdk.config.CodeReviewConfig;
+import org.ocr.com.sdk.domain.model.CodeInfo;
+import org.ocr.com.sdk.domain.model.valueobject.FileDiff;
+import org.ocr.com.sdk.domain.port.CodeChangeStream;
+import org.ocr.com.sdk.domain.port.StreamingCodeChangeSource;
+import org.ocr.com.sdk.exception.CodeReviewException;
+import org.ocr.com.sdk.exception.ConfigException;
+import org.ocr.com.sdk.exception.ErrorCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 补丁文件代码变更来源（实现 CodeChangeSource / StreamingCodeChangeSource 端口）
+ * 直接评审已有的统一 diff（{@code git format-patch} 输出、PR 的 .diff 文件等），
+ * 不打开 Git 仓库，适用于没有仓库的容器环境；路径为 {@value #STDIN} 时从标准输入读取
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class PatchFileSource implements StreamingCodeChangeSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(PatchFileSource.class);
+
+    /**
+     * 表示标准输入的路径
+     */
+    public static final String STDIN = "-";
+
+    private final String patchFile;
+    private final List<PathGlob> includes;
+    private final List<PathGlob> excludes;
+
+    public PatchFileSource(String patchFile) {
+        this(patchFile, Collections.<String>emptyList(), Collections.<String>emptyList());
+    }
+
+    public PatchFileSource(String patchFile, CodeReviewConfig config) {
+        this(patchFile, config.getIncludePaths(), config.getExcludePaths());
+    }
+
+    public PatchFileSource(String patchFile, List<String> includePaths, List<String> excludePaths) {
+        if (patchFile == null || patchFile.trim().isEmpty()) {
+            throw new ConfigException(ErrorCode.PARAMETER_INVALID, "补丁文件路径不能为空");
+        }
+        this.patchFile = patchFile.trim();
+        this.includes = PathGlob.compileAll(includePaths);
+        this.excludes = PathGlob.compileAll(excludePaths);
+    }
+
+    @Override
+    public CodeInfo getLatestDiff() {
+        try (CodeChangeStream stream = openLatestDiff()) {
+            List<FileDiff> fileDiffs = new ArrayList<>();
+            while (stream.hasNext()) {
+                fileDiffs.add(stream.next());
+            }
+            CodeInfo codeInfo = CodeInfo.fromFileDiffs(stream.getCommitMessage(), stream.getAuthorName(),
+                    stream.getCommitTime(), stream.getCommitHash(), fileDiffs);
+            // 变更文件全部被排除规则过滤，或只剩没有增删行的二进制、重命名等差异
+            if (!codeInfo.hasChanges()) {
+                System.out.println("    补丁中的变更文件均已排除或跳过，跳过");
+                return CodeInfo.skipped(stream.getCommitMessage(), stream.getAuthorName(),
+                        stream.getCommitTime(), stream.getCommitHash(), "补丁中的变更文件均已排除或跳过");
+            }
+            System.out.println("    ✓ 补丁解析成功");
+            logger.info("提交信息: {}", codeInfo.getCommitMessage());
+            logger.info("提交人: {}", codeInfo.getAuthorName());
+            logger.info("变更文件数: {}，代码差异行数: {}", fileDiffs.size(), codeInfo.getDiffLineCount());
+            return codeInfo;
+        }
+    }
+
+    @Override
+    public CodeChangeStream openLatestDiff() {
+        System.out.println("    正在读取补丁: " + (isStdin() ? "标准输入" : patchFile));
+        return new PatchChangeStream(openReader(), isStdin() ? "标准输入" : patchFile, includes, excludes);
+    }
+
+    @Override
+    public CodeChangeStream openRangeDiff(String baseRef, String headRef) {
+        throw unsupportedRange(baseRef, headRef);
+    }
+
+    /**
+     * 补丁内容固定，不支持按提交区间评审
+     */
+    private ConfigException unsupportedRange(String baseRef, String headRef) {
+        return new ConfigException(ErrorCode.PARAMETER_INVALID, "补丁文件来源不支持提交区间评审: " + baseRef + ".." + headRef);
+    }
+
+    private Reader openReader() {
+        if (isStdin()) {
+            return new InputStreamReader(System.in, StandardCharsets.UTF_8);
+        }
+        Path path = Paths.get(patchFile);
+        if (!Files.isRegularFile(path)) {
+            throw new CodeReviewException(ErrorCode.FILE_PATH_INVALID.getCode(),
+                    ErrorCode.FILE_PATH_INVALID.getMessage() + ": " + patchFile);
+        }
+        try {
+            // 非 UTF-8 内容替换为占位字符，不中断解析
+            return new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new CodeReviewException(ErrorCode.FILE_READ_FAILED.getCode(),
+                    "读取补丁失败: " + patchFile + ": " + e.getMessage(), e);
+        }
+    }
+
+    private boolean isStdin() {
+        return STDIN.equals(patchFile);
+    }
+
+    public String getPatchFile() {
+        return patchFile;
+    }
+}
@@ -0,0 +1,140 @@
+package org.ocr.com.sdk.infrastructure.diff;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 路径通配符（基础设施层）
+ * 语义参考 .gitignore：
+ * <ul>
+ *     <li>{@code *} 匹配单级目录内任意字符，{@code ?} 匹配单个字符</li>
+ *     <li>{@code **} 匹配任意多级目录，如 {@code **}{@code /target/**}</li>
+ *     <li>不含 {@code /} 的模式匹配任意层级的文件名或目录名，如 {@code *.lock}、{@code node_modules}</li>
+ * </ul>
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class PathGlob {
+
+    private final String glob;
+    private final Pattern pattern;
+    private final boolean directoryPattern;
+    private final boolean anyLevel;
+
+    private PathGlob(String glob) {
+        String normalized = glob.trim();
+        if (normalized.startsWith("/")) {
+            normalized = normalized.substring(1);
+        }
+        if (normalized.endsWith("/")) {
+            // "target/" 等价于 "target/**"
+            normalized = normalized + "**";
+        }
+        this.glob = normalized;
+        this.anyLevel = normalized.indexOf('/') < 0;
+        this.directoryPattern = anyLevel || normalized.endsWith("/**");
+        this.pattern = Pattern.compile(anyLevel
+                ? "(?:.*/)?" + toRegex(normalized) + "(?:/.*)?"
+                : toRegex(normalized));
+    }
+
+    /**
+     * 编译单个通配符
+     */
+    public static PathGlob compile(String glob) {
+        return new PathGlob(glob);
+    }
+
+    /**
+     * 编译通配符列表，忽略空白项
+     */
+    public static List<PathGlob> compileAll(List<String> globs) {
+        if (globs == null || globs.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<PathGlob> compiled = new ArrayList<>(globs.size());
+        for (String glob : globs) {
+            if (glob != null && !glob.trim().isEmpty()) {
+                compiled.add(compile(glob));
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * 任一通配符匹配文件路径
+     */
+    public static boolean matchesAny(List<PathGlob> globs, String path) {
+        for (PathGlob glob : globs) {
+            if (glob.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 文件路径是否匹配
+     */
+    public boolean matches(String path) {
+        return path != null && pattern.matcher(path).matches();
+    }
+
+    /**
+     * 目录下的所有文件是否都会被匹配（用于在遍历时整体剪枝目录）
+     */
+    public boolean matchesDirectory(String directory) {
+        if (!directoryPattern || directory == null) {
+            return false;
+        }
+        return anyLevel ? pattern.matcher(directory).matches() : pattern.matcher(directory + "/").matches();
+    }
+
+    /**
+     * 是否为不含通配符的普通路径前缀
+     */
+    public boolean isLiteral() {
+        return !anyLevel && glob.indexOf('*') < 0 && glob.indexOf('?') < 0;
+    }
+
+    public String getGlob() {
+        return glob;
+    }
+
+    private static String toRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        int length = glob.length();
+        for (int i = 0; i < length; i++) {
+            char c = glob.charAt(i);
+            if (c == '*') {
+                if (i + 1 < length && glob.charAt(i + 1) == '*') {
+                    i++;
+                    if (i + 1 < length && glob.charAt(i + 1) == '/') {
+                        // "**/" 匹配零或多级目录
+                        i++;
+                        regex.append("(?:.*/)?");
+                    } else {
+                        regex.append(".*");
+                    }
+                } else {
+                    regex.append("[^/]*");
+                }
+            } else if (c == '?') {
+                regex.append("[^/]");
+            } else if ("\\.[]{}()+-^$|".indexOf(c) >= 0) {
+                regex.append('\\').append(c);
+            } else {
+                regex.append(c);
+            }
+        }
+        return regex.toString();
+    }
+
+    @Override
+    public String toString() {
+        return glob;
+    }
+}
@@ -0,0 +1,120 @@
+package org.ocr.com.sdk.infrastructure.diff;
+
+import org.ocr.com.sdk.config.CodeReviewConfig;
+import org.ocr.com.sdk.domain.model.valueobject.FileDiff;
+import org.ocr.com.sdk.domain.port.FileContentReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 源文件缓存
+ * 按对象 ID（blob 哈希）缓存已读取的变更后文件及其解析结果，按估算的内存占用做 LRU 淘汰。
+ * 对象 ID 由内容决定，缓存项无需失效；守护模式连续评审时，未改动的文件与同一次评审中
+ * 多个阶段（上下文补充、语义分组）读取的同一文件只解码、解析一次
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+final class SourceCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SourceCache.class);
+
+    private static final Pattern OBJECT_ID = Pattern.compile("[0-9a-f]{40}");
+    private static final String ZERO_ID = "0000000000000000000000000000000000000000";
+
+    private static final SourceCache INSTANCE = new SourceCache();
+    private static boolean configured;
+
+    private final Map<String, SourceFile> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long maxBytes = CodeReviewConfig.DEFAULT_SOURCE_CACHE_MAX_BYTES;
+    private long usedBytes;
+    private long hits;
+    private long misses;
+
+    private SourceCache() {
+    }
+
+    static SourceCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 设置缓存容量（进程级全局设置，只在首次配置时生效）
+     */
+    static void configure(CodeReviewConfig config) {
+        synchronized (INSTANCE) {
+            if (configured || config == null) {
+                return;
+            }
+            configured = true;
+            INSTANCE.maxBytes = config.getSourceCacheMaxBytes();
+            INSTANCE.trim();
+        }
+    }
+
+    /**
+     * 获取变更后的文件，未命中时通过读取器加载并缓存
+     *
+     * @param fileDiff 文件差异
+     * @param reader   文件内容读取器
+     * @return 源文件，无法读取（删除、二进制、超出大小限制等）时返回 null
+     */
+    SourceFile load(FileDiff fileDiff, FileContentReader reader) {
+        String id = fileDiff.getNewObjectId();
+        boolean cacheable = id != null && OBJECT_ID.matcher(id).matches() && !ZERO_ID.equals(id);
+        if (cacheable) {
+            synchronized (this) {
+                SourceFile cached = entries.get(id);
+                if (cached != null) {
+                    hits++;
+                    return cached;
+                }
+                misses++;
+            }
+        }
+        // 读取与解码在锁外进行，并发加载同一文件时以后放入的为准
+        String content = reader.readNewContent(fileDiff);
+        if (content == null) {
+            return null;
+        }
+        SourceFile sourceFile = new SourceFile(content);
+        if (cacheable) {
+            put(id, sourceFile);
+        }
+        return sourceFile;
+    }
+
+    private synchronized void put(String id, SourceFile sourceFile) {
+        long bytes = sourceFile.estimatedBytes();
+        if (bytes > maxBytes) {
+            return;
+        }
+        SourceFile previous = entries.put(id, sourceFile);
+        if (previous != null) {
+            usedBytes -= previous.estimatedBytes();
+        }
+        usedBytes += bytes;
+        trim();
+    }
+
+    private void trim() {
+        Iterator<SourceFile> iterator = entries.values().iterator();
+        while (usedBytes > maxBytes && iterator.hasNext()) {
+            usedBytes -= iterator.next().estimatedBytes();
+            iterator.remove();
+        }
+        logger.debug("源文件缓存: {} 个文件，约 {} 字节", entries.size(), usedBytes);
+    }
+
+    /**
+     * 命中统计，如 {@code 命中 3/10}
+     */
+    synchronized String stats() {
+        return "命中 " + hits + "/" + (hits + misses);
+    }
+}
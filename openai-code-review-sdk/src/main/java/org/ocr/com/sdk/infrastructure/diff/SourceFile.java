@@ -0,0 +1,89 @@
+package org.ocr.com.sdk.infrastructure.diff;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 已读取的源文件（基础设施层）
+ * 保存完整文本与行起始位置，按需取行；Java 结构大纲在首次使用时解析并随文件一起缓存
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+final class SourceFile {
+
+    private final String content;
+    private final int[] lineStarts;
+    private final int lineCount;
+    private final List<String> lines;
+    private volatile JavaOutline javaOutline;
+
+    SourceFile(String content) {
+        this.content = content;
+        int[] starts = new int[64];
+        int count = 0;
+        int start = 0;
+        while (start < content.length()) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+            }
+            starts[count++] = start;
+            int end = content.indexOf('\n', start);
+            start = end < 0 ? content.length() : end + 1;
+        }
+        this.lineStarts = Arrays.copyOf(starts, count);
+        this.lineCount = count;
+        this.lines = new LineList();
+    }
+
+    String getContent() {
+        return content;
+    }
+
+    /**
+     * 按行只读视图（不含换行符），取行时才截取
+     */
+    List<String> getLines() {
+        return lines;
+    }
+
+    /**
+     * Java 结构大纲，首次调用时解析
+     */
+    JavaOutline getJavaOutline() {
+        JavaOutline outline = javaOutline;
+        if (outline == null) {
+            outline = JavaOutline.parse(content);
+            javaOutline = outline;
+        }
+        return outline;
+    }
+
+    /**
+     * 占用内存的估算值（字节），用于缓存容量控制
+     */
+    long estimatedBytes() {
+        return 2L * content.length() + 4L * lineStarts.length + 64;
+    }
+
+    private final class LineList extends AbstractList<String> {
+        @Override
+        public String get(int index) {
+            if (index < 0 || index >= lineCount) {
+                throw new IndexOutOfBoundsException("行号越界: " + index);
+            }
+            int start = lineStarts[index];
+            int end = index + 1 < lineCount ? lineStarts[index + 1] - 1 : content.length();
+            if (end > start && content.charAt(end - 1) == '\r') {
+                end--;
+            }
+            return content.substring(start, end);
+        }
+
+        @Override
+        public int size() {
+            return lineCount;
+        }
+    }
+}
@@ -0,0 +1,524 @@
+package org.ocr.com.sdk.infrastructure.diff;
+
+import org.ocr.com.sdk.domain.model.valueobject.DiffHunk;
+import org.ocr.com.sdk.domain.model.valueobject.FileDiff;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 统一 diff 格式流式解析器（基础设施层）
+ * 按文件逐个解析 {@code git diff} / {@code git format-patch} / 普通 {@code diff -u} 输出，
+ * 以及合并提交的组合差异（{@code diff --cc}，块头为 {@code @@@}），每次只在内存中保留一个文件的内容
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class UnifiedDiffParser implements Closeable {
+
+    private static final String GIT_DIFF_PREFIX = "diff --git ";
+    private static final String COMBINED_DIFF_PREFIX = "diff --cc ";
+    private static final String COMBINED_DIFF_LONG_PREFIX = "diff --combined ";
+    private static final String OLD_FILE_PREFIX = "--- ";
+    private static final String NEW_FILE_PREFIX = "+++ ";
+    private static final String HUNK_PREFIX = "@@ ";
+    private static final String COMBINED_HUNK_PREFIX = "@@@";
+    private static final String DEV_NULL = "/dev/null";
+    private static final Pattern HUNK_HEADER = Pattern.compile("^@@ -(\\d+)(?:,(\\d+))? \\+(\\d+)(?:,(\\d+))? @@.*");
+    // 组合差异块头：N 个父提交时为 N+1 个 @，每个父提交一段 -起始,行数
+    private static final Pattern COMBINED_HUNK_HEADER =
+            Pattern.compile("^(@@@+) ((?:-\\d+(?:,\\d+)? )+)\\+(\\d+)(?:,(\\d+))? \\1.*");
+
+    private final BufferedReader reader;
+    private final Deque<String> pushedBack = new ArrayDeque<>();
+    private final Consumer<String> preambleListener;
+
+    public UnifiedDiffParser(Reader reader) {
+        this(reader, null);
+    }
+
+    /**
+     * @param reader diff 文本
+     * @param preambleListener 接收文件差异以外的行（format-patch 邮件头、提交说明、签名等），可为 null
+     */
+    public UnifiedDiffParser(Reader reader, Consumer<String> preambleListener) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        this.preambleListener = preambleListener;
+    }
+
+    /**
+     * 解析只包含单个文件的 diff 文本
+     *
+     * @param text diff 文本
+     * @return 文件差异，文本中没有文件时返回 null
+     */
+    public static FileDiff parseSingle(String text) {
+        try (UnifiedDiffParser parser = new UnifiedDiffParser(new StringReader(text))) {
+            return parser.next();
+        } catch (IOException e) {
+            // StringReader 不会抛出 IO 异常
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 解析下一个文件的差异
+     *
+     * @return 文件差异，已到达末尾时返回 null
+     */
+    public FileDiff next() throws IOException {
+        String line;
+        while ((line = readLine()) != null) {
+            if (isFileHeader(line)) {
+                return parseFile(line, null);
+            }
+            if (line.startsWith(OLD_FILE_PREFIX)) {
+                String nextLine = readLine();
+                if (nextLine != null && nextLine.startsWith(NEW_FILE_PREFIX)) {
+                    return parseFile(line, nextLine);
+                }
+                pushBack(nextLine);
+            }
+            // 其他行（format-patch 邮件头、提交说明等）跳过
+            skip(line);
+        }
+        return null;
+    }
+
+    private FileDiff parseFile(String firstLine, String plainNewFileLine) throws IOException {
+        StringBuilder header = new StringBuilder(firstLine);
+        FileDiff.Builder builder = FileDiff.builder();
+        FileDiff.ChangeType changeType = FileDiff.ChangeType.MODIFY;
+        String oldPath;
+        String newPath;
+
+        if (plainNewFileLine != null) {
+            // 普通 diff -u 格式：只有 ---/+++ 两行文件头
+            header.append('\n').append(plainNewFileLine);
+            oldPath = parseFilePath(firstLine.substring(OLD_FILE_PREFIX.length()));
+            newPath = parseFilePath(plainNewFileLine.substring(NEW_FILE_PREFIX.length()));
+            if (oldPath == null) {
+                changeType = FileDiff.ChangeType.ADD;
+            } else if (newPath == null) {
+                changeType = FileDiff.ChangeType.DELETE;
+            }
+        } else {
+            String[] paths = parseFileHeaderPaths(firstLine);
+            oldPath = paths[0];
+            newPath = paths[1];
+            String line;
+            while ((line = readLine()) != null) {
+                if (isHunkHeader(line) || isFileHeader(line)) {
+                    pushBack(line);
+                    break;
+                }
+                header.append('\n').append(line);
+                if (line.startsWith("new file mode")) {
+                    changeType = FileDiff.ChangeType.ADD;
+                } else if (line.startsWith("deleted file mode")) {
+                    changeType = FileDiff.ChangeType.DELETE;
+                } else if (line.startsWith("rename from ")) {
+                    changeType = FileDiff.ChangeType.RENAME;
+                    oldPath = unquote(line.substring("rename from ".length()));
+                } else if (line.startsWith("rename to ")) {
+                    newPath = unquote(line.substring("rename to ".length()));
+                } else if (line.startsWith("copy from ")) {
+                    changeType = FileDiff.ChangeType.COPY;
+                    oldPath = unquote(line.substring("copy from ".length()));
+                } else if (line.startsWith("copy to ")) {
+                    newPath = unquote(line.substring("copy to ".length()));
+                } else if (line.startsWith("index ")) {
+                    parseIndexLine(line, builder);
+                } else if (line.startsWith(OLD_FILE_PREFIX)) {
+                    String path = parseFilePath(line.substring(OLD_FILE_PREFIX.length()));
+                    if (path != null) {
+                        oldPath = path;
+                    }
+                } else if (line.startsWith(NEW_FILE_PREFIX)) {
+                    String path = parseFilePath(line.substring(NEW_FILE_PREFIX.length()));
+                    if (path != null) {
+                        newPath = path;
+                    }
+                }
+            }
+        }
+
+        if (changeType == FileDiff.ChangeType.ADD) {
+            oldPath = null;
+        } else if (changeType == FileDiff.ChangeType.DELETE) {
+            newPath = null;
+        }
+        builder.oldPath(oldPath).newPath(newPath).changeType(changeType).header(header.toString());
+
+        String line;
+        while ((line = readLine()) != null) {
+            if (isHunkHeader(line)) {
+                DiffHunk hunk = line.startsWith(COMBINED_HUNK_PREFIX) ? parseCombinedHunk(line) : parseHunk(line);
+                if (hunk != null) {
+                    builder.addHunk(hunk);
+                }
+                continue;
+            }
+            if (isFileHeader(line)) {
+                pushBack(line);
+                break;
+            }
+            if (line.startsWith(OLD_FILE_PREFIX)) {
+                String nextLine = readLine();
+                if (nextLine != null && nextLine.startsWith(NEW_FILE_PREFIX)) {
+                    pushBack(nextLine);
+                    pushBack(line);
+                    break;
+                }
+                pushBack(nextLine);
+            }
+            // 块之间的其他行（如 format-patch 签名 "-- "）忽略
+            skip(line);
+        }
+        return builder.build();
+    }
+
+    /**
+     * 解析差异块，按块头中的行数读取块内容
+     */
+    private DiffHunk parseHunk(String headerLine) throws IOException {
+        Matcher matcher = HUNK_HEADER.matcher(headerLine);
+        if (!matcher.matches()) {
+            return null;
+        }
+        int oldStart = Integer.parseInt(matcher.group(1));
+        int oldCount = matcher.group(2) != null ? Integer.parseInt(matcher.group(2)) : 1;
+        int newStart = Integer.parseInt(matcher.group(3));
+        int newCount = matcher.group(4) != null ? Integer.parseInt(matcher.group(4)) : 1;
+
+        StringBuilder body = new StringBuilder();
+        int bodyLines = 0;
+        int remainingOld = oldCount;
+        int remainingNew = newCount;
+        String line;
+        while ((remainingOld > 0 || remainingNew > 0) && (line = readLine()) != null) {
+            char marker = line.isEmpty() ? ' ' : line.charAt(0);
+            if (marker == ' ') {
+                remainingOld--;
+                remainingNew--;
+            } else if (marker == '-') {
+                remainingOld--;
+            } else if (marker == '+') {
+                remainingNew--;
+            } else if (marker != '\\') {
+                pushBack(line);
+                break;
+            }
+            appendLine(body, line, bodyLines++);
+        }
+        appendNoNewlineMarker(body, bodyLines);
+        return new DiffHunk(headerLine, oldStart, oldCount, newStart, newCount, body.toString());
+    }
+
+    /**
+     * 解析组合差异块：每行前 N 列分别是相对各父提交的标记，
+     * 没有任何一列是 - 的行属于合并结果；旧文件一侧取第一父提交
+     */
+    private DiffHunk parseCombinedHunk(String headerLine) throws IOException {
+        Matcher matcher = COMBINED_HUNK_HEADER.matcher(headerLine);
+        if (!matcher.matches()) {
+            return null;
+        }
+        int parents = matcher.group(1).length() - 1;
+        String[] ranges = matcher.group(2).trim().split(" ");
+        if (ranges.length != parents) {
+            return null;
+        }
+        // 前 parents 项为各父提交剩余行数，最后一项为合并结果剩余行数
+        int[] remaining = new int[parents + 1];
+        int[] firstParent = new int[2];
+        for (int i = 0; i < parents; i++) {
+            String range = ranges[i].substring(1);
+            int comma = range.indexOf(',');
+            int start = Integer.parseInt(comma < 0 ? range : range.substring(0, comma));
+            int count = comma < 0 ? 1 : Integer.parseInt(range.substring(comma + 1));
+            remaining[i] = count;
+            if (i == 0) {
+                firstParent[0] = start;
+                firstParent[1] = count;
+            }
+        }
+        int newStart = Integer.parseInt(matcher.group(3));
+        int newCount = matcher.group(4) != null ? Integer.parseInt(matcher.group(4)) : 1;
+        remaining[parents] = newCount;
+
+        StringBuilder body = new StringBuilder();
+        int bodyLines = 0;
+        String line;
+        while (hasRemaining(remaining) && (line = readLine()) != null) {
+            if (!line.startsWith("\\")) {
+                if (!countCombinedLine(line, parents, remaining)) {
+                    pushBack(line);
+                    break;
+                }
+            }
+            appendLine(body, line, bodyLines++);
+        }
+        appendNoNewlineMarker(body, bodyLines);
+        return new DiffHunk(headerLine, firstParent[0], firstParent[1], newStart, newCount, body.toString());
+    }
+
+    /**
+     * 按组合差异行的标记列扣减剩余行数
+     *
+     * @return 标记列不合法（已不属于当前块）时返回 false
+     */
+    private static boolean countCombinedLine(String line, int parents, int[] remaining) {
+        boolean inResult = true;
+        for (int column = 0; column < parents; column++) {
+            // 编辑器去掉行尾空白后，上下文空行可能短于标记列数
+            char marker = column < line.length() ? line.charAt(column) : ' ';
+            if (marker == '-') {
+                inResult = false;
+            } else if (marker != '+' && marker != ' ') {
+                return false;
+            }
+        }
+        // 列为 - 表示该父提交有此行而合并结果删除；合并结果中的行在列为空格的父提交中同样存在
+        for (int column = 0; column < parents; column++) {
+            char marker = column < line.length() ? line.charAt(column) : ' ';
+            if (marker == '-' || (inResult && marker == ' ')) {
+                remaining[column]--;
+            }
+        }
+        if (inResult) {
+            remaining[parents]--;
+        }
+        return true;
+    }
+
+    private static boolean hasRemaining(int[] remaining) {
+        for (int count : remaining) {
+            if (count > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 块末尾可能跟随 "\ No newline at end of file"
+     */
+    private void appendNoNewlineMarker(StringBuilder body, int bodyLines) throws IOException {
+        String line = readLine();
+        if (line != null && line.startsWith("\\")) {
+            appendLine(body, line, bodyLines);
+        } else {
+            pushBack(line);
+        }
+    }
+
+    private void parseIndexLine(String line, FileDiff.Builder builder) {
+        String ids = line.substring("index ".length());
+        int space = ids.indexOf(' ');
+        if (space > 0) {
+            ids = ids.substring(0, space);
+        }
+        int separator = ids.indexOf("..");
+        if (separator > 0) {
+            // 组合差异的 index 行列出每个父提交的对象ID（a,b..c），旧文件一侧取第一父提交
+            int comma = ids.indexOf(',');
+            builder.oldObjectId(ids.substring(0, comma > 0 && comma < separator ? comma : separator));
+            builder.newObjectId(ids.substring(separator + 2));
+        }
+    }
+
+    private static boolean isFileHeader(String line) {
+        return line.startsWith(GIT_DIFF_PREFIX) || line.startsWith(COMBINED_DIFF_PREFIX)
+                || line.startsWith(COMBINED_DIFF_LONG_PREFIX);
+    }
+
+    private static boolean isHunkHeader(String line) {
+        return line.startsWith(HUNK_PREFIX) || line.startsWith(COMBINED_HUNK_PREFIX);
+    }
+
+    /**
+     * 解析文件头中的路径：组合差异只有一个不带 a/、b/ 前缀的路径
+     */
+    private String[] parseFileHeaderPaths(String line) {
+        if (line.startsWith(GIT_DIFF_PREFIX)) {
+            return parseGitDiffPaths(line.substring(GIT_DIFF_PREFIX.length()));
+        }
+        String prefix = line.startsWith(COMBINED_DIFF_PREFIX) ? COMBINED_DIFF_PREFIX : COMBINED_DIFF_LONG_PREFIX;
+        String path = unquote(line.substring(prefix.length()));
+        return new String[]{path, path};
+    }
+
+    /**
+     * 解析 "diff --git a/x b/y" 中的路径（无 ---/+++ 行时作为兜底，如二进制文件或纯重命名）
+     * 含特殊字符的路径由 git 加引号转义，两侧路径各自决定是否加引号
+     */
+    private String[] parseGitDiffPaths(String paths) {
+        int separator = -1;
+        if (paths.startsWith("\"")) {
+            int end = closingQuote(paths, 0);
+            if (end > 0 && paths.startsWith(" ", end + 1)) {
+                separator = end + 1;
+            }
+        } else if (paths.endsWith("\"")) {
+            // 未加引号的路径不含双引号，最后一个 ' "' 即为新路径的起点
+            separator = paths.lastIndexOf(" \"");
+        } else if (paths.startsWith("a/")) {
+            separator = paths.indexOf(" b/");
+        }
+        if (separator > 0) {
+            return new String[]{stripPrefix(unquote(paths.substring(0, separator))),
+                    stripPrefix(unquote(paths.substring(separator + 1)))};
+        }
+        return new String[]{paths, paths};
+    }
+
+    /**
+     * 解析 ---/+++ 行中的路径，/dev/null 返回 null
+     */
+    private String parseFilePath(String path) {
+        int end = path.startsWith("\"") ? closingQuote(path, 0) + 1 : path.indexOf('\t');
+        if (end > 0) {
+            path = path.substring(0, end);
+        }
+        path = unquote(path.trim());
+        if (DEV_NULL.equals(path)) {
+            return null;
+        }
+        return stripPrefix(path);
+    }
+
+    private static String stripPrefix(String path) {
+        if (path.startsWith("a/") || path.startsWith("b/")) {
+            return path.substring(2);
+        }
+        return path;
+    }
+
+    /**
+     * 从 start 处的左引号开始查找对应的右引号，跳过转义字符
+     *
+     * @return 右引号的位置，没有时返回 -1
+     */
+    private static int closingQuote(String text, int start) {
+        for (int i = start + 1; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '"') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 还原 git 加引号的路径（C 风格转义）：非 ASCII 字节转义为三位八进制（{@code \346\226\207}），
+     * 按 UTF-8 解码；控制字符、引号与反斜杠转义为 {@code \t}、{@code \"} 等。未加引号的路径原样返回
+     */
+    static String unquote(String path) {
+        if (path.length() < 2 || path.charAt(0) != '"' || path.charAt(path.length() - 1) != '"') {
+            return path;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(path.length());
+        int end = path.length() - 1;
+        for (int i = 1; i < end; i++) {
+            char c = path.charAt(i);
+            if (c != '\\' || i + 1 >= end) {
+                // 未转义的部分（git 关闭 core.quotePath 时可能包含非 ASCII 字符）整段按 UTF-8 编码
+                int next = path.indexOf('\\', i + 1);
+                int runEnd = next > 0 && next < end ? next : end;
+                writeUtf8(bytes, path.substring(i, runEnd));
+                i = runEnd - 1;
+                continue;
+            }
+            char escaped = path.charAt(++i);
+            if (escaped >= '0' && escaped <= '7') {
+                int value = escaped - '0';
+                for (int digits = 1; digits < 3 && i + 1 < end
+                        && path.charAt(i + 1) >= '0' && path.charAt(i + 1) <= '7'; digits++) {
+                    value = value * 8 + path.charAt(++i) - '0';
+                }
+                bytes.write(value);
+                continue;
+            }
+            int control = controlChar(escaped);
+            if (control >= 0) {
+                bytes.write(control);
+            } else {
+                writeUtf8(bytes, String.valueOf(escaped));
+            }
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * C 风格转义的控制字符，{@code \"}、{@code \\} 等其余转义返回 -1（取字符本身）
+     */
+    private static int controlChar(char escaped) {
+        switch (escaped) {
+            case 'a':
+                return 7;
+            case 'b':
+                return '\b';
+            case 't':
+                return '\t';
+            case 'n':
+                return '\n';
+            case 'v':
+                return 11;
+            case 'f':
+                return '\f';
+            case 'r':
+                return '\r';
+            default:
+                return -1;
+        }
+    }
+
+    private static void writeUtf8(ByteArrayOutputStream bytes, String text) {
+        byte[] encoded = text.getBytes(StandardCharsets.UTF_8);
+        bytes.write(encoded, 0, encoded.length);
+    }
+
+    private void appendLine(StringBuilder body, String line, int lineIndex) {
+        if (lineIndex > 0) {
+            body.append('\n');
+        }
+        body.append(line);
+    }
+
+    private void skip(String line) {
+        if (preambleListener != null) {
+            preambleListener.accept(line);
+        }
+    }
+
+    private String readLine() throws IOException {
+        if (!pushedBack.isEmpty()) {
+            return pushedBack.pop();
+        }
+        return reader.readLine();
+    }
+
+    private void pushBack(String line) {
+        if (line != null) {
+            pushedBack.push(line);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,197 @@
+package org.ocr.com.sdk.infrastructure.git;
+
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.RawText;
+import org.eclipse.jgit.lib.AbbreviatedObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectLoader;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.ocr.com.sdk.domain.model.valueobject.FileDiff;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 文件内容预检查
+ * 在 DiffFormatter 加载完整内容之前，识别超大文件、二进制文件与 Git LFS 指针文件，
+ * 避免单个异常提交占用大量内存与 CPU；评审工作区时，尚未写入对象库的文件直接检查工作区文件
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+class BlobGuard {
+
+    private static final byte[] LFS_POINTER_PREFIX =
+            "version https://git-lfs.github.com/spec/v1".getBytes(StandardCharsets.US_ASCII);
+    private static final int LFS_POINTER_MAX_SIZE = 1024;
+    private static final String LFS_SIZE_PREFIX = "\nsize ";
+    // 与 RawText 的二进制检测范围一致
+    private static final int BINARY_PROBE_SIZE = 8000;
+
+    private final ObjectReader reader;
+    private final long maxFileSizeBytes;
+    private final File workTree;
+
+    /**
+     * @param workTree 工作区目录，仅评审工作区时传入，否则为 null
+     */
+    BlobGuard(ObjectReader reader, long maxFileSizeBytes, File workTree) {
+        this.reader = reader;
+        this.maxFileSizeBytes = maxFileSizeBytes;
+        this.workTree = workTree;
+    }
+
+    /**
+     * 检查变更条目是否需要跳过
+     *
+     * @return 跳过原因（一行说明），可以正常格式化时返回 null
+     */
+    String check(DiffEntry entry) throws IOException {
+        String reason = null;
+        if (entry.getChangeType() != DiffEntry.ChangeType.DELETE) {
+            reason = checkBlob(entry.getNewId(), entry.getNewPath());
+        }
+        if (reason == null && entry.getChangeType() != DiffEntry.ChangeType.ADD) {
+            reason = checkBlob(entry.getOldId(), entry.getOldPath());
+        }
+        return reason;
+    }
+
+    /**
+     * 检查已解析的文件差异（原生 git 差异引擎输出，需使用 --full-index 输出完整对象ID）
+     *
+     * @return 跳过原因（一行说明），可以正常使用时返回 null
+     */
+    String check(FileDiff fileDiff) throws IOException {
+        String reason = null;
+        if (fileDiff.getChangeType() != FileDiff.ChangeType.DELETE) {
+            reason = checkBlob(toAbbreviatedId(fileDiff.getNewObjectId()), fileDiff.getNewPath());
+        }
+        if (reason == null && fileDiff.getChangeType() != FileDiff.ChangeType.ADD) {
+            reason = checkBlob(toAbbreviatedId(fileDiff.getOldObjectId()), fileDiff.getOldPath());
+        }
+        return reason;
+    }
+
+    private AbbreviatedObjectId toAbbreviatedId(String id) {
+        return id != null && AbbreviatedObjectId.isId(id) ? AbbreviatedObjectId.fromString(id) : null;
+    }
+
+    private String checkBlob(AbbreviatedObjectId abbreviatedId, String path) throws IOException {
+        if (abbreviatedId == null || !abbreviatedId.isComplete() || path == null) {
+            return null;
+        }
+        ObjectId objectId = abbreviatedId.toObjectId();
+        if (ObjectId.zeroId().equals(objectId)) {
+            return null;
+        }
+        if (!reader.has(objectId)) {
+            return workTree != null ? checkWorkTreeFile(new File(workTree, path)) : null;
+        }
+
+        // 1. 大小检查：只读取对象头，不解压内容
+        long size = reader.getObjectSize(objectId, Constants.OBJ_BLOB);
+        if (maxFileSizeBytes > 0 && size > maxFileSizeBytes) {
+            return "文件过大, " + formatSize(size) + ", 已跳过";
+        }
+
+        ObjectLoader loader = reader.open(objectId, Constants.OBJ_BLOB);
+        if (size <= LFS_POINTER_MAX_SIZE) {
+            // 2. 小文件：检查是否为 Git LFS 指针
+            byte[] bytes = loader.getCachedBytes();
+            if (isLfsPointer(bytes)) {
+                String lfsSize = parseLfsSize(bytes);
+                return "Git LFS 指针" + (lfsSize != null ? ", 实际大小 " + lfsSize : "") + ", 已跳过";
+            }
+            return RawText.isBinary(bytes) ? "二进制文件, " + formatSize(size) + ", 已跳过" : null;
+        }
+
+        // 3. 二进制检查：只读取文件开头部分
+        try (InputStream in = loader.openStream()) {
+            if (RawText.isBinary(in)) {
+                return "二进制文件, " + formatSize(size) + ", 已跳过";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 检查工作区文件：大小取自文件系统，内容只读取开头部分
+     */
+    private String checkWorkTreeFile(File file) throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+        long size = file.length();
+        if (maxFileSizeBytes > 0 && size > maxFileSizeBytes) {
+            return "文件过大, " + formatSize(size) + ", 已跳过";
+        }
+        
+        byte[] head = new byte[(int) Math.min(size, BINARY_PROBE_SIZE)];
+        int length = 0;
+        try (InputStream in = new FileInputStream(file)) {
+            int read;
+            while (length < head.length && (read = in.read(head, length, head.length - length)) > 0) {
+                length += read;
+            }
+        }
+        if (size <= LFS_POINTER_MAX_SIZE && isLfsPointer(head)) {
+            String lfsSize = parseLfsSize(head);
+            return "Git LFS 指针" + (lfsSize != null ? ", 实际大小 " + lfsSize : "") + ", 已跳过";
+        }
+        return RawText.isBinary(head, length) ? "二进制文件, " + formatSize(size) + ", 已跳过" : null;
+    }
+
+    private boolean isLfsPointer(byte[] bytes) {
+        if (bytes.length < LFS_POINTER_PREFIX.length) {
+            return false;
+        }
+        for (int i = 0; i < LFS_POINTER_PREFIX.length; i++) {
+            if (bytes[i] != LFS_POINTER_PREFIX[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String parseLfsSize(byte[] bytes) {
+        String pointer = new String(bytes, StandardCharsets.US_ASCII);
+        int start = pointer.indexOf(LFS_SIZE_PREFIX);
+        if (start < 0) {
+            return null;
+        }
+        start += LFS_SIZE_PREFIX.length();
+        int end = start;
+        while (end < pointer.length() && Character.isDigit(pointer.charAt(end))) {
+            end++;
+        }
+        if (end == start) {
+            return null;
+        }
+        try {
+            return formatSize(Long.parseLong(pointer.substring(start, end)));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 格式化文件大小，如 12 MB、512 KB
+     */
+    static String formatSize(long bytes) {
+        if (bytes >= 1024L * 1024 * 1024) {
+            return (bytes / (1024L * 1024 * 1024)) + " GB";
+        }
+        if (bytes >= 1024L * 1024) {
+            return (bytes / (1024L * 1024)) + " MB";
+        }
+        if (bytes >= 1024L) {
+            return (bytes / 1024L) + " KB";
+        }
+        return bytes + " B";
+    }
+}
@@ -0,0 +1,122 @@
+package org.ocr.com.sdk.infrastructure.git;
+
+import org.eclipse.jgit.diff.Edit;
+import org.eclipse.jgit.diff.RawText;
+import org.eclipse.jgit.diff.RawTextComparator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 带单文件计算预算的行比较器
+ * 差异算法的耗时集中在行比较与行哈希上：SQL 导出、测试夹具等大量重复行的文件会让比较次数急剧膨胀。
+ * 比较器在去掉公共首尾后检查待比较的行数，并在比较过程中周期性检查耗时，超出预算时抛出
+ * {@link BudgetExceededException} 中止本文件的差异计算，由调用方改为输出整体重写摘要。
+ * 比较规则与 {@link RawTextComparator#DEFAULT} 一致。
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+class BudgetedTextComparator extends RawTextComparator {
+
+    // 每比较多少次检查一次耗时，避免频繁读取时钟
+    private static final int CLOCK_CHECK_INTERVAL = 4096;
+
+    private final long timeoutNanos;
+    private final int maxLines;
+    private long startNanos;
+    private int ticks;
+    // 本文件新旧两侧的总行数，用于整体重写摘要
+    private int oldLines;
+    private int newLines;
+
+    /**
+     * @param timeoutMillis 单文件差异计算时间上限（毫秒），0 表示不限制
+     * @param maxLines 去掉公共首尾后参与比较的行数上限（新旧两侧之和），0 表示不限制
+     */
+    BudgetedTextComparator(long timeoutMillis, int maxLines) {
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.maxLines = maxLines;
+        reset();
+    }
+
+    /**
+     * 开始计算新文件时重置计时
+     */
+    void reset() {
+        this.startNanos = System.nanoTime();
+        this.ticks = 0;
+        this.oldLines = -1;
+        this.newLines = -1;
+    }
+
+    @Override
+    public boolean equals(RawText a, int ai, RawText b, int bi) {
+        tick();
+        return RawTextComparator.DEFAULT.equals(a, ai, b, bi);
+    }
+
+    @Override
+    public int hash(RawText seq, int lno) {
+        tick();
+        return super.hash(seq, lno);
+    }
+
+    @Override
+    protected int hashRegion(byte[] raw, int ptr, int end) {
+        int hash = 5381;
+        for (; ptr < end; ptr++) {
+            hash = ((hash << 5) + hash) + (raw[ptr] & 0xff);
+        }
+        return hash;
+    }
+
+    /**
+     * 公共首尾的裁剪是线性的，不计入预算；裁剪后剩余的替换区域过大时不再进入差异算法
+     */
+    @Override
+    public Edit reduceCommonStartEnd(RawText a, RawText b, Edit e) {
+        if (oldLines < 0) {
+            oldLines = a.size();
+            newLines = b.size();
+        }
+        Edit region = super.reduceCommonStartEnd(a, b, e);
+        if (maxLines > 0 && region.getType() == Edit.Type.REPLACE
+                && region.getLengthA() + region.getLengthB() > maxLines) {
+            throw new BudgetExceededException(oldLines, newLines,
+                    "待比较 " + (region.getLengthA() + region.getLengthB()) + " 行超过上限 " + maxLines + " 行");
+        }
+        return region;
+    }
+
+    private void tick() {
+        if (timeoutNanos > 0 && ++ticks % CLOCK_CHECK_INTERVAL == 0
+                && System.nanoTime() - startNanos > timeoutNanos) {
+            throw new BudgetExceededException(oldLines, newLines,
+                    "差异计算超过 " + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + "ms");
+        }
+    }
+
+    /**
+     * 单文件差异计算超出预算
+     */
+    static class BudgetExceededException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int oldLines;
+        private final int newLines;
+
+        BudgetExceededException(int oldLines, int newLines, String reason) {
+            super(reason);
+            this.oldLines = oldLines;
+            this.newLines = newLines;
+        }
+
+        /**
+         * 整体重写摘要，替代逐行差异
+         */
+        String toSummary() {
+            return "文件重写, " + newLines + " 行 (原 " + oldLines + " 行), " + getMessage() + ", 已省略逐行差异";
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.ocr.com.sdk.infrastructure.git;
+
+import org.eclipse.jgit.diff.DiffAlgorithm;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.Edit;
+import org.eclipse.jgit.diff.EditList;
+import org.eclipse.jgit.diff.RawText;
+import org.eclipse.jgit.diff.RawTextComparator;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.revwalk.RevTree;
+import org.eclipse.jgit.treewalk.TreeWalk;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 合并提交的合并差异过滤器
+ * 思路与 {@code git diff --cc} 一致：以第一父提交的差异为基础，文件必须与其余每个父提交都不同才保留，
+ * 文件内只保留与其余每个父提交相比同样发生变化的差异块，即解决冲突时手工修改的部分
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+class CombinedDiffFilter {
+
+    private final List<RevTree> otherParents;
+
+    /**
+     * @param otherParents 第一父提交以外的其余父提交的树
+     */
+    CombinedDiffFilter(List<RevTree> otherParents) {
+        this.otherParents = otherParents;
+    }
+
+    /**
+     * 文件在合并结果中的内容是否与其余每个父提交都不同（与任一父提交相同说明直接取自该分支，无需评审）
+     */
+    boolean differsFromAllParents(ObjectReader reader, DiffEntry entry) throws IOException {
+        boolean deleted = entry.getChangeType() == DiffEntry.ChangeType.DELETE;
+        String path = deleted ? entry.getOldPath() : entry.getNewPath();
+        for (RevTree parent : otherParents) {
+            ObjectId parentId = blobId(reader, parent, path);
+            if (deleted ? parentId == null : entry.getNewId().toObjectId().equals(parentId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 过滤第一父提交的编辑列表，只保留在合并结果中与其余每个父提交相比也有变化的编辑
+     *
+     * @param reader 对象读取器
+     * @param path 合并结果中的文件路径
+     * @param edits 第一父提交到合并结果的编辑列表
+     * @param mergedText 合并结果中的文件内容
+     * @param diffAlgorithm 差异算法，与第一父提交的差异保持一致
+     * @param comparator 行比较器（带单文件计算预算）
+     * @return 过滤后的编辑列表
+     */
+    EditList filter(ObjectReader reader, String path, EditList edits, RawText mergedText,
+                    DiffAlgorithm diffAlgorithm, RawTextComparator comparator) throws IOException {
+        List<EditList> otherEdits = new ArrayList<>(otherParents.size());
+        for (RevTree parent : otherParents) {
+            ObjectId parentId = blobId(reader, parent, path);
+            RawText parentText = parentId == null ? RawText.EMPTY_TEXT
+                    : new RawText(reader.open(parentId, Constants.OBJ_BLOB).getCachedBytes());
+            otherEdits.add(diffAlgorithm.diff(comparator, parentText, mergedText));
+        }
+
+        EditList filtered = new EditList();
+        for (Edit edit : edits) {
+            boolean changedInAll = true;
+            for (EditList other : otherEdits) {
+                if (!overlaps(edit, other)) {
+                    changedInAll = false;
+                    break;
+                }
+            }
+            if (changedInAll) {
+                filtered.add(edit);
+            }
+        }
+        return filtered;
+    }
+
+    /**
+     * 两组编辑在合并结果一侧（B 侧）的行范围是否重叠；纯删除的空范围与相邻行也视为重叠
+     */
+    private boolean overlaps(Edit edit, EditList others) {
+        for (Edit other : others) {
+            boolean empty = edit.getBeginB() == edit.getEndB() || other.getBeginB() == other.getEndB();
+            boolean overlapped = empty
+                    ? other.getBeginB() <= edit.getEndB() && edit.getBeginB() <= other.getEndB()
+                    : other.getBeginB() < edit.getEndB() && edit.getBeginB() < other.getEndB();
+            if (overlapped) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ObjectId blobId(ObjectReader reader, RevTree tree, String path) throws IOException {
+        try (TreeWalk treeWalk = TreeWalk.forPath(reader, path, tree)) {
+            if (treeWalk == null || (treeWalk.getRawMode(0) & FileMode.TYPE_MASK) == FileMode.TYPE_TREE) {
+                return null;
+            }
+            return treeWalk.getObjectId(0);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.ocr.com.sdk.infrastructure.git;
+
+import org.ocr.com.sdk.domain.port.CodeChangeStream;
+
+import java.io.IOException;
+
+/**
+ * 差异引擎：按差异请求计算代码变更流
+ * 返回的变更流持有仓库句柄，关闭变更流时一并释放
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+interface DiffEngine {
+
+    /**
+     * 打开代码变更流
+     *
+     * @param handle 仓库句柄，打开失败时由调用方释放
+     * @param request 差异请求
+     * @return 代码变更流
+     */
+    CodeChangeStream open(RepositoryHandleCache.Handle handle, DiffRequest request) throws IOException;
+}
@@ -0,0 +1,94 @@
+package org.ocr.com.sdk.infrastructure.git;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.ocr.com.sdk.config.ReviewMode;
+
+/**
+ * 差异请求：比较的两侧与变更元数据
+ * 旧版本一侧总是一棵树（为 null 表示空树）；新版本一侧可以是提交树、暂存区或工作区
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+final class DiffRequest {
+
+    private final ObjectId oldTreeId;
+    private final ObjectId newTreeId;
+    private final ReviewMode newSide;
+    private final CombinedDiffFilter combinedDiff;
+    private final String commitMessage;
+    private final String authorName;
+    private final String commitTime;
+    private final String commitHash;
+
+    private DiffRequest(ObjectId oldTreeId, ObjectId newTreeId, ReviewMode newSide, CombinedDiffFilter combinedDiff,
+                        String commitMessage, String authorName, String commitTime, String commitHash) {
+        this.oldTreeId = oldTreeId;
+        this.newTreeId = newTreeId;
+        this.newSide = newSide;
+        this.combinedDiff = combinedDiff;
+        this.commitMessage = commitMessage;
+        this.authorName = authorName;
+        this.commitTime = commitTime;
+        this.commitHash = commitHash;
+    }
+
+    /**
+     * 比较一棵树与一个提交
+     *
+     * @param combinedDiff 合并差异过滤器，非合并差异模式时为 null
+     */
+    static DiffRequest ofCommit(ObjectId oldTreeId, RevCommit newCommit, String commitMessage,
+                                CombinedDiffFilter combinedDiff) {
+        return new DiffRequest(oldTreeId, newCommit.getTree(), ReviewMode.COMMIT, combinedDiff, commitMessage,
+                newCommit.getAuthorIdent().getName(),
+                String.valueOf(newCommit.getCommitTime()),
+                newCommit.getName());
+    }
+
+    /**
+     * 比较 HEAD 与暂存区或工作区
+     *
+     * @param headTreeId HEAD 的树，仓库还没有提交时为 null
+     */
+    static DiffRequest ofLocal(ReviewMode mode, ObjectId headTreeId, String commitMessage,
+                               String authorName, String commitTime) {
+        return new DiffRequest(headTreeId, null, mode, null, commitMessage, authorName, commitTime, null);
+    }
+
+    ObjectId getOldTreeId() {
+        return oldTreeId;
+    }
+
+    /**
+     * 新版本一侧的树，仅 {@link ReviewMode#COMMIT} 时有效
+     */
+    ObjectId getNewTreeId() {
+        return newTreeId;
+    }
+
+    ReviewMode getNewSide() {
+        return newSide;
+    }
+
+    CombinedDiffFilter getCombinedDiff() {
+        return combinedDiff;
+    }
+
+    String getCommitMessage() {
+        return commitMessage;
+    }
+
+    String getAuthorName() {
+        return authorName;
+    }
+
+    String getCommitTime() {
+        return commitTime;
+    }
+
+    String getCommitHash() {
+        return commitHash;
+    }
+}
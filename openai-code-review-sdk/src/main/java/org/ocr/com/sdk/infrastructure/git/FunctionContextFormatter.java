@@ -0,0 +1,177 @@
+package org.ocr.com.sdk.infrastructure.git;
+
+import org.eclipse.jgit.diff.Edit;
+import org.eclipse.jgit.diff.EditList;
+import org.eclipse.jgit.diff.RawText;
+import org.ocr.com.sdk.domain.model.valueobject.DiffHunk;
+import org.ocr.com.sdk.infrastructure.diff.FunctionBoundaryDetector;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 函数上下文差异块生成器
+ * 与 DiffFormatter 的固定上下文不同，每个变更的上下文扩展到其所在函数的起止行，
+ * 函数过长或无法识别时回退为固定行数；扩展后相互重叠的变更合并为同一个差异块
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+final class FunctionContextFormatter {
+
+    private static final String NO_NEWLINE = "\\ No newline at end of file";
+
+    private final FunctionBoundaryDetector detector;
+    private final int context;
+    private final int maxFunctionLines;
+
+    /**
+     * @param detector         函数边界检测器
+     * @param context          最少保留的上下文行数
+     * @param maxFunctionLines 超过该行数的函数不整体展开
+     */
+    FunctionContextFormatter(FunctionBoundaryDetector detector, int context, int maxFunctionLines) {
+        this.detector = detector;
+        this.context = context;
+        this.maxFunctionLines = maxFunctionLines;
+    }
+
+    /**
+     * 根据编辑列表生成差异块
+     */
+    List<DiffHunk> format(EditList edits, RawText a, RawText b) {
+        List<DiffHunk> hunks = new ArrayList<>();
+        if (edits.isEmpty()) {
+            return hunks;
+        }
+        List<String> newLines = new RawTextLines(b);
+
+        // 1. 计算每个变更前后的上下文行数
+        int[] before = new int[edits.size()];
+        int[] after = new int[edits.size()];
+        int[][] functions = new int[edits.size()][];
+        for (int i = 0; i < edits.size(); i++) {
+            Edit edit = edits.get(i);
+            int leading = context;
+            int trailing = context;
+            if (b.size() > 0) {
+                int[] range = detector.findEnclosing(newLines, Math.min(edit.getBeginB(), b.size() - 1));
+                functions[i] = range;
+                if (range != null && range[1] - range[0] <= maxFunctionLines) {
+                    leading = Math.max(leading, edit.getBeginB() - range[0]);
+                    trailing = Math.max(trailing, range[1] - edit.getEndB());
+                }
+            }
+            before[i] = Math.min(leading, Math.min(edit.getBeginA(), edit.getBeginB()));
+            after[i] = Math.min(trailing, Math.min(a.size() - edit.getEndA(), b.size() - edit.getEndB()));
+        }
+
+        // 2. 合并上下文重叠的变更并生成差异块
+        int first = 0;
+        while (first < edits.size()) {
+            int last = first;
+            while (last + 1 < edits.size()
+                    && edits.get(last + 1).getBeginB() - before[last + 1] <= edits.get(last).getEndB() + after[last]) {
+                last++;
+            }
+            hunks.add(toHunk(edits, first, last, before[first], after[last], a, b,
+                    functionName(newLines, functions[first])));
+            first = last + 1;
+        }
+        return hunks;
+    }
+
+    private DiffHunk toHunk(EditList edits, int first, int last, int leading, int trailing,
+                           RawText a, RawText b, String functionName) {
+        Edit firstEdit = edits.get(first);
+        Edit lastEdit = edits.get(last);
+        int aStart = firstEdit.getBeginA() - leading;
+        int bStart = firstEdit.getBeginB() - leading;
+        int aEnd = lastEdit.getEndA() + trailing;
+        int bEnd = lastEdit.getEndB() + trailing;
+
+        StringBuilder body = new StringBuilder();
+        int aCursor = aStart;
+        int bCursor = bStart;
+        for (int i = first; i <= last; i++) {
+            Edit edit = edits.get(i);
+            while (aCursor < edit.getBeginA()) {
+                appendLine(body, ' ', b, bCursor++);
+                aCursor++;
+            }
+            for (; aCursor < edit.getEndA(); aCursor++) {
+                appendLine(body, '-', a, aCursor);
+            }
+            for (; bCursor < edit.getEndB(); bCursor++) {
+                appendLine(body, '+', b, bCursor);
+            }
+        }
+        while (aCursor < aEnd) {
+            appendLine(body, ' ', b, bCursor++);
+            aCursor++;
+        }
+
+        int oldCount = aEnd - aStart;
+        int newCount = bEnd - bStart;
+        String header = "@@ -" + range(aStart, oldCount) + " +" + range(bStart, newCount) + " @@"
+                + functionName;
+        return new DiffHunk(header,
+                oldCount == 0 ? aStart : aStart + 1, oldCount,
+                newCount == 0 ? bStart : bStart + 1, newCount,
+                body.toString());
+    }
+
+    /**
+     * 与 git 一致：0 行时起始行为前一行，1 行时省略行数
+     */
+    private String range(int begin, int count) {
+        if (count == 0) {
+            return begin + ",0";
+        }
+        return count == 1 ? String.valueOf(begin + 1) : (begin + 1) + "," + count;
+    }
+
+    /**
+     * 块头附带函数声明行，便于模型定位
+     */
+    private String functionName(List<String> newLines, int[] range) {
+        if (range == null) {
+            return "";
+        }
+        String declaration = newLines.get(range[0]).trim();
+        return declaration.isEmpty() ? "" : " " + declaration;
+    }
+
+    private void appendLine(StringBuilder body, char prefix, RawText text, int line) {
+        if (body.length() > 0) {
+            body.append('\n');
+        }
+        body.append(prefix).append(text.getString(line));
+        if (line + 1 == text.size() && text.isMissingNewlineAtEnd()) {
+            body.append('\n').append(NO_NEWLINE);
+        }
+    }
+
+    /**
+     * RawText 的按行只读视图
+     */
+    private static final class RawTextLines extends AbstractList<String> {
+
+        private final RawText text;
+
+        private RawTextLines(RawText text) {
+            this.text = text;
+        }
+
+        @Override
+        public String get(int index) {
+            return text.getString(index);
+        }
+
+        @Override
+        public int size() {
+            return text.size();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package org.ocr.com.sdk.infrastructure.git;
+
+import org.ocr.com.sdk.config.CodeReviewConfig;
+import org.ocr.com.sdk.config.DiffAlgorithmType;
+import org.ocr.com.sdk.exception.ConfigException;
+import org.ocr.com.sdk.exception.ErrorCode;
+import org.ocr.com.sdk.infrastructure.diff.PathGlob;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Git 差异计算选项（从 CodeReviewConfig 提取，供差异流使用）
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+class GitDiffOptions {
+
+    private final long maxFileSizeBytes;
+    private final boolean renameDetection;
+    private final int renameLimit;
+    private final int renameScore;
+    private final int contextLines;
+    private final List<ContextRule> contextRules;
+    private final boolean functionContext;
+    private final int functionContextMaxLines;
+    private final DiffAlgorithmType diffAlgorithm;
+    private final long diffTimeoutMillis;
+    private final int diffMaxLines;
+
+    private GitDiffOptions(CodeReviewConfig config) {
+        this.maxFileSizeBytes = config != null ? config.getMaxFileSizeBytes() : CodeReviewConfig.DEFAULT_MAX_FILE_SIZE_BYTES;
+        this.renameDetection = config == null || config.isRenameDetection();
+        this.renameLimit = config != null ? config.getRenameLimit() : CodeReviewConfig.DEFAULT_RENAME_LIMIT;
+        this.renameScore = config != null ? config.getRenameScore() : CodeReviewConfig.DEFAULT_RENAME_SCORE;
+        this.contextLines = config != null ? config.getContextLines() : CodeReviewConfig.DEFAULT_CONTEXT_LINES;
+        this.contextRules = config != null ? parseContextRules(config.getContextLineRules()) : Collections.<ContextRule>emptyList();
+        this.functionContext = config != null && config.isFunctionContext();
+        this.functionContextMaxLines = config != null
+                ? config.getFunctionContextMaxLines() : CodeReviewConfig.DEFAULT_FUNCTION_CONTEXT_MAX_LINES;
+        this.diffAlgorithm = config != null ? config.getDiffAlgorithm() : DiffAlgorithmType.HISTOGRAM;
+        this.diffTimeoutMillis = config != null ? config.getDiffTimeoutMillis() : CodeReviewConfig.DEFAULT_DIFF_TIMEOUT_MILLIS;
+        this.diffMaxLines = config != null ? config.getDiffMaxLines() : CodeReviewConfig.DEFAULT_DIFF_MAX_LINES;
+    }
+
+    static GitDiffOptions from(CodeReviewConfig config) {
+        return new GitDiffOptions(config);
+    }
+
+    static GitDiffOptions defaults() {
+        return new GitDiffOptions(null);
+    }
+
+    /**
+     * 解析 "通配符=行数" 形式的上下文规则
+     */
+    private static List<ContextRule> parseContextRules(List<String> rules) {
+        if (rules == null || rules.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<ContextRule> parsed = new ArrayList<>(rules.size());
+        for (String rule : rules) {
+            int separator = rule.lastIndexOf('=');
+            if (separator <= 0) {
+                throw new ConfigException(ErrorCode.PARAMETER_INVALID, "上下文行数规则格式应为 通配符=行数: " + rule);
+            }
+            try {
+                int lines = Integer.parseInt(rule.substring(separator + 1).trim());
+                if (lines < 0) {
+                    throw new NumberFormatException();
+                }
+                parsed.add(new ContextRule(PathGlob.compile(rule.substring(0, separator)), lines));
+            } catch (NumberFormatException e) {
+                throw new ConfigException(ErrorCode.PARAMETER_INVALID, "上下文行数规则中的行数无效: " + rule);
+            }
+        }
+        return Collections.unmodifiableList(parsed);
+    }
+
+    /**
+     * 单个文件的大小上限（字节），超过后以占位行代替
+     */
+    long getMaxFileSizeBytes() {
+        return maxFileSizeBytes;
+    }
+
+    boolean isRenameDetection() {
+        return renameDetection;
+    }
+
+    /**
+     * 重命名检测上限，0 表示不限制
+     */
+    int getRenameLimit() {
+        return renameLimit;
+    }
+
+    int getRenameScore() {
+        return renameScore;
+    }
+
+    /**
+     * 指定文件的上下文行数（按规则顺序首个匹配生效，未匹配时使用默认值）
+     */
+    int getContextLines(String path) {
+        for (ContextRule rule : contextRules) {
+            if (rule.glob.matches(path)) {
+                return rule.lines;
+            }
+        }
+        return contextLines;
+    }
+
+    /**
+     * 默认上下文行数
+     */
+    int getDefaultContextLines() {
+        return contextLines;
+    }
+
+    /**
+     * 是否配置了按路径的上下文规则
+     */
+    boolean hasContextRules() {
+        return !contextRules.isEmpty();
+    }
+
+    boolean isFunctionContext() {
+        return functionContext;
+    }
+
+    int getFunctionContextMaxLines() {
+        return functionContextMaxLines;
+    }
+
+    DiffAlgorithmType getDiffAlgorithm() {
+        return diffAlgorithm;
+    }
+
+    /**
+     * 单文件差异计算时间上限（毫秒），0 表示不限制
+     */
+    long getDiffTimeoutMillis() {
+        return diffTimeoutMillis;
+    }
+
+    /**
+     * 单文件参与差异计算的行数上限，0 表示不限制
+     */
+    int getDiffMaxLines() {
+        return diffMaxLines;
+    }
+
+    private static final class ContextRule {
+        private final PathGlob glob;
+        private final int lines;
+
+        private ContextRule(PathGlob glob, int lines) {
+            this.glob = glob;
+            this.lines = lines;
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package org.ocr.com.sdk.infrastructure.git;
+
+import org.eclipse.jgit.diff.ContentSource;
+import org.eclipse.jgit.diff.DiffAlgorithm;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.diff.EditList;
+import org.eclipse.jgit.diff.RawText;
+import org.eclipse.jgit.diff.RenameDetector;
+import org.eclipse.jgit.lib.NullProgressMonitor;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.patch.FileHeader;
+import org.eclipse.jgit.treewalk.AbstractTreeIterator;
+import org.eclipse.jgit.treewalk.WorkingTreeIterator;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+import org.ocr.com.sdk.config.DiffAlgorithmType;
+import org.ocr.com.sdk.domain.model.valueobject.FileDiff;
+import org.ocr.com.sdk.domain.port.CodeChangeStream;
+import org.ocr.com.sdk.exception.ErrorCode;
+import org.ocr.com.sdk.exception.GitException;
+import org.ocr.com.sdk.infrastructure.diff.FunctionBoundaryDetector;
+import org.ocr.com.sdk.infrastructure.diff.UnifiedDiffParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 基于 JGit 的代码变更流
+ * 变更条目（路径、类型、对象ID）预先扫描，文件内容在 {@link #next()} 时才逐个加载和格式化；
+ * 新版本一侧可以是提交树、暂存区或工作区；合并提交可附加合并差异过滤，只保留解决冲突的改动；
+ * 单个文件的差异计算超出时间或行数预算时改为输出整体重写摘要，评审耗时不受个别病态文件拖累
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+class GitDiffStream implements CodeChangeStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(GitDiffStream.class);
+
+    private final RepositoryHandleCache.Handle handle;
+    private final Repository repository;
+    private final List<DiffEntry> entries;
+    private final String commitMessage;
+    private final String authorName;
+    private final String commitTime;
+    private final String commitHash;
+    private final ByteArrayOutputStream buffer;
+    private final DiffFormatter diffFormatter;
+    private final ObjectReader reader;
+    private final ContentSource.Pair contentSource;
+    private final GitDiffOptions options;
+    private final BlobGuard blobGuard;
+    private final CombinedDiffFilter combinedDiff;
+    private final DiffAlgorithm diffAlgorithm;
+    private final BudgetedTextComparator comparator;
+    private int position;
+    private int skippedCount;
+    private int rewrittenCount;
+
+    GitDiffStream(RepositoryHandleCache.Handle handle, AbstractTreeIterator oldTree, AbstractTreeIterator newTree,
+                  TreeFilter pathFilter, GitDiffOptions options, String commitMessage,
+                  String authorName, String commitTime, String commitHash) throws IOException {
+        this(handle, oldTree, newTree, pathFilter, options, commitMessage, authorName, commitTime, commitHash, null);
+    }
+    
+    GitDiffStream(RepositoryHandleCache.Handle handle, AbstractTreeIterator oldTree, AbstractTreeIterator newTree,
+                  TreeFilter pathFilter, GitDiffOptions options, String commitMessage,
+                  String authorName, String commitTime, String commitHash,
+                  CombinedDiffFilter combinedDiff) throws IOException {
+        this.handle = handle;
+        this.repository = handle.getRepository();
+        this.commitMessage = commitMessage;
+        this.authorName = authorName;
+        this.commitTime = commitTime;
+        this.commitHash = commitHash;
+        // 单个文件的格式化缓冲区，逐文件复用
+        this.buffer = new ByteArrayOutputStream();
+        this.diffFormatter = new DiffFormatter(buffer);
+        this.diffFormatter.setRepository(repository);
+        // 显式设置算法与比较器，覆盖仓库配置中的 diff.algorithm
+        this.diffAlgorithm = DiffAlgorithm.getAlgorithm(options.getDiffAlgorithm() == DiffAlgorithmType.MYERS
+                ? DiffAlgorithm.SupportedAlgorithm.MYERS : DiffAlgorithm.SupportedAlgorithm.HISTOGRAM);
+        this.comparator = new BudgetedTextComparator(options.getDiffTimeoutMillis(), options.getDiffMaxLines());
+        this.diffFormatter.setDiffAlgorithm(diffAlgorithm);
+        this.diffFormatter.setDiffComparator(comparator);
+        if (options.getMaxFileSizeBytes() > 0 && options.getMaxFileSizeBytes() < Integer.MAX_VALUE) {
+            this.diffFormatter.setBinaryFileThreshold((int) options.getMaxFileSizeBytes());
+        }
+        this.reader = repository.newObjectReader();
+        this.options = options;
+        this.combinedDiff = combinedDiff;
+        boolean workingTree = newTree instanceof WorkingTreeIterator;
+        this.contentSource = new ContentSource.Pair(
+                ContentSource.create(reader),
+                workingTree ? ContentSource.create((WorkingTreeIterator) newTree) : ContentSource.create(reader));
+        this.blobGuard = new BlobGuard(reader, options.getMaxFileSizeBytes(),
+                workingTree ? repository.getWorkTree() : null);
+        
+        try {
+            // 仅扫描变更条目（路径过滤下推到 TreeWalk：被排除的目录与文件不会被遍历，对应 blob 也不会被解压）
+            this.diffFormatter.setPathFilter(pathFilter);
+            List<DiffEntry> scanned = diffFormatter.scan(oldTree, newTree);
+            if (options.isRenameDetection()) {
+                scanned = detectRenames(scanned, options);
+            }
+            if (combinedDiff != null) {
+                scanned = retainConflictResolutions(scanned);
+            }
+            this.entries = scanned;
+        } catch (IOException | RuntimeException e) {
+            diffFormatter.close();
+            reader.close();
+            throw e;
+        }
+        logger.debug("变更文件数: {}", entries.size());
+    }
+    
+    /**
+     * 将成对的删除/新增合并为重命名或复制
+     * 相似度计算为 O(新增数 × 删除数)，超过上限时只保留基于对象ID的完全相同重命名，其余仍按新增/删除处理
+     */
+    private List<DiffEntry> detectRenames(List<DiffEntry> scanned, GitDiffOptions options) throws IOException {
+        RenameDetector renameDetector = new RenameDetector(repository);
+        renameDetector.setRenameLimit(options.getRenameLimit());
+        renameDetector.setRenameScore(options.getRenameScore());
+        renameDetector.addAll(scanned);
+        List<DiffEntry> detected = renameDetector.compute(contentSource, NullProgressMonitor.INSTANCE);
+        if (renameDetector.isOverRenameLimit()) {
+            logger.warn("变更文件过多，超过重命名检测上限 {}，仅检测内容完全相同的重命名", options.getRenameLimit());
+        }
+        return detected;
+    }
+
+    /**
+     * 合并差异模式下只保留与所有父提交都不同的文件
+     */
+    private List<DiffEntry> retainConflictResolutions(List<DiffEntry> scanned) throws IOException {
+        List<DiffEntry> retained = new ArrayList<>();
+        for (DiffEntry entry : scanned) {
+            if (combinedDiff.differsFromAllParents(reader, entry)) {
+                retained.add(entry);
+            }
+        }
+        logger.debug("合并差异: {} 个变更文件中 {} 个与所有父提交都不同", scanned.size(), retained.size());
+        return retained;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return position < entries.size();
+    }
+
+    @Override
+    public FileDiff next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        DiffEntry entry = entries.get(position++);
+        try {
+            // 内容未变的重命名/复制只保留一行摘要
+            if (isUnchangedMove(entry)) {
+                String kind = entry.getChangeType() == DiffEntry.ChangeType.RENAME ? "rename" : "copy";
+                return toFileDiff(entry, placeholder(entry,
+                        kind + " " + entry.getOldPath() + " => " + entry.getNewPath() + " (100%)"));
+            }
+            
+            // 超大、二进制与 LFS 指针文件在加载完整内容前直接替换为占位说明
+            String skipReason = blobGuard.check(entry);
+            if (skipReason != null) {
+                skippedCount++;
+                logger.info("跳过文件 {}: {}", entry.getNewPath(), skipReason);
+                return toFileDiff(entry, placeholder(entry, gitDiffLine(entry) + "\n" + skipReason));
+            }
+            
+            try {
+                return toFileDiff(entry, format(entry));
+            } catch (BudgetedTextComparator.BudgetExceededException e) {
+                rewrittenCount++;
+                logger.warn("文件 {} 差异计算超出预算（{}），按整体重写处理", entry.getNewPath(), e.getMessage());
+                return toFileDiff(entry, placeholder(entry, gitDiffLine(entry) + "\n" + e.toSummary()));
+            }
+        } catch (IOException e) {
+            throw new GitException(ErrorCode.GIT_DIFF_FAILED, entry.getNewPath(), e);
+        }
+    }
+
+    /**
+     * 计算并格式化单个文件的差异
+     * 上下文行数按路径规则确定；函数上下文模式下支持的语言按函数边界展开
+     */
+    private FileDiff format(DiffEntry entry) throws IOException {
+        comparator.reset();
+        String path = entry.getChangeType() == DiffEntry.ChangeType.DELETE ? entry.getOldPath() : entry.getNewPath();
+        int context = options.getContextLines(path);
+        FunctionBoundaryDetector detector = options.isFunctionContext() ? FunctionBoundaryDetector.forPath(path) : null;
+        if (detector != null || combinedDiff != null) {
+            return formatEdits(entry, path, detector, context);
+        }
+        
+        buffer.reset();
+        diffFormatter.setContext(context);
+        diffFormatter.format(entry);
+        diffFormatter.flush();
+        return UnifiedDiffParser.parseSingle(new String(buffer.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 基于编辑列表生成差异：文件头与编辑列表来自 DiffFormatter，
+     * 合并差异模式下先过滤编辑列表，函数上下文模式下差异块按函数边界重新组织
+     */
+    private FileDiff formatEdits(DiffEntry entry, String path, FunctionBoundaryDetector detector, int context)
+            throws IOException {
+        FileHeader fileHeader = diffFormatter.toFileHeader(entry);
+        FileDiff header = UnifiedDiffParser.parseSingle(new String(fileHeader.getBuffer(), StandardCharsets.UTF_8));
+        if (header == null || fileHeader.getPatchType() != FileHeader.PatchType.UNIFIED
+                || fileHeader.toEditList().isEmpty()) {
+            return header;
+        }
+        RawText oldText = entry.getChangeType() == DiffEntry.ChangeType.ADD ? RawText.EMPTY_TEXT
+                : new RawText(contentSource.open(DiffEntry.Side.OLD, entry).getCachedBytes());
+        RawText newText = entry.getChangeType() == DiffEntry.ChangeType.DELETE ? RawText.EMPTY_TEXT
+                : new RawText(contentSource.open(DiffEntry.Side.NEW, entry).getCachedBytes());
+        EditList edits = fileHeader.toEditList();
+        if (combinedDiff != null) {
+            edits = combinedDiff.filter(reader, path, edits, newText, diffAlgorithm, comparator);
+        }
+        if (detector != null) {
+            FunctionContextFormatter formatter =
+                    new FunctionContextFormatter(detector, context, options.getFunctionContextMaxLines());
+            return header.toBuilder()
+                    .hunks(formatter.format(edits, oldText, newText))
+                    .build();
+        }
+        
+        buffer.reset();
+        buffer.write(fileHeader.getBuffer());
+        diffFormatter.setContext(context);
+        diffFormatter.format(edits, oldText, newText);
+        diffFormatter.flush();
+        return UnifiedDiffParser.parseSingle(new String(buffer.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private boolean isUnchangedMove(DiffEntry entry) {
+        DiffEntry.ChangeType changeType = entry.getChangeType();
+        return (changeType == DiffEntry.ChangeType.RENAME || changeType == DiffEntry.ChangeType.COPY)
+                && entry.getOldId().equals(entry.getNewId())
+                && entry.getOldMode().equals(entry.getNewMode());
+    }
+
+    /**
+     * 与 git 一致，新增/删除文件的两侧均使用实际路径而不是 /dev/null
+     */
+    private String gitDiffLine(DiffEntry entry) {
+        String oldPath = entry.getChangeType() == DiffEntry.ChangeType.ADD ? entry.getNewPath() : entry.getOldPath();
+        String newPath = entry.getChangeType() == DiffEntry.ChangeType.DELETE ? entry.getOldPath() : entry.getNewPath();
+        return "diff --git a/" + oldPath + " b/" + newPath;
+    }
+
+    private FileDiff placeholder(DiffEntry entry, String header) {
+        return FileDiff.builder()
+                .oldPath(entry.getOldPath())
+                .newPath(entry.getNewPath())
+                .header(header)
+                .build();
+    }
+
+    /**
+     * 以 DiffEntry 中的完整对象ID与路径为准，格式化文本只提供文件头与差异块
+     */
+    private FileDiff toFileDiff(DiffEntry entry, FileDiff parsed) {
+        FileDiff.Builder builder = parsed != null ? parsed.toBuilder() : FileDiff.builder();
+        boolean added = entry.getChangeType() == DiffEntry.ChangeType.ADD;
+        boolean deleted = entry.getChangeType() == DiffEntry.ChangeType.DELETE;
+        return builder
+                .oldPath(added ? null : entry.getOldPath())
+                .newPath(deleted ? null : entry.getNewPath())
+                .changeType(toChangeType(entry.getChangeType()))
+                .oldObjectId(added ? null : entry.getOldId().name())
+                .newObjectId(deleted ? null : entry.getNewId().name())
+                .build();
+    }
+
+    private FileDiff.ChangeType toChangeType(DiffEntry.ChangeType changeType) {
+        switch (changeType) {
+            case ADD:
+                return FileDiff.ChangeType.ADD;
+            case DELETE:
+                return FileDiff.ChangeType.DELETE;
+            case RENAME:
+                return FileDiff.ChangeType.RENAME;
+            case COPY:
+                return FileDiff.ChangeType.COPY;
+            default:
+                return FileDiff.ChangeType.MODIFY;
+        }
+    }
+
+    /**
+     * 变更文件总数
+     */
+    int size() {
+        return entries.size();
+    }
+
+    @Override
+    public String getCommitMessage() {
+        return commitMessage;
+    }
+
+    @Override
+    public String getAuthorName() {
+        return authorName;
+    }
+
+    @Override
+    public String getCommitTime() {
+        return commitTime;
+    }
+
+    @Override
+    public String getCommitHash() {
+        return commitHash;
+    }
+
+    @Override
+    public void close() {
+        diffFormatter.close();
+        reader.close();
+        handle.close();
+        logger.debug("代码变更流已关闭，共处理 {}/{} 个文件，跳过 {} 个，整体重写 {} 个",
+                position, entries.size(), skippedCount, rewrittenCount);
+    }
+}
@@ -0,0 +1,219 @@
+package org.ocr.com.sdk.infrastructure.git;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ReflogEntry;
+import org.eclipse.jgit.lib.ReflogReader;
+import org.eclipse.jgit.lib.Repository;
+import org.ocr.com.sdk.exception.ErrorCode;
+import org.ocr.com.sdk.exception.GitException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Git 引用监听器
+ * 通过 {@link WatchService} 监听 {@code .git/refs/heads}（含子目录）、{@code .git/logs/HEAD} 与 {@code .git/HEAD}，
+ * HEAD 指向新的提交时返回；一次 {@code git commit} 会连续写入多个文件，事件静默一段时间后才读取 HEAD。
+ * 切换分支（checkout）与 reset 引起的 HEAD 变化不算新提交。
+ * 监听期间持有仓库句柄，仓库保持打开，每次评审无需重新打开。
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class GitRefWatcher implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(GitRefWatcher.class);
+
+    // 最后一次文件事件之后的静默时长，期间的事件合并处理
+    private static final long DEBOUNCE_MILLIS = 300;
+    private static final String REFS_HEADS = "refs/heads";
+    private static final String LOGS = "logs";
+
+    private final RepositoryHandleCache.Handle handle;
+    private final Repository repository;
+    private final Path gitDir;
+    private final WatchService watchService;
+    // 监听键对应的目录
+    private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private ObjectId lastHead;
+
+    GitRefWatcher(RepositoryHandleCache.Handle handle) throws IOException {
+        this.handle = handle;
+        this.repository = handle.getRepository();
+        this.gitDir = repository.getDirectory().toPath();
+        this.watchService = FileSystems.getDefault().newWatchService();
+        try {
+            register(gitDir);
+            registerTree(gitDir.resolve(REFS_HEADS));
+            if (Files.isDirectory(gitDir.resolve(LOGS))) {
+                register(gitDir.resolve(LOGS));
+            }
+            this.lastHead = readHead().commitId;
+        } catch (IOException | RuntimeException e) {
+            watchService.close();
+            throw e;
+        }
+        logger.info("开始监听Git引用: {}", gitDir);
+    }
+
+    /**
+     * 阻塞直到 HEAD 指向新的提交
+     *
+     * @return 新提交的哈希，监听器已关闭时返回 null
+     * @throws InterruptedException 等待时线程被中断
+     */
+    public String awaitNewCommit() throws InterruptedException {
+        try {
+            while (true) {
+                if (!drain(watchService.take())) {
+                    continue;
+                }
+                // 等待本次 git 操作写完所有文件
+                WatchKey key;
+                while ((key = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    drain(key);
+                }
+                HeadState head = readHead();
+                if (head.commitId == null || head.commitId.equals(lastHead)) {
+                    continue;
+                }
+                lastHead = head.commitId;
+                if (head.isCheckoutOrReset()) {
+                    logger.info("HEAD 因切换分支或重置移动到 {}，不评审: {}",
+                            head.commitId.abbreviate(7).name(), head.reflogComment);
+                    continue;
+                }
+                return head.commitId.name();
+            }
+        } catch (ClosedWatchServiceException e) {
+            return null;
+        } catch (IOException e) {
+            throw new GitException(ErrorCode.GIT_OPERATION_FAILED, "读取 HEAD 失败", e);
+        }
+    }
+
+    /**
+     * 处理一个目录的事件，返回是否有需要关注的文件变化
+     */
+    private boolean drain(WatchKey key) throws IOException {
+        Path directory = watchedDirectories.get(key);
+        if (directory == null) {
+            key.cancel();
+            return false;
+        }
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                relevant = true;
+                continue;
+            }
+            Path name = (Path) event.context();
+            Path child = directory.resolve(name);
+            if (directory.equals(gitDir)) {
+                // .git 根目录只关注 HEAD 与首次提交时创建的 logs 目录
+                if (LOGS.equals(name.toString()) && Files.isDirectory(child)) {
+                    register(child);
+                }
+                relevant |= Constants.HEAD.equals(name.toString());
+            } else if (directory.equals(gitDir.resolve(LOGS))) {
+                relevant |= Constants.HEAD.equals(name.toString());
+            } else {
+                // refs/heads 下新建的分支目录（如 feature/）
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(child)) {
+                    registerTree(child);
+                }
+                relevant = true;
+            }
+        }
+        if (!key.reset()) {
+            watchedDirectories.remove(key);
+        }
+        return relevant;
+    }
+
+    private void registerTree(Path root) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                register(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void register(Path directory) throws IOException {
+        WatchKey key = directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        watchedDirectories.put(key, directory);
+    }
+
+    /**
+     * 读取 HEAD 指向的提交与最近一条 reflog
+     */
+    private HeadState readHead() throws IOException {
+        ObjectId commitId = repository.resolve(Constants.HEAD);
+        String comment = null;
+        ReflogReader reflogReader = repository.getReflogReader(Constants.HEAD);
+        if (reflogReader != null) {
+            ReflogEntry entry = reflogReader.getLastEntry();
+            if (entry != null && entry.getNewId().equals(commitId)) {
+                comment = entry.getComment();
+            }
+        }
+        return new HeadState(commitId, comment);
+    }
+
+    /**
+     * 停止监听并释放仓库句柄，阻塞中的 {@link #awaitNewCommit()} 返回 null
+     */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            logger.debug("关闭文件监听失败: {}", e.getMessage());
+        }
+        handle.close();
+        logger.info("已停止监听Git引用: {}", gitDir);
+    }
+
+    private static final class HeadState {
+        private final ObjectId commitId;
+        private final String reflogComment;
+
+        private HeadState(ObjectId commitId, String reflogComment) {
+            this.commitId = commitId;
+            this.reflogComment = reflogComment;
+        }
+
+        private boolean isCheckoutOrReset() {
+            return reflogComment != null
+                    && (reflogComment.startsWith("checkout:") || reflogComment.startsWith("reset:"));
+        }
+    }
+}
@@ -1,39 +1,72 @@
 package org.ocr.com.sdk.infrastructure.git;
 
-import org.eclipse.jgit.api.Git;
-import org.eclipse.jgit.api.errors.GitAPIException;
-import org.eclipse.jgit.diff.DiffEntry;
-import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.diff.RawText;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
 import org.eclipse.jgit.lib.ObjectReader;
 import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.merge.MergeStrategy;
+import org.eclipse.jgit.merge.Merger;
 import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevTree;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.revwalk.filter.RevFilter;
 import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
-import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+import org.eclipse.jgit.util.RawParseUtils;
 import org.ocr.com.sdk.config.CodeReviewConfig;
+import org.ocr.com.sdk.config.DiffEngineType;
+import org.ocr.com.sdk.config.MergeDiffMode;
+import org.ocr.com.sdk.config.ReviewMode;
 import org.ocr.com.sdk.domain.model.CodeInfo;
-import org.ocr.com.sdk.domain.port.CodeChangeSource;
+import org.ocr.com.sdk.domain.model.valueobject.FileDiff;
+import org.ocr.com.sdk.domain.port.CodeChangeStream;
+import org.ocr.com.sdk.domain.port.FileContentReader;
+import org.ocr.com.sdk.domain.port.StreamingCodeChangeSource;
 import org.ocr.com.sdk.exception.ErrorCode;
 import org.ocr.com.sdk.exception.GitException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Git 仓库操作基础设施（实现 CodeChangeSource 端口）
+ * Git 仓库操作基础设施（实现 CodeChangeSource / StreamingCodeChangeSource 端口）
  *
  * @author SDK Team
  * @since 1.0
  */
-public class GitRepository implements CodeChangeSource {
+public class GitRepository implements StreamingCodeChangeSource, FileContentReader {
     
     private static final Logger logger = LoggerFactory.getLogger(GitRepository.class);
     
+    private static final String HEAD_REF = "HEAD";
+    private static final String REMOTE_REF_PREFIX = "refs/remotes/origin/";
+    private static final String WATERMARK_FILE_NAME = "code-review-watermark.properties";
+    private static final String ALL_EXCLUDED_REASON = "变更文件均已排除或跳过";
+    
     private final String repositoryPath;
+    private final String baseRef;
+    private final ReviewMode reviewMode;
+    private final DiffEngine diffEngine;
+    private final long repositoryCacheIdleMillis;
+    private final MergeDiffMode mergeDiffMode;
+    private final boolean skipCleanMerges;
+    private final boolean watermarkEnabled;
+    private final String watermarkFile;
+    private final long maxFileSizeBytes;
     
     public GitRepository() {
         this((String) null);
@@ -41,113 +74,713 @@ public class GitRepository implements CodeChangeSource {
     
     public GitRepository(String repositoryPath) {
         this.repositoryPath = repositoryPath;
+        this.baseRef = null;
+        this.reviewMode = ReviewMode.COMMIT;
+        this.diffEngine = new JGitDiffEngine(TreeFilter.ALL, GitDiffOptions.defaults());
+        this.repositoryCacheIdleMillis = 0;
+        this.mergeDiffMode = MergeDiffMode.FIRST_PARENT;
+        this.skipCleanMerges = true;
+        this.watermarkEnabled = false;
+        this.watermarkFile = null;
+        this.maxFileSizeBytes = CodeReviewConfig.DEFAULT_MAX_FILE_SIZE_BYTES;
     }
     
     public GitRepository(CodeReviewConfig config) {
-        this.repositoryPath = config != null ? config.getGitRepositoryPath() : null;
+        this(config, config != null ? config.getGitRepositoryPath() : null);
+    }
+    
+    /**
+     * 使用共享配置打开指定仓库（多仓库评审时各仓库只有路径不同）
+     */
+    public GitRepository(CodeReviewConfig config, String repositoryPath) {
+        this.repositoryPath = repositoryPath;
+        this.baseRef = config != null ? config.getGitBaseRef() : null;
+        this.reviewMode = config != null ? config.getReviewMode() : ReviewMode.COMMIT;
+        this.diffEngine = createDiffEngine(config);
+        this.repositoryCacheIdleMillis = config != null
+                ? TimeUnit.SECONDS.toMillis(config.getRepositoryCacheIdleSeconds()) : 0;
+        this.mergeDiffMode = config != null ? config.getMergeDiffMode() : MergeDiffMode.FIRST_PARENT;
+        this.skipCleanMerges = config == null || config.isSkipCleanMerges();
+        this.watermarkEnabled = config != null && config.isWatermarkEnabled();
+        // 以共享配置打开其他仓库时，水位线保存在各仓库自己的 .git 目录下，避免多个仓库写同一个文件
+        boolean configuredRepository = config != null && Objects.equals(repositoryPath, config.getGitRepositoryPath());
+        this.watermarkFile = configuredRepository ? config.getWatermarkFile() : null;
+        this.maxFileSizeBytes = config != null ? config.getMaxFileSizeBytes() : CodeReviewConfig.DEFAULT_MAX_FILE_SIZE_BYTES;
+        RepositoryHandleCache.installWindowCacheConfig(config);
+    }
+    
+    /**
+     * 按配置选择差异引擎：原生 git 不可用或不支持当前选项时回退为 JGit
+     */
+    private static DiffEngine createDiffEngine(CodeReviewConfig config) {
+        if (config == null) {
+            return new JGitDiffEngine(TreeFilter.ALL, GitDiffOptions.defaults());
+        }
+        GitDiffOptions diffOptions = GitDiffOptions.from(config);
+        DiffEngine jgitEngine = new JGitDiffEngine(
+                PathGlobTreeFilter.create(config.getIncludePaths(), config.getExcludePaths()), diffOptions);
+        if (config.getDiffEngine() == DiffEngineType.NATIVE && NativeGitDiffEngine.isSupported(diffOptions)) {
+            return new NativeGitDiffEngine(config.getIncludePaths(), config.getExcludePaths(), diffOptions, jgitEngine);
+        }
+        return jgitEngine;
     }
     
     @Override
     public CodeInfo getLatestDiff() {
-        try {
-            System.out.println("    正在打开Git仓库...");
-            Repository repository = openRepository();
-            System.out.println("    ✓ Git仓库打开成功");
-            
-            try (Git git = new Git(repository)) {
-                // 获取最近两次提交
-                System.out.println("    正在获取最近两次提交...");
-                Iterable<RevCommit> commits = git.log().setMaxCount(2).call();
-                List<RevCommit> commitList = new ArrayList<>();
-                for (RevCommit commit : commits) {
-                    commitList.add(commit);
+        try (CodeChangeStream stream = openLatestDiff()) {
+            return collect(stream);
+        }
+    }
+    
+    @Override
+    public CodeInfo getRangeDiff(String baseRef, String headRef) {
+        try (CodeChangeStream stream = openRangeDiff(baseRef, headRef)) {
+            return collect(stream);
+        }
+    }
+    
+    @Override
+    public CodeChangeStream openLatestDiff() {
+        // 本地模式：评审暂存区或工作区中尚未提交的变更
+        if (reviewMode.isLocal()) {
+            return openLocalDiff(reviewMode);
+        }
+        
+        // 配置了基线引用时，按 PR 区间聚合评审
+        if (baseRef != null && !baseRef.isEmpty()) {
+            return openRangeDiff(baseRef, HEAD_REF);
+        }
+        
+        System.out.println("    正在打开Git仓库...");
+        RepositoryHandleCache.Handle handle = openRepository();
+        Repository repository = handle.getRepository();
+        System.out.println("    ✓ Git仓库打开成功");
+        
+        try (RevWalk revWalk = new RevWalk(repository)) {
+            // 评审水位线：已评审过的提交直接跳过，否则评审上次评审之后的全部提交
+            if (watermarkEnabled) {
+                CodeChangeStream sinceWatermark = openSinceWatermark(handle);
+                if (sinceWatermark != null) {
+                    return sinceWatermark;
                 }
-                
-                if (commitList.size() < 2) {
-                    System.err.println("    ✗ Git提交历史不足，需要至少2次提交");
-                    throw new GitException(ErrorCode.GIT_COMMIT_HISTORY_INSUFFICIENT);
+            }
+            
+            // 获取最近一次提交及其父提交
+            System.out.println("    正在获取最近一次提交...");
+            ObjectId headId = repository.resolve(HEAD_REF);
+            RevCommit newCommit = headId != null ? revWalk.parseCommit(headId) : null;
+            if (newCommit == null || newCommit.getParentCount() == 0) {
+                System.err.println("    ✗ Git提交历史不足，需要至少2次提交");
+                throw new GitException(ErrorCode.GIT_COMMIT_HISTORY_INSUFFICIENT);
+            }
+            
+            // 合并提交单独处理，避免与被合并分支比较产生整个分支的差异
+            if (newCommit.getParentCount() > 1) {
+                return openMergeDiff(handle, revWalk, newCommit);
+            }
+            RevCommit oldCommit = revWalk.parseCommit(newCommit.getParent(0));
+            
+            // 获取代码差异（仅扫描变更条目，文件内容在迭代时逐个加载）
+            System.out.println("    正在计算代码差异...");
+            return openStream(handle, oldCommit.getTree(), newCommit,
+                    newCommit.getFullMessage().trim());
+        } catch (IOException e) {
+            handle.close();
+            System.err.println("    ✗ Git操作失败: " + e.getMessage());
+            throw new GitException(ErrorCode.GIT_OPERATION_FAILED, e);
+        } catch (RuntimeException e) {
+            handle.close();
+            throw e;
+        }
+    }
+    
+    @Override
+    public CodeChangeStream openRangeDiff(String baseRef, String headRef) {
+        System.out.println("    正在打开Git仓库...");
+        RepositoryHandleCache.Handle handle = openRepository();
+        Repository repository = handle.getRepository();
+        System.out.println("    ✓ Git仓库打开成功");
+        
+        try (RevWalk revWalk = new RevWalk(repository)) {
+            System.out.println("    正在计算评审区间: " + baseRef + ".." + headRef);
+            RevCommit headCommit = revWalk.parseCommit(resolveRef(repository, headRef));
+            RevCommit baseCommit = revWalk.parseCommit(resolveRef(repository, baseRef));
+            
+            ReviewWatermark watermark = watermarkEnabled ? ReviewWatermark.load(watermarkPath(repository)) : null;
+            if (watermark != null && watermark.isReviewed(headCommit.getName())) {
+                handle.close();
+                return skip(headCommit);
+            }
+            
+            // 1. 计算共同祖先（merge-base）
+            revWalk.setRevFilter(RevFilter.MERGE_BASE);
+            revWalk.markStart(baseCommit);
+            revWalk.markStart(headCommit);
+            RevCommit mergeBase = revWalk.next();
+            if (mergeBase == null) {
+                System.err.println("    ✗ 无法计算共同祖先，请检查检出深度（fetch-depth）");
+                throw new GitException(ErrorCode.GIT_COMMIT_HISTORY_INSUFFICIENT,
+                        baseRef + " 与 " + headRef + " 没有共同祖先");
+            }
+            
+            // 2. 复用同一个 RevWalk 收集区间内的提交（merge-base..head）
+            revWalk.reset();
+            revWalk.setRevFilter(RevFilter.ALL);
+            revWalk.markStart(headCommit);
+            revWalk.markUninteresting(mergeBase);
+            List<RevCommit> rangeCommits = new ArrayList<>();
+            for (RevCommit commit : revWalk) {
+                rangeCommits.add(commit);
+            }
+            logger.info("评审区间: {}..{}（merge-base: {}），共 {} 个提交",
+                    baseRef, headRef, mergeBase.abbreviate(7).name(), rangeCommits.size());
+            
+            // 3. 结合评审水位线，只评审上次评审之后的提交
+            if (watermark != null) {
+                CodeChangeStream sinceWatermark = openRangeSinceWatermark(handle, revWalk, watermark, headCommit, mergeBase);
+                if (sinceWatermark != null) {
+                    return sinceWatermark;
                 }
-                
-                RevCommit newCommit = commitList.get(0);
-                RevCommit oldCommit = commitList.get(1);
-                
-                // 获取提交信息
-                String commitMessage = newCommit.getFullMessage().trim();
-                String authorName = newCommit.getAuthorIdent().getName();
-                String commitTime = String.valueOf(newCommit.getCommitTime());
-                String commitHash = newCommit.getName();
-                
-                // 获取代码差异
-                System.out.println("    正在计算代码差异...");
-                String diffContent = getDiffContent(git, repository, oldCommit, newCommit);
-                int diffLineCount = diffContent.split("\n").length;
-                
-                System.out.println("    ✓ 代码差异获取成功");
-                logger.info("提交信息: {}", commitMessage);
-                logger.info("提交人: {}", authorName);
-                logger.info("提交时间: {}", commitTime);
-                logger.info("代码差异行数: {}", diffLineCount);
-                
-                return new CodeInfo(commitMessage, authorName, commitTime, commitHash, diffContent);
-            }
-        } catch (GitAPIException | IOException e) {
+            }
+            
+            // 4. 一次性计算整个区间的聚合差异
+            System.out.println("    正在计算区间聚合差异（共 " + rangeCommits.size() + " 个提交）...");
+            return openStream(handle, mergeBase.getTree(), headCommit,
+                    buildRangeMessage(headCommit, rangeCommits.size()));
+        } catch (IOException e) {
+            handle.close();
             System.err.println("    ✗ Git操作失败: " + e.getMessage());
             throw new GitException(ErrorCode.GIT_OPERATION_FAILED, e);
+        } catch (RuntimeException e) {
+            handle.close();
+            throw e;
         }
     }
     
     /**
-     * 打开Git仓库
+     * 合并提交：干净合并直接跳过；否则与第一父提交比较，或在合并差异模式下只保留解决冲突的差异块
      */
-    private Repository openRepository() {
-        FileRepositoryBuilder builder = new FileRepositoryBuilder();
+    private CodeChangeStream openMergeDiff(RepositoryHandleCache.Handle handle, RevWalk revWalk,
+                                           RevCommit mergeCommit) throws IOException {
+        Repository repository = handle.getRepository();
+        System.out.println("    最近一次提交为合并提交（" + mergeCommit.getParentCount() + " 个父提交）");
+        if (skipCleanMerges && isCleanMerge(repository, revWalk, mergeCommit)) {
+            handle.close();
+            return skip(mergeCommit, "合并提交 " + mergeCommit.abbreviate(7).name() + " 为干净合并，没有解决冲突的改动");
+        }
         
-        if (repositoryPath != null && !repositoryPath.isEmpty()) {
-            builder.setGitDir(new File(repositoryPath, ".git"));
-        } else {
-            builder.setGitDir(new File(".git"));
+        RevCommit firstParent = revWalk.parseCommit(mergeCommit.getParent(0));
+        String commitMessage = mergeCommit.getFullMessage().trim();
+        if (mergeDiffMode == MergeDiffMode.COMBINED) {
+            List<RevTree> otherParents = new ArrayList<>();
+            for (int i = 1; i < mergeCommit.getParentCount(); i++) {
+                otherParents.add(revWalk.parseCommit(mergeCommit.getParent(i)).getTree());
+            }
+            System.out.println("    正在计算合并差异（仅保留解决冲突的改动）...");
+            return openStream(handle, firstParent.getTree(), mergeCommit, commitMessage,
+                    new CombinedDiffFilter(otherParents));
         }
+        System.out.println("    正在计算与第一父提交的差异...");
+        return openStream(handle, firstParent.getTree(), mergeCommit, commitMessage);
+    }
+    
+    /**
+     * 在内存中重放合并：自动合并成功且结果树与合并提交一致时，说明合并过程没有任何手工改动
+     * 只重放双父提交的合并，章鱼合并与存在多个共同祖先的合并一律视为需要评审
+     */
+    private boolean isCleanMerge(Repository repository, RevWalk revWalk, RevCommit mergeCommit) throws IOException {
+        if (mergeCommit.getParentCount() != 2) {
+            return false;
+        }
+        try (DryRunInserter inserter = new DryRunInserter(repository)) {
+            Merger merger = MergeStrategy.RESOLVE.newMerger(inserter, repository.getConfig());
+            boolean merged = merger.merge(false, mergeCommit.getParent(0), mergeCommit.getParent(1));
+            boolean clean = merged && mergeCommit.getTree().equals(merger.getResultTreeId());
+            logger.info("合并提交 {} 重放结果: {}", mergeCommit.abbreviate(7).name(),
+                    clean ? "干净合并" : "包含手工改动或冲突解决");
+            return clean;
+        } catch (IOException | RuntimeException e) {
+            // 重放失败（如存在多个共同祖先）时保守处理，照常评审
+            logger.info("合并提交 {} 无法重放，照常评审: {}", mergeCommit.abbreviate(7).name(), e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * 只计算对象ID、不写入对象库的插入器，用于在内存中重放合并而不污染仓库
+     */
+    private static final class DryRunInserter extends ObjectInserter.Formatter {
+        
+        private final Repository repository;
+        private final List<ObjectReader> readers = new ArrayList<>();
+        
+        DryRunInserter(Repository repository) {
+            this.repository = repository;
+        }
+        
+        @Override
+        public ObjectId insert(int objectType, long length, InputStream in) throws IOException {
+            return idFor(objectType, length, in);
+        }
+        
+        @Override
+        public ObjectReader newReader() {
+            ObjectReader reader = repository.newObjectReader();
+            readers.add(reader);
+            return reader;
+        }
+        
+        @Override
+        public void close() {
+            for (ObjectReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+    
+    /**
+     * 扫描两棵树之间的变更条目并创建代码变更流（此时不加载任何文件内容）
+     */
+    private CodeChangeStream openStream(RepositoryHandleCache.Handle handle, RevTree oldTree,
+                                        RevCommit newCommit, String commitMessage) throws IOException {
+        return openStream(handle, oldTree, newCommit, commitMessage, null);
+    }
+    
+    private CodeChangeStream openStream(RepositoryHandleCache.Handle handle, RevTree oldTree, RevCommit newCommit,
+                                        String commitMessage, CombinedDiffFilter combinedDiff) throws IOException {
+        return diffEngine.open(handle, DiffRequest.ofCommit(oldTree, newCommit, commitMessage, combinedDiff));
+    }
+    
+    /**
+     * 打开本地未提交变更：暂存区或工作区与 HEAD 比较
+     */
+    private CodeChangeStream openLocalDiff(ReviewMode mode) {
+        System.out.println("    正在打开Git仓库...");
+        RepositoryHandleCache.Handle handle = openRepository();
+        Repository repository = handle.getRepository();
+        System.out.println("    ✓ Git仓库打开成功");
         
         try {
-            Repository repository = builder
-                    .readEnvironment()
-                    .findGitDir()
-                    .build();
+            System.out.println("    正在计算" + mode.getDescription() + "与 HEAD 的差异...");
+            // 仓库还没有提交时与空树比较
+            ObjectId headTreeId = repository.resolve(HEAD_REF + "^{tree}");
+            String authorName = repository.getConfig().getString("user", null, "name");
+            return diffEngine.open(handle, DiffRequest.ofLocal(mode, headTreeId,
+                    mode.getDescription() + "变更（未提交）",
+                    authorName != null ? authorName : System.getProperty("user.name", "unknown"),
+                    String.valueOf(System.currentTimeMillis() / 1000)));
+        } catch (IOException e) {
+            handle.close();
+            System.err.println("    ✗ Git操作失败: " + e.getMessage());
+            throw new GitException(ErrorCode.GIT_OPERATION_FAILED, e);
+        } catch (RuntimeException e) {
+            handle.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * 从水位线继续评审：HEAD 已评审过时返回跳过的变更流；
+     * 水位线位于当前分支历史中时返回 水位线..HEAD 的聚合差异；其余情况返回 null，按最近一次提交评审
+     */
+    private CodeChangeStream openSinceWatermark(RepositoryHandleCache.Handle handle) throws IOException {
+        Repository repository = handle.getRepository();
+        ReviewWatermark watermark = ReviewWatermark.load(watermarkPath(repository));
+        try (RevWalk revWalk = new RevWalk(repository)) {
+            ObjectId headId = repository.resolve(HEAD_REF);
+            if (headId == null) {
+                return null;
+            }
+            RevCommit headCommit = revWalk.parseCommit(headId);
+            if (watermark.isReviewed(headCommit.getName())) {
+                handle.close();
+                return skip(headCommit);
+            }
             
-            if (repository.getDirectory() == null) {
-                throw new GitException(ErrorCode.GIT_REPOSITORY_NOT_FOUND);
+            RevCommit lastCommit = parseWatermarkCommit(repository, revWalk, watermark.getLastReviewed(branchKey(repository)));
+            if (lastCommit == null || !revWalk.isMergedInto(lastCommit, headCommit)) {
+                return null;
             }
             
-            return repository;
-        } catch (IOException e) {
-            throw new GitException(ErrorCode.GIT_REPOSITORY_NOT_FOUND, e);
+            // 沿第一父链收集待评审提交；其中包含合并提交时，单次树差异无法排除被合并分支的改动，
+            // 回退为按最近一次提交（含合并提交）评审
+            List<String> pending = new ArrayList<>();
+            boolean containsMerge = false;
+            try (RevWalk pendingWalk = new RevWalk(repository)) {
+                pendingWalk.setFirstParent(true);
+                pendingWalk.markStart(pendingWalk.parseCommit(headCommit));
+                pendingWalk.markUninteresting(pendingWalk.parseCommit(lastCommit));
+                for (RevCommit commit : pendingWalk) {
+                    pending.add(commit.getName());
+                    containsMerge |= commit.getParentCount() > 1;
+                }
+            }
+            if (watermark.isAllReviewed(pending)) {
+                handle.close();
+                return skip(headCommit);
+            }
+            if (containsMerge) {
+                logger.info("水位线以来的提交中包含合并提交，按最近一次提交评审");
+                return null;
+            }
+            
+            System.out.println("    自上次评审（" + lastCommit.abbreviate(7).name() + "）以来共 " + pending.size() + " 个提交");
+            logger.info("评审水位线: {}，待评审提交 {} 个", lastCommit.getName(), pending.size());
+            return openStream(handle, lastCommit.getTree(), headCommit,
+                    buildRangeMessage(headCommit, pending.size()));
+        }
+    }
+    
+    /**
+     * 区间评审结合水位线：区间内第一父链上的提交均已评审过时返回跳过的变更流；
+     * 分支水位线位于共同祖先与 HEAD 之间时返回 水位线..HEAD 的聚合差异；其余情况返回 null，评审整个区间
+     */
+    private CodeChangeStream openRangeSinceWatermark(RepositoryHandleCache.Handle handle, RevWalk revWalk,
+                                                     ReviewWatermark watermark, RevCommit headCommit,
+                                                     RevCommit mergeBase) throws IOException {
+        Repository repository = handle.getRepository();
+        // 与 markReviewed 一致，只看第一父链上的提交
+        List<String> rangeCommits = new ArrayList<>();
+        try (RevWalk rangeWalk = new RevWalk(repository)) {
+            rangeWalk.setFirstParent(true);
+            rangeWalk.markStart(rangeWalk.parseCommit(headCommit));
+            rangeWalk.markUninteresting(rangeWalk.parseCommit(mergeBase));
+            for (RevCommit commit : rangeWalk) {
+                rangeCommits.add(commit.getName());
+            }
+        }
+        if (watermark.isAllReviewed(rangeCommits)) {
+            handle.close();
+            return skip(headCommit, "区间内的 " + rangeCommits.size() + " 个提交均已评审过");
+        }
+        
+        RevCommit lastCommit = parseWatermarkCommit(repository, revWalk, watermark.getLastReviewed(branchKey(repository)));
+        if (lastCommit == null || lastCommit.equals(mergeBase)
+                || !revWalk.isMergedInto(lastCommit, headCommit) || !revWalk.isMergedInto(mergeBase, lastCommit)) {
+            return null;
+        }
+        
+        // 水位线之后包含合并提交（如把基线分支合并进来）时，树差异会带入被合并分支的改动，评审整个区间
+        List<String> pending = new ArrayList<>();
+        boolean containsMerge = false;
+        try (RevWalk pendingWalk = new RevWalk(repository)) {
+            pendingWalk.markStart(pendingWalk.parseCommit(headCommit));
+            pendingWalk.markUninteresting(pendingWalk.parseCommit(lastCommit));
+            for (RevCommit commit : pendingWalk) {
+                pending.add(commit.getName());
+                containsMerge |= commit.getParentCount() > 1;
+            }
         }
+        if (containsMerge) {
+            logger.info("水位线以来的提交中包含合并提交，评审整个区间");
+            return null;
+        }
+        
+        System.out.println("    自上次评审（" + lastCommit.abbreviate(7).name() + "）以来共 " + pending.size() + " 个提交");
+        logger.info("评审水位线: {}，区间内待评审提交 {} 个", lastCommit.getName(), pending.size());
+        return openStream(handle, lastCommit.getTree(), headCommit, buildRangeMessage(headCommit, pending.size()));
+    }
+    
+    private CodeChangeStream skip(RevCommit commit) {
+        return skip(commit, "提交 " + commit.abbreviate(7).name() + " 已评审过");
+    }
+    
+    private CodeChangeStream skip(RevCommit commit, String reason) {
+        System.out.println("    " + reason + "，跳过");
+        return new SkippedChangeStream(commit, reason);
     }
     
     /**
-     * 获取代码差异内容
+     * 记录已评审的提交：更新当前分支的水位线，并登记本次评审覆盖的提交
+     * 无需评审而跳过的提交（如变更文件全部被排除、干净合并）同样记录，水位线照常前进
      */
-    private String getDiffContent(Git git, Repository repository, RevCommit oldCommit, RevCommit newCommit) 
-            throws IOException, GitAPIException {
-        try (ObjectReader reader = repository.newObjectReader()) {
-            CanonicalTreeParser oldTreeParser = new CanonicalTreeParser();
-            oldTreeParser.reset(reader, oldCommit.getTree());
+    @Override
+    public void markReviewed(CodeInfo codeInfo) {
+        if (!watermarkEnabled || reviewMode.isLocal() || codeInfo == null || codeInfo.getCommitHash() == null) {
+            return;
+        }
+        try (RepositoryHandleCache.Handle handle = openRepository();
+             RevWalk revWalk = new RevWalk(handle.getRepository())) {
+            Repository repository = handle.getRepository();
+            Path path = watermarkPath(repository);
+            ReviewWatermark watermark = ReviewWatermark.load(path);
+            // 因已评审过而跳过时无需再记录，避免重新运行旧提交的流水线时水位线回退
+            if (codeInfo.isSkipped() && watermark.isReviewed(codeInfo.getCommitHash())) {
+                return;
+            }
+            String branch = branchKey(repository);
+            RevCommit headCommit = revWalk.parseCommit(ObjectId.fromString(codeInfo.getCommitHash()));
             
-            CanonicalTreeParser newTreeParser = new CanonicalTreeParser();
-            newTreeParser.reset(reader, newCommit.getTree());
+            // 本次评审覆盖的区间：上次水位线之后，或 PR 基线之后的提交；都没有时只登记当前提交
+            List<RevCommit> boundaries = new ArrayList<>();
+            RevCommit lastCommit = parseWatermarkCommit(repository, revWalk, watermark.getLastReviewed(branch));
+            if (lastCommit != null) {
+                boundaries.add(lastCommit);
+            }
+            if (baseRef != null && !baseRef.isEmpty()) {
+                boundaries.add(revWalk.parseCommit(resolveRef(repository, baseRef)));
+            }
+            List<String> covered = new ArrayList<>();
+            if (boundaries.isEmpty()) {
+                covered.add(headCommit.getName());
+            } else {
+                revWalk.reset();
+                revWalk.setFirstParent(true);
+                revWalk.markStart(headCommit);
+                for (RevCommit boundary : boundaries) {
+                    revWalk.markUninteresting(boundary);
+                }
+                for (RevCommit commit : revWalk) {
+                    covered.add(commit.getName());
+                    if (covered.size() >= ReviewWatermark.MAX_REVIEWED_COMMITS) {
+                        break;
+                    }
+                }
+            }
             
-            List<DiffEntry> diffs = git.diff()
-                    .setOldTree(oldTreeParser)
-                    .setNewTree(newTreeParser)
-                    .call();
+            watermark.record(branch, headCommit.getName(), covered);
+            watermark.save();
+            logger.info("评审水位线已更新: {} -> {}（登记 {} 个提交）", branch, headCommit.abbreviate(7).name(), covered.size());
+        } catch (IOException e) {
+            throw new GitException(ErrorCode.GIT_OPERATION_FAILED, "更新评审水位线失败", e);
+        }
+    }
+    
+    /**
+     * 解析水位线中记录的提交，已不存在（如强制推送后被回收）时返回 null
+     */
+    private RevCommit parseWatermarkCommit(Repository repository, RevWalk revWalk, String hash) throws IOException {
+        if (hash == null || !ObjectId.isId(hash)) {
+            return null;
+        }
+        ObjectId objectId = ObjectId.fromString(hash);
+        if (!repository.getObjectDatabase().has(objectId)) {
+            return null;
+        }
+        return revWalk.parseCommit(objectId);
+    }
+    
+    /**
+     * 水位线文件：优先使用配置路径，默认保存在 .git 目录下（不会被提交）
+     */
+    private Path watermarkPath(Repository repository) {
+        if (watermarkFile != null && !watermarkFile.isEmpty()) {
+            return Paths.get(watermarkFile);
+        }
+        return repository.getDirectory().toPath().resolve(WATERMARK_FILE_NAME);
+    }
+    
+    /**
+     * 水位线按分支区分，分离头指针（CI 中常见）统一记为 HEAD
+     */
+    private String branchKey(Repository repository) throws IOException {
+        String fullBranch = repository.getFullBranch();
+        return fullBranch != null && fullBranch.startsWith("refs/") ? fullBranch : HEAD_REF;
+    }
+    
+    /**
+     * 逐文件消费变更流并汇总为代码信息
+     */
+    private CodeInfo collect(CodeChangeStream stream) {
+        if (stream.getSkipReason() != null) {
+            return CodeInfo.skipped(stream.getCommitMessage(), stream.getAuthorName(),
+                    stream.getCommitTime(), stream.getCommitHash(), stream.getSkipReason());
+        }
+        List<FileDiff> fileDiffs = new ArrayList<>();
+        while (stream.hasNext()) {
+            fileDiffs.add(stream.next());
+        }
+        CodeInfo codeInfo = CodeInfo.fromFileDiffs(stream.getCommitMessage(), stream.getAuthorName(),
+                stream.getCommitTime(), stream.getCommitHash(), fileDiffs);
+        // 变更文件全部被排除规则过滤，或只剩二进制、超出大小限制、纯重命名等没有增删行的占位差异
+        if (!codeInfo.hasChanges()) {
+            String reason = fileDiffs.isEmpty() ? ALL_EXCLUDED_REASON
+                    : ALL_EXCLUDED_REASON + "（" + fileDiffs.size() + " 个文件没有可评审的增删行）";
+            System.out.println("    " + reason + "，跳过");
+            return CodeInfo.skipped(stream.getCommitMessage(), stream.getAuthorName(),
+                    stream.getCommitTime(), stream.getCommitHash(), reason);
+        }
+        
+        System.out.println("    ✓ 代码差异获取成功");
+        logger.info("提交信息: {}", codeInfo.getCommitMessage());
+        logger.info("提交人: {}", codeInfo.getAuthorName());
+        logger.info("提交时间: {}", codeInfo.getCommitTime());
+        logger.info("变更文件数: {}，代码差异行数: {}", fileDiffs.size(), codeInfo.getDiffLineCount());
+        return codeInfo;
+    }
+    
+    /**
+     * 解析引用，本地不存在时回退到 origin 远程分支（CI 中通常只有远程跟踪分支）
+     */
+    private ObjectId resolveRef(Repository repository, String ref) throws IOException {
+        ObjectId objectId = repository.resolve(ref);
+        if (objectId == null && !ref.startsWith("refs/")) {
+            objectId = repository.resolve(REMOTE_REF_PREFIX + ref);
+        }
+        if (objectId == null) {
+            throw new GitException(ErrorCode.GIT_REF_NOT_FOUND, ref);
+        }
+        return objectId;
+    }
+    
+    /**
+     * 构建区间评审的提交描述：单个提交沿用原提交信息，多个提交以最新提交标题 + 数量概括
+     */
+    private String buildRangeMessage(RevCommit headCommit, int commitCount) {
+        if (commitCount <= 1) {
+            return headCommit.getFullMessage().trim();
+        }
+        return headCommit.getShortMessage().trim() + "（共 " + commitCount + " 个提交）";
+    }
+    
+    /**
+     * 读取变更后的文件内容：对象在对象库中时读取对象，否则（工作区中尚未暂存的内容）读取工作区文件；
+     * 超出单文件大小限制、二进制文件或读取失败时返回 null。
+     * 每次调用都获取仓库句柄并创建对象读取器，读取多个文件时使用 {@link #openBatch()}
+     */
+    @Override
+    public String readNewContent(FileDiff fileDiff) {
+        if (!isReadable(fileDiff)) {
+            return null;
+        }
+        try (RepositoryHandleCache.Handle handle = openRepository();
+             ObjectReader reader = handle.getRepository().newObjectReader()) {
+            return readNewContent(handle.getRepository(), reader, fileDiff);
+        } catch (RuntimeException e) {
+            logger.debug("读取文件内容失败: {}，{}", fileDiff.getNewPath(), e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * 批量读取变更后的文件内容：整批只获取一次仓库句柄，对象读取器在批内复用
+     * （对象读取器不是线程安全的，并发读取时每个线程借用一个，数量不超过并发数），关闭时一并释放；
+     * 仓库无法打开时与逐个读取一致，各文件均返回 null
+     */
+    @Override
+    public FileContentReader.Batch openBatch() {
+        RepositoryHandleCache.Handle handle = null;
+        try {
+            handle = openRepository();
+        } catch (RuntimeException e) {
+            logger.debug("打开Git仓库失败，无法读取文件内容: {}", e.getMessage());
+        }
+        return new ContentBatch(handle);
+    }
+    
+    private static boolean isReadable(FileDiff fileDiff) {
+        String id = fileDiff.getNewObjectId();
+        return fileDiff.getChangeType() != FileDiff.ChangeType.DELETE && id != null && ObjectId.isId(id);
+    }
+    
+    private String readNewContent(Repository repository, ObjectReader reader, FileDiff fileDiff) {
+        ObjectId objectId = ObjectId.fromString(fileDiff.getNewObjectId());
+        try {
+            byte[] bytes;
+            if (!ObjectId.zeroId().equals(objectId) && reader.has(objectId)) {
+                long size = reader.getObjectSize(objectId, Constants.OBJ_BLOB);
+                if (maxFileSizeBytes > 0 && size > maxFileSizeBytes) {
+                    return null;
+                }
+                bytes = reader.open(objectId, Constants.OBJ_BLOB).getBytes();
+            } else if (!repository.isBare() && reviewMode.isLocal() && fileDiff.getNewPath() != null) {
+                File file = new File(repository.getWorkTree(), fileDiff.getNewPath());
+                if (!file.isFile() || (maxFileSizeBytes > 0 && file.length() > maxFileSizeBytes)) {
+                    return null;
+                }
+                bytes = Files.readAllBytes(file.toPath());
+            } else {
+                return null;
+            }
+            return RawText.isBinary(bytes) ? null : RawParseUtils.decode(bytes);
+        } catch (IOException | RuntimeException e) {
+            logger.debug("读取文件内容失败: {}，{}", fileDiff.getNewPath(), e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * 批量读取器：持有一个仓库句柄与空闲的对象读取器
+     */
+    private final class ContentBatch implements FileContentReader.Batch {
+        
+        private final RepositoryHandleCache.Handle handle;
+        private final Queue<ObjectReader> idleReaders = new ConcurrentLinkedQueue<>();
+        private final Queue<ObjectReader> allReaders = new ConcurrentLinkedQueue<>();
+        
+        private ContentBatch(RepositoryHandleCache.Handle handle) {
+            this.handle = handle;
+        }
+        
+        @Override
+        public String readNewContent(FileDiff fileDiff) {
+            if (handle == null || !isReadable(fileDiff)) {
+                return null;
+            }
+            ObjectReader reader = idleReaders.poll();
+            if (reader == null) {
+                reader = handle.getRepository().newObjectReader();
+                allReaders.add(reader);
+            }
+            try {
+                return GitRepository.this.readNewContent(handle.getRepository(), reader, fileDiff);
+            } finally {
+                idleReaders.add(reader);
+            }
+        }
+        
+        @Override
+        public void close() {
+            for (ObjectReader reader : allReaders) {
+                reader.close();
+            }
+            allReaders.clear();
+            idleReaders.clear();
+            if (handle != null) {
+                handle.close();
+            }
+        }
+    }
+    
+    /**
+     * 监听仓库引用，HEAD 指向新提交时通知（守护模式）；监听期间仓库保持打开，调用方负责关闭
+     *
+     * @return 引用监听器
+     */
+    public GitRefWatcher watchRefs() {
+        RepositoryHandleCache.Handle handle = openRepository();
+        try {
+            return new GitRefWatcher(handle);
+        } catch (IOException e) {
+            handle.close();
+            throw new GitException(ErrorCode.GIT_OPERATION_FAILED, "监听Git引用失败", e);
+        }
+    }
+    
+    /**
+     * 打开Git仓库（从句柄缓存获取，同一仓库在空闲超时前复用）
+     */
+    private RepositoryHandleCache.Handle openRepository() {
+        FileRepositoryBuilder builder = new FileRepositoryBuilder();
+        
+        if (repositoryPath != null && !repositoryPath.isEmpty()) {
+            builder.setGitDir(new File(repositoryPath, ".git"));
+        } else {
+            builder.setGitDir(new File(".git"));
+        }
+        
+        try {
+            builder.readEnvironment()
+                    .findGitDir()
+                    .setMustExist(true);
             
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            try (DiffFormatter diffFormatter = new DiffFormatter(outputStream)) {
-                diffFormatter.setRepository(repository);
-                diffFormatter.format(diffs);
-                return outputStream.toString();
+            if (builder.getGitDir() == null) {
+                throw new GitException(ErrorCode.GIT_REPOSITORY_NOT_FOUND);
             }
+            
+            return RepositoryHandleCache.getInstance().acquire(builder, repositoryCacheIdleMillis);
+        } catch (IOException e) {
+            throw new GitException(ErrorCode.GIT_REPOSITORY_NOT_FOUND, e);
         }
     }
 }
-
@@ -0,0 +1,73 @@
+package org.ocr.com.sdk.infrastructure.git;
+
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheIterator;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.treewalk.AbstractTreeIterator;
+import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+import org.eclipse.jgit.treewalk.FileTreeIterator;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+import org.ocr.com.sdk.domain.port.CodeChangeStream;
+
+import java.io.IOException;
+
+/**
+ * 基于 JGit 的差异引擎（默认）
+ * 在进程内遍历两侧的树，路径过滤下推到 TreeWalk
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+class JGitDiffEngine implements DiffEngine {
+
+    private final TreeFilter pathFilter;
+    private final GitDiffOptions options;
+
+    JGitDiffEngine(TreeFilter pathFilter, GitDiffOptions options) {
+        this.pathFilter = pathFilter;
+        this.options = options;
+    }
+
+    @Override
+    public CodeChangeStream open(RepositoryHandleCache.Handle handle, DiffRequest request) throws IOException {
+        Repository repository = handle.getRepository();
+        AbstractTreeIterator oldTree = treeIterator(repository, request.getOldTreeId());
+        AbstractTreeIterator newTree;
+        TreeFilter filter = pathFilter;
+        switch (request.getNewSide()) {
+            case STAGED:
+                newTree = new DirCacheIterator(repository.readDirCache());
+                break;
+            case WORKING_TREE:
+                // 工作区只比较已跟踪的文件（HEAD 或暂存区中存在），未跟踪文件不参与评审
+                DirCache dirCache = repository.readDirCache();
+                newTree = new FileTreeIterator(repository);
+                filter = AndTreeFilter.create(pathFilter, new TrackedPathFilter(dirCache, 0));
+                break;
+            default:
+                newTree = treeIterator(repository, request.getNewTreeId());
+                break;
+        }
+        return new GitDiffStream(handle, oldTree, newTree, filter, options,
+                request.getCommitMessage(),
+                request.getAuthorName(),
+                request.getCommitTime(),
+                request.getCommitHash(),
+                request.getCombinedDiff());
+    }
+
+    private AbstractTreeIterator treeIterator(Repository repository, ObjectId treeId) throws IOException {
+        if (treeId == null) {
+            return new EmptyTreeIterator();
+        }
+        CanonicalTreeParser treeParser = new CanonicalTreeParser();
+        try (ObjectReader reader = repository.newObjectReader()) {
+            treeParser.reset(reader, treeId);
+        }
+        return treeParser;
+    }
+}
@@ -0,0 +1,245 @@
+package org.ocr.com.sdk.infrastructure.git;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.ocr.com.sdk.domain.port.CodeChangeStream;
+import org.ocr.com.sdk.infrastructure.diff.PathGlob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于原生 git 子进程的差异引擎
+ * 大仓库下 {@code git diff} 可利用 commit-graph 与多线程读取 pack，通常明显快于 JGit 的树比较；
+ * 合并差异模式由 JGit 计算，子进程无法启动时也回退为 JGit；
+ * 包含/排除规则以 pathspec 下推给 git，超过大小上限的文件由 git 按二进制处理，不会输出完整内容；
+ * 单文件差异计算预算只对 JGit 生效，子进程内的差异计算由 git 自身完成
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+class NativeGitDiffEngine implements DiffEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(NativeGitDiffEngine.class);
+
+    private static final String GIT_EXECUTABLE = "git";
+    // git 内置的空树对象，仓库还没有提交时作为旧版本一侧
+    private static final String EMPTY_TREE_ID = "4b825dc642cb6eb9a060e54bf8d69288fbee4904";
+    private static final long PROBE_TIMEOUT_SECONDS = 5;
+
+    private static volatile Boolean gitAvailable;
+
+    private final List<PathGlob> includes;
+    private final List<PathGlob> excludes;
+    private final List<String> pathspecs;
+    private final GitDiffOptions options;
+    private final DiffEngine fallback;
+
+    NativeGitDiffEngine(List<String> includeGlobs, List<String> excludeGlobs, GitDiffOptions options,
+                        DiffEngine fallback) {
+        this.includes = PathGlob.compileAll(includeGlobs);
+        this.excludes = PathGlob.compileAll(excludeGlobs);
+        this.pathspecs = toPathspecs(includes, excludes);
+        this.options = options;
+        this.fallback = fallback;
+    }
+
+    /**
+     * 是否可以使用原生 git 差异引擎：PATH 中存在 git，且未启用 git diff 无法表达的选项
+     * （按路径的上下文规则与函数上下文由 JGit 实现）
+     */
+    static boolean isSupported(GitDiffOptions options) {
+        if (options.hasContextRules() || options.isFunctionContext()) {
+            logger.warn("原生 git 差异引擎不支持按路径上下文规则与函数上下文，改用 JGit");
+            return false;
+        }
+        if (!isGitAvailable()) {
+            logger.warn("未找到 git 可执行文件，改用 JGit 差异引擎");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 探测 git 可执行文件（进程内只探测一次）
+     */
+    static boolean isGitAvailable() {
+        Boolean available = gitAvailable;
+        if (available == null) {
+            synchronized (NativeGitDiffEngine.class) {
+                available = gitAvailable;
+                if (available == null) {
+                    available = probeGit();
+                    gitAvailable = available;
+                }
+            }
+        }
+        return available;
+    }
+
+    private static boolean probeGit() {
+        try {
+            Process process = new ProcessBuilder(GIT_EXECUTABLE, "--version").redirectErrorStream(true).start();
+            process.getOutputStream().close();
+            // 读完输出再关闭，提前关闭时 git 写输出会收到 SIGPIPE 而以非零退出码结束
+            try (InputStream in = process.getInputStream()) {
+                byte[] buffer = new byte[256];
+                while (in.read(buffer) > 0) {
+                    // 丢弃版本信息
+                }
+            }
+            if (!process.waitFor(PROBE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                process.destroy();
+                return false;
+            }
+            return process.exitValue() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public CodeChangeStream open(RepositoryHandleCache.Handle handle, DiffRequest request) throws IOException {
+        if (request.getCombinedDiff() != null) {
+            logger.debug("合并差异模式由 JGit 计算");
+            return fallback.open(handle, request);
+        }
+        List<String> command = buildCommand(handle.getRepository(), request);
+        try {
+            return new NativeGitDiffStream(handle, command, includes, excludes, options.getMaxFileSizeBytes(), request);
+        } catch (IOException e) {
+            logger.warn("启动 git 子进程失败，回退为 JGit 差异引擎: {}", e.getMessage());
+            return fallback.open(handle, request);
+        }
+    }
+
+    /**
+     * 构建 git diff 命令：固定输出格式，屏蔽会改变输出的用户配置（外部 diff、textconv、前缀、路径转义）
+     */
+    List<String> buildCommand(Repository repository, DiffRequest request) {
+        List<String> command = new ArrayList<>();
+        command.add(GIT_EXECUTABLE);
+        command.add("--no-optional-locks");
+        command.add("-c");
+        command.add("core.quotepath=false");
+        if (options.getMaxFileSizeBytes() > 0) {
+            // 超过上限的文件按二进制处理，git 只输出一行 "Binary files ... differ"，不读取完整内容
+            command.add("-c");
+            command.add("core.bigFileThreshold=" + options.getMaxFileSizeBytes());
+        }
+        command.add("--git-dir=" + repository.getDirectory().getAbsolutePath());
+        if (!repository.isBare()) {
+            command.add("--work-tree=" + repository.getWorkTree().getAbsolutePath());
+        }
+        command.add("diff");
+        command.add("--patch");
+        command.add("--no-color");
+        command.add("--no-ext-diff");
+        command.add("--no-textconv");
+        command.add("--full-index");
+        command.add("--src-prefix=a/");
+        command.add("--dst-prefix=b/");
+        command.add("-U" + options.getDefaultContextLines());
+        command.add("--diff-algorithm=" + options.getDiffAlgorithm().name().toLowerCase());
+        if (options.isRenameDetection()) {
+            command.add("--find-renames=" + options.getRenameScore() + "%");
+            command.add("-l" + options.getRenameLimit());
+        } else {
+            command.add("--no-renames");
+        }
+
+        String oldTree = request.getOldTreeId() != null ? request.getOldTreeId().name() : EMPTY_TREE_ID;
+        switch (request.getNewSide()) {
+            case STAGED:
+                command.add("--cached");
+                command.add(oldTree);
+                break;
+            case WORKING_TREE:
+                command.add(oldTree);
+                break;
+            default:
+                command.add(oldTree);
+                command.add(ObjectId.toString(request.getNewTreeId()));
+                break;
+        }
+        if (!pathspecs.isEmpty()) {
+            command.add("--");
+            command.addAll(pathspecs);
+        }
+        return command;
+    }
+
+    /**
+     * 将包含/排除规则转换为 git pathspec，使被排除的文件不进入 git 的差异计算
+     * 只转换语义与 {@link PathGlob} 完全一致的规则，其余规则仍由变更流逐个文件过滤：
+     * 任一包含规则无法转换时不下推包含规则，无法转换的排除规则单独跳过
+     */
+    static List<String> toPathspecs(List<PathGlob> includes, List<PathGlob> excludes) {
+        List<String> pathspecs = new ArrayList<>();
+        for (PathGlob include : includes) {
+            List<String> patterns = toGitGlobs(include, false);
+            if (patterns == null) {
+                logger.debug("包含规则 {} 无法转换为 pathspec，包含规则改为逐个文件过滤", include);
+                pathspecs.clear();
+                break;
+            }
+            for (String pattern : patterns) {
+                pathspecs.add(":(top,glob)" + pattern);
+            }
+        }
+        for (PathGlob exclude : excludes) {
+            List<String> patterns = toGitGlobs(exclude, true);
+            if (patterns == null) {
+                logger.debug("排除规则 {} 无法转换为 pathspec，改为逐个文件过滤", exclude);
+                continue;
+            }
+            for (String pattern : patterns) {
+                pathspecs.add(":(top,exclude,glob)" + pattern);
+            }
+        }
+        return pathspecs;
+    }
+
+    /**
+     * 转换单条规则为 git glob 模式
+     *
+     * @param exclude 是否为排除规则：git 对不含通配符的模式还会匹配其下的所有文件，排除时会多排除
+     * @return glob 模式，无法等价表达时返回 null
+     */
+    private static List<String> toGitGlobs(PathGlob glob, boolean exclude) {
+        String pattern = glob.getGlob();
+        // PathGlob 将方括号与反斜杠视为普通字符，git glob 则视为字符组与转义
+        if (pattern.isEmpty() || pattern.indexOf('[') >= 0 || pattern.indexOf(']') >= 0 || pattern.indexOf('\\') >= 0) {
+            return null;
+        }
+        // git 只在 "**" 独占一级目录时跨目录匹配，其余位置的 "**" 与 "*" 相同
+        for (int i = pattern.indexOf("**"); i >= 0; i = pattern.indexOf("**", i + 2)) {
+            boolean startsSegment = i == 0 || pattern.charAt(i - 1) == '/';
+            boolean endsSegment = i + 2 == pattern.length() || pattern.charAt(i + 2) == '/';
+            if (!startsSegment || !endsSegment) {
+                return null;
+            }
+        }
+        if (pattern.indexOf('/') < 0) {
+            // 不含 "/" 的规则匹配任意层级的文件名或目录名
+            List<String> patterns = new ArrayList<>(2);
+            patterns.add("**/" + pattern);
+            patterns.add("**/" + pattern + "/**");
+            return patterns;
+        }
+        if (exclude && glob.isLiteral()) {
+            return null;
+        }
+        List<String> patterns = new ArrayList<>(1);
+        patterns.add(pattern);
+        return patterns;
+    }
+}
@@ -0,0 +1,306 @@
+package org.ocr.com.sdk.infrastructure.git;
+
+import org.eclipse.jgit.lib.ObjectReader;
+import org.ocr.com.sdk.config.ReviewMode;
+import org.ocr.com.sdk.domain.model.valueobject.DiffHunk;
+import org.ocr.com.sdk.domain.model.valueobject.FileDiff;
+import org.ocr.com.sdk.domain.port.CodeChangeStream;
+import org.ocr.com.sdk.exception.ErrorCode;
+import org.ocr.com.sdk.exception.GitException;
+import org.ocr.com.sdk.infrastructure.diff.PathGlob;
+import org.ocr.com.sdk.infrastructure.diff.UnifiedDiffParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 基于 git 子进程的代码变更流
+ * 逐个文件解析 {@code git diff} 的标准输出，内存中只保留当前文件；
+ * 路径过滤、超大/二进制/LFS 文件占位与 JGit 差异流保持一致：
+ * 能下推的规则已由 pathspec 与 core.bigFileThreshold 在 git 内生效，这里的检查兜底处理其余情况
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+class NativeGitDiffStream implements CodeChangeStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(NativeGitDiffStream.class);
+
+    // 保留的错误输出上限（字符）
+    private static final int STDERR_LIMIT = 4096;
+    private static final long EXIT_TIMEOUT_SECONDS = 30;
+    // --full-index 输出的完整对象ID在文件头中缩写为 7 位，与 JGit 输出一致，减少提示词长度
+    private static final Pattern FULL_INDEX_LINE =
+            Pattern.compile("^index ([0-9a-f]{7})[0-9a-f]{33}\\.\\.([0-9a-f]{7})[0-9a-f]{33}", Pattern.MULTILINE);
+    // 路径含空格时 git 在 ---/+++ 行末尾追加制表符，JGit 不追加
+    private static final Pattern FILE_LINE_TRAILING_TAB = Pattern.compile("^((?:---|\\+\\+\\+) .*)\t$", Pattern.MULTILINE);
+
+    private final RepositoryHandleCache.Handle handle;
+    private final Process process;
+    private final UnifiedDiffParser parser;
+    private final List<PathGlob> includes;
+    private final List<PathGlob> excludes;
+    private final boolean literalIncludes;
+    private final ObjectReader reader;
+    private final BlobGuard blobGuard;
+    private final DiffRequest request;
+    private final StringBuilder stderr = new StringBuilder();
+    private final Thread stderrReader;
+    private final long startTime;
+    private FileDiff pending;
+    private boolean finished;
+    private int fileCount;
+    private int skippedCount;
+
+    NativeGitDiffStream(RepositoryHandleCache.Handle handle, List<String> command, List<PathGlob> includes,
+                        List<PathGlob> excludes, long maxFileSizeBytes, DiffRequest request) throws IOException {
+        this.startTime = System.currentTimeMillis();
+        this.process = new ProcessBuilder(command).start();
+        // git diff 不读取标准输入
+        this.process.getOutputStream().close();
+        this.handle = handle;
+        this.includes = includes;
+        this.excludes = excludes;
+        this.literalIncludes = isAllLiteral(includes);
+        this.request = request;
+        this.parser = new UnifiedDiffParser(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        this.reader = handle.getRepository().newObjectReader();
+        File workTree = request.getNewSide() == ReviewMode.WORKING_TREE
+                ? handle.getRepository().getWorkTree() : null;
+        this.blobGuard = new BlobGuard(reader, maxFileSizeBytes, workTree);
+        this.stderrReader = new Thread(this::readStderr, "code-review-git-stderr");
+        this.stderrReader.setDaemon(true);
+        this.stderrReader.start();
+        logger.debug("启动 git 子进程: {}", command);
+    }
+
+    /**
+     * 持续读取错误输出，避免缓冲区写满阻塞子进程
+     */
+    private void readStderr() {
+        try (InputStream in = process.getErrorStream()) {
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                synchronized (stderr) {
+                    if (stderr.length() < STDERR_LIMIT) {
+                        stderr.append(new String(buffer, 0, read, StandardCharsets.UTF_8));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.debug("读取 git 错误输出失败: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (pending == null && !finished) {
+            pending = fetch();
+        }
+        return pending != null;
+    }
+
+    @Override
+    public FileDiff next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        FileDiff fileDiff = pending;
+        pending = null;
+        fileCount++;
+        try {
+            return guard(fileDiff);
+        } catch (IOException e) {
+            throw new GitException(ErrorCode.GIT_DIFF_FAILED, fileDiff.getPath(), e);
+        }
+    }
+
+    /**
+     * 读取下一个通过路径过滤的文件，输出结束时检查子进程退出码
+     */
+    private FileDiff fetch() {
+        try {
+            FileDiff fileDiff;
+            while ((fileDiff = parser.next()) != null) {
+                if (accept(fileDiff.getPath())) {
+                    return fileDiff;
+                }
+            }
+        } catch (IOException e) {
+            throw new GitException(ErrorCode.GIT_DIFF_FAILED, "读取 git diff 输出失败", e);
+        }
+        finished = true;
+        checkExitCode();
+        return null;
+    }
+
+    private boolean accept(String path) {
+        if (PathGlob.matchesAny(excludes, path)) {
+            return false;
+        }
+        if (includes.isEmpty()) {
+            return true;
+        }
+        return literalIncludes ? matchesAnyPrefix(path) : PathGlob.matchesAny(includes, path);
+    }
+
+    /**
+     * 包含规则全部为普通路径时按路径前缀匹配，与 JGit 引擎使用的 PathFilterGroup 一致
+     */
+    private static boolean isAllLiteral(List<PathGlob> includes) {
+        if (includes.isEmpty()) {
+            return false;
+        }
+        for (PathGlob include : includes) {
+            if (!include.isLiteral()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matchesAnyPrefix(String path) {
+        for (PathGlob include : includes) {
+            String prefix = include.getGlob();
+            if (path.equals(prefix) || (path.startsWith(prefix) && path.charAt(prefix.length()) == '/')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void checkExitCode() {
+        int exitCode;
+        try {
+            if (!process.waitFor(EXIT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new GitException(ErrorCode.GIT_DIFF_FAILED, "git diff 子进程未退出");
+            }
+            exitCode = process.exitValue();
+            stderrReader.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GitException(ErrorCode.GIT_DIFF_FAILED, "等待 git diff 子进程被中断", e);
+        }
+        if (exitCode != 0) {
+            String error;
+            synchronized (stderr) {
+                error = stderr.toString().trim();
+            }
+            throw new GitException(ErrorCode.GIT_DIFF_FAILED, "git diff 退出码 " + exitCode + ": " + error);
+        }
+    }
+
+    /**
+     * 内容未变的重命名/复制只保留一行摘要；超大、二进制与 LFS 指针文件替换为占位说明
+     */
+    private FileDiff guard(FileDiff fileDiff) throws IOException {
+        FileDiff.ChangeType changeType = fileDiff.getChangeType();
+        if ((changeType == FileDiff.ChangeType.RENAME || changeType == FileDiff.ChangeType.COPY)
+                && fileDiff.getHunks().isEmpty()
+                && Objects.equals(fileDiff.getOldObjectId(), fileDiff.getNewObjectId())) {
+            // 内容完全相同时 git 不输出 index 行，两侧对象ID均为空
+            String kind = changeType == FileDiff.ChangeType.RENAME ? "rename" : "copy";
+            return placeholder(fileDiff,
+                    kind + " " + fileDiff.getOldPath() + " => " + fileDiff.getNewPath() + " (100%)");
+        }
+
+        String skipReason = blobGuard.check(fileDiff);
+        if (skipReason != null) {
+            skippedCount++;
+            logger.info("跳过文件 {}: {}", fileDiff.getPath(), skipReason);
+            String oldPath = fileDiff.getOldPath() != null ? fileDiff.getOldPath() : fileDiff.getNewPath();
+            String newPath = fileDiff.getNewPath() != null ? fileDiff.getNewPath() : fileDiff.getOldPath();
+            return placeholder(fileDiff, "diff --git a/" + oldPath + " b/" + newPath + "\n" + skipReason);
+        }
+        return fileDiff.toBuilder()
+                .header(normalizeHeader(fileDiff.getHeader()))
+                .hunks(stripSectionHeadings(fileDiff.getHunks()))
+                .build();
+    }
+
+    private static String normalizeHeader(String header) {
+        String normalized = FULL_INDEX_LINE.matcher(header).replaceFirst("index $1..$2");
+        return normalized.indexOf('\t') >= 0 ? FILE_LINE_TRAILING_TAB.matcher(normalized).replaceAll("$1") : normalized;
+    }
+
+    /**
+     * 去掉 git 在块头 {@code @@ -a,b +c,d @@} 之后附加的函数名，与 JGit 输出的块头一致
+     */
+    private static List<DiffHunk> stripSectionHeadings(List<DiffHunk> hunks) {
+        List<DiffHunk> stripped = null;
+        for (int i = 0; i < hunks.size(); i++) {
+            DiffHunk hunk = hunks.get(i);
+            String header = hunk.getHeader();
+            int end = header.indexOf("@@", 2);
+            if (end < 0 || end + 2 == header.length()) {
+                if (stripped != null) {
+                    stripped.add(hunk);
+                }
+                continue;
+            }
+            if (stripped == null) {
+                stripped = new ArrayList<>(hunks.subList(0, i));
+            }
+            stripped.add(new DiffHunk(header.substring(0, end + 2), hunk.getOldStart(), hunk.getOldCount(),
+                    hunk.getNewStart(), hunk.getNewCount(), hunk.getBody()));
+        }
+        return stripped != null ? stripped : hunks;
+    }
+
+    private FileDiff placeholder(FileDiff fileDiff, String header) {
+        return fileDiff.toBuilder()
+                .header(header)
+                .hunks(Collections.<DiffHunk>emptyList())
+                .build();
+    }
+
+    @Override
+    public String getCommitMessage() {
+        return request.getCommitMessage();
+    }
+
+    @Override
+    public String getAuthorName() {
+        return request.getAuthorName();
+    }
+
+    @Override
+    public String getCommitTime() {
+        return request.getCommitTime();
+    }
+
+    @Override
+    public String getCommitHash() {
+        return request.getCommitHash();
+    }
+
+    @Override
+    public void close() {
+        try {
+            parser.close();
+        } catch (IOException e) {
+            logger.debug("关闭 git diff 输出流失败: {}", e.getMessage());
+        }
+        // 提前结束迭代时子进程可能仍在输出
+        if (process.isAlive()) {
+            process.destroy();
+        }
+        reader.close();
+        handle.close();
+        logger.debug("git diff 子进程变更流已关闭，共处理 {} 个文件，跳过 {} 个，耗时 {}ms",
+                fileCount, skippedCount, System.currentTimeMillis() - startTime);
+    }
+}
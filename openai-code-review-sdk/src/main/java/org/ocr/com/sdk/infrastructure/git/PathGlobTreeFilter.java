@@ -0,0 +1,92 @@
+package org.ocr.com.sdk.infrastructure.git;
+
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+import org.ocr.com.sdk.infrastructure.diff.PathGlob;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基于路径通配符的 JGit 树过滤器
+ * 在 TreeWalk 遍历阶段生效：被排除的目录整体剪枝、被排除的文件不会进入 diff，
+ * 因此对应的 blob 永远不会被读取和解压
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+class PathGlobTreeFilter extends TreeFilter {
+
+    private final List<PathGlob> includes;
+    private final List<PathGlob> excludes;
+
+    private PathGlobTreeFilter(List<PathGlob> includes, List<PathGlob> excludes) {
+        this.includes = includes;
+        this.excludes = excludes;
+    }
+
+    /**
+     * 根据包含/排除规则创建过滤器
+     * 包含规则全部为普通路径前缀时使用 JGit 原生的 {@link PathFilterGroup}，可在目录级别剪枝
+     *
+     * @param includeGlobs 包含规则，为空表示包含全部
+     * @param excludeGlobs 排除规则
+     * @return 树过滤器，无规则时返回 {@link TreeFilter#ALL}
+     */
+    static TreeFilter create(List<String> includeGlobs, List<String> excludeGlobs) {
+        List<PathGlob> includes = PathGlob.compileAll(includeGlobs);
+        List<PathGlob> excludes = PathGlob.compileAll(excludeGlobs);
+        if (includes.isEmpty() && excludes.isEmpty()) {
+            return TreeFilter.ALL;
+        }
+
+        boolean literalIncludes = !includes.isEmpty();
+        List<String> prefixes = new ArrayList<>();
+        for (PathGlob include : includes) {
+            literalIncludes &= include.isLiteral();
+            prefixes.add(include.getGlob());
+        }
+        if (literalIncludes) {
+            TreeFilter prefixFilter = PathFilterGroup.createFromStrings(prefixes);
+            return excludes.isEmpty()
+                    ? prefixFilter
+                    : AndTreeFilter.create(prefixFilter, new PathGlobTreeFilter(new ArrayList<PathGlob>(), excludes));
+        }
+        return new PathGlobTreeFilter(includes, excludes);
+    }
+
+    @Override
+    public boolean include(TreeWalk walker) {
+        String path = walker.getPathString();
+        if (walker.isSubtree()) {
+            for (PathGlob exclude : excludes) {
+                if (exclude.matchesDirectory(path)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (PathGlob.matchesAny(excludes, path)) {
+            return false;
+        }
+        return includes.isEmpty() || PathGlob.matchesAny(includes, path);
+    }
+
+    @Override
+    public boolean shouldBeRecursive() {
+        return true;
+    }
+
+    @Override
+    public TreeFilter clone() {
+        // 无可变状态，可共享
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "PathGlobTreeFilter(include=" + includes + ", exclude=" + excludes + ")";
+    }
+}
@@ -0,0 +1,183 @@
+package org.ocr.com.sdk.infrastructure.git;
+
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.storage.file.WindowCacheConfig;
+import org.ocr.com.sdk.config.CodeReviewConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Git 仓库句柄缓存
+ * 按 git 目录缓存 {@link Repository}，引用计数归零且空闲超时后才关闭，
+ * 使长期运行的进程重复评审同一仓库时复用已打开的 pack 文件与索引缓存
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+final class RepositoryHandleCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RepositoryHandleCache.class);
+
+    private static final RepositoryHandleCache INSTANCE = new RepositoryHandleCache();
+    private static final long SWEEP_INTERVAL_MILLIS = 10_000L;
+    private static boolean windowCacheInstalled;
+
+    private final Map<File, Entry> entries = new HashMap<>();
+    private ScheduledExecutorService evictor;
+
+    private RepositoryHandleCache() {
+    }
+
+    static RepositoryHandleCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 安装 JGit 窗口缓存配置（进程级全局设置，只在首次配置时生效）
+     * 未配置任何选项时保持 JGit 当前设置不变
+     */
+    static synchronized void installWindowCacheConfig(CodeReviewConfig config) {
+        if (windowCacheInstalled || config == null) {
+            return;
+        }
+        if (config.getPackedGitLimit() == null && config.getPackedGitMmap() == null
+                && config.getDeltaBaseCacheLimit() == null) {
+            return;
+        }
+        WindowCacheConfig windowCacheConfig = new WindowCacheConfig();
+        if (config.getPackedGitLimit() != null) {
+            windowCacheConfig.setPackedGitLimit(config.getPackedGitLimit());
+        }
+        if (config.getPackedGitMmap() != null) {
+            windowCacheConfig.setPackedGitMMAP(config.getPackedGitMmap());
+        }
+        if (config.getDeltaBaseCacheLimit() != null) {
+            windowCacheConfig.setDeltaBaseCacheLimit(config.getDeltaBaseCacheLimit().intValue());
+        }
+        windowCacheConfig.install();
+        windowCacheInstalled = true;
+        logger.info("JGit 窗口缓存配置已安装: packedGitLimit={}, mmap={}, deltaBaseCacheLimit={}",
+                windowCacheConfig.getPackedGitLimit(), windowCacheConfig.isPackedGitMMAP(),
+                windowCacheConfig.getDeltaBaseCacheLimit());
+    }
+
+    /**
+     * 获取仓库句柄，使用完毕后必须关闭句柄
+     *
+     * @param builder          已设置 git 目录的仓库构建器
+     * @param idleTimeoutMillis 引用计数归零后保留的时长，0 表示立即关闭；同一仓库取各调用方中的最大值，
+     *                          避免不缓存的调用方关闭其他组件缓存的句柄
+     * @return 仓库句柄
+     */
+    synchronized Handle acquire(FileRepositoryBuilder builder, long idleTimeoutMillis) throws IOException {
+        builder.setup();
+        File gitDir = builder.getGitDir().getCanonicalFile();
+        Entry entry = entries.get(gitDir);
+        if (entry == null) {
+            entry = new Entry(gitDir, builder.build());
+            entries.put(gitDir, entry);
+            logger.debug("打开Git仓库: {}", gitDir);
+        }
+        entry.refCount++;
+        entry.idleTimeoutMillis = Math.max(entry.idleTimeoutMillis, idleTimeoutMillis);
+        return new Handle(entry);
+    }
+
+    private synchronized void release(Entry entry) {
+        entry.refCount--;
+        entry.lastReleased = System.currentTimeMillis();
+        if (entry.refCount > 0) {
+            return;
+        }
+        if (entry.idleTimeoutMillis <= 0) {
+            evict(entry);
+        } else {
+            scheduleEviction();
+        }
+    }
+
+    private void evict(Entry entry) {
+        entries.remove(entry.gitDir);
+        entry.repository.close();
+        logger.debug("关闭空闲的Git仓库: {}", entry.gitDir);
+    }
+
+    private void scheduleEviction() {
+        if (evictor != null) {
+            return;
+        }
+        evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "code-review-repository-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(this::evictIdle, SWEEP_INTERVAL_MILLIS, SWEEP_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void evictIdle() {
+        long now = System.currentTimeMillis();
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.refCount == 0 && now - entry.lastReleased >= entry.idleTimeoutMillis) {
+                iterator.remove();
+                entry.repository.close();
+                logger.debug("关闭空闲的Git仓库: {}", entry.gitDir);
+            }
+        }
+        if (entries.isEmpty()) {
+            evictor.shutdown();
+            evictor = null;
+        }
+    }
+
+    private static final class Entry {
+        private final File gitDir;
+        private final Repository repository;
+        private int refCount;
+        private long idleTimeoutMillis;
+        private long lastReleased;
+
+        private Entry(File gitDir, Repository repository) {
+            this.gitDir = gitDir;
+            this.repository = repository;
+        }
+    }
+
+    /**
+     * 仓库句柄，关闭时归还引用而不是直接关闭仓库
+     */
+    final class Handle implements Closeable {
+
+        private final Entry entry;
+        private boolean closed;
+
+        private Handle(Entry entry) {
+            this.entry = entry;
+        }
+
+        Repository getRepository() {
+            return entry.repository;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(entry);
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package org.ocr.com.sdk.infrastructure.git;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * 评审水位线
+ * 记录每个分支最后一次评审的提交以及已评审过的提交哈希，持久化为仓库旁的 properties 文件
+ *
+ * <pre>
+ * branch.refs/heads/main=&lt;最后评审的提交&gt;
+ * reviewed=&lt;哈希1&gt;,&lt;哈希2&gt;,...
+ * </pre>
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+class ReviewWatermark {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReviewWatermark.class);
+
+    private static final String BRANCH_PREFIX = "branch.";
+    private static final String REVIEWED_KEY = "reviewed";
+    // 已评审哈希最多保留的数量，超出后丢弃最早的记录
+    static final int MAX_REVIEWED_COMMITS = 1000;
+
+    private final Path file;
+    private final Properties branches = new Properties();
+    private final Set<String> reviewed = new LinkedHashSet<>();
+
+    private ReviewWatermark(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * 加载水位线文件，文件不存在或损坏时返回空水位线
+     */
+    static ReviewWatermark load(Path file) {
+        ReviewWatermark watermark = new ReviewWatermark(file);
+        if (!Files.isRegularFile(file)) {
+            return watermark;
+        }
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            props.load(in);
+        } catch (IOException e) {
+            logger.warn("读取评审水位线失败，将按首次评审处理: {}", e.getMessage());
+            return watermark;
+        }
+        for (String key : props.stringPropertyNames()) {
+            if (key.startsWith(BRANCH_PREFIX)) {
+                watermark.branches.setProperty(key.substring(BRANCH_PREFIX.length()), props.getProperty(key));
+            }
+        }
+        String reviewedValue = props.getProperty(REVIEWED_KEY, "");
+        for (String hash : reviewedValue.split(",")) {
+            if (!hash.trim().isEmpty()) {
+                watermark.reviewed.add(hash.trim());
+            }
+        }
+        return watermark;
+    }
+
+    /**
+     * 分支最后一次评审的提交，未评审过时返回 null
+     */
+    String getLastReviewed(String branch) {
+        return branches.getProperty(branch);
+    }
+
+    /**
+     * 提交是否已评审过
+     */
+    boolean isReviewed(String commitHash) {
+        return commitHash != null && reviewed.contains(commitHash);
+    }
+
+    /**
+     * 提交集合是否全部已评审过
+     */
+    boolean isAllReviewed(Collection<String> commitHashes) {
+        return !commitHashes.isEmpty() && reviewed.containsAll(commitHashes);
+    }
+
+    /**
+     * 记录一次评审：更新分支水位线并登记区间内的提交
+     */
+    void record(String branch, String headHash, Collection<String> commitHashes) {
+        branches.setProperty(branch, headHash);
+        // 重新插入使最近评审的提交排在末尾
+        reviewed.removeAll(commitHashes);
+        reviewed.addAll(commitHashes);
+        reviewed.remove(headHash);
+        reviewed.add(headHash);
+        Iterator<String> iterator = reviewed.iterator();
+        while (reviewed.size() > MAX_REVIEWED_COMMITS && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * 写入水位线文件（先写临时文件再替换，避免中断时留下半个文件）
+     */
+    void save() throws IOException {
+        Properties props = new Properties();
+        for (String branch : branches.stringPropertyNames()) {
+            props.setProperty(BRANCH_PREFIX + branch, branches.getProperty(branch));
+        }
+        props.setProperty(REVIEWED_KEY, String.join(",", reviewed));
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            props.store(out, "code review watermark");
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,64 @@
+package org.ocr.com.sdk.infrastructure.git;
+
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.ocr.com.sdk.domain.model.valueobject.FileDiff;
+import org.ocr.com.sdk.domain.port.CodeChangeStream;
+
+import java.util.NoSuchElementException;
+
+/**
+ * 无需评审的代码变更流（提交已评审过或为干净合并），不产出任何文件差异
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+class SkippedChangeStream implements CodeChangeStream {
+
+    private final RevCommit commit;
+    private final String skipReason;
+
+    SkippedChangeStream(RevCommit commit, String skipReason) {
+        this.commit = commit;
+        this.skipReason = skipReason;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return false;
+    }
+
+    @Override
+    public FileDiff next() {
+        throw new NoSuchElementException();
+    }
+
+    @Override
+    public String getCommitMessage() {
+        return commit.getFullMessage().trim();
+    }
+
+    @Override
+    public String getAuthorName() {
+        return commit.getAuthorIdent().getName();
+    }
+
+    @Override
+    public String getCommitTime() {
+        return String.valueOf(commit.getCommitTime());
+    }
+
+    @Override
+    public String getCommitHash() {
+        return commit.getName();
+    }
+
+    @Override
+    public String getSkipReason() {
+        return skipReason;
+    }
+
+    @Override
+    public void close() {
+        // 不持有任何资源
+    }
+}
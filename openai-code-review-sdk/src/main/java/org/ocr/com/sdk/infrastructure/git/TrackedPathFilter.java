@@ -0,0 +1,51 @@
+package org.ocr.com.sdk.infrastructure.git;
+
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+
+/**
+ * 已跟踪文件过滤器
+ * 评审工作区时只保留 HEAD 或暂存区中存在的文件，与 {@code git diff HEAD} 一致，未跟踪文件不参与评审
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+class TrackedPathFilter extends TreeFilter {
+
+    private final DirCache dirCache;
+    private final int headTreeIndex;
+
+    /**
+     * @param dirCache      暂存区
+     * @param headTreeIndex HEAD 树在 TreeWalk 中的序号
+     */
+    TrackedPathFilter(DirCache dirCache, int headTreeIndex) {
+        this.dirCache = dirCache;
+        this.headTreeIndex = headTreeIndex;
+    }
+
+    @Override
+    public boolean include(TreeWalk walker) {
+        if (walker.isSubtree()) {
+            return true;
+        }
+        return walker.getRawMode(headTreeIndex) != 0
+                || dirCache.findEntry(walker.getRawPath(), walker.getPathLength()) >= 0;
+    }
+
+    @Override
+    public boolean shouldBeRecursive() {
+        return true;
+    }
+
+    @Override
+    public TreeFilter clone() {
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "TRACKED";
+    }
+}
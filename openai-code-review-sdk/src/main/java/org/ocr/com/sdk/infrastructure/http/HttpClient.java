@@ -8,12 +8,12 @@ import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.protocol.HttpClientContext;
-import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.protocol.HttpContext;
 import org.apache.http.util.EntityUtils;
 import org.ocr.com.sdk.config.CodeReviewConfig;
+import org.ocr.com.sdk.domain.model.valueobject.ReviewPrompt;
 import org.ocr.com.sdk.domain.port.CodeReviewApi;
 import org.ocr.com.sdk.exception.ApiException;
 import org.ocr.com.sdk.exception.ErrorCode;
@@ -26,10 +26,6 @@ import java.io.InterruptedIOException;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 
 /**
  * HTTP 客户端基础设施（实现 CodeReviewApi 端口，调用 AI 评审接口）
@@ -46,6 +42,7 @@ public class HttpClient implements CodeReviewApi {
     private static final int DEFAULT_SOCKET_TIMEOUT = 180000;  // 180秒（3分钟）读取超时，支持长提示词
     private static final int DEFAULT_CONNECTION_REQUEST_TIMEOUT = 10000; // 10秒请求超时
     private static final int DEFAULT_MAX_RETRIES = 3; // 默认最大重试3次
+    private static final int DEFAULT_MAX_CONNECTIONS_TOTAL = 20; // 连接池总连接数下限
 
     private final CodeReviewConfig config;
     private final ObjectMapper objectMapper;
@@ -127,14 +124,27 @@ public class HttpClient implements CodeReviewApi {
             }
         };
 
+        // 连接池按评审并行度扩容：多仓库并发评审共享同一个客户端，每个仓库的分批评审也并发请求，
+        // 连接数不足时请求会在连接池中等待直至超时
+        int parallelism = Math.max(config.getReviewParallelism() * config.getChunkParallelism(), 2);
         return HttpClientBuilder.create()
                 .setDefaultRequestConfig(requestConfig)
                 .setRetryHandler(retryHandler)
+                .setMaxConnPerRoute(parallelism)
+                .setMaxConnTotal(Math.max(parallelism, DEFAULT_MAX_CONNECTIONS_TOTAL))
                 .build();
     }
 
     @Override
     public String reviewByPrompt(String prompt) {
+        return reviewByPrompt(ReviewPrompt.of(prompt));
+    }
+
+    /**
+     * 流式写出提示词，不在内存中拼接完整请求体
+     */
+    @Override
+    public String reviewByPrompt(ReviewPrompt prompt) {
         return callAiApiWithRetry(prompt, DEFAULT_MAX_RETRIES);
     }
 
@@ -155,7 +165,7 @@ public class HttpClient implements CodeReviewApi {
      * @param maxRetries 最大重试次数
      * @return 评审结果内容
      */
-    private String callAiApiWithRetry(String prompt, int maxRetries) {
+    private String callAiApiWithRetry(ReviewPrompt prompt, int maxRetries) {
         int retryCount = 0;
         long baseDelay = 1000; // 基础延迟1秒
 
@@ -173,10 +183,9 @@ public class HttpClient implements CodeReviewApi {
                 httpPost.setHeader("Authorization", "Bearer " + config.getApiKey());
                 httpPost.setHeader("Content-Type", "application/json");
 
-                // 构建请求体
-                Map<String, Object> requestBody = buildRequestBody(prompt);
-                String requestBodyJson = objectMapper.writeValueAsString(requestBody);
-                httpPost.setEntity(new StringEntity(requestBodyJson, "UTF-8"));
+                // 请求体在发送时流式写出
+                httpPost.setEntity(new PromptRequestEntity(objectMapper.getFactory(), config.getModel(),
+                        config.getTemperature(), config.getMaxTokens(), prompt));
 
                 if (retryCount == 0) {
                     logger.debug("HTTP Request: POST {}", config.getApiUrl());
@@ -238,26 +247,6 @@ public class HttpClient implements CodeReviewApi {
                 "请求失败，已重试 " + maxRetries + " 次");
     }
 
-    /**
-     * 构建请求体
-     */
-    private Map<String, Object> buildRequestBody(String prompt) {
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("model", config.getModel());
-
-        Map<String, String> message = new HashMap<>();
-        message.put("role", "user");
-        message.put("content", prompt);
-
-        List<Map<String, String>> messages = new ArrayList<>();
-        messages.add(message);
-        requestBody.put("messages", messages);
-        requestBody.put("temperature", config.getTemperature());
-        requestBody.put("max_tokens", config.getMaxTokens());
-
-        return requestBody;
-    }
-
     /**
      * 解析响应
      */
@@ -289,6 +278,13 @@ public class HttpClient implements CodeReviewApi {
                 throw new ApiException(ErrorCode.AI_API_RESPONSE_EMPTY);
             }
 
+            TokenUsage usage = TokenUsage.from(jsonNode.get("usage"));
+            if (usage != null) {
+                System.out.println("    token 用量: " + usage);
+                logger.info("token 用量: 输入 {}，缓存命中 {}，输出 {}",
+                        usage.getPromptTokens(), usage.getCachedTokens(), usage.getCompletionTokens());
+            }
+
             return content;
         } catch (IOException e) {
             throw new ApiException(ErrorCode.HTTP_RESPONSE_PARSE_ERROR, e);
@@ -297,7 +293,7 @@ public class HttpClient implements CodeReviewApi {
 
     /**
      * 关闭HttpClient资源
-     * 注意：HttpClient是共享的，通常不需要手动关闭
+     * 注意：HttpClient是线程安全的，可在多个仓库的评审之间共享，通常不需要手动关闭
      * 如果需要关闭，可以调用此方法
      */
     public void close() {
@@ -0,0 +1,128 @@
+package org.ocr.com.sdk.infrastructure.http;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.ocr.com.sdk.domain.model.valueobject.ReviewPrompt;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+
+/**
+ * 流式写出的聊天补全请求体
+ * 用 {@link JsonGenerator} 直接向连接输出流写出 JSON：系统指令作为第一条 system 消息，
+ * 用户内容逐段读取并转义写入 user 消息，
+ * 不构建请求 Map、JSON 字符串与字节数组，请求期间不持有提示词的完整副本。
+ * 为兼容不支持分块传输的网关，首次获取长度时先写入计数流算出 Content-Length（只计数不保留）
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+class PromptRequestEntity extends AbstractHttpEntity {
+
+    private final JsonFactory jsonFactory;
+    private final String model;
+    private final double temperature;
+    private final int maxTokens;
+    private final ReviewPrompt prompt;
+    private long contentLength = -1;
+
+    PromptRequestEntity(JsonFactory jsonFactory, String model, double temperature, int maxTokens,
+                        ReviewPrompt prompt) {
+        this.jsonFactory = jsonFactory;
+        this.model = model;
+        this.temperature = temperature;
+        this.maxTokens = maxTokens;
+        this.prompt = prompt;
+        setContentType("application/json; charset=UTF-8");
+    }
+
+    /**
+     * 每次写出都重新读取提示词，可用于重试
+     */
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        if (contentLength < 0) {
+            CountingOutputStream counter = new CountingOutputStream();
+            try {
+                writeJson(counter);
+            } catch (IOException e) {
+                // 计数流不会抛出 IO 异常，长度未知时退化为分块传输
+                return -1;
+            }
+            contentLength = counter.count;
+        }
+        return contentLength;
+    }
+
+    /**
+     * 仅供不支持流式写出的调用方使用，会构建完整请求体
+     */
+    @Override
+    public InputStream getContent() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeJson(out);
+        return new ByteArrayInputStream(out.toByteArray());
+    }
+
+    @Override
+    public void writeTo(OutputStream outStream) throws IOException {
+        writeJson(outStream);
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    private void writeJson(OutputStream out) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            // 由 HttpClient 管理连接输出流，生成器关闭时只刷新不关闭
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeStringField("model", model);
+            generator.writeArrayFieldStart("messages");
+            if (prompt.getSystemPrompt() != null) {
+                generator.writeStartObject();
+                generator.writeStringField("role", "system");
+                generator.writeStringField("content", prompt.getSystemPrompt());
+                generator.writeEndObject();
+            }
+            generator.writeStartObject();
+            generator.writeStringField("role", "user");
+            generator.writeFieldName("content");
+            try (Reader reader = prompt.openReader()) {
+                generator.writeString(reader, -1);
+            }
+            generator.writeEndObject();
+            generator.writeEndArray();
+            generator.writeNumberField("temperature", temperature);
+            generator.writeNumberField("max_tokens", maxTokens);
+            generator.writeEndObject();
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
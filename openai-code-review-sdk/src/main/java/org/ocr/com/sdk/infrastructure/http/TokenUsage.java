@@ -0,0 +1,64 @@
+package org.ocr.com.sdk.infrastructure.http;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * 单次请求的 token 用量
+ * 解析响应中的 {@code usage}：命中前缀缓存的输入 token 取自 {@code prompt_tokens_details.cached_tokens}
+ * （OpenAI 及兼容接口，如 DashScope），或 {@code prompt_cache_hit_tokens}（DeepSeek）
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+final class TokenUsage {
+
+    private final long promptTokens;
+    private final long completionTokens;
+    private final long cachedTokens;
+
+    private TokenUsage(long promptTokens, long completionTokens, long cachedTokens) {
+        this.promptTokens = promptTokens;
+        this.completionTokens = completionTokens;
+        this.cachedTokens = cachedTokens;
+    }
+
+    /**
+     * 解析 usage 节点，响应中没有 usage 时返回 null
+     */
+    static TokenUsage from(JsonNode usage) {
+        if (usage == null || !usage.isObject()) {
+            return null;
+        }
+        long cachedTokens = usage.path("prompt_tokens_details").path("cached_tokens").asLong(0);
+        if (cachedTokens == 0) {
+            cachedTokens = usage.path("prompt_cache_hit_tokens").asLong(0);
+        }
+        return new TokenUsage(usage.path("prompt_tokens").asLong(0), usage.path("completion_tokens").asLong(0),
+                cachedTokens);
+    }
+
+    long getPromptTokens() {
+        return promptTokens;
+    }
+
+    long getCompletionTokens() {
+        return completionTokens;
+    }
+
+    long getCachedTokens() {
+        return cachedTokens;
+    }
+
+    /**
+     * 输入 token 中命中缓存的比例（百分比）
+     */
+    double getCacheHitPercent() {
+        return promptTokens > 0 ? cachedTokens * 100.0 / promptTokens : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("输入 %d（缓存命中 %d，%.1f%%），输出 %d",
+                promptTokens, cachedTokens, getCacheHitPercent(), completionTokens);
+    }
+}
@@ -122,8 +122,9 @@ public class WeChatNotificationService implements NotificationService {
     
     /**
      * 获取 access_token（带缓存）
+     * 重新获取会使旧 token 失效，多仓库并发推送时串行刷新
      */
-    private String getAccessToken() {
+    private synchronized String getAccessToken() {
         long currentTime = System.currentTimeMillis();
         
         // 检查缓存是否有效
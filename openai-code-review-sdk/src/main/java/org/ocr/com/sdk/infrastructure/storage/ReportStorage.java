@@ -49,12 +49,13 @@ public class ReportStorage implements ReviewReportRepository {
 
     /**
      * 保存评审报告到 GitHub 仓库
+     * 各次保存共用同一个本地临时仓库目录，多仓库并发评审时串行执行
      *
      * @param codeInfo 代码信息
      * @param reviewContent 评审内容
      * @return GitHub 仓库中的文件路径
      */
-    public String saveReport(CodeInfo codeInfo, String reviewContent) {
+    public synchronized String saveReport(CodeInfo codeInfo, String reviewContent) {
         String githubToken = config.getGithubToken();
         if (githubToken == null || githubToken.isEmpty()) {
             System.err.println("    ✗ GitHub Token 未配置");
@@ -0,0 +1,329 @@
+package org.ocr.com.sdk.infrastructure.token;
+
+import org.ocr.com.sdk.domain.service.TokenCounter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 基于 BPE 词表的精确 token 计数（与 tiktoken 的编码算法一致）
+ * 词表为 tiktoken 格式（每行“Base64 编码的字节序列 + 空格 + 序号”），如 OpenAI 的 {@code cl100k_base.tiktoken}
+ * 或通义千问的 {@code qwen.tiktoken}；先按预分词正则切分文本，再对每段的 UTF-8 字节按序号从小到大合并。
+ * <p>
+ * 计数过程不创建 token 对象：词表的字节序列存放在一个连续字节数组中，以开放寻址哈希表按字节区间查找；
+ * 每段的字节与合并边界写入线程内复用的基本类型数组，只统计合并后的段数。可被多个线程并发调用。
+ * <p>
+ * 每次合并需要移动并扫描剩余的合并边界，单段的合并耗时与字节数的平方成正比。超过 {@link #MAX_PIECE_BYTES}
+ * 的段（如长串空白、Base64 或压缩后的代码）在字符边界处切成多段分别合并，总耗时保持线性；
+ * 词表中最长的词远短于该长度，切分只会在切口处多出少量 token。
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class BpeTokenCounter implements TokenCounter {
+
+    /**
+     * cl100k_base 的预分词规则
+     */
+    public static final String CL100K_PATTERN = "(?i:'s|'t|'re|'ve|'m|'ll|'d)|[^\\r\\n\\p{L}\\p{N}]?\\p{L}+|\\p{N}{1,3}"
+            + "| ?[^\\s\\p{L}\\p{N}]+[\\r\\n]*|\\s*[\\r\\n]+|\\s+(?!\\S)|\\s+";
+
+    /**
+     * 通义千问的预分词规则（与 cl100k 的区别是数字逐位切分）
+     */
+    public static final String QWEN_PATTERN = "(?i:'s|'t|'re|'ve|'m|'ll|'d)|[^\\r\\n\\p{L}\\p{N}]?\\p{L}+|\\p{N}"
+            + "| ?[^\\s\\p{L}\\p{N}]+[\\r\\n]*|\\s*[\\r\\n]+|\\s+(?!\\S)|\\s+";
+
+    /**
+     * 单次字节对合并的最大字节数，更长的段分段合并
+     */
+    static final int MAX_PIECE_BYTES = 256;
+
+    private static final int NO_RANK = Integer.MAX_VALUE;
+    private static final int EMPTY_SLOT = -1;
+
+    private final Pattern pattern;
+    // 所有词的字节序列首尾相接存放，第 i 个词为 bytes[offsets[i], offsets[i] + lengths[i])
+    private final byte[] bytes;
+    private final int[] offsets;
+    private final int[] lengths;
+    private final int[] ranks;
+    // 开放寻址哈希表，槽位存放词的下标
+    private final int[] slots;
+    private final int mask;
+    private final ThreadLocal<Workspace> workspaces = ThreadLocal.withInitial(Workspace::new);
+
+    private BpeTokenCounter(String pattern, byte[] bytes, int[] offsets, int[] lengths, int[] ranks, int size) {
+        this.pattern = Pattern.compile(pattern, Pattern.UNICODE_CHARACTER_CLASS);
+        this.bytes = bytes;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.ranks = ranks;
+        int capacity = Integer.highestOneBit(Math.max(size, 1) * 2 - 1) << 1;
+        this.slots = new int[capacity];
+        this.mask = capacity - 1;
+        Arrays.fill(slots, EMPTY_SLOT);
+        for (int i = 0; i < size; i++) {
+            int slot = hash(bytes, offsets[i], lengths[i]) & mask;
+            while (slots[slot] != EMPTY_SLOT) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = i;
+        }
+    }
+
+    /**
+     * 读取 tiktoken 格式的词表，读取完成后不关闭输入流
+     *
+     * @param in      词表输入流
+     * @param pattern 预分词正则，见 {@link #CL100K_PATTERN}、{@link #QWEN_PATTERN}
+     * @throws IOException 读取失败或词表格式无效
+     */
+    public static BpeTokenCounter load(InputStream in, String pattern) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII));
+        Base64.Decoder decoder = Base64.getDecoder();
+        byte[] bytes = new byte[1 << 20];
+        int[] offsets = new int[1 << 16];
+        int[] lengths = new int[1 << 16];
+        int[] ranks = new int[1 << 16];
+        int size = 0;
+        int used = 0;
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isEmpty()) {
+                continue;
+            }
+            int space = line.indexOf(' ');
+            byte[] token;
+            int rank;
+            try {
+                token = decoder.decode(line.substring(0, space < 0 ? line.length() : space));
+                rank = Integer.parseInt(line.substring(space + 1).trim());
+            } catch (IllegalArgumentException | StringIndexOutOfBoundsException e) {
+                throw new IOException("词表第 " + lineNumber + " 行格式无效");
+            }
+            if (space < 0 || token.length == 0 || rank < 0) {
+                throw new IOException("词表第 " + lineNumber + " 行格式无效");
+            }
+            if (size == offsets.length) {
+                offsets = Arrays.copyOf(offsets, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+                ranks = Arrays.copyOf(ranks, size * 2);
+            }
+            if (used + token.length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, used + token.length));
+            }
+            System.arraycopy(token, 0, bytes, used, token.length);
+            offsets[size] = used;
+            lengths[size] = token.length;
+            ranks[size] = rank;
+            used += token.length;
+            size++;
+        }
+        if (size == 0) {
+            throw new IOException("词表为空");
+        }
+        return new BpeTokenCounter(pattern, Arrays.copyOf(bytes, used), Arrays.copyOf(offsets, size),
+                Arrays.copyOf(lengths, size), Arrays.copyOf(ranks, size), size);
+    }
+
+    /**
+     * 词表中的词数
+     */
+    public int getVocabularySize() {
+        return ranks.length;
+    }
+
+    @Override
+    public int count(CharSequence text) {
+        if (text == null || text.length() == 0) {
+            return 0;
+        }
+        Workspace workspace = workspaces.get();
+        Matcher matcher = workspace.matcher(pattern, text);
+        int tokens = 0;
+        while (matcher.find()) {
+            int length = workspace.encode(text, matcher.start(), matcher.end());
+            tokens += length <= MAX_PIECE_BYTES ? countPiece(workspace, 0, length) : countLongPiece(workspace, length);
+        }
+        // 不持有调用方的文本
+        matcher.reset("");
+        return tokens;
+    }
+
+    /**
+     * 超长的段按 {@link #MAX_PIECE_BYTES} 切分后逐段合并，切口不落在 UTF-8 多字节字符中间
+     */
+    private int countLongPiece(Workspace workspace, int length) {
+        byte[] piece = workspace.piece;
+        int tokens = 0;
+        int offset = 0;
+        while (offset < length) {
+            int end = Math.min(offset + MAX_PIECE_BYTES, length);
+            while (end < length && end > offset + 1 && (piece[end] & 0xc0) == 0x80) {
+                end--;
+            }
+            tokens += countPiece(workspace, offset, end - offset);
+            offset = end;
+        }
+        return tokens;
+    }
+
+    /**
+     * 对 piece[offset, offset + length) 做字节对合并，返回合并后的 token 数
+     */
+    private int countPiece(Workspace workspace, int offset, int length) {
+        byte[] piece = workspace.piece;
+        if (length == 1 || rank(piece, offset, length) != NO_RANK) {
+            return 1;
+        }
+        // starts[i] 为第 i 段在 piece 中的起始位置，pairRanks[i] 为第 i 段与第 i+1 段合并后的序号
+        workspace.ensureParts(length + 1);
+        int[] starts = workspace.starts;
+        int[] pairRanks = workspace.pairRanks;
+        int parts = length + 1;
+        int minRank = NO_RANK;
+        int minIndex = -1;
+        for (int i = 0; i < length - 1; i++) {
+            int r = rank(piece, offset + i, 2);
+            if (r < minRank) {
+                minRank = r;
+                minIndex = i;
+            }
+            starts[i] = offset + i;
+            pairRanks[i] = r;
+        }
+        starts[length - 1] = offset + length - 1;
+        pairRanks[length - 1] = NO_RANK;
+        starts[length] = offset + length;
+        pairRanks[length] = NO_RANK;
+
+        while (minRank != NO_RANK) {
+            int i = minIndex;
+            if (i > 0) {
+                pairRanks[i - 1] = mergedRank(piece, starts, parts, i - 1);
+            }
+            pairRanks[i] = mergedRank(piece, starts, parts, i);
+            System.arraycopy(starts, i + 2, starts, i + 1, parts - i - 2);
+            System.arraycopy(pairRanks, i + 2, pairRanks, i + 1, parts - i - 2);
+            parts--;
+            minRank = NO_RANK;
+            for (int j = 0; j < parts - 1; j++) {
+                if (pairRanks[j] < minRank) {
+                    minRank = pairRanks[j];
+                    minIndex = j;
+                }
+            }
+        }
+        return parts - 1;
+    }
+
+    /**
+     * 第 i 段与其后两段（第 i+1 段即将并入第 i 段）合并后的序号
+     */
+    private int mergedRank(byte[] piece, int[] starts, int parts, int i) {
+        if (i + 3 >= parts) {
+            return NO_RANK;
+        }
+        return rank(piece, starts[i], starts[i + 3] - starts[i]);
+    }
+
+    private int rank(byte[] source, int offset, int length) {
+        int slot = hash(source, offset, length) & mask;
+        int index;
+        while ((index = slots[slot]) != EMPTY_SLOT) {
+            if (lengths[index] == length && equalBytes(source, offset, offsets[index], length)) {
+                return ranks[index];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NO_RANK;
+    }
+
+    private boolean equalBytes(byte[] source, int offset, int vocabOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            if (source[offset + i] != bytes[vocabOffset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(byte[] source, int offset, int length) {
+        int h = 0x811c9dc5;
+        for (int i = 0; i < length; i++) {
+            h = (h ^ (source[offset + i] & 0xff)) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * 线程内复用的缓冲区，按需扩容
+     */
+    private static final class Workspace {
+        private Matcher matcher;
+        private Pattern matcherPattern;
+        private byte[] piece = new byte[256];
+        private int[] starts = new int[257];
+        private int[] pairRanks = new int[257];
+
+        private Matcher matcher(Pattern pattern, CharSequence text) {
+            if (matcher == null || matcherPattern != pattern) {
+                matcher = pattern.matcher(text);
+                matcherPattern = pattern;
+            } else {
+                matcher.reset(text);
+            }
+            return matcher;
+        }
+
+        private void ensureParts(int size) {
+            if (starts.length < size) {
+                starts = new int[size];
+                pairRanks = new int[size];
+            }
+        }
+
+        /**
+         * 将 text[start, end) 编码为 UTF-8 写入 piece，返回字节数；孤立的代理字符按替换字符 U+FFFD 编码
+         */
+        private int encode(CharSequence text, int start, int end) {
+            if (piece.length < (end - start) * 3) {
+                piece = new byte[(end - start) * 3];
+            }
+            int n = 0;
+            for (int i = start; i < end; i++) {
+                char c = text.charAt(i);
+                if (c < 0x80) {
+                    piece[n++] = (byte) c;
+                } else if (c < 0x800) {
+                    piece[n++] = (byte) (0xc0 | (c >> 6));
+                    piece[n++] = (byte) (0x80 | (c & 0x3f));
+                } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                    piece[n++] = (byte) (0xf0 | (codePoint >> 18));
+                    piece[n++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                    piece[n++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                    piece[n++] = (byte) (0x80 | (codePoint & 0x3f));
+                } else {
+                    if (Character.isSurrogate(c)) {
+                        c = '\uFFFD';
+                    }
+                    piece[n++] = (byte) (0xe0 | (c >> 12));
+                    piece[n++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                    piece[n++] = (byte) (0x80 | (c & 0x3f));
+                }
+            }
+            return n;
+        }
+    }
+}
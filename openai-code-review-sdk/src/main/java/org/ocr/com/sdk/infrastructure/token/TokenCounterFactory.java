@@ -0,0 +1,117 @@
+package org.ocr.com.sdk.infrastructure.token;
+
+import org.ocr.com.sdk.config.CodeReviewConfig;
+import org.ocr.com.sdk.domain.service.HeuristicTokenCounter;
+import org.ocr.com.sdk.domain.service.TokenCounter;
+import org.ocr.com.sdk.exception.ConfigException;
+import org.ocr.com.sdk.exception.ErrorCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token 计数器工厂（基础设施层）
+ * 根据配置加载 BPE 词表：配置了 {@code code.review.tokenizer.vocab} 时从该文件加载（{@code classpath:} 前缀表示类路径资源），
+ * 否则优先使用类路径下由使用方提供的 {@code tokenizer/qwen.tiktoken}，再使用 SDK 内置的
+ * {@code tokenizer/cl100k_base.tiktoken}（OpenAI tiktoken 公开的 cl100k_base 词表），默认即按词表精确统计；
+ * 默认词表加载失败时才退化为按字符类别估算。
+ * 词表文件名包含 qwen 时使用通义千问的预分词规则，否则使用 cl100k 的规则。
+ * 加载后的词表在进程内按路径缓存，多仓库评审与监听模式下只加载一次。
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class TokenCounterFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenCounterFactory.class);
+
+    private static final String CLASSPATH_PREFIX = "classpath:";
+    private static final String[] DEFAULT_VOCABULARIES = {
+            CLASSPATH_PREFIX + "tokenizer/qwen.tiktoken",
+            CLASSPATH_PREFIX + "tokenizer/cl100k_base.tiktoken"
+    };
+
+    private static final Map<String, TokenCounter> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 根据配置创建 token 计数器
+     *
+     * @param config 代码评审配置
+     * @return BPE 计数器，默认词表无法加载时为按字符类别估算的计数器
+     * @throws ConfigException 配置的词表不存在、无法读取或格式无效
+     */
+    public static TokenCounter createTokenCounter(CodeReviewConfig config) {
+        String vocabulary = config.getTokenizerVocab();
+        if (vocabulary != null) {
+            TokenCounter counter = load(vocabulary);
+            if (counter == null) {
+                throw new ConfigException(ErrorCode.FILE_READ_FAILED, "分词词表不存在: " + vocabulary);
+            }
+            return counter;
+        }
+        for (String candidate : DEFAULT_VOCABULARIES) {
+            try {
+                TokenCounter counter = load(candidate);
+                if (counter != null) {
+                    return counter;
+                }
+            } catch (ConfigException e) {
+                logger.warn("{}", e.getMessage());
+            }
+        }
+        logger.warn("未能加载默认分词词表，按字符类别估算 token 数");
+        return new HeuristicTokenCounter();
+    }
+
+    /**
+     * 加载并缓存词表，词表不存在时返回 null
+     */
+    private static TokenCounter load(String location) {
+        TokenCounter cached = CACHE.get(location);
+        if (cached != null) {
+            return cached;
+        }
+        synchronized (CACHE) {
+            cached = CACHE.get(location);
+            if (cached != null) {
+                return cached;
+            }
+            long startTime = System.currentTimeMillis();
+            try (InputStream in = open(location)) {
+                if (in == null) {
+                    return null;
+                }
+                String pattern = location.toLowerCase(Locale.ROOT).contains("qwen")
+                        ? BpeTokenCounter.QWEN_PATTERN : BpeTokenCounter.CL100K_PATTERN;
+                BpeTokenCounter counter = BpeTokenCounter.load(in, pattern);
+                logger.info("已加载分词词表: {}，{} 个词，耗时 {}ms", location, counter.getVocabularySize(),
+                        System.currentTimeMillis() - startTime);
+                CACHE.put(location, counter);
+                return counter;
+            } catch (IOException e) {
+                throw new ConfigException(ErrorCode.FILE_READ_FAILED,
+                        "加载分词词表失败: " + location + "，" + e.getMessage());
+            }
+        }
+    }
+
+    private static InputStream open(String location) throws IOException {
+        if (location.startsWith(CLASSPATH_PREFIX)) {
+            String resource = location.substring(CLASSPATH_PREFIX.length());
+            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+            if (classLoader == null) {
+                classLoader = TokenCounterFactory.class.getClassLoader();
+            }
+            return classLoader.getResourceAsStream(resource.startsWith("/") ? resource.substring(1) : resource);
+        }
+        File file = new File(location);
+        return file.isFile() ? new FileInputStream(file) : null;
+    }
+}
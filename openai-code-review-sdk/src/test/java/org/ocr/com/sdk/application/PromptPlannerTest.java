@@ -0,0 +1,312 @@
+package org.ocr.com.sdk.application;
+
+import org.junit.Test;
+import org.ocr.com.sdk.domain.model.valueobject.DiffHunk;
+import org.ocr.com.sdk.domain.model.valueobject.FileDiff;
+import org.ocr.com.sdk.domain.service.HunkGrouper;
+import org.ocr.com.sdk.domain.service.TokenCounter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link PromptPlanner} 单元测试
+ * 以行数作为 token 数：整个文件为文件头 1 行加各差异块（块头加内容行数）；拆分时每段的文件头附加一行片段说明，按 3 计（含换行）
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class PromptPlannerTest {
+
+    private static final TokenCounter LINES = text -> {
+        int lines = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return text.length() > 0 && text.charAt(text.length() - 1) != '\n' ? lines + 1 : lines;
+    };
+
+    private static DiffHunk hunk(int start, int lines) {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            body.append(i > 0 ? "\n" : "").append("+line").append(start + i);
+        }
+        return new DiffHunk("@@ -" + start + ",0 +" + start + "," + lines + " @@", start, 0, start, lines,
+                body.toString());
+    }
+
+    private static FileDiff file(String path, DiffHunk... hunks) {
+        return FileDiff.builder().oldPath(path).newPath(path).header("diff --git a/" + path + " b/" + path)
+                .hunks(Arrays.asList(hunks)).build();
+    }
+
+    /**
+     * 各分片中的文件与差异块起始行，如 {@code A.java[1,10] B.java[5]}
+     */
+    private static List<String> describe(List<PromptChunk> chunks) {
+        List<String> described = new ArrayList<>();
+        for (PromptChunk chunk : chunks) {
+            StringBuilder sb = new StringBuilder();
+            for (FileDiff fileDiff : chunk.getFileDiffs()) {
+                sb.append(sb.length() > 0 ? " " : "").append(fileDiff.getPath()).append('[');
+                for (int i = 0; i < fileDiff.getHunks().size(); i++) {
+                    sb.append(i > 0 ? "," : "").append(fileDiff.getHunks().get(i).getNewStart());
+                }
+                sb.append(']');
+            }
+            described.add(sb.toString());
+        }
+        return described;
+    }
+
+    // 整文件装箱
+
+    @Test
+    public void smallFilesArePackedInOrder() {
+        // 每个文件 1 + 3 = 4
+        List<PromptChunk> chunks = new PromptPlanner(LINES, 10).plan(Arrays.asList(
+                file("A.java", hunk(1, 2)), file("B.java", hunk(1, 2)), file("C.java", hunk(1, 2))));
+
+        assertEquals(Arrays.asList("A.java[1] B.java[1]", "C.java[1]"), describe(chunks));
+        assertEquals(8, chunks.get(0).getEstimatedTokens());
+        assertEquals(4, chunks.get(1).getEstimatedTokens());
+    }
+
+    @Test
+    public void emptyInputHasNoChunks() {
+        assertTrue(new PromptPlanner(LINES, 10).plan(Collections.<FileDiff>emptyList()).isEmpty());
+        assertTrue(new PromptPlanner(LINES, 10).plan(null).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void budgetMustBePositive() {
+        new PromptPlanner(LINES, 0);
+    }
+
+    // 单个文件超出预算
+
+    @Test
+    public void oversizedFileIsSplitAtHunkBoundaries() {
+        // 1 + 4 * 3 = 13 > 10：每段重复文件头并注明只包含部分差异块，3 + 3 + 3 = 9
+        FileDiff big = file("Big.java", hunk(1, 2), hunk(10, 2), hunk(20, 2), hunk(30, 2));
+
+        List<PromptChunk> chunks = new PromptPlanner(LINES, 10).plan(Collections.singletonList(big));
+
+        assertEquals(Arrays.asList("Big.java[1,10]", "Big.java[20,30]"), describe(chunks));
+        for (PromptChunk chunk : chunks) {
+            assertEquals(big.getHeader() + "\n" + PromptPlanner.PART_HEADER_NOTE,
+                    chunk.getFileDiffs().get(0).getHeader());
+            assertEquals(9, chunk.getEstimatedTokens());
+            assertEquals(Collections.singleton("Big.java"), chunk.getPartialPaths());
+        }
+    }
+
+    @Test
+    public void splitPartsShareChunksWithNeighbours() {
+        FileDiff big = file("Big.java", hunk(1, 2), hunk(10, 2), hunk(20, 1), hunk(30, 1));
+
+        List<PromptChunk> chunks = new PromptPlanner(LINES, 10).plan(Arrays.asList(
+                file("A.java", hunk(1, 1)), big, file("C.java", hunk(1, 1))));
+
+        // A 为 3，Big 为 11，拆为 9 与 7，C 为 3
+        assertEquals(Arrays.asList("A.java[1]", "Big.java[1,10]", "Big.java[20,30] C.java[1]"), describe(chunks));
+        // 只有被拆分的文件标记为部分差异块
+        assertTrue(chunks.get(0).getPartialPaths().isEmpty());
+        assertEquals(Collections.singleton("Big.java"), chunks.get(2).getPartialPaths());
+    }
+
+    @Test
+    public void oversizedHunkIsReplacedByPlaceholder() {
+        FileDiff big = file("Big.java", hunk(1, 2), hunk(10, 20), hunk(40, 2));
+
+        List<PromptChunk> chunks = new PromptPlanner(LINES, 10).plan(Collections.singletonList(big));
+
+        assertEquals(Arrays.asList("Big.java[1] Big.java[]", "Big.java[40]"), describe(chunks));
+        FileDiff placeholder = chunks.get(0).getFileDiffs().get(1);
+        assertTrue(placeholder.getHeader(), placeholder.getHeader().endsWith(
+                "差异块 @@ -10,0 +10,20 @@ 过大（约 21 tokens，超过单次评审预算 10），已省略"));
+    }
+
+    @Test
+    public void oversizedHeaderOnlyFileIsKeptAsPlaceholder() {
+        // 只有文件头的差异（如大量重命名说明），文件头 12 行超出预算
+        StringBuilder header = new StringBuilder("diff --git a/Old.java b/New.java");
+        for (int i = 0; i < 11; i++) {
+            header.append("\nrename detail ").append(i);
+        }
+        FileDiff renamed = FileDiff.builder().oldPath("Old.java").newPath("New.java").header(header.toString()).build();
+
+        List<PromptChunk> chunks = new PromptPlanner(LINES, 10).plan(Arrays.asList(renamed, file("A.java", hunk(1, 2))));
+
+        assertEquals(Arrays.asList("New.java[] A.java[1]"), describe(chunks));
+        FileDiff placeholder = chunks.get(0).getFileDiffs().get(0);
+        assertEquals("diff --git a/Old.java b/New.java\n文件头过大（约 13 tokens，超过单次评审预算 10），已省略",
+                placeholder.getHeader());
+        assertTrue(chunks.get(0).getEstimatedTokens() <= 10);
+    }
+
+    @Test
+    public void singleOversizedHeaderOnlyFileStillHasChunk() {
+        FileDiff binary = FileDiff.builder().oldPath("logo.png").newPath("logo.png")
+                .header("diff --git a/logo.png b/logo.png\nBinary files differ\nsize 1\nsize 2").build();
+
+        List<PromptChunk> chunks = new PromptPlanner(LINES, 3).plan(Collections.singletonList(binary));
+
+        assertEquals(Arrays.asList("logo.png[]"), describe(chunks));
+    }
+
+    // 按代码结构分组
+
+    @Test
+    public void groupsAreNotSplitAcrossChunks() {
+        DiffHunk h1 = hunk(1, 2);
+        DiffHunk h2 = hunk(10, 2);
+        DiffHunk h3 = hunk(20, 2);
+        DiffHunk h4 = hunk(30, 2);
+        FileDiff big = file("Big.java", h1, h2, h3, h4);
+        HunkGrouper grouper = fileDiff -> Arrays.asList(
+                Collections.singletonList(h1), Arrays.asList(h2, h3), Collections.singletonList(h4));
+
+        List<PromptChunk> chunks = new PromptPlanner(LINES, 10, grouper).plan(Collections.singletonList(big));
+
+        // 只按差异块拆分时为 [1,10] [20,30]
+        assertEquals(Arrays.asList("Big.java[1]", "Big.java[10,20]", "Big.java[30]"), describe(chunks));
+    }
+
+    @Test
+    public void oversizedGroupFallsBackToHunks() {
+        DiffHunk h1 = hunk(1, 2);
+        DiffHunk h2 = hunk(10, 2);
+        DiffHunk h3 = hunk(20, 2);
+        DiffHunk h4 = hunk(30, 2);
+        FileDiff big = file("Big.java", h1, h2, h3, h4, hunk(40, 2));
+        HunkGrouper grouper = fileDiff -> Arrays.asList(Arrays.asList(h1, h2, h3, h4),
+                Collections.singletonList(big.getHunks().get(4)));
+
+        List<PromptChunk> chunks = new PromptPlanner(LINES, 10, grouper).plan(Collections.singletonList(big));
+
+        assertEquals(Arrays.asList("Big.java[1,10]", "Big.java[20,30]", "Big.java[40]"), describe(chunks));
+    }
+
+    @Test
+    public void grouperFailureFallsBackToHunks() {
+        FileDiff big = file("Big.java", hunk(1, 2), hunk(10, 2), hunk(20, 2), hunk(30, 2));
+        HunkGrouper grouper = fileDiff -> {
+            throw new IllegalStateException("parse error");
+        };
+
+        List<PromptChunk> chunks = new PromptPlanner(LINES, 10, grouper).plan(Collections.singletonList(big));
+
+        assertEquals(Arrays.asList("Big.java[1,10]", "Big.java[20,30]"), describe(chunks));
+    }
+
+    @Test
+    public void grouperIsOnlyUsedForOversizedFiles() {
+        List<String> grouped = Collections.synchronizedList(new ArrayList<>());
+        HunkGrouper grouper = fileDiff -> {
+            grouped.add(fileDiff.getPath());
+            return null;
+        };
+
+        new PromptPlanner(LINES, 10, grouper).plan(Arrays.asList(
+                file("Small.java", hunk(1, 2)), file("Big.java", hunk(1, 5), hunk(10, 5))));
+
+        assertEquals(Collections.singletonList("Big.java"), grouped);
+    }
+
+    /**
+     * 记录批量分组器的打开、关闭次数与执行分组的线程
+     */
+    private static final class RecordingGrouper implements HunkGrouper {
+        private final AtomicInteger opened = new AtomicInteger();
+        private final AtomicInteger closed = new AtomicInteger();
+        private final Set<String> threads = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+        @Override
+        public List<List<DiffHunk>> group(FileDiff fileDiff) {
+            throw new AssertionError("规划时应使用批量分组器");
+        }
+
+        @Override
+        public Batch openBatch() {
+            opened.incrementAndGet();
+            return new Batch() {
+                @Override
+                public List<List<DiffHunk>> group(FileDiff fileDiff) {
+                    threads.add(Thread.currentThread().getName());
+                    return null;
+                }
+
+                @Override
+                public void close() {
+                    closed.incrementAndGet();
+                }
+            };
+        }
+    }
+
+    @Test
+    public void grouperBatchIsSharedByPlanAndRunsOffCommonPool() {
+        List<FileDiff> fileDiffs = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            fileDiffs.add(file("F" + i + ".java", hunk(1, 4), hunk(10, 4)));
+        }
+        RecordingGrouper grouper = new RecordingGrouper();
+
+        new PromptPlanner(LINES, 10, grouper).plan(fileDiffs);
+
+        assertEquals(1, grouper.opened.get());
+        assertEquals(1, grouper.closed.get());
+        for (String thread : grouper.threads) {
+            assertTrue(thread, thread.startsWith("code-review-planner-"));
+        }
+    }
+
+    @Test
+    public void grouperBatchIsNotOpenedWhenEverythingFits() {
+        RecordingGrouper grouper = new RecordingGrouper();
+
+        new PromptPlanner(LINES, 10, grouper).plan(Arrays.asList(file("A.java", hunk(1, 2)), file("B.java", hunk(1, 2))));
+
+        assertEquals(0, grouper.opened.get());
+    }
+
+    // 并行估算
+
+    @Test
+    public void parallelPreparationKeepsInputOrder() {
+        List<FileDiff> fileDiffs = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            // 奇数文件超出预算，拆成两段
+            fileDiffs.add(i % 2 == 0 ? file("F" + i + ".java", hunk(1, 2))
+                    : file("F" + i + ".java", hunk(1, 4), hunk(10, 4)));
+            expected.add("F" + i + ".java");
+        }
+
+        List<PromptChunk> chunks = new PromptPlanner(LINES, 10).plan(fileDiffs);
+
+        List<String> paths = new ArrayList<>();
+        for (PromptChunk chunk : chunks) {
+            for (String path : chunk.getPaths()) {
+                if (paths.isEmpty() || !paths.get(paths.size() - 1).equals(path)) {
+                    paths.add(path);
+                }
+            }
+        }
+        assertEquals(expected, paths);
+        for (PromptChunk chunk : chunks) {
+            assertTrue(chunk.getEstimatedTokens() <= 10);
+        }
+    }
+}
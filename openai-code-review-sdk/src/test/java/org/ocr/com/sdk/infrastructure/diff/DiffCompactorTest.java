@@ -0,0 +1,251 @@
+package org.ocr.com.sdk.infrastructure.diff;
+
+import org.junit.Test;
+import org.ocr.com.sdk.domain.model.valueobject.DiffHunk;
+import org.ocr.com.sdk.domain.model.valueobject.FileDiff;
+import org.ocr.com.sdk.domain.service.DiffProcessor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * {@link DiffCompactor} 单元测试
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class DiffCompactorTest {
+
+    private static FileDiff fileDiff(String path, int oldStart, String... lines) {
+        String body = String.join("\n", lines);
+        DiffHunk hunk = new DiffHunk("@@ -" + oldStart + " +" + oldStart + " @@", oldStart, lines.length,
+                oldStart, lines.length, body);
+        return FileDiff.builder().oldPath(path).newPath(path).header("diff --git a/" + path + " b/" + path)
+                .hunks(Collections.singletonList(hunk)).build();
+    }
+
+    private static FileDiff fileDiff(String path, String... lines) {
+        return fileDiff(path, 100, lines);
+    }
+
+    private static DiffProcessor.Result compact(FileDiff fileDiff) {
+        return new DiffCompactor(0).process(Collections.singletonList(fileDiff));
+    }
+
+    /**
+     * 压缩后唯一差异块的内容
+     */
+    private static String compactedBody(FileDiff fileDiff) {
+        return compact(fileDiff).getFileDiffs().get(0).getHunks().get(0).getBody();
+    }
+
+    private static void assertKept(FileDiff fileDiff) {
+        DiffProcessor.Result result = compact(fileDiff);
+        assertSame(fileDiff, result.getFileDiffs().get(0));
+        assertNull(result.getDetail());
+    }
+
+    // 仅空白字符变更
+
+    @Test
+    public void reindentedJavaIsOmitted() {
+        FileDiff fileDiff = fileDiff("src/App.java",
+                " if (ready) {",
+                "-  run();",
+                "-  stop();",
+                "+        run();",
+                "+        stop();",
+                " }");
+
+        DiffProcessor.Result result = compact(fileDiff);
+
+        DiffHunk hunk = result.getFileDiffs().get(0).getHunks().get(0);
+        assertEquals("… 仅空白字符变更 (+2/-2 行)，已省略", hunk.getBody());
+        // 块头与行号保留，便于定位
+        assertEquals("@@ -100 +100 @@", hunk.getHeader());
+        assertEquals(6, hunk.getOldCount());
+        assertEquals("省略差异块: 仅空白字符变更 1", result.getDetail());
+    }
+
+    @Test
+    public void trailingSpacesAndBlankLinesAreWhitespaceOnly() {
+        assertEquals("… 仅空白字符变更 (+3/-1 行)，已省略", compactedBody(fileDiff("a.txt",
+                "-value = 1;   ",
+                "+",
+                "+value = 1;",
+                "+")));
+    }
+
+    @Test
+    public void spacingAroundOperatorsIsWhitespaceOnly() {
+        assertEquals("… 仅空白字符变更 (+1/-1 行)，已省略", compactedBody(fileDiff("A.java",
+                "-int x=a+b*(c-d);",
+                "+int x = a + b * (c - d);")));
+    }
+
+    @Test
+    public void spaceBetweenWordsIsSignificant() {
+        assertKept(fileDiff("A.java",
+                "-String s = \"a b\";",
+                "+String s = \"ab\";"));
+    }
+
+    @Test
+    public void reindentedPythonIsKept() {
+        assertKept(fileDiff("app/main.py",
+                "-if ready:",
+                "-    run()",
+                "+if ready:",
+                "+run()"));
+    }
+
+    @Test
+    public void trailingSpacesInPythonAreWhitespaceOnly() {
+        assertEquals("… 仅空白字符变更 (+1/-1 行)，已省略", compactedBody(fileDiff("app/main.py",
+                "-    run()  ",
+                "+    run()")));
+    }
+
+    @Test
+    public void makefileIsIndentSensitive() {
+        assertKept(fileDiff("Makefile",
+                "-\tgcc main.c",
+                "+        gcc main.c"));
+    }
+
+    // 仅调整 import 顺序
+
+    @Test
+    public void reorderedImportsAreOmitted() {
+        DiffProcessor.Result result = compact(fileDiff("src/App.java", 3,
+                "-import java.util.Map;",
+                "-import java.util.List;",
+                " import java.io.File;",
+                "+import java.util.List;",
+                "+",
+                "+import java.util.Map;"));
+
+        assertEquals("… 仅调整 import 顺序 (+3/-2 行)，已省略",
+                result.getFileDiffs().get(0).getHunks().get(0).getBody());
+        assertEquals("省略差异块: 仅调整 import 顺序 1", result.getDetail());
+    }
+
+    @Test
+    public void reorderedPythonImportsAreOmitted() {
+        assertEquals("… 仅调整 import 顺序 (+2/-2 行)，已省略", compactedBody(fileDiff("app/main.py", 1,
+                "-import os",
+                "-from typing import List",
+                "+from typing import List",
+                "+import os")));
+    }
+
+    @Test
+    public void addedImportIsKept() {
+        assertKept(fileDiff("src/App.java", 3,
+                "-import java.util.List;",
+                "+import java.util.List;",
+                "+import java.util.Map;"));
+    }
+
+    @Test
+    public void importsMixedWithCodeAreKept() {
+        assertKept(fileDiff("src/App.java", 3,
+                "-import java.util.List;",
+                "-int a;",
+                "+import java.util.List;",
+                "+int b;"));
+    }
+
+    // 注释
+
+    @Test
+    public void licenseHeaderUpdateIsOmitted() {
+        assertEquals("… 许可证头更新 (+1/-1 行)，已省略", compactedBody(fileDiff("src/App.java", 1,
+                " /*",
+                "- * Copyright 2023 Example Corp.",
+                "+ * Copyright 2024 Example Corp.",
+                " */")));
+    }
+
+    @Test
+    public void licenseWordFarFromFileHeadIsKept() {
+        assertKept(fileDiff("src/App.java", 200,
+                "- // check the license of 2023",
+                "+ // check the license of 2024"));
+    }
+
+    @Test
+    public void reflowedCommentIsOmitted() {
+        assertEquals("… 仅注释换行调整 (+3/-2 行)，已省略", compactedBody(fileDiff("src/App.java",
+                "-    /** Returns the cached value for the given key,",
+                "-     * or null when absent. */",
+                "+    /**",
+                "+     * Returns the cached value for the given key, or null",
+                "+     * when absent. */")));
+    }
+
+    @Test
+    public void rewordedCommentIsKept() {
+        assertKept(fileDiff("src/App.java",
+                "-    // retry three times",
+                "+    // retry five times"));
+    }
+
+    // 其他
+
+    @Test
+    public void contextOnlyHunkIsKept() {
+        assertKept(fileDiff("src/App.java", " a", " b"));
+    }
+
+    @Test
+    public void untouchedListIsReturnedWithoutDetail() {
+        List<FileDiff> fileDiffs = Arrays.asList(
+                fileDiff("A.java", "-a();", "+b();"),
+                FileDiff.builder().oldPath("logo.png").newPath("logo.png").header("Binary files differ").build());
+        DiffProcessor.Result result = new DiffCompactor(4).process(fileDiffs);
+        assertSame(fileDiffs.get(0), result.getFileDiffs().get(0));
+        assertSame(fileDiffs.get(1), result.getFileDiffs().get(1));
+        assertNull(result.getDetail());
+    }
+
+    // 折叠上下文
+
+    @Test
+    public void longContextRunsAreFolded() {
+        FileDiff fileDiff = fileDiff("A.java",
+                "-a();", " c0", " c1", " c2", " c3", " c4", " c5", " c6", " c7", " c8", " c9", "+b();", " d0");
+
+        DiffProcessor.Result result = new DiffCompactor(4).process(Collections.singletonList(fileDiff));
+
+        String body = result.getFileDiffs().get(0).getHunks().get(0).getBody();
+        assertEquals("-a();\n c0\n c1\n… 未变更上下文 6 行，已省略\n c8\n c9\n+b();\n d0", body);
+        assertEquals("折叠上下文 6 行", result.getDetail());
+        assertEquals(6, DiffCompactor.foldedContextLines("… 未变更上下文 6 行，已省略"));
+        assertEquals(-1, DiffCompactor.foldedContextLines(" c8"));
+    }
+
+    @Test
+    public void contextRunAtLimitIsNotFolded() {
+        FileDiff fileDiff = fileDiff("A.java", "-a();", " c0", " c1", " c2", " c3", "+b();");
+        assertSame(fileDiff, new DiffCompactor(4).process(Collections.singletonList(fileDiff)).getFileDiffs().get(0));
+    }
+
+    @Test
+    public void omittedAndFoldedAreReportedTogether() {
+        List<FileDiff> fileDiffs = Arrays.asList(
+                fileDiff("A.java", "-  x();", "+    x();"),
+                fileDiff("B.java", " c0", " c1", " c2", " c3", " c4", " c5", "+b();"));
+
+        DiffProcessor.Result result = new DiffCompactor(4).process(fileDiffs);
+
+        assertEquals("省略差异块: 仅空白字符变更 1；折叠上下文 2 行", result.getDetail());
+        assertEquals(" c0\n c1\n… 未变更上下文 2 行，已省略\n c4\n c5\n+b();",
+                result.getFileDiffs().get(1).getHunks().get(0).getBody());
+    }
+}
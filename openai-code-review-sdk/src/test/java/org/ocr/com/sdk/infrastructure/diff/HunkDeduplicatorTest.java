@@ -0,0 +1,196 @@
+package org.ocr.com.sdk.infrastructure.diff;
+
+import org.junit.Test;
+import org.ocr.com.sdk.domain.model.valueobject.DiffHunk;
+import org.ocr.com.sdk.domain.model.valueobject.FileDiff;
+import org.ocr.com.sdk.domain.service.DiffProcessor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link HunkDeduplicator} 单元测试
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class HunkDeduplicatorTest {
+
+    private static final String ANNOTATION = "+    @PreAuthorize(\"hasRole('ADMIN')\")";
+
+    private static DiffHunk hunk(int newStart, String... lines) {
+        return new DiffHunk("@@ -" + newStart + "," + lines.length + " +" + newStart + "," + lines.length + " @@",
+                newStart, lines.length, newStart, lines.length, String.join("\n", lines));
+    }
+
+    private static FileDiff file(String path, DiffHunk... hunks) {
+        return FileDiff.builder().oldPath(path).newPath(path).hunks(Arrays.asList(hunks)).build();
+    }
+
+    private static DiffProcessor.Result dedupe(FileDiff... fileDiffs) {
+        return new HunkDeduplicator().process(Arrays.asList(fileDiffs));
+    }
+
+    // 分组与保留首次出现
+
+    @Test
+    public void identicalChangesAcrossFilesKeepFirstOccurrence() {
+        FileDiff a = file("web/UserController.java", hunk(10, " public class UserController {", ANNOTATION));
+        FileDiff b = file("web/OrderController.java", hunk(20, " public class OrderController {", ANNOTATION));
+        FileDiff c = file("web/ItemController.java", hunk(30, " public class ItemController {", ANNOTATION));
+
+        DiffProcessor.Result result = dedupe(a, b, c);
+
+        // 只有重复差异块的文件整体移除
+        assertEquals(1, result.getFileDiffs().size());
+        DiffHunk kept = result.getFileDiffs().get(0).getHunks().get(0);
+        assertEquals(" public class UserController {\n" + ANNOTATION
+                + "\n… 相同的变更还出现在以下 2 处（上下文可能不同，评审意见同样适用）："
+                + "web/OrderController.java:21、web/ItemController.java:31", kept.getBody());
+        assertEquals("@@ -10,2 +10,2 @@", kept.getHeader());
+        assertEquals("1 组相同变更，省略 2 个重复差异块、2 个文件", result.getDetail());
+
+        String appendix = result.getReportAppendix();
+        assertTrue(appendix, appendix.startsWith("### 附：重复变更"));
+        // 摘要取规范化后的变更行
+        assertTrue(appendix, appendix.contains("1. `+@PreAuthorize(\"hasRole('ADMIN')\")`（共 3 处）"));
+        assertTrue(appendix, appendix.contains("   - `web/UserController.java:11`\n   - `web/OrderController.java:21`\n"
+                + "   - `web/ItemController.java:31`"));
+    }
+
+    @Test
+    public void fileKeepsItsUniqueHunks() {
+        DiffHunk unique = hunk(50, " void run() {", "+    validate(request);");
+        FileDiff a = file("A.java", hunk(10, ANNOTATION));
+        FileDiff b = file("B.java", hunk(5, ANNOTATION), unique);
+
+        DiffProcessor.Result result = dedupe(a, b);
+
+        assertEquals(2, result.getFileDiffs().size());
+        assertEquals(Arrays.asList(unique), result.getFileDiffs().get(1).getHunks());
+        assertEquals("1 组相同变更，省略 1 个重复差异块", result.getDetail());
+    }
+
+    @Test
+    public void firstOccurrenceFollowsInputOrderWithinFile() {
+        FileDiff a = file("A.java", hunk(10, ANNOTATION), hunk(40, ANNOTATION));
+
+        DiffProcessor.Result result = dedupe(a);
+
+        List<DiffHunk> hunks = result.getFileDiffs().get(0).getHunks();
+        assertEquals(1, hunks.size());
+        assertEquals(10, hunks.get(0).getNewStart());
+        assertTrue(hunks.get(0).getBody().endsWith("以下 1 处（上下文可能不同，评审意见同样适用）：A.java:40"));
+    }
+
+    @Test
+    public void separateGroupsAreCountedSeparately() {
+        String other = "-    log.debug(\"legacy path\");";
+        DiffProcessor.Result result = dedupe(
+                file("A.java", hunk(1, ANNOTATION), hunk(90, other)),
+                file("B.java", hunk(1, ANNOTATION), hunk(90, other)));
+
+        assertEquals("2 组相同变更，省略 2 个重复差异块、1 个文件", result.getDetail());
+        assertEquals(2, result.getFileDiffs().get(0).getHunks().size());
+    }
+
+    @Test
+    public void locationListInPromptIsCapped() {
+        List<FileDiff> fileDiffs = new ArrayList<>();
+        for (int i = 0; i < 23; i++) {
+            fileDiffs.add(file("F" + i + ".java", hunk(1, ANNOTATION)));
+        }
+
+        DiffProcessor.Result result = new HunkDeduplicator().process(fileDiffs);
+
+        String body = result.getFileDiffs().get(0).getHunks().get(0).getBody();
+        assertTrue(body, body.contains("以下 22 处"));
+        assertTrue(body, body.endsWith("F20.java:1 等"));
+        // 附录列出全部位置
+        assertTrue(result.getReportAppendix().contains("`F22.java:1`"));
+    }
+
+    // 规范化
+
+    @Test
+    public void indentationAndContextDoNotMatter() {
+        DiffProcessor.Result result = dedupe(
+                file("A.java", hunk(1, " class A {", "+  @Override", "+  public String toString() {")),
+                file("B.java", hunk(1, "     class B extends A {", "+\t\t@Override  ", "+\t\tpublic String toString() {")));
+
+        assertEquals(1, result.getFileDiffs().size());
+    }
+
+    @Test
+    public void additionsAndDeletionsAreDifferentChanges() {
+        FileDiff a = file("A.java", hunk(1, "+    retryTemplate.execute();"));
+        FileDiff b = file("B.java", hunk(1, "-    retryTemplate.execute();"));
+        List<FileDiff> fileDiffs = Arrays.asList(a, b);
+
+        DiffProcessor.Result result = new HunkDeduplicator().process(fileDiffs);
+
+        assertSame(fileDiffs, result.getFileDiffs());
+        assertNull(result.getDetail());
+        assertNull(result.getReportAppendix());
+    }
+
+    @Test
+    public void differentChangedLinesAreNotGrouped() {
+        List<FileDiff> fileDiffs = Arrays.asList(
+                file("A.java", hunk(1, "+    cache.put(key, value);")),
+                file("B.java", hunk(1, "+    cache.put(key, value);", "+    cache.flush();")));
+        assertSame(fileDiffs, new HunkDeduplicator().process(fileDiffs).getFileDiffs());
+    }
+
+    // MIN_CHANGED_CHARS
+
+    @Test
+    public void trivialChangesAreNotGrouped() {
+        List<FileDiff> fileDiffs = Arrays.asList(
+                file("A.java", hunk(1, " }", "+}")),
+                file("B.java", hunk(1, " }", "+}")));
+        assertSame(fileDiffs, new HunkDeduplicator().process(fileDiffs).getFileDiffs());
+    }
+
+    @Test
+    public void changedCharsBelowCutoffAreNotGrouped() {
+        // 7 个非空白字符（空白不计入）
+        List<FileDiff> fileDiffs = Arrays.asList(
+                file("A.java", hunk(1, "+  a = b;", "-    i++")),
+                file("B.java", hunk(1, "+  a = b;", "-    i++")));
+        assertSame(fileDiffs, new HunkDeduplicator().process(fileDiffs).getFileDiffs());
+    }
+
+    @Test
+    public void changedCharsAtCutoffAreGrouped() {
+        // 8 个非空白字符
+        DiffProcessor.Result result = dedupe(
+                file("A.java", hunk(1, "+  a = b;", "-    i++;")),
+                file("B.java", hunk(1, "+  a = b;", "-    i++;")));
+        assertEquals(1, result.getFileDiffs().size());
+    }
+
+    // 跳过的差异块
+
+    @Test
+    public void omittedHunksAreNotGrouped() {
+        List<FileDiff> fileDiffs = Arrays.asList(
+                file("A.java", hunk(1, "… 仅空白字符变更 (+12/-12 行)，已省略")),
+                file("B.java", hunk(1, "… 仅空白字符变更 (+12/-12 行)，已省略")));
+        assertSame(fileDiffs, new HunkDeduplicator().process(fileDiffs).getFileDiffs());
+    }
+
+    @Test
+    public void combinedDiffsAreNotGrouped() {
+        DiffHunk combined = new DiffHunk("@@@ -1,1 -1,1 +1,2 @@@", 1, 1, 1, 2,
+                "  keep\n++    resolveConflict(left, right);");
+        List<FileDiff> fileDiffs = Arrays.asList(file("A.java", combined), file("B.java", combined));
+        assertSame(fileDiffs, new HunkDeduplicator().process(fileDiffs).getFileDiffs());
+    }
+}
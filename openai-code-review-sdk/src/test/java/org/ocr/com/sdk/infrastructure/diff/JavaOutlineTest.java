@@ -0,0 +1,207 @@
+package org.ocr.com.sdk.infrastructure.diff;
+
+import org.junit.Test;
+import org.ocr.com.sdk.domain.model.valueobject.DiffHunk;
+import org.ocr.com.sdk.domain.model.valueobject.FileDiff;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link JavaOutline} 与 {@link JavaHunkGrouper} 单元测试
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class JavaOutlineTest {
+
+    // 行号见每行末尾的注释
+    private static final String SOURCE = String.join("\n",
+            "package demo;",                                                          // 1
+            "",                                                                       // 2
+            "import java.util.List;",                                                 // 3
+            "",                                                                       // 4
+            "/**",                                                                    // 5
+            " * Outer doc",                                                           // 6
+            " */",                                                                    // 7
+            "@Service",                                                               // 8
+            "public class Outer {",                                                   // 9
+            "",                                                                       // 10
+            "    private int count = 0;",                                             // 11
+            "",                                                                       // 12
+            "    /** Runs. */",                                                       // 13
+            "    @Override",                                                          // 14
+            "    public void run(List<String> items) {",                              // 15
+            "        Runnable r = new Runnable() {",                                  // 16
+            "            @Override",                                                  // 17
+            "            public void run() {",                                        // 18
+            "                count++;",                                               // 19
+            "            }",                                                          // 20
+            "        };",                                                             // 21
+            "        class Local {",                                                  // 22
+            "            void go() { }",                                              // 23
+            "        }",                                                              // 24
+            "    }",                                                                  // 25
+            "",                                                                       // 26
+            "    private final Comparator<String> byLength = new Comparator<String>() {", // 27
+            "        @Override",                                                      // 28
+            "        public int compare(String a, String b) {",                       // 29
+            "            return a.length() - b.length();",                            // 30
+            "        }",                                                              // 31
+            "    };",                                                                 // 32
+            "",                                                                       // 33
+            "    static {",                                                           // 34
+            "        init(\"{ not a brace }\", '{');",                                // 35
+            "    }",                                                                  // 36
+            "",                                                                       // 37
+            "    static class Inner {",                                               // 38
+            "        Inner(int x) {",                                                 // 39
+            "            // } in comment",                                            // 40
+            "        }",                                                              // 41
+            "",                                                                       // 42
+            "        enum Mode { A, B }",                                             // 43
+            "    }",                                                                  // 44
+            "",                                                                       // 45
+            "    @SuppressWarnings({\"unchecked\", \"rawtypes\"})",                   // 46
+            "    String text() {",                                                    // 47
+            "        return \"\"\"",                                                  // 48
+            "            { text block }",                                             // 49
+            "            \"\"\";",                                                    // 50
+            "    }",                                                                  // 51
+            "}",                                                                      // 52
+            "",                                                                       // 53
+            "interface Api {",                                                        // 54
+            "    default void call() {",                                              // 55
+            "    }",                                                                  // 56
+            "}");                                                                     // 57
+
+    private static String describe(JavaOutline.Unit unit) {
+        return unit.getLabel() + " " + unit.getStartLine() + "-" + unit.getEndLine();
+    }
+
+    private static List<String> describeAll(JavaOutline outline) {
+        List<String> units = new ArrayList<>();
+        for (JavaOutline.Unit unit : outline.getUnits()) {
+            units.add(describe(unit));
+        }
+        return units;
+    }
+
+    // 结构大纲
+
+    @Test
+    public void typesAndMembersWithBoundaries() {
+        JavaOutline outline = JavaOutline.parse(SOURCE);
+
+        // 成员起始行含 Javadoc 与注解；方法体内的匿名类、局部类不单独成为单元
+        assertEquals(Arrays.asList(
+                "class Outer 5-52",
+                "public void run(List<String> items) 13-25",
+                "private final Comparator<String> byLength 27-32",
+                "静态初始化块 34-36",
+                "class Inner 38-44",
+                "Inner(int x) 39-41",
+                "enum Mode 43-43",
+                "String text() 46-51",
+                "interface Api 54-57",
+                "default void call() 55-56"), describeAll(outline));
+        assertTrue(outline.getUnits().get(0).isType());
+        assertFalse(outline.getUnits().get(1).isType());
+    }
+
+    @Test
+    public void innermostUnitOfNestedAndAnonymousClasses() {
+        JavaOutline outline = JavaOutline.parse(SOURCE);
+
+        // 方法内匿名类与局部类归入所在方法
+        assertEquals("public void run(List<String> items) 13-25", describe(outline.findInnermost(19, 19)));
+        assertEquals("public void run(List<String> items) 13-25", describe(outline.findInnermost(23, 23)));
+        // 字段初始化中的匿名类归入该字段
+        assertEquals("private final Comparator<String> byLength 27-32", describe(outline.findInnermost(30, 30)));
+        // 嵌套类型中的成员
+        assertEquals("Inner(int x) 39-41", describe(outline.findInnermost(40, 40)));
+        assertEquals("enum Mode 43-43", describe(outline.findInnermost(43, 43)));
+        // 跨越多个成员时取共同的外层类型
+        assertEquals("class Inner 38-44", describe(outline.findInnermost(40, 43)));
+        assertEquals("class Outer 5-52", describe(outline.findInnermost(19, 30)));
+        // 字段声明不是单元，取所在类型
+        assertEquals("class Outer 5-52", describe(outline.findInnermost(11, 11)));
+        assertNull(outline.findInnermost(3, 3));
+    }
+
+    @Test
+    public void lambdaFieldAndInitializerBlock() {
+        JavaOutline outline = JavaOutline.parse(String.join("\n",
+                "class A {",
+                "    private final Runnable task = () -> {",
+                "        work();",
+                "    };",
+                "    {",
+                "        count = 1;",
+                "    }",
+                "}"));
+
+        assertEquals(Arrays.asList("class A 1-8", "private final Runnable task 2-4", "初始化块 5-7"),
+                describeAll(outline));
+    }
+
+    @Test
+    public void anonymousClassAsArgumentIsPartOfDeclaration() {
+        // 参数中的匿名类在圆括号内，不会提前结束声明
+        JavaOutline outline = JavaOutline.parse(String.join("\n",
+                "class A {",
+                "    private final Thread worker = new Thread(new Runnable() {",
+                "        public void run() { }",
+                "    });",
+                "    void after() {",
+                "    }",
+                "}"));
+
+        assertEquals(Arrays.asList("class A 1-7", "void after() 5-6"), describeAll(outline));
+    }
+
+    @Test
+    public void unclosedUnitsExtendToEndOfFile() {
+        JavaOutline outline = JavaOutline.parse("class A {\n    void m() {\n        call();\n");
+        assertEquals(Arrays.asList("class A 1-4", "void m() 2-4"), describeAll(outline));
+    }
+
+    // 差异块分组
+
+    private static DiffHunk hunk(int line) {
+        return new DiffHunk("@@ -" + line + " +" + line + " @@ old section", line, 1, line, 1, "+changed();");
+    }
+
+    @Test
+    public void hunksAreGroupedByInnermostUnit() {
+        FileDiff fileDiff = FileDiff.builder().oldPath("demo/Outer.java").newPath("demo/Outer.java")
+                .hunks(Arrays.asList(hunk(3), hunk(16), hunk(19), hunk(30), hunk(40), hunk(41))).build();
+
+        List<List<DiffHunk>> groups = new JavaHunkGrouper(f -> SOURCE).group(fileDiff);
+
+        assertEquals(4, groups.size());
+        // 不在任何单元内的差异块保留原块头
+        assertEquals("@@ -3 +3 @@ old section", groups.get(0).get(0).getHeader());
+        assertEquals(2, groups.get(1).size());
+        assertEquals("@@ -16 +16 @@ public void run(List<String> items)", groups.get(1).get(0).getHeader());
+        assertEquals("@@ -19 +19 @@ public void run(List<String> items)", groups.get(1).get(1).getHeader());
+        assertEquals("@@ -30 +30 @@ private final Comparator<String> byLength", groups.get(2).get(0).getHeader());
+        assertEquals(2, groups.get(3).size());
+        assertEquals("@@ -41 +41 @@ Inner(int x)", groups.get(3).get(1).getHeader());
+    }
+
+    @Test
+    public void grouperSkipsNonJavaAndSingleHunkFiles() {
+        JavaHunkGrouper grouper = new JavaHunkGrouper(f -> SOURCE);
+        assertNull(grouper.group(FileDiff.builder().oldPath("a.kt").newPath("a.kt")
+                .hunks(Arrays.asList(hunk(16), hunk(30))).build()));
+        assertNull(grouper.group(FileDiff.builder().oldPath("A.java").newPath("A.java")
+                .hunks(Arrays.asList(hunk(16))).build()));
+    }
+}
@@ -0,0 +1,70 @@
+package org.ocr.com.sdk.infrastructure.diff;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link KeywordAutomaton} 单元测试
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class KeywordAutomatonTest {
+
+    /**
+     * 扫描结果，每项为 {@code 关键字@起始位置}
+     */
+    private static List<String> scan(List<String> keywords, String text) {
+        List<String> matches = new ArrayList<>();
+        new KeywordAutomaton(keywords).scan(text, (keyword, start) -> matches.add(keywords.get(keyword) + "@" + start));
+        return matches;
+    }
+
+    @Test
+    public void findsAllOccurrences() {
+        assertEquals(Arrays.asList("token@0", "token@10"),
+                scan(Collections.singletonList("token"), "token and token"));
+    }
+
+    @Test
+    public void matchesCaseInsensitively() {
+        assertEquals(Arrays.asList("akia@4", "password@14"),
+                scan(Arrays.asList("akia", "password"), "key=AKIA123 # PassWord"));
+    }
+
+    @Test
+    public void reportsOverlappingKeywordsInOrderOfEndPosition() {
+        // "she" 与 "he" 在同一位置结束，后缀关键字通过失败转移输出
+        assertEquals(Arrays.asList("she@1", "he@2", "hers@2"),
+                scan(Arrays.asList("he", "she", "hers"), "ushers"));
+    }
+
+    @Test
+    public void followsFailureLinksAfterPartialMatch() {
+        assertEquals(Collections.singletonList("api_key@3"),
+                scan(Arrays.asList("api_key", "pi_x"), "apiapi_key"));
+    }
+
+    @Test
+    public void resetsOnNonAsciiCharacters() {
+        assertEquals(Collections.singletonList("token@7"),
+                scan(Collections.singletonList("token"), "to令ken token"));
+    }
+
+    @Test
+    public void emptyTextHasNoMatches() {
+        assertTrue(scan(Arrays.asList("sk-", "://"), "").isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonAsciiKeywords() {
+        new KeywordAutomaton(Collections.singletonList("密码"));
+    }
+}
@@ -0,0 +1,176 @@
+package org.ocr.com.sdk.infrastructure.diff;
+
+import org.junit.Test;
+import org.ocr.com.sdk.domain.model.valueobject.DiffHunk;
+import org.ocr.com.sdk.domain.model.valueobject.FileDiff;
+import org.ocr.com.sdk.domain.service.DiffProcessor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * {@link SecretRedactor} 大批量差异测试
+ * 生成 Java 与配置文件差异（含大量 password、token 等关键字但不是凭据的代码行，以及按固定间隔埋入的假凭据），
+ * 校验埋入的凭据全部被替换、其余内容不变。
+ * 吞吐量测量默认跳过，需指定数据量时运行：
+ * {@code mvn test -Dtest=SecretRedactorThroughputTest -Dredaction.throughput.mb=16}，
+ * 预热后多次脱敏取最快一次，吞吐量输出到标准输出
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class SecretRedactorThroughputTest {
+
+    private static final int LINES_PER_HUNK = 40;
+    private static final int HUNKS_PER_FILE = 25;
+    private static final int SECRET_INTERVAL = 500;
+    private static final int WARMUP_PASSES = 3;
+    private static final int MEASURED_PASSES = 5;
+
+    private static final String[] CODE_LINES = {
+            "     private final Map<String, Object> cache%d = new ConcurrentHashMap<>();",
+            "+    String token%d = request.getHeader(\"Authorization\");",
+            "-    if (password%d == null || password%d.isEmpty()) {",
+            "+        throw new IllegalArgumentException(\"password must not be empty: \" + id%d);",
+            "     for (int i = 0; i < items%d.size(); i++) {",
+            "+        logger.info(\"processing item {} of {}\", i, items%d.size());",
+            "     // compute the checksum of https://example.com/api/v%d before sending",
+            "+    return secretManager.resolve(\"app.secret.key%d\");",
+            "-    int count%d = compute(a, b) * 31 + Objects.hashCode(name);",
+            "     }",
+    };
+
+    private static final String[] CONFIG_LINES = {
+            " server.port=80%d",
+            "+spring.datasource.url=jdbc:mysql://localhost:3306/db%d",
+            "-spring.datasource.username=app%d",
+            "+logging.level.org.ocr=DEBUG",
+            " management.endpoints.web.exposure.include=health,info",
+    };
+
+    @Test
+    public void plantedSecretsAreRedacted() {
+        List<String> planted = new ArrayList<>();
+        List<FileDiff> fileDiffs = generate(256 * 1024L, planted);
+
+        assertRedacted(fileDiffs, planted, new SecretRedactor().process(fileDiffs));
+    }
+
+    @Test
+    public void throughput() {
+        String property = System.getProperty("redaction.throughput.mb");
+        assumeTrue("未指定 -Dredaction.throughput.mb，跳过吞吐量测量", property != null);
+        int megabytes = Integer.parseInt(property);
+        List<String> planted = new ArrayList<>();
+        List<FileDiff> fileDiffs = generate(megabytes * 1024L * 1024L, planted);
+        long bytes = 0;
+        for (FileDiff fileDiff : fileDiffs) {
+            bytes += fileDiff.getTextLength();
+        }
+
+        SecretRedactor redactor = new SecretRedactor();
+        DiffProcessor.Result result = null;
+        for (int i = 0; i < WARMUP_PASSES; i++) {
+            result = redactor.process(fileDiffs);
+        }
+        long bestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_PASSES; i++) {
+            long start = System.nanoTime();
+            result = redactor.process(fileDiffs);
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+        double mb = bytes / (1024.0 * 1024.0);
+        System.out.printf("[secret-redaction] %.1f MB, %d 个文件, 最快 %d ms, %.0f MB/s%n",
+                mb, fileDiffs.size(), bestNanos / 1_000_000, mb / (bestNanos / 1e9));
+
+        assertRedacted(fileDiffs, planted, result);
+    }
+
+    private static void assertRedacted(List<FileDiff> fileDiffs, List<String> planted, DiffProcessor.Result result) {
+        assertTrue(result.getDetail(), result.getDetail().startsWith("脱敏 " + planted.size() + " 处："));
+        StringBuilder redacted = new StringBuilder();
+        for (FileDiff fileDiff : result.getFileDiffs()) {
+            fileDiff.appendTo(redacted);
+        }
+        String text = redacted.toString();
+        for (String secret : planted) {
+            assertFalse(secret, text.contains(secret));
+        }
+        // 脱敏不改变行数
+        assertEquals(countLines(fileDiffs), countLines(result.getFileDiffs()));
+    }
+
+    /**
+     * 生成约 targetBytes 字节的差异，每隔 SECRET_INTERVAL 行埋入一个假凭据
+     */
+    private static List<FileDiff> generate(long targetBytes, List<String> planted) {
+        Random random = new Random(42);
+        List<FileDiff> fileDiffs = new ArrayList<>();
+        long bytes = 0;
+        int lineNumber = 0;
+        for (int file = 0; bytes < targetBytes; file++) {
+            boolean config = file % 10 == 9;
+            String path = config ? "src/main/resources/app-" + file + ".properties"
+                    : "src/main/java/org/example/Service" + file + ".java";
+            FileDiff.Builder builder = FileDiff.builder().oldPath(path).newPath(path)
+                    .header("diff --git a/" + path + " b/" + path);
+            for (int h = 0; h < HUNKS_PER_FILE; h++) {
+                StringBuilder body = new StringBuilder();
+                for (int l = 0; l < LINES_PER_HUNK; l++, lineNumber++) {
+                    if (l > 0) {
+                        body.append('\n');
+                    }
+                    if (lineNumber % SECRET_INTERVAL == SECRET_INTERVAL - 1) {
+                        body.append(secretLine(lineNumber / SECRET_INTERVAL, config, planted));
+                    } else {
+                        String[] templates = config ? CONFIG_LINES : CODE_LINES;
+                        int n = random.nextInt(1000);
+                        body.append(String.format(templates[random.nextInt(templates.length)], n, n, n));
+                    }
+                }
+                DiffHunk hunk = new DiffHunk("@@ -" + (h * 100 + 1) + "," + LINES_PER_HUNK + " +" + (h * 100 + 1)
+                        + "," + LINES_PER_HUNK + " @@", h * 100 + 1, LINES_PER_HUNK, h * 100 + 1, LINES_PER_HUNK,
+                        body.toString());
+                builder.addHunk(hunk);
+                bytes += hunk.getTextLength();
+            }
+            fileDiffs.add(builder.build());
+        }
+        return fileDiffs;
+    }
+
+    private static String secretLine(int index, boolean config, List<String> planted) {
+        String suffix = String.format("%08d", index);
+        String secret;
+        String line;
+        if (config) {
+            secret = "Pw" + suffix + "xyz";
+            line = "+db.password=" + secret;
+        } else if (index % 3 == 0) {
+            secret = "AKIA" + suffix + "QWERTYUI";
+            line = "+    String key = \"" + secret + "\";";
+        } else if (index % 3 == 1) {
+            secret = "ghp_" + suffix + "abcdefghijklmnopqrstuvwxyz12";
+            line = "+    client.setToken(\"" + secret + "\");";
+        } else {
+            secret = "sk-" + suffix + "AbCdEfGhIjKlMnOp";
+            line = "+    apiKey = \"" + secret + "\";";
+        }
+        planted.add(secret);
+        return line;
+    }
+
+    private static int countLines(List<FileDiff> fileDiffs) {
+        int lines = 0;
+        for (FileDiff fileDiff : fileDiffs) {
+            lines += fileDiff.getLineCount();
+        }
+        return lines;
+    }
+}
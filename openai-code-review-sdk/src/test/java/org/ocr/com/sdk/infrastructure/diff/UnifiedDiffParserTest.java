@@ -0,0 +1,521 @@
+package org.ocr.com.sdk.infrastructure.diff;
+
+import org.junit.Test;
+import org.ocr.com.sdk.domain.model.valueobject.DiffHunk;
+import org.ocr.com.sdk.domain.model.valueobject.FileDiff;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link UnifiedDiffParser} 单元测试
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class UnifiedDiffParserTest {
+
+    private static String lines(String... lines) {
+        return String.join("\n", lines) + "\n";
+    }
+
+    private static List<FileDiff> parseAll(String text, List<String> preamble) throws IOException {
+        List<FileDiff> diffs = new ArrayList<>();
+        try (UnifiedDiffParser parser = new UnifiedDiffParser(new StringReader(text), preamble::add)) {
+            FileDiff diff;
+            while ((diff = parser.next()) != null) {
+                diffs.add(diff);
+            }
+        }
+        return diffs;
+    }
+
+    private static List<FileDiff> parseAll(String text) throws IOException {
+        return parseAll(text, new ArrayList<>());
+    }
+
+    // 普通修改
+
+    @Test
+    public void parsesModifiedFileWithHunks() {
+        FileDiff diff = UnifiedDiffParser.parseSingle(lines(
+                "diff --git a/src/App.java b/src/App.java",
+                "index 1a2b3c4..5d6e7f8 100644",
+                "--- a/src/App.java",
+                "+++ b/src/App.java",
+                "@@ -1,3 +1,3 @@ public class App {",
+                " line1",
+                "-line2",
+                "+line2 changed",
+                " line3",
+                "@@ -10 +10,2 @@",
+                " line10",
+                "+line11"));
+
+        assertEquals("src/App.java", diff.getOldPath());
+        assertEquals("src/App.java", diff.getNewPath());
+        assertEquals(FileDiff.ChangeType.MODIFY, diff.getChangeType());
+        assertEquals("1a2b3c4", diff.getOldObjectId());
+        assertEquals("5d6e7f8", diff.getNewObjectId());
+        assertEquals("diff --git a/src/App.java b/src/App.java\nindex 1a2b3c4..5d6e7f8 100644\n"
+                + "--- a/src/App.java\n+++ b/src/App.java", diff.getHeader());
+        assertEquals(2, diff.getHunks().size());
+
+        DiffHunk first = diff.getHunks().get(0);
+        assertEquals("@@ -1,3 +1,3 @@ public class App {", first.getHeader());
+        assertEquals(" line1\n-line2\n+line2 changed\n line3", first.getBody());
+        // 省略行数时默认为 1
+        DiffHunk second = diff.getHunks().get(1);
+        assertEquals(10, second.getOldStart());
+        assertEquals(1, second.getOldCount());
+        assertEquals(2, second.getNewCount());
+    }
+
+    @Test
+    public void hunkBodyIsReadByLineCountNotByPrefix() {
+        // 删除的 SQL 注释行以 "--- " 开头、新增行以 "+++ " 开头，仍属于块内容而不是下一个文件头
+        FileDiff diff = UnifiedDiffParser.parseSingle(lines(
+                "diff --git a/db.sql b/db.sql",
+                "--- a/db.sql",
+                "+++ b/db.sql",
+                "@@ -1,2 +1,2 @@",
+                "--- old comment",
+                "+++ new comment",
+                " select 1;"));
+
+        assertEquals(1, diff.getHunks().size());
+        assertEquals("--- old comment\n+++ new comment\n select 1;", diff.getHunks().get(0).getBody());
+    }
+
+    @Test
+    public void emptyContextLineStrippedByEditorStaysInHunk() {
+        FileDiff diff = UnifiedDiffParser.parseSingle(lines(
+                "diff --git a/a.txt b/a.txt",
+                "--- a/a.txt",
+                "+++ b/a.txt",
+                "@@ -1,3 +1,3 @@",
+                "-a",
+                "+b",
+                "",
+                " c"));
+
+        assertEquals("-a\n+b\n\n c", diff.getHunks().get(0).getBody());
+    }
+
+    // 新增、删除、模式变更
+
+    @Test
+    public void newFileHasNoOldPath() {
+        FileDiff diff = UnifiedDiffParser.parseSingle(lines(
+                "diff --git a/new.txt b/new.txt",
+                "new file mode 100644",
+                "index 0000000..e69de29",
+                "--- /dev/null",
+                "+++ b/new.txt",
+                "@@ -0,0 +1,2 @@",
+                "+hello",
+                "+world"));
+
+        assertEquals(FileDiff.ChangeType.ADD, diff.getChangeType());
+        assertNull(diff.getOldPath());
+        assertEquals("new.txt", diff.getNewPath());
+        assertEquals("new.txt", diff.getPath());
+        assertEquals(2, diff.getAddedLineCount());
+    }
+
+    @Test
+    public void emptyNewFileHasNoHunks() {
+        FileDiff diff = UnifiedDiffParser.parseSingle(lines(
+                "diff --git a/empty.txt b/empty.txt",
+                "new file mode 100644",
+                "index 0000000..e69de29"));
+
+        assertEquals(FileDiff.ChangeType.ADD, diff.getChangeType());
+        assertEquals("empty.txt", diff.getNewPath());
+        assertTrue(diff.getHunks().isEmpty());
+    }
+
+    @Test
+    public void deletedFileHasNoNewPath() {
+        FileDiff diff = UnifiedDiffParser.parseSingle(lines(
+                "diff --git a/old.txt b/old.txt",
+                "deleted file mode 100644",
+                "index e69de29..0000000",
+                "--- a/old.txt",
+                "+++ /dev/null",
+                "@@ -1 +0,0 @@",
+                "-bye"));
+
+        assertEquals(FileDiff.ChangeType.DELETE, diff.getChangeType());
+        assertEquals("old.txt", diff.getOldPath());
+        assertNull(diff.getNewPath());
+        assertEquals("old.txt", diff.getPath());
+        assertEquals(1, diff.getDeletedLineCount());
+    }
+
+    @Test
+    public void modeOnlyChangeKeepsModeLinesInHeader() {
+        FileDiff diff = UnifiedDiffParser.parseSingle(lines(
+                "diff --git a/run.sh b/run.sh",
+                "old mode 100644",
+                "new mode 100755"));
+
+        assertEquals(FileDiff.ChangeType.MODIFY, diff.getChangeType());
+        assertEquals("run.sh", diff.getPath());
+        assertTrue(diff.getHunks().isEmpty());
+        assertEquals("diff --git a/run.sh b/run.sh\nold mode 100644\nnew mode 100755", diff.getHeader());
+    }
+
+    // 重命名与复制
+
+    @Test
+    public void pureRenameWithoutIndexLine() {
+        FileDiff diff = UnifiedDiffParser.parseSingle(lines(
+                "diff --git a/old/Name.java b/new/Name.java",
+                "similarity index 100%",
+                "rename from old/Name.java",
+                "rename to new/Name.java"));
+
+        assertEquals(FileDiff.ChangeType.RENAME, diff.getChangeType());
+        assertEquals("old/Name.java", diff.getOldPath());
+        assertEquals("new/Name.java", diff.getNewPath());
+        assertNull(diff.getOldObjectId());
+        assertTrue(diff.getHunks().isEmpty());
+    }
+
+    @Test
+    public void renameWithContentChange() {
+        FileDiff diff = UnifiedDiffParser.parseSingle(lines(
+                "diff --git a/a.txt b/b.txt",
+                "similarity index 80%",
+                "rename from a.txt",
+                "rename to b.txt",
+                "index 1111111..2222222 100644",
+                "--- a/a.txt",
+                "+++ b/b.txt",
+                "@@ -1,2 +1,2 @@",
+                " keep",
+                "-old",
+                "+new"));
+
+        assertEquals(FileDiff.ChangeType.RENAME, diff.getChangeType());
+        assertEquals("a.txt", diff.getOldPath());
+        assertEquals("b.txt", diff.getNewPath());
+        assertEquals("1111111", diff.getOldObjectId());
+        assertEquals(1, diff.getHunks().size());
+    }
+
+    @Test
+    public void pureCopyWithoutContentChange() {
+        FileDiff diff = UnifiedDiffParser.parseSingle(lines(
+                "diff --git a/src.txt b/copy.txt",
+                "similarity index 100%",
+                "copy from src.txt",
+                "copy to copy.txt"));
+
+        assertEquals(FileDiff.ChangeType.COPY, diff.getChangeType());
+        assertEquals("src.txt", diff.getOldPath());
+        assertEquals("copy.txt", diff.getNewPath());
+        assertTrue(diff.getHunks().isEmpty());
+    }
+
+    @Test
+    public void copyWithContentChange() {
+        FileDiff diff = UnifiedDiffParser.parseSingle(lines(
+                "diff --git a/src.txt b/copy.txt",
+                "similarity index 75%",
+                "copy from src.txt",
+                "copy to copy.txt",
+                "index 3333333..4444444 100644",
+                "--- a/src.txt",
+                "+++ b/copy.txt",
+                "@@ -1 +1,2 @@",
+                " same",
+                "+extra"));
+
+        assertEquals(FileDiff.ChangeType.COPY, diff.getChangeType());
+        assertEquals("src.txt", diff.getOldPath());
+        assertEquals("copy.txt", diff.getNewPath());
+        assertEquals(1, diff.getAddedLineCount());
+    }
+
+    @Test
+    public void renameOfQuotedPaths() {
+        FileDiff diff = UnifiedDiffParser.parseSingle(lines(
+                "diff --git \"a/\\346\\227\\247.txt\" \"b/\\346\\226\\260 name.txt\"",
+                "similarity index 100%",
+                "rename from \"\\346\\227\\247.txt\"",
+                "rename to \"\\346\\226\\260 name.txt\""));
+
+        assertEquals("旧.txt", diff.getOldPath());
+        assertEquals("新 name.txt", diff.getNewPath());
+    }
+
+    // 二进制文件
+
+    @Test
+    public void binaryFileHasNoHunks() {
+        FileDiff diff = UnifiedDiffParser.parseSingle(lines(
+                "diff --git a/img/logo.png b/img/logo.png",
+                "index 5555555..6666666 100644",
+                "Binary files a/img/logo.png and b/img/logo.png differ"));
+
+        assertEquals(FileDiff.ChangeType.MODIFY, diff.getChangeType());
+        assertEquals("img/logo.png", diff.getPath());
+        assertTrue(diff.getHunks().isEmpty());
+        assertTrue(diff.getHeader().endsWith("Binary files a/img/logo.png and b/img/logo.png differ"));
+    }
+
+    @Test
+    public void newBinaryFileFollowedByTextFile() throws IOException {
+        List<FileDiff> diffs = parseAll(lines(
+                "diff --git a/data.bin b/data.bin",
+                "new file mode 100644",
+                "index 0000000..7777777",
+                "Binary files /dev/null and b/data.bin differ",
+                "diff --git a/a.txt b/a.txt",
+                "--- a/a.txt",
+                "+++ b/a.txt",
+                "@@ -1 +1 @@",
+                "-x",
+                "+y"));
+
+        assertEquals(2, diffs.size());
+        assertEquals(FileDiff.ChangeType.ADD, diffs.get(0).getChangeType());
+        assertEquals("data.bin", diffs.get(0).getPath());
+        assertTrue(diffs.get(0).getHunks().isEmpty());
+        assertEquals("a.txt", diffs.get(1).getPath());
+        assertEquals(1, diffs.get(1).getHunks().size());
+    }
+
+    // 文件末尾无换行
+
+    @Test
+    public void noNewlineMarkerAfterLastLineStaysInHunk() throws IOException {
+        List<FileDiff> diffs = parseAll(lines(
+                "diff --git a/a.txt b/a.txt",
+                "--- a/a.txt",
+                "+++ b/a.txt",
+                "@@ -1 +1 @@",
+                "-old",
+                "\\ No newline at end of file",
+                "+new",
+                "\\ No newline at end of file",
+                "diff --git a/b.txt b/b.txt",
+                "--- a/b.txt",
+                "+++ b/b.txt",
+                "@@ -1 +1,2 @@",
+                " keep",
+                "+tail",
+                "\\ No newline at end of file"));
+
+        assertEquals(2, diffs.size());
+        assertEquals("-old\n\\ No newline at end of file\n+new\n\\ No newline at end of file",
+                diffs.get(0).getHunks().get(0).getBody());
+        assertEquals(" keep\n+tail\n\\ No newline at end of file", diffs.get(1).getHunks().get(0).getBody());
+        assertEquals(1, diffs.get(0).getAddedLineCount());
+        assertEquals(1, diffs.get(0).getDeletedLineCount());
+    }
+
+    // 加引号与非 ASCII 路径
+
+    @Test
+    public void quotedOctalEscapedPathIsDecodedAsUtf8() {
+        FileDiff diff = UnifiedDiffParser.parseSingle(lines(
+                "diff --git \"a/\\346\\226\\207\\346\\241\\243/\\350\\257\\264\\346\\230\\216.md\" "
+                        + "\"b/\\346\\226\\207\\346\\241\\243/\\350\\257\\264\\346\\230\\216.md\"",
+                "index 1111111..2222222 100644",
+                "--- \"a/\\346\\226\\207\\346\\241\\243/\\350\\257\\264\\346\\230\\216.md\"",
+                "+++ \"b/\\346\\226\\207\\346\\241\\243/\\350\\257\\264\\346\\230\\216.md\"",
+                "@@ -1 +1 @@",
+                "-a",
+                "+b"));
+
+        assertEquals("文档/说明.md", diff.getOldPath());
+        assertEquals("文档/说明.md", diff.getNewPath());
+        assertEquals(1, diff.getHunks().size());
+    }
+
+    @Test
+    public void unquotedNonAsciiPathWhenQuotePathDisabled() {
+        FileDiff diff = UnifiedDiffParser.parseSingle(lines(
+                "diff --git a/文档/说明.md b/文档/说明.md",
+                "--- a/文档/说明.md",
+                "+++ b/文档/说明.md",
+                "@@ -1 +1 @@",
+                "-a",
+                "+b"));
+
+        assertEquals("文档/说明.md", diff.getPath());
+    }
+
+    @Test
+    public void quotedPathWithEscapedQuoteAndTrailingTab() {
+        // 含空格的路径在 ---/+++ 行末尾带制表符
+        FileDiff diff = UnifiedDiffParser.parseSingle(lines(
+                "diff --git \"a/docs/say \\\"hi\\\".txt\" \"b/docs/say \\\"hi\\\".txt\"",
+                "--- \"a/docs/say \\\"hi\\\".txt\"\t",
+                "+++ \"b/docs/say \\\"hi\\\".txt\"\t",
+                "@@ -1 +1 @@",
+                "-a",
+                "+b"));
+
+        assertEquals("docs/say \"hi\".txt", diff.getOldPath());
+        assertEquals("docs/say \"hi\".txt", diff.getNewPath());
+    }
+
+    @Test
+    public void onlyOneSideQuotedInGitHeader() {
+        // 二进制文件没有 ---/+++ 行，路径只能从 diff --git 行解析
+        FileDiff diff = UnifiedDiffParser.parseSingle(lines(
+                "diff --git a/plain.bin \"b/tab\\there.bin\"",
+                "similarity index 100%",
+                "Binary files a/plain.bin and \"b/tab\\there.bin\" differ"));
+
+        assertEquals("plain.bin", diff.getOldPath());
+        assertEquals("tab\there.bin", diff.getNewPath());
+    }
+
+    @Test
+    public void unquoteHandlesEscapesAndLeavesPlainPathsAlone() {
+        assertEquals("plain/path.txt", UnifiedDiffParser.unquote("plain/path.txt"));
+        assertEquals("a\tb\nc\\d\"e", UnifiedDiffParser.unquote("\"a\\tb\\nc\\\\d\\\"e\""));
+        assertEquals("中.txt", UnifiedDiffParser.unquote("\"\\344\\270\\255.txt\""));
+        // 未转义的非 ASCII 与八进制转义混用
+        assertEquals("文件中.txt", UnifiedDiffParser.unquote("\"文件\\344\\270\\255.txt\""));
+    }
+
+    // 组合差异（合并提交）
+
+    @Test
+    public void combinedDiffOfMergeCommit() throws IOException {
+        List<FileDiff> diffs = parseAll(lines(
+                "diff --cc conflict.txt",
+                "index 1111111,2222222..3333333",
+                "--- a/conflict.txt",
+                "+++ b/conflict.txt",
+                "@@@ -1,3 -1,3 +1,3 @@@ header",
+                "  common",
+                "- ours",
+                " -theirs",
+                "++resolved",
+                "  tail",
+                "diff --git a/next.txt b/next.txt",
+                "--- a/next.txt",
+                "+++ b/next.txt",
+                "@@ -1 +1 @@",
+                "-x",
+                "+y"));
+
+        assertEquals(2, diffs.size());
+        FileDiff merged = diffs.get(0);
+        assertEquals("conflict.txt", merged.getOldPath());
+        assertEquals("conflict.txt", merged.getNewPath());
+        assertEquals(FileDiff.ChangeType.MODIFY, merged.getChangeType());
+        assertEquals("1111111", merged.getOldObjectId());
+        assertEquals("3333333", merged.getNewObjectId());
+
+        DiffHunk hunk = merged.getHunks().get(0);
+        assertTrue(HunkLines.isCombined(hunk));
+        assertEquals(1, hunk.getOldStart());
+        assertEquals(3, hunk.getOldCount());
+        assertEquals(3, hunk.getNewCount());
+        assertEquals("  common\n- ours\n -theirs\n++resolved\n  tail", hunk.getBody());
+        assertEquals("next.txt", diffs.get(1).getPath());
+    }
+
+    @Test
+    public void combinedHunkEndsWhenEveryParentIsConsumed() throws IOException {
+        // 合并结果与第一父提交已读完，最后一行只属于第二父提交，仍应归入本块
+        List<FileDiff> diffs = parseAll(lines(
+                "diff --combined a.txt",
+                "--- a/a.txt",
+                "+++ b/a.txt",
+                "@@@ -1,1 -1,2 +1,1 @@@",
+                "  kept",
+                " -only in theirs",
+                "@@@ -5 -6 +5,2 @@@",
+                "  five",
+                "++added"));
+
+        assertEquals(1, diffs.size());
+        List<DiffHunk> hunks = diffs.get(0).getHunks();
+        assertEquals(2, hunks.size());
+        assertEquals("  kept\n -only in theirs", hunks.get(0).getBody());
+        assertEquals("  five\n++added", hunks.get(1).getBody());
+    }
+
+    @Test
+    public void octopusMergeHasOneColumnPerParent() {
+        FileDiff diff = UnifiedDiffParser.parseSingle(lines(
+                "diff --cc f.txt",
+                "--- a/f.txt",
+                "+++ b/f.txt",
+                "@@@@ -1,1 -1,1 -1,1 +1,1 @@@@",
+                "---base",
+                "+++merged"));
+
+        DiffHunk hunk = diff.getHunks().get(0);
+        assertEquals("---base\n+++merged", hunk.getBody());
+        assertEquals(1, hunk.getOldCount());
+    }
+
+    // 其他输入格式
+
+    @Test
+    public void plainUnifiedDiffWithTimestamps() throws IOException {
+        List<FileDiff> diffs = parseAll(lines(
+                "--- old/a.txt\t2024-01-01 00:00:00.000000000 +0800",
+                "+++ new/a.txt\t2024-01-02 00:00:00.000000000 +0800",
+                "@@ -1 +1 @@",
+                "-a",
+                "+b",
+                "--- /dev/null\t1970-01-01 00:00:00.000000000 +0000",
+                "+++ new/b.txt\t2024-01-02 00:00:00.000000000 +0800",
+                "@@ -0,0 +1 @@",
+                "+c"));
+
+        assertEquals(2, diffs.size());
+        assertEquals("old/a.txt", diffs.get(0).getOldPath());
+        assertEquals("new/a.txt", diffs.get(0).getNewPath());
+        assertEquals(FileDiff.ChangeType.ADD, diffs.get(1).getChangeType());
+        assertEquals("new/b.txt", diffs.get(1).getPath());
+    }
+
+    @Test
+    public void formatPatchPreambleAndSignatureGoToListener() throws IOException {
+        List<String> preamble = new ArrayList<>();
+        List<FileDiff> diffs = parseAll(lines(
+                "From 0123456789abcdef Mon Sep 17 00:00:00 2001",
+                "Subject: [PATCH] change",
+                "",
+                "---",
+                " a.txt | 2 +-",
+                "",
+                "diff --git a/a.txt b/a.txt",
+                "--- a/a.txt",
+                "+++ b/a.txt",
+                "@@ -1 +1 @@",
+                "-a",
+                "+b",
+                "-- ",
+                "2.39.0"), preamble);
+
+        assertEquals(1, diffs.size());
+        assertEquals("-a\n+b", diffs.get(0).getHunks().get(0).getBody());
+        assertTrue(preamble.containsAll(Arrays.asList("Subject: [PATCH] change", "---", "-- ", "2.39.0")));
+    }
+
+    @Test
+    public void emptyInputHasNoFiles() throws IOException {
+        assertNull(UnifiedDiffParser.parseSingle(""));
+        assertTrue(parseAll("not a diff\n").isEmpty());
+    }
+}
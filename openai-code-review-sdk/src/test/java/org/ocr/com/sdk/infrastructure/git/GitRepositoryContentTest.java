@@ -0,0 +1,92 @@
+package org.ocr.com.sdk.infrastructure.git;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ocr.com.sdk.domain.model.valueobject.FileDiff;
+import org.ocr.com.sdk.domain.port.FileContentReader;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * {@link GitRepository} 读取变更后文件内容的单元测试
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class GitRepositoryContentTest {
+
+    private static final int FILES = 20;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static FileDiff fileDiff(String path, String objectId, FileDiff.ChangeType changeType) {
+        return FileDiff.builder().oldPath(path).newPath(path).changeType(changeType).newObjectId(objectId).build();
+    }
+
+    private static String source(int index) {
+        return "class File" + index + " {\n}\n";
+    }
+
+    @Test
+    public void batchReadsConcurrentlyWithOneHandle() throws Exception {
+        File workTree = folder.newFolder("repo");
+        List<FileDiff> fileDiffs = new ArrayList<>();
+        String binaryId;
+        try (Git git = Git.init().setDirectory(workTree).call();
+             ObjectInserter inserter = git.getRepository().newObjectInserter()) {
+            for (int i = 0; i < FILES; i++) {
+                ObjectId id = inserter.insert(Constants.OBJ_BLOB, source(i).getBytes(StandardCharsets.UTF_8));
+                fileDiffs.add(fileDiff("File" + i + ".java", id.name(), FileDiff.ChangeType.MODIFY));
+            }
+            binaryId = inserter.insert(Constants.OBJ_BLOB, new byte[]{'P', 'N', 'G', 0, 1}).name();
+            inserter.flush();
+        }
+        GitRepository repository = new GitRepository(workTree.getPath());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (FileContentReader.Batch batch = repository.openBatch()) {
+            List<Future<String>> contents = new ArrayList<>();
+            for (int round = 0; round < 5; round++) {
+                for (FileDiff fileDiff : fileDiffs) {
+                    contents.add(executor.submit(() -> batch.readNewContent(fileDiff)));
+                }
+            }
+            for (int i = 0; i < contents.size(); i++) {
+                assertEquals(source(i % FILES), contents.get(i).get());
+            }
+            assertNull(batch.readNewContent(fileDiff("logo.png", binaryId, FileDiff.ChangeType.MODIFY)));
+            assertNull(batch.readNewContent(fileDiff("Gone.java", fileDiffs.get(0).getNewObjectId(),
+                    FileDiff.ChangeType.DELETE)));
+        } finally {
+            executor.shutdownNow();
+        }
+        // 逐个读取与批量读取结果一致
+        assertEquals(source(3), repository.readNewContent(fileDiffs.get(3)));
+    }
+
+    @Test
+    public void batchOnMissingRepositoryReadsNothing() throws Exception {
+        GitRepository repository = new GitRepository(folder.newFolder("empty").getPath());
+        FileDiff fileDiff = fileDiff("A.java", ObjectId.zeroId().name().replace('0', 'a'), FileDiff.ChangeType.MODIFY);
+
+        try (FileContentReader.Batch batch = repository.openBatch()) {
+            assertNull(batch.readNewContent(fileDiff));
+        }
+        assertNull(repository.readNewContent(fileDiff));
+    }
+}
@@ -0,0 +1,321 @@
+package org.ocr.com.sdk.infrastructure.git;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ocr.com.sdk.domain.model.valueobject.FileDiff;
+import org.ocr.com.sdk.domain.port.CodeChangeStream;
+import org.ocr.com.sdk.infrastructure.diff.PathGlob;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * {@link NativeGitDiffEngine} 与 {@link JGitDiffEngine} 的一致性测试
+ * 在临时目录中生成包含多个模块、被排除目录与超大文件的仓库，两个引擎输出的文件差异列表必须完全相同
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class NativeGitDiffEngineTest {
+
+    private static final int SOURCE_FILES = 150;
+    private static final int FILES_PER_MODULE = 10;
+    private static final int VENDOR_FILES = 20;
+    private static final int LARGE_FILE_SIZE = 2 * 1024 * 1024;
+    private static final List<String> DEFAULT_EXCLUDES = Arrays.asList("package-lock.json", "yarn.lock",
+            "pnpm-lock.yaml", "*.min.js", "*.min.css", "*.map", "**/target/**", "**/node_modules/**",
+            "*.pb.go", "*_pb2.py");
+
+    @ClassRule
+    public static final TemporaryFolder folder = new TemporaryFolder();
+
+    private static File workTree;
+    private static Git git;
+    private static RevCommit base;
+    private static RevCommit head;
+
+    /**
+     * 各测试只读取仓库，整个测试类共用一个仓库
+     */
+    @BeforeClass
+    public static void createRepository() throws Exception {
+        assumeTrue("PATH 中没有 git", NativeGitDiffEngine.isGitAvailable());
+        workTree = folder.newFolder("repo");
+        git = Git.init().setDirectory(workTree).call();
+
+        for (int i = 0; i < SOURCE_FILES; i++) {
+            write(sourcePath(i), javaSource(i, "return " + i + ";"));
+        }
+        for (int i = 0; i < VENDOR_FILES; i++) {
+            write("web/node_modules/lib" + i + "/index.js", "module.exports = " + i + ";\n");
+        }
+        write("web/package-lock.json", "{\n  \"lockfileVersion\": 1\n}\n");
+        write("web/dist/app.min.js", "var a=1;\n");
+        write("docs/grow.txt", "small\n");
+        write("docs/rename-me.txt", lines("unchanged rename", 20));
+        write("docs/rename-edit.txt", lines("edited rename", 20));
+        write("docs/delete-me.txt", "bye\n");
+        write("target/classes/Generated.java", "class Generated {}\n");
+        base = commit("base");
+
+        for (int i = 0; i < SOURCE_FILES; i += 3) {
+            write(sourcePath(i), javaSource(i, "return " + (i + 1) + ";"));
+        }
+        for (int i = 0; i < VENDOR_FILES; i++) {
+            write("web/node_modules/lib" + i + "/index.js", "module.exports = " + (i + 1) + ";\n");
+        }
+        write("web/package-lock.json", "{\n  \"lockfileVersion\": 2\n}\n");
+        write("web/dist/app.min.js", "var a=2;\n");
+        write("docs/grow.txt", lines("a line that makes the file oversized", LARGE_FILE_SIZE / 37 + 1));
+        write("docs/large-new.txt", lines("another oversized file", LARGE_FILE_SIZE / 23 + 1));
+        writeBytes("assets/logo.png", new byte[]{(byte) 0x89, 'P', 'N', 'G', 0, 0, 0, 13, 0, 1, 2});
+        write("assets/video.mp4", "version https://git-lfs.github.com/spec/v1\n"
+                + "oid sha256:4d7a214614ab2935c943f9e0ff69d22eadbb8f32b1258daaa5e2ca24d17e2393\nsize 12345678\n");
+        move("docs/rename-me.txt", "docs/renamed.txt");
+        move("docs/rename-edit.txt", "docs/renamed-edit.txt");
+        write("docs/renamed-edit.txt", lines("edited rename", 20).replace("edited rename 10", "changed line"));
+        git.rm().addFilepattern("docs/delete-me.txt").call();
+        // git 与 JGit 都会把含双引号的路径写成 C 风格的带引号路径
+        write("docs/say \"hi\".txt", "quoted path\n");
+        write("target/classes/Generated.java", "class Generated { int x; }\n");
+        head = commit("head");
+    }
+
+    @AfterClass
+    public static void closeRepository() {
+        if (git != null) {
+            git.close();
+        }
+    }
+
+    @Test
+    public void defaultExcludesProduceSameFileDiffs() throws IOException {
+        List<FileDiff> expected = assertSameDiffs("默认排除规则", Collections.<String>emptyList(), DEFAULT_EXCLUDES);
+
+        List<String> paths = new ArrayList<>();
+        for (FileDiff fileDiff : expected) {
+            paths.add(fileDiff.getPath());
+        }
+        assertEquals(SOURCE_FILES / 3 + 8, expected.size());
+        for (String path : paths) {
+            assertFalse(path, path.contains("node_modules") || path.endsWith(".min.js")
+                    || path.endsWith("package-lock.json") || path.startsWith("target/"));
+        }
+        assertTrue(paths.contains("docs/say \"hi\".txt"));
+        assertTrue(header(expected, "docs/grow.txt").contains("文件过大"));
+        assertTrue(header(expected, "docs/large-new.txt").contains("文件过大"));
+        assertTrue(header(expected, "assets/logo.png").contains("二进制文件"));
+        assertTrue(header(expected, "assets/video.mp4").contains("Git LFS 指针, 实际大小 11 MB"));
+        assertTrue(header(expected, "docs/renamed.txt").startsWith("rename docs/rename-me.txt => docs/renamed.txt"));
+    }
+
+    @Test
+    public void literalIncludesMatchDirectoryPrefixes() throws IOException {
+        // 包含规则全部为普通路径时按目录前缀匹配
+        List<FileDiff> diffs = assertSameDiffs("普通路径包含规则", Arrays.asList("src/module1", "assets/logo.png"),
+                DEFAULT_EXCLUDES);
+        for (FileDiff fileDiff : diffs) {
+            String path = fileDiff.getPath();
+            assertTrue(path, path.startsWith("src/module1/") || path.equals("assets/logo.png"));
+        }
+        assertEquals(FILES_PER_MODULE / 3 + 1, diffs.size());
+    }
+
+    @Test
+    public void mixedIncludesMatchWholePaths() throws IOException {
+        // 含通配符时所有包含规则按完整路径匹配，普通路径不再匹配其下的文件
+        List<FileDiff> diffs = assertSameDiffs("混合包含规则", Arrays.asList("src/module1", "docs/*.txt"),
+                DEFAULT_EXCLUDES);
+        for (FileDiff fileDiff : diffs) {
+            assertTrue(fileDiff.getPath(), fileDiff.getPath().startsWith("docs/"));
+        }
+        assertEquals(6, diffs.size());
+    }
+
+    @Test
+    public void globIncludesAndExcludes() throws IOException {
+        List<FileDiff> diffs = assertSameDiffs("通配符规则", Arrays.asList("**/*.java", "*.png"),
+                Arrays.asList("src/module2/**", "File1?.java"));
+        for (FileDiff fileDiff : diffs) {
+            String path = fileDiff.getPath();
+            assertTrue(path, path.endsWith(".java") || path.endsWith(".png"));
+            assertFalse(path, path.startsWith("src/module2/") || path.matches(".*/File1\\d\\.java"));
+        }
+    }
+
+    @Test
+    public void unsupportedGlobsFallBackToStreamFiltering() throws IOException {
+        // git glob 中的方括号是字符组、"**" 不独占目录时等同 "*"，这些规则只能逐个文件过滤
+        List<FileDiff> diffs = assertSameDiffs("无法下推的规则", Arrays.asList("src/module1**"),
+                Arrays.asList("[x].txt", "docs/grow.txt"));
+        for (FileDiff fileDiff : diffs) {
+            assertTrue(fileDiff.getPath(), fileDiff.getPath().startsWith("src/module1"));
+        }
+        // PathGlob 的 "**" 可以跨目录，src/module10 下的文件同样包含在内
+        header(diffs, "src/module1/File12.java");
+        header(diffs, "src/module10/File102.java");
+    }
+
+    @Test
+    public void gitOutputOmitsExcludedFilesAndOversizedContent() throws Exception {
+        GitDiffOptions options = GitDiffOptions.defaults();
+        NativeGitDiffEngine engine = new NativeGitDiffEngine(Collections.<String>emptyList(), DEFAULT_EXCLUDES,
+                options, new JGitDiffEngine(PathGlobTreeFilter.create(null, DEFAULT_EXCLUDES), options));
+        List<String> command;
+        try (RepositoryHandleCache.Handle handle = acquire()) {
+            command = engine.buildCommand(handle.getRepository(),
+                    DiffRequest.ofCommit(base.getTree(), head, "head", null));
+        }
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        process.getOutputStream().close();
+        String output;
+        try (InputStream in = process.getInputStream()) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                bytes.write(buffer, 0, read);
+            }
+            output = new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+        assertEquals(0, process.waitFor());
+
+        // 被排除的文件由 pathspec 在 git 内过滤，不会出现在输出中
+        assertFalse(output.contains("node_modules"));
+        assertFalse(output.contains("package-lock.json"));
+        assertFalse(output.contains("app.min.js"));
+        assertFalse(output.contains("target/classes"));
+        // 超过大小上限的文件只输出一行二进制说明，不输出完整内容
+        assertTrue(output.contains("Binary files a/docs/grow.txt and b/docs/grow.txt differ"));
+        assertTrue(output.contains("Binary files /dev/null and b/docs/large-new.txt differ"));
+        assertTrue(output.length() < LARGE_FILE_SIZE / 4);
+    }
+
+    @Test
+    public void pathspecsMirrorPathGlobSemantics() {
+        assertEquals(Arrays.asList(":(top,glob)**/*.java", ":(top,glob)**/*.java/**",
+                        ":(top,glob)src/main",
+                        ":(top,exclude,glob)**/node_modules", ":(top,exclude,glob)**/node_modules/**",
+                        ":(top,exclude,glob)target/**",
+                        ":(top,exclude,glob)**/target/**"),
+                NativeGitDiffEngine.toPathspecs(PathGlob.compileAll(Arrays.asList("*.java", "src/main")),
+                        PathGlob.compileAll(Arrays.asList("node_modules", "target/", "**/target/**"))));
+        // 普通路径的排除规则在 git 中会连带排除同名目录下的文件，比 PathGlob 范围大，不下推
+        assertEquals(Collections.<String>emptyList(), NativeGitDiffEngine.toPathspecs(
+                Collections.<PathGlob>emptyList(), PathGlob.compileAll(Collections.singletonList("src/Gen.java"))));
+        // 任一包含规则无法表达时不下推包含规则，否则会漏掉该规则匹配的文件
+        assertEquals(Arrays.asList(":(top,exclude,glob)**/*.lock", ":(top,exclude,glob)**/*.lock/**"), NativeGitDiffEngine.toPathspecs(
+                PathGlob.compileAll(Arrays.asList("*.java", "src/[a]/**")),
+                PathGlob.compileAll(Arrays.asList("*.lock", "a**b"))));
+    }
+
+    /**
+     * 用两个引擎计算同一差异并比较结果
+     */
+    private static List<FileDiff> assertSameDiffs(String name, List<String> includes, List<String> excludes)
+            throws IOException {
+        GitDiffOptions options = GitDiffOptions.defaults();
+        DiffEngine jgit = new JGitDiffEngine(PathGlobTreeFilter.create(includes, excludes), options);
+        DiffEngine nativeGit = new NativeGitDiffEngine(includes, excludes, options, jgit);
+
+        List<FileDiff> expected = collect(jgit);
+        List<FileDiff> actual = collect(nativeGit);
+
+        assertEquals(name, expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            FileDiff jgitDiff = expected.get(i);
+            FileDiff nativeDiff = actual.get(i);
+            assertEquals(jgitDiff.getPath(), jgitDiff.getHeader(), nativeDiff.getHeader());
+            assertEquals(jgitDiff.getPath(), jgitDiff.getHunks(), nativeDiff.getHunks());
+            assertEquals(jgitDiff.getPath(), jgitDiff, nativeDiff);
+        }
+        return expected;
+    }
+
+    private static List<FileDiff> collect(DiffEngine engine) throws IOException {
+        List<FileDiff> fileDiffs = new ArrayList<>();
+        try (CodeChangeStream stream = engine.open(acquire(), DiffRequest.ofCommit(base.getTree(), head, "head", null))) {
+            while (stream.hasNext()) {
+                fileDiffs.add(stream.next());
+            }
+        }
+        return fileDiffs;
+    }
+
+    private static RepositoryHandleCache.Handle acquire() throws IOException {
+        return RepositoryHandleCache.getInstance()
+                .acquire(new FileRepositoryBuilder().setGitDir(new File(workTree, ".git")), 0);
+    }
+
+    private static String header(List<FileDiff> fileDiffs, String path) {
+        for (FileDiff fileDiff : fileDiffs) {
+            if (path.equals(fileDiff.getPath())) {
+                return fileDiff.getHeader();
+            }
+        }
+        throw new AssertionError("缺少文件差异: " + path);
+    }
+
+    private static String sourcePath(int index) {
+        return "src/module" + (index / FILES_PER_MODULE) + "/File" + index + ".java";
+    }
+
+    private static String javaSource(int index, String body) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("package module").append(index / FILES_PER_MODULE).append(";\n\n");
+        sb.append("public class File").append(index).append(" {\n");
+        for (int i = 0; i < 20; i++) {
+            sb.append("    int field").append(i).append(" = ").append(i).append(";\n");
+        }
+        sb.append("\n    int value() {\n        ").append(body).append("\n    }\n}\n");
+        return sb.toString();
+    }
+
+    private static String lines(String text, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(text).append(' ').append(i).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void write(String path, String content) throws IOException {
+        writeBytes(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeBytes(String path, byte[] content) throws IOException {
+        File file = new File(workTree, path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content);
+    }
+
+    private static void move(String from, String to) throws Exception {
+        Files.move(new File(workTree, from).toPath(), new File(workTree, to).toPath());
+        git.rm().addFilepattern(from).call();
+    }
+
+    private static RevCommit commit(String message) throws Exception {
+        git.add().addFilepattern(".").call();
+        return git.commit().setMessage(message).setAuthor("tester", "tester@example.com")
+                .setCommitter("tester", "tester@example.com").call();
+    }
+}
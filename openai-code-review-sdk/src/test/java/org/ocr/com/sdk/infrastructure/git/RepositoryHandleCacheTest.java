@@ -0,0 +1,67 @@
+package org.ocr.com.sdk.infrastructure.git;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * {@link RepositoryHandleCache} 单元测试
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class RepositoryHandleCacheTest {
+
+    private static final long CACHED_MILLIS = 300_000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static RepositoryHandleCache.Handle acquire(File gitDir, long idleTimeoutMillis) throws IOException {
+        return RepositoryHandleCache.getInstance().acquire(new FileRepositoryBuilder().setGitDir(gitDir),
+                idleTimeoutMillis);
+    }
+
+    private File createRepository() throws Exception {
+        try (Git git = Git.init().setDirectory(folder.newFolder()).call()) {
+            return git.getRepository().getDirectory();
+        }
+    }
+
+    @Test
+    public void uncachedCallerDoesNotCloseCachedHandle() throws Exception {
+        File gitDir = createRepository();
+        Repository cached;
+        try (RepositoryHandleCache.Handle handle = acquire(gitDir, CACHED_MILLIS)) {
+            cached = handle.getRepository();
+        }
+        // 空闲超时为 0 的调用方归还后，缓存的句柄仍然保留
+        try (RepositoryHandleCache.Handle handle = acquire(gitDir, 0)) {
+            assertSame(cached, handle.getRepository());
+        }
+        try (RepositoryHandleCache.Handle handle = acquire(gitDir, 0)) {
+            assertSame(cached, handle.getRepository());
+        }
+    }
+
+    @Test
+    public void uncachedHandleIsClosedOnRelease() throws Exception {
+        File gitDir = createRepository();
+        Repository first;
+        try (RepositoryHandleCache.Handle handle = acquire(gitDir, 0)) {
+            first = handle.getRepository();
+        }
+        try (RepositoryHandleCache.Handle handle = acquire(gitDir, 0)) {
+            assertNotSame(first, handle.getRepository());
+        }
+    }
+}
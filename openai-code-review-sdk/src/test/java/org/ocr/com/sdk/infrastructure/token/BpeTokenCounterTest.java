@@ -0,0 +1,214 @@
+package org.ocr.com.sdk.infrastructure.token;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link BpeTokenCounter} 单元测试
+ * 测试词表 {@code token/mini.tiktoken} 含 256 个单字节词与少量合并词（he、ll、hell、hello、 world、's、'll、12、123、
+ * “中”、“😀”、U+FFFD 及其前缀、2 个与 4 个空格），期望值与按 tiktoken 算法实现的参考程序一致
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class BpeTokenCounterTest {
+
+    private static BpeTokenCounter cl100k;
+    private static BpeTokenCounter qwen;
+
+    @BeforeClass
+    public static void loadVocabulary() throws IOException {
+        cl100k = load(BpeTokenCounter.CL100K_PATTERN);
+        qwen = load(BpeTokenCounter.QWEN_PATTERN);
+    }
+
+    private static BpeTokenCounter load(String pattern) throws IOException {
+        try (InputStream in = BpeTokenCounterTest.class.getResourceAsStream("/token/mini.tiktoken")) {
+            return BpeTokenCounter.load(in, pattern);
+        }
+    }
+
+    private static BpeTokenCounter loadText(String vocabulary) throws IOException {
+        return BpeTokenCounter.load(new ByteArrayInputStream(vocabulary.getBytes(StandardCharsets.US_ASCII)),
+                BpeTokenCounter.CL100K_PATTERN);
+    }
+
+    private static String repeat(String text, int times) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            sb.append(text);
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void loadsEveryVocabularyLine() {
+        assertEquals(278, cl100k.getVocabularySize());
+    }
+
+    @Test
+    public void emptyTextHasNoTokens() {
+        assertEquals(0, cl100k.count(null));
+        assertEquals(0, cl100k.count(""));
+    }
+
+    // ASCII
+
+    @Test
+    public void wholeWordsInVocabularyAreSingleTokens() {
+        assertEquals(1, cl100k.count("hello"));
+        assertEquals(2, cl100k.count("hello world"));
+    }
+
+    @Test
+    public void pieceNeedingSeveralMerges() {
+        // h e l l o s -> he l l o s -> he ll o s -> hell o s -> hello s
+        assertEquals(2, cl100k.count("hellos"));
+        // s h e l l -> s he l l -> s he ll -> s hell
+        assertEquals(2, cl100k.count("shell"));
+    }
+
+    @Test
+    public void mergesAreCaseSensitive() {
+        // H e ll o：没有 He、ell 等合并
+        assertEquals(4, cl100k.count("Hello"));
+    }
+
+    @Test
+    public void whitespaceRunsMergeIntoVocabularyTokens() {
+        assertEquals(1, cl100k.count("    "));
+        assertEquals(2, cl100k.count("      "));
+    }
+
+    // 缩写
+
+    @Test
+    public void contractionsAreSplitBeforeMerging() {
+        // it + 's、we + 'll
+        assertEquals(3, cl100k.count("it's"));
+        assertEquals(3, cl100k.count("we'll"));
+        assertEquals(3, qwen.count("we'll"));
+    }
+
+    // 数字
+
+    @Test
+    public void cl100kGroupsDigitsByThree() {
+        // 123 + 4 5
+        assertEquals(3, cl100k.count("12345"));
+        assertEquals(1, cl100k.count("123"));
+    }
+
+    @Test
+    public void qwenSplitsEveryDigit() {
+        assertEquals(5, qwen.count("12345"));
+        assertEquals(3, qwen.count("123"));
+    }
+
+    // 非 ASCII
+
+    @Test
+    public void cjkCharactersAreMergedFromUtf8Bytes() {
+        // “中”为一个词，“文”的三个字节没有合并
+        assertEquals(4, cl100k.count("中文"));
+        assertEquals(1, cl100k.count("中"));
+    }
+
+    @Test
+    public void surrogatePairIsEncodedAsOneCodePoint() {
+        assertEquals(1, cl100k.count("😀"));
+        assertEquals(2, cl100k.count("😀😀"));
+    }
+
+    @Test
+    public void loneSurrogatesAreEncodedAsReplacementCharacter() {
+        assertEquals(1, cl100k.count("\uFFFD"));
+        assertEquals(1, cl100k.count("\uD83D"));
+        assertEquals(1, cl100k.count("\uDE00"));
+        assertEquals(2, cl100k.count("\uD83Da"));
+        // 顺序颠倒的代理对不构成字符
+        assertEquals(2, cl100k.count("\uDE00\uD83D"));
+    }
+
+    // 超长的段
+
+    @Test
+    public void longPiecesSplitOnCharacterBoundaries() {
+        // 切口不落在多字节字符中间，结果与整段合并一致
+        assertEquals(1000, cl100k.count(repeat("中", 1000)));
+        assertEquals(2500, cl100k.count(repeat(" ", 10000)));
+    }
+
+    @Test
+    public void longPiecesOnlyAddTokensAtCuts() {
+        int words = 1000;
+        int cuts = words * 5 / BpeTokenCounter.MAX_PIECE_BYTES + 1;
+        int tokens = cl100k.count(repeat("hello", words));
+        assertTrue(tokens >= words);
+        assertTrue(tokens <= words + 2 * cuts);
+    }
+
+    @Test(timeout = 10000)
+    public void megabytePieceIsCountedInLinearTime() {
+        // 每个 hello 需要四次合并，整段合并时为平方级耗时
+        int words = 200000;
+        int tokens = cl100k.count(repeat("hello", words));
+        assertTrue(tokens >= words);
+        assertTrue(tokens <= words + 2 * (words * 5 / BpeTokenCounter.MAX_PIECE_BYTES + 1));
+    }
+
+    // 词表格式
+
+    @Test
+    public void blankLinesAreSkipped() throws IOException {
+        assertEquals(2, loadText("YQ== 0\n\nYg== 1\n").getVocabularySize());
+    }
+
+    @Test
+    public void missingRankIsRejected() {
+        assertInvalid("YQ== 0\naGVsbG8=\n", "第 2 行");
+    }
+
+    @Test
+    public void nonNumericRankIsRejected() {
+        assertInvalid("YQ== x\n", "第 1 行");
+    }
+
+    @Test
+    public void negativeRankIsRejected() {
+        assertInvalid("YQ== -1\n", "第 1 行");
+    }
+
+    @Test
+    public void invalidBase64IsRejected() {
+        assertInvalid("YQ== 0\n!!! 1\n", "第 2 行");
+    }
+
+    @Test
+    public void emptyTokenIsRejected() {
+        assertInvalid(" 5\n", "第 1 行");
+    }
+
+    @Test
+    public void emptyVocabularyIsRejected() {
+        assertInvalid("\n\n", "词表为空");
+    }
+
+    private static void assertInvalid(String vocabulary, String message) {
+        try {
+            loadText(vocabulary);
+            fail("应拒绝无效词表");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(message));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.ocr.com.sdk.infrastructure.token;
+
+import org.junit.Test;
+import org.ocr.com.sdk.config.CodeReviewConfig;
+import org.ocr.com.sdk.domain.service.TokenCounter;
+import org.ocr.com.sdk.exception.ConfigException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link TokenCounterFactory} 单元测试
+ *
+ * @author SDK Team
+ * @since 1.0
+ */
+public class TokenCounterFactoryTest {
+
+    private static CodeReviewConfig config(String vocabulary) {
+        return CodeReviewConfig.builder().apiKey("test-key").tokenizerVocab(vocabulary).build();
+    }
+
+    @Test
+    public void bundledVocabularyIsTheDefault() {
+        TokenCounter counter = TokenCounterFactory.createTokenCounter(config(null));
+
+        assertTrue(counter.getClass().getName(), counter instanceof BpeTokenCounter);
+        assertEquals(100256, ((BpeTokenCounter) counter).getVocabularySize());
+        // 与 tiktoken 的 cl100k_base 编码结果一致
+        assertEquals(2, counter.count("hello world"));
+        assertEquals(4, counter.count("Hello, world!"));
+        assertEquals(6, counter.count("tiktoken is great!"));
+    }
+
+    @Test
+    public void loadedVocabularyIsShared() {
+        assertSame(TokenCounterFactory.createTokenCounter(config(null)),
+                TokenCounterFactory.createTokenCounter(config("classpath:tokenizer/cl100k_base.tiktoken")));
+    }
+
+    @Test
+    public void configuredVocabularyFromClasspath() {
+        TokenCounter counter = TokenCounterFactory.createTokenCounter(config("classpath:/token/mini.tiktoken"));
+        assertEquals(278, ((BpeTokenCounter) counter).getVocabularySize());
+    }
+
+    @Test(expected = ConfigException.class)
+    public void missingConfiguredVocabularyIsAnError() {
+        TokenCounterFactory.createTokenCounter(config("/nonexistent/cl100k_base.tiktoken"));
+    }
+}